@@ -15,7 +15,7 @@
 
 /*
  * JsonToSpectrum.java
- * Copyright (C) 2018-2022 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.conversion;
@@ -23,10 +23,8 @@ package adams.data.conversion;
 import adams.core.io.FileUtils;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumJsonUtils;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
-import java.io.BufferedReader;
 import java.io.StringReader;
 
 /**
@@ -122,22 +120,19 @@ public class JsonToSpectrum
   protected Object doConvert() throws Exception {
     Spectrum 		result;
     String 		input;
-    BufferedReader 	breader;
-    JsonParser 		jp;
-    JsonElement 	je;
+    JsonReader		reader;
 
-    input   = (String) m_Input;
-    breader = null;
+    input  = (String) m_Input;
+    reader = null;
     try {
-      breader = new BufferedReader(new StringReader(input));
-      je = JsonParser.parseReader(breader);
-      result = SpectrumJsonUtils.fromJson(je.getAsJsonObject());
+      reader = new JsonReader(new StringReader(input));
+      result = SpectrumJsonUtils.read(reader);
     }
     catch (Exception e) {
       result = null;
     }
     finally {
-      FileUtils.closeQuietly(breader);
+      FileUtils.closeQuietly(reader);
     }
 
     return result;
@@ -15,7 +15,7 @@
 
 /*
  * SpectrumToJson.java
- * Copyright (C) 2018-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.conversion;
@@ -25,9 +25,9 @@ import adams.core.io.PrettyPrintingSupporter;
 import adams.data.report.Field;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumJsonUtils;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.StringWriter;
 
 /**
  <!-- globalinfo-start -->
@@ -316,18 +316,17 @@ public class SpectrumToJson
    */
   @Override
   protected Object doConvert() throws Exception {
-    GsonBuilder		builder;
-    Gson 		gson;
-    JsonObject		jobj;
+    StringWriter	writer;
+    JsonWriter		jwriter;
 
+    writer  = new StringWriter();
+    jwriter = SpectrumJsonUtils.newJsonWriter(writer, m_PrettyPrinting);
     if (m_UseReferenceAndMetaData)
-      jobj = SpectrumJsonUtils.toJson((Spectrum) m_Input, m_ReferenceValues, m_MetaDataValues);
+      SpectrumJsonUtils.write(jwriter, (Spectrum) m_Input, m_ReferenceValues, m_MetaDataValues);
     else
-      jobj = SpectrumJsonUtils.toJson((Spectrum) m_Input);
-    builder = new GsonBuilder();
-    if (m_PrettyPrinting)
-      builder.setPrettyPrinting();
-    gson = builder.create();
-    return gson.toJson(jobj);
+      SpectrumJsonUtils.write(jwriter, (Spectrum) m_Input);
+    jwriter.flush();
+
+    return writer.toString();
   }
 }
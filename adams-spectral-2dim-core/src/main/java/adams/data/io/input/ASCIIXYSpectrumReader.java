@@ -15,12 +15,11 @@
 
 /*
  * ASCIIXYSpectrumReader.java
- * Copyright (C) 2016-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
-import adams.core.io.FileUtils;
 import adams.data.io.input.sampleidextraction.Filename;
 import adams.data.io.input.sampleidextraction.SampleIDExtraction;
 import adams.data.spectrum.Spectrum;
@@ -215,6 +214,17 @@ public class ASCIIXYSpectrumReader
       "The scheme for extracting the sample ID from the filename.";
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -232,7 +242,7 @@ public class ASCIIXYSpectrumReader
       m_ReadData.add(sp);
 
       // read data
-      content = FileUtils.loadFromFile(m_Input);
+      content = loadTextContent();
 
       // data points
       while (content.size() > 0) {
@@ -15,13 +15,12 @@
 
 /*
  * ASCSpectrumReader.java
- * Copyright (C) 2009-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
 import adams.core.Utils;
-import adams.core.io.FileUtils;
 import adams.core.management.LocaleHelper;
 import adams.core.management.LocaleSupporter;
 import adams.data.sampledata.SampleData;
@@ -351,6 +350,17 @@ public class ASCSpectrumReader
     return result;
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -364,7 +374,7 @@ public class ASCSpectrumReader
 
     sp = new Spectrum();
     pf = new ParsedFile();
-    pf.parse(Utils.flatten(FileUtils.loadFromFile(m_Input), "\n"));
+    pf.parse(Utils.flatten(loadTextContent(), "\n"));
 
     // NIR array
     nir = pf.getNIRArray();
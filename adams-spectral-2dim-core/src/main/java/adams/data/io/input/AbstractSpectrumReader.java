@@ -15,7 +15,7 @@
 
 /*
  * AbstractSpectrumReader.java
- * Copyright (C) 2009-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
@@ -24,6 +24,7 @@ import adams.core.ClassLister;
 import adams.core.DateFormat;
 import adams.core.DateUtils;
 import adams.core.Stoppable;
+import adams.core.io.FileUtils;
 import adams.core.io.PlaceholderDirectory;
 import adams.core.io.PlaceholderFile;
 import adams.core.logging.LoggingHelper;
@@ -36,6 +37,15 @@ import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
 import adams.env.Environment;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Level;
@@ -70,6 +80,12 @@ public abstract class AbstractSpectrumReader
   /** whether reading was stopped. */
   protected boolean m_Stopped;
 
+  /** the in-memory content to read instead of the input file (null if reading from file). */
+  protected transient byte[] m_InputContent;
+
+  /** whether to read only the meta-data (sample ID, report), but no data points. */
+  protected transient boolean m_HeaderOnly;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -257,11 +273,222 @@ public abstract class AbstractSpectrumReader
    */
   @Override
   protected void checkData() {
-    super.checkData();
+    // in-memory content does not require the input file to exist
+    if (m_InputContent == null)
+      super.checkData();
 
     m_Stopped = false;
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file. Readers that support this must
+   * access the data via {@link #openInputStream()}, {@link #loadBinaryContent()}
+   * or {@link #loadTextContent()}.
+   *
+   * @return		true if in-memory reading is supported
+   * @see		#read(String, byte[])
+   * @see		#read(String, InputStream)
+   */
+  public boolean supportsInMemoryReading() {
+    return false;
+  }
+
+  /**
+   * Reads the spectra from the given in-memory content. The name is used in
+   * place of the input file, e.g., for determining sample IDs.
+   *
+   * @param name	the name of the content (eg zip entry name)
+   * @param content	the raw content to read
+   * @return		the spectra, null if failed to read
+   * @see		#supportsInMemoryReading()
+   */
+  public List<Spectrum> read(String name, byte[] content) {
+    PlaceholderFile	input;
+
+    if (!supportsInMemoryReading())
+      throw new IllegalStateException(getClass().getName() + " does not support in-memory reading!");
+
+    input = m_Input;
+    try {
+      m_Input        = new PlaceholderFile(name);
+      m_InputContent = content;
+      return read();
+    }
+    finally {
+      m_Input        = input;
+      m_InputContent = null;
+    }
+  }
+
+  /**
+   * Reads the spectra from the given stream. The stream is read completely,
+   * but not closed. The name is used in place of the input file, e.g., for
+   * determining sample IDs.
+   *
+   * @param name	the name of the content (eg zip entry name)
+   * @param stream	the stream to read from
+   * @return		the spectra, null if failed to read
+   * @throws IOException	if reading from the stream fails
+   * @see		#supportsInMemoryReading()
+   */
+  public List<Spectrum> read(String name, InputStream stream) throws IOException {
+    return read(name, toByteArray(stream, 8192));
+  }
+
+  /**
+   * Returns whether the reader can read just the meta-data (sample ID, report)
+   * without parsing the spectral data points. Readers that support this
+   * check {@link #m_HeaderOnly} in their <code>readData()</code> method.
+   *
+   * @return		true if header-only reading is supported
+   * @see		#readHeaders()
+   */
+  public boolean supportsHeaderOnlyReading() {
+    return false;
+  }
+
+  /**
+   * Reads only the meta-data of the spectra, i.e., sample ID and report, but
+   * no data points. Readers that don't support header-only reading parse
+   * the complete data and the data points get removed afterwards.
+   *
+   * @return		the spectra without data points, null if failed to read
+   * @see		#supportsHeaderOnlyReading()
+   */
+  public List<Spectrum> readHeaders() {
+    List<Spectrum>	result;
+
+    m_HeaderOnly = true;
+    try {
+      result = read();
+    }
+    finally {
+      m_HeaderOnly = false;
+    }
+
+    if ((result != null) && !supportsHeaderOnlyReading()) {
+      for (Spectrum sp: result)
+	sp.clear();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the first bytes of the data to read, either from memory or the
+   * input file. Only the requested number of bytes get read from the file.
+   *
+   * @param length	the maximum number of bytes to read
+   * @return		the data, can be shorter than requested; null if failed to load
+   */
+  protected byte[] loadBinaryHeader(int length) {
+    byte[]		result;
+    InputStream		stream;
+    int			read;
+    int			len;
+
+    if (m_InputContent != null) {
+      if (m_InputContent.length <= length)
+	return m_InputContent;
+      else
+	return Arrays.copyOf(m_InputContent, length);
+    }
+
+    stream = null;
+    try {
+      stream = openInputStream();
+      result = new byte[length];
+      read   = 0;
+      while ((read < length) && ((len = stream.read(result, read, length - read)) != -1))
+	read += len;
+      if (read < length)
+	result = Arrays.copyOf(result, read);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read header bytes from '" + m_Input + "'!", e);
+      result = null;
+    }
+    finally {
+      FileUtils.closeQuietly(stream);
+    }
+
+    return result;
+  }
+
+  /**
+   * Opens a stream for the data to read, either from memory or the input file.
+   *
+   * @return		the stream, needs to be closed by the caller
+   * @throws IOException	if opening of the input file fails
+   */
+  protected InputStream openInputStream() throws IOException {
+    if (m_InputContent != null)
+      return new ByteArrayInputStream(m_InputContent);
+    else
+      return new FileInputStream(m_Input.getAbsoluteFile());
+  }
+
+  /**
+   * Returns the raw data to read, either from memory or the input file.
+   *
+   * @return		the data, null if failed to load
+   */
+  protected byte[] loadBinaryContent() {
+    if (m_InputContent != null)
+      return m_InputContent;
+    else
+      return FileUtils.loadFromBinaryFile(m_Input.getAbsoluteFile());
+  }
+
+  /**
+   * Returns the lines of the data to read, either from memory or the input file.
+   *
+   * @return		the lines, null if failed to load
+   */
+  protected List<String> loadTextContent() {
+    List<String>	result;
+    BufferedReader	reader;
+    String		line;
+
+    if (m_InputContent == null)
+      return FileUtils.loadFromFile(m_Input.getAbsoluteFile());
+
+    result = new ArrayList<>();
+    reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(m_InputContent)));
+    try {
+      while ((line = reader.readLine()) != null)
+        result.add(line);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read lines from '" + m_Input + "'!", e);
+      result = null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the stream completely into a byte array. Does not close the stream.
+   *
+   * @param stream	the stream to read
+   * @param bufferSize	the size of the buffer to use
+   * @return		the content
+   * @throws IOException	if reading fails
+   */
+  public static byte[] toByteArray(InputStream stream, int bufferSize) throws IOException {
+    ByteArrayOutputStream	out;
+    byte[]			buffer;
+    int				len;
+
+    out    = new ByteArrayOutputStream();
+    buffer = new byte[bufferSize];
+    while ((len = stream.read(buffer)) != -1)
+      out.write(buffer, 0, len);
+
+    return out.toByteArray();
+  }
+
   /**
    * Creates a dummy report.
    *
@@ -0,0 +1,223 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinarySpectrumReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.io.input;
+
+import adams.core.base.BaseString;
+import adams.core.io.FileUtils;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
+import adams.env.Environment;
+
+import java.io.RandomAccessFile;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Reads spectra in the native binary format (.specb).<br>
+ * Specific spectra can be retrieved via their sample IDs, using the index stored in the file for random access.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-input &lt;adams.core.io.PlaceholderFile&gt; (property: input)
+ * &nbsp;&nbsp;&nbsp;The file to read and turn into a container.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-create-dummy-report &lt;boolean&gt; (property: createDummyReport)
+ * &nbsp;&nbsp;&nbsp;If true, then a dummy report is created if none present.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-instrument &lt;java.lang.String&gt; (property: instrument)
+ * &nbsp;&nbsp;&nbsp;The name of the instrument that generated the spectra (if not already present
+ * &nbsp;&nbsp;&nbsp;in data).
+ * &nbsp;&nbsp;&nbsp;default: unknown
+ * </pre>
+ *
+ * <pre>-format &lt;java.lang.String&gt; (property: format)
+ * &nbsp;&nbsp;&nbsp;The data format string.
+ * &nbsp;&nbsp;&nbsp;default: NIR
+ * </pre>
+ *
+ * <pre>-keep-format &lt;boolean&gt; (property: keepFormat)
+ * &nbsp;&nbsp;&nbsp;If enabled the format obtained from the file is not replaced by the format
+ * &nbsp;&nbsp;&nbsp;defined here.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-use-absolute-source &lt;boolean&gt; (property: useAbsoluteSource)
+ * &nbsp;&nbsp;&nbsp;If enabled the source report field stores the absolute file name rather
+ * &nbsp;&nbsp;&nbsp;than just the name.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-sample-id &lt;adams.core.base.BaseString&gt; [-sample-id ...] (property: sampleIDs)
+ * &nbsp;&nbsp;&nbsp;The sample IDs of the spectra to retrieve; reads all spectra if none specified.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class BinarySpectrumReader
+  extends AbstractSpectrumReader {
+
+  private static final long serialVersionUID = 3818414094357327614L;
+
+  /** the sample IDs to retrieve. */
+  protected BaseString[] m_SampleIDs;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Reads spectra in the native binary format (." + SpectrumBinaryUtils.FILE_EXTENSION + ").\n"
+	+ "Specific spectra can be retrieved via their sample IDs, using the "
+	+ "index stored in the file for random access.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "sample-id", "sampleIDs",
+      new BaseString[0]);
+  }
+
+  /**
+   * Sets the sample IDs of the spectra to retrieve.
+   *
+   * @param value	the IDs, all spectra if empty
+   */
+  public void setSampleIDs(BaseString[] value) {
+    m_SampleIDs = value;
+    reset();
+  }
+
+  /**
+   * Returns the sample IDs of the spectra to retrieve.
+   *
+   * @return		the IDs, all spectra if empty
+   */
+  public BaseString[] getSampleIDs() {
+    return m_SampleIDs;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String sampleIDsTipText() {
+    return "The sample IDs of the spectra to retrieve; reads all spectra if none specified.";
+  }
+
+  /**
+   * Returns a string describing the format (used in the file chooser).
+   *
+   * @return 			a description suitable for displaying in the
+   * 				file chooser
+   */
+  @Override
+  public String getFormatDescription() {
+    return "Binary spectrum format";
+  }
+
+  /**
+   * Returns the extension(s) of the format.
+   *
+   * @return 			the extension (without the dot!)
+   */
+  @Override
+  public String[] getFormatExtensions() {
+    return new String[]{SpectrumBinaryUtils.FILE_EXTENSION};
+  }
+
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    RandomAccessFile		file;
+    SpectrumBinaryUtils.Reader	reader;
+    Spectrum			spec;
+    int				i;
+
+    file = null;
+    try {
+      file   = new RandomAccessFile(m_Input.getAbsoluteFile(), "r");
+      reader = new SpectrumBinaryUtils.Reader(file);
+      if (m_SampleIDs.length == 0) {
+	for (i = 0; i < reader.getIndex().size(); i++) {
+	  if (m_Stopped)
+	    break;
+	  m_ReadData.add(reader.read(i));
+	}
+      }
+      else {
+	for (BaseString id: m_SampleIDs) {
+	  if (m_Stopped)
+	    break;
+	  spec = reader.read(id.getValue());
+	  if (spec != null)
+	    m_ReadData.add(spec);
+	  else
+	    getLogger().warning("Sample ID not found: " + id);
+	}
+      }
+    }
+    catch (Exception e) {
+      m_ReadData.clear();
+      getLogger().log(Level.SEVERE, "Failed to read from: " + m_Input, e);
+    }
+    finally {
+      FileUtils.closeQuietly(file);
+    }
+  }
+
+  /**
+   * Runs the reader from the command-line.
+   *
+   * If the option {@link #OPTION_OUTPUTDIR} is specified then the read spectra
+   * get output as .spec files in that directory.
+   *
+   * @param args	the command-line options to use
+   */
+  public static void main(String[] args) {
+    runReader(Environment.class, BinarySpectrumReader.class, args);
+  }
+}
@@ -15,13 +15,12 @@
 
 /*
  * CALSpectrumReader.java
- * Copyright (C) 2009-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
 import adams.core.IEEE754;
-import adams.core.io.FileUtils;
 import adams.data.io.input.foss.FossHelper;
 import adams.data.io.input.foss.FossHelper.FossFields;
 import adams.data.report.DataType;
@@ -285,12 +284,23 @@ public class CALSpectrumReader
     return(sample_type);
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
   protected void readData() {
 
-    FossHelper fh=new FossHelper(FileUtils.loadFromBinaryFile(m_Input.getAbsoluteFile()));
+    FossHelper fh=new FossHelper(loadBinaryContent());
 
     fh.processHeader();
     Vector<String> v=fh.getReferenceNames();
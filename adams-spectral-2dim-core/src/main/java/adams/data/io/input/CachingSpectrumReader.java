@@ -0,0 +1,815 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CachingSpectrumReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.io.input;
+
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderDirectory;
+import adams.core.option.OptionUtils;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
+import adams.data.spectrum.SpectrumBinaryUtils.Compression;
+import adams.env.Environment;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Caches the spectra read by the base reader in the cache directory, using the native binary format (.specb).<br>
+ * Cache entries are keyed by the absolute path of the file and the setup of the base reader. An entry is used if the size and modification time of the file are unchanged. If only the modification time differs (or content verification is enabled), the content hash (SHA-256) of the file decides whether the entry is still valid.<br>
+ * Once the cache exceeds the maximum size, the least recently used entries get removed.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-input &lt;adams.core.io.PlaceholderFile&gt; (property: input)
+ * &nbsp;&nbsp;&nbsp;The file to read and turn into a container.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-create-dummy-report &lt;boolean&gt; (property: createDummyReport)
+ * &nbsp;&nbsp;&nbsp;If true, then a dummy report is created if none present.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-instrument &lt;java.lang.String&gt; (property: instrument)
+ * &nbsp;&nbsp;&nbsp;The name of the instrument that generated the spectra (if not already present
+ * &nbsp;&nbsp;&nbsp;in data).
+ * &nbsp;&nbsp;&nbsp;default: unknown
+ * </pre>
+ *
+ * <pre>-format &lt;java.lang.String&gt; (property: format)
+ * &nbsp;&nbsp;&nbsp;The data format string.
+ * &nbsp;&nbsp;&nbsp;default: NIR
+ * </pre>
+ *
+ * <pre>-keep-format &lt;boolean&gt; (property: keepFormat)
+ * &nbsp;&nbsp;&nbsp;If enabled the format obtained from the file is not replaced by the format
+ * &nbsp;&nbsp;&nbsp;defined here.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-use-absolute-source &lt;boolean&gt; (property: useAbsoluteSource)
+ * &nbsp;&nbsp;&nbsp;If enabled the source report field stores the absolute file name rather
+ * &nbsp;&nbsp;&nbsp;than just the name.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-reader &lt;adams.data.io.input.AbstractSpectrumReader&gt; (property: reader)
+ * &nbsp;&nbsp;&nbsp;The base reader to use for files that are not cached (yet).
+ * &nbsp;&nbsp;&nbsp;default: adams.data.io.input.SimpleSpectrumReader
+ * </pre>
+ *
+ * <pre>-cache-dir &lt;adams.core.io.PlaceholderDirectory&gt; (property: cacheDir)
+ * &nbsp;&nbsp;&nbsp;The directory for storing the cached spectra; only entries created by this
+ * &nbsp;&nbsp;&nbsp;reader get removed from it.
+ * &nbsp;&nbsp;&nbsp;default: ${TMP}/spectrum-import-cache
+ * </pre>
+ *
+ * <pre>-compression &lt;NONE|GZIP|LZ4&gt; (property: compression)
+ * &nbsp;&nbsp;&nbsp;The compression to use for the cached spectra.
+ * &nbsp;&nbsp;&nbsp;default: LZ4
+ * </pre>
+ *
+ * <pre>-verify-content &lt;boolean&gt; (property: verifyContent)
+ * &nbsp;&nbsp;&nbsp;If enabled, the content hash of the file is always compared, even if size
+ * &nbsp;&nbsp;&nbsp;and modification time are unchanged.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-max-age &lt;int&gt; (property: maxAge)
+ * &nbsp;&nbsp;&nbsp;The maximum age in seconds of cache entries before the file gets parsed
+ * &nbsp;&nbsp;&nbsp;again; use -1 for no expiry.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-max-size &lt;int&gt; (property: maxSize)
+ * &nbsp;&nbsp;&nbsp;The maximum size of the cache in MB, least recently used entries get removed
+ * &nbsp;&nbsp;&nbsp;when exceeded; use -1 for no limit.
+ * &nbsp;&nbsp;&nbsp;default: 1024
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class CachingSpectrumReader
+  extends AbstractSpectrumReader {
+
+  private static final long serialVersionUID = -2651047738419726210L;
+
+  /** the default cache directory. */
+  public final static String DEFAULT_CACHE_DIR = "${TMP}/spectrum-import-cache";
+
+  /** the extension for the meta-data files. */
+  public final static String META_EXTENSION = "meta";
+
+  /** the key for the file path. */
+  public final static String KEY_PATH = "path";
+
+  /** the key for the file size. */
+  public final static String KEY_SIZE = "size";
+
+  /** the key for the modification time. */
+  public final static String KEY_MTIME = "mtime";
+
+  /** the key for the content hash. */
+  public final static String KEY_HASH = "hash";
+
+  /** the key for the creation time of the entry. */
+  public final static String KEY_CREATED = "created";
+
+  /** the key for the reader setup. */
+  public final static String KEY_READER = "reader";
+
+  /** the base reader. */
+  protected AbstractSpectrumReader m_Reader;
+
+  /** the cache directory. */
+  protected PlaceholderDirectory m_CacheDir;
+
+  /** the compression to use. */
+  protected Compression m_Compression;
+
+  /** whether to always verify the content hash. */
+  protected boolean m_VerifyContent;
+
+  /** the maximum age in seconds. */
+  protected int m_MaxAge;
+
+  /** the maximum size of the cache in MB. */
+  protected int m_MaxSize;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Caches the spectra read by the base reader in the cache directory, "
+	+ "using the native binary format (." + SpectrumBinaryUtils.FILE_EXTENSION + ").\n"
+	+ "Cache entries are keyed by the absolute path of the file and the "
+	+ "setup of the base reader. An entry is used if the size and "
+	+ "modification time of the file are unchanged. If only the modification "
+	+ "time differs (or content verification is enabled), the content hash "
+	+ "(SHA-256) of the file decides whether the entry is still valid.\n"
+	+ "Once the cache exceeds the maximum size, the least recently used "
+	+ "entries get removed.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "reader", "reader",
+      new SimpleSpectrumReader());
+
+    m_OptionManager.add(
+      "cache-dir", "cacheDir",
+      new PlaceholderDirectory(DEFAULT_CACHE_DIR));
+
+    m_OptionManager.add(
+      "compression", "compression",
+      Compression.LZ4);
+
+    m_OptionManager.add(
+      "verify-content", "verifyContent",
+      false);
+
+    m_OptionManager.add(
+      "max-age", "maxAge",
+      -1, -1, null);
+
+    m_OptionManager.add(
+      "max-size", "maxSize",
+      1024, -1, null);
+  }
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+
+    m_InputIsFile = true;
+  }
+
+  /**
+   * Sets the base reader.
+   *
+   * @param value	the reader
+   */
+  public void setReader(AbstractSpectrumReader value) {
+    m_Reader = value;
+    reset();
+  }
+
+  /**
+   * Returns the base reader.
+   *
+   * @return		the reader
+   */
+  public AbstractSpectrumReader getReader() {
+    return m_Reader;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String readerTipText() {
+    return "The base reader to use for files that are not cached (yet).";
+  }
+
+  /**
+   * Sets the cache directory.
+   *
+   * @param value	the directory
+   */
+  public void setCacheDir(PlaceholderDirectory value) {
+    m_CacheDir = value;
+    reset();
+  }
+
+  /**
+   * Returns the cache directory.
+   *
+   * @return		the directory
+   */
+  public PlaceholderDirectory getCacheDir() {
+    return m_CacheDir;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String cacheDirTipText() {
+    return "The directory for storing the cached spectra; only entries created by this reader get removed from it.";
+  }
+
+  /**
+   * Sets the compression to use for the cached spectra.
+   *
+   * @param value	the compression
+   */
+  public void setCompression(Compression value) {
+    m_Compression = value;
+    reset();
+  }
+
+  /**
+   * Returns the compression to use for the cached spectra.
+   *
+   * @return		the compression
+   */
+  public Compression getCompression() {
+    return m_Compression;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String compressionTipText() {
+    return "The compression to use for the cached spectra.";
+  }
+
+  /**
+   * Sets whether to always verify the content hash.
+   *
+   * @param value	true if to always verify
+   */
+  public void setVerifyContent(boolean value) {
+    m_VerifyContent = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to always verify the content hash.
+   *
+   * @return		true if to always verify
+   */
+  public boolean getVerifyContent() {
+    return m_VerifyContent;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String verifyContentTipText() {
+    return "If enabled, the content hash of the file is always compared, even if size and modification time are unchanged.";
+  }
+
+  /**
+   * Sets the maximum age of cache entries.
+   *
+   * @param value	the age in seconds, -1 for no expiry
+   */
+  public void setMaxAge(int value) {
+    if (getOptionManager().isValid("maxAge", value)) {
+      m_MaxAge = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum age of cache entries.
+   *
+   * @return		the age in seconds, -1 for no expiry
+   */
+  public int getMaxAge() {
+    return m_MaxAge;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxAgeTipText() {
+    return "The maximum age in seconds of cache entries before the file gets parsed again; use -1 for no expiry.";
+  }
+
+  /**
+   * Sets the maximum size of the cache.
+   *
+   * @param value	the size in MB, -1 for no limit
+   */
+  public void setMaxSize(int value) {
+    if (getOptionManager().isValid("maxSize", value)) {
+      m_MaxSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum size of the cache.
+   *
+   * @return		the size in MB, -1 for no limit
+   */
+  public int getMaxSize() {
+    return m_MaxSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxSizeTipText() {
+    return "The maximum size of the cache in MB, least recently used entries get removed when exceeded; use -1 for no limit.";
+  }
+
+  /**
+   * Returns a string describing the format (used in the file chooser).
+   *
+   * @return 			a description suitable for displaying in the
+   * 				file chooser
+   */
+  @Override
+  public String getFormatDescription() {
+    return "Cached: " + m_Reader.getFormatDescription();
+  }
+
+  /**
+   * Returns the extension(s) of the format.
+   *
+   * @return 			the extension (without the dot!)
+   */
+  @Override
+  public String[] getFormatExtensions() {
+    return m_Reader.getFormatExtensions();
+  }
+
+  /**
+   * Turns the bytes into a hexadecimal string.
+   *
+   * @param bytes	the bytes to convert
+   * @return		the hex string
+   */
+  protected static String toHex(byte[] bytes) {
+    StringBuilder	result;
+
+    result = new StringBuilder();
+    for (byte b: bytes) {
+      result.append(Character.forDigit((b >> 4) & 0x0f, 16));
+      result.append(Character.forDigit(b & 0x0f, 16));
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the setup of the base reader, which is part of the cache key.
+   *
+   * @return		the setup
+   */
+  protected String getReaderSetup() {
+    return OptionUtils.getCommandLine(m_Reader);
+  }
+
+  /**
+   * Generates the cache key for the file.
+   *
+   * @param file	the file to generate the key for
+   * @return		the key
+   * @throws Exception	if hashing fails
+   */
+  protected String createKey(File file) throws Exception {
+    MessageDigest	digest;
+
+    digest = MessageDigest.getInstance("SHA-1");
+    digest.update(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) '\n');
+    digest.update(getReaderSetup().getBytes(StandardCharsets.UTF_8));
+
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Computes the content hash (SHA-256) of the file.
+   *
+   * @param file	the file to hash
+   * @return		the hash
+   * @throws Exception	if reading or hashing fails
+   */
+  protected String computeHash(File file) throws Exception {
+    MessageDigest	digest;
+    InputStream		in;
+    byte[]		buffer;
+    int			len;
+
+    in = null;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+      in     = new FileInputStream(file);
+      buffer = new byte[65536];
+      while ((len = in.read(buffer)) != -1)
+	digest.update(buffer, 0, len);
+      return toHex(digest.digest());
+    }
+    finally {
+      FileUtils.closeQuietly(in);
+    }
+  }
+
+  /**
+   * Loads the meta-data of a cache entry.
+   *
+   * @param file	the meta-data file
+   * @return		the meta-data, null if failed to load
+   */
+  protected Properties loadMeta(File file) {
+    Properties		result;
+    InputStream		in;
+
+    in = null;
+    try {
+      in     = new FileInputStream(file);
+      result = new Properties();
+      result.load(in);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to load cache meta-data: " + file, e);
+      result = null;
+    }
+    finally {
+      FileUtils.closeQuietly(in);
+    }
+
+    return result;
+  }
+
+  /**
+   * Saves the meta-data of a cache entry.
+   *
+   * @param meta	the meta-data to save
+   * @param file	the meta-data file
+   * @return		true if successfully saved
+   */
+  protected boolean saveMeta(Properties meta, File file) {
+    boolean		result;
+    FileOutputStream	out;
+
+    out = null;
+    try {
+      out = new FileOutputStream(file);
+      meta.store(out, null);
+      result = true;
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to save cache meta-data: " + file, e);
+      result = false;
+    }
+    finally {
+      FileUtils.closeQuietly(out);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the cached spectra, if the cache entry is still valid.
+   *
+   * @param file	the file to get the spectra for
+   * @param metaFile	the meta-data file of the entry
+   * @param dataFile	the data file of the entry
+   * @return		the spectra, null if not cached or invalid
+   * @throws Exception	if reading fails
+   */
+  protected List<Spectrum> readCache(File file, File metaFile, File dataFile) throws Exception {
+    List<Spectrum>		result;
+    Properties			meta;
+    String			hash;
+    long			created;
+    RandomAccessFile		raf;
+    SpectrumBinaryUtils.Reader	reader;
+    int				i;
+
+    if (!metaFile.exists() || !dataFile.exists())
+      return null;
+    meta = loadMeta(metaFile);
+    if (meta == null)
+      return null;
+
+    if (!file.getAbsolutePath().equals(meta.getProperty(KEY_PATH)))
+      return null;
+    if (!getReaderSetup().equals(meta.getProperty(KEY_READER)))
+      return null;
+    if (file.length() != Long.parseLong(meta.getProperty(KEY_SIZE, "-1")))
+      return null;
+    if (m_MaxAge > 0) {
+      created = Long.parseLong(meta.getProperty(KEY_CREATED, "0"));
+      if (System.currentTimeMillis() - created > m_MaxAge * 1000L)
+	return null;
+    }
+    if (m_VerifyContent || (file.lastModified() != Long.parseLong(meta.getProperty(KEY_MTIME, "-1")))) {
+      hash = computeHash(file);
+      if (!hash.equals(meta.getProperty(KEY_HASH)))
+	return null;
+      // content unchanged, just touched
+      if (file.lastModified() != Long.parseLong(meta.getProperty(KEY_MTIME, "-1"))) {
+	meta.setProperty(KEY_MTIME, "" + file.lastModified());
+	saveMeta(meta, metaFile);
+      }
+    }
+
+    result = new ArrayList<>();
+    raf    = null;
+    try {
+      raf    = new RandomAccessFile(dataFile, "r");
+      reader = new SpectrumBinaryUtils.Reader(raf);
+      for (i = 0; i < reader.getIndex().size(); i++)
+	result.add(reader.read(i));
+    }
+    finally {
+      FileUtils.closeQuietly(raf);
+    }
+
+    // for LRU
+    dataFile.setLastModified(System.currentTimeMillis());
+
+    return result;
+  }
+
+  /**
+   * Stores the spectra in the cache.
+   *
+   * @param file	the file the spectra were read from
+   * @param spectra	the spectra to store
+   * @param metaFile	the meta-data file of the entry
+   * @param dataFile	the data file of the entry
+   * @throws Exception	if writing fails
+   */
+  protected void writeCache(File file, List<Spectrum> spectra, File metaFile, File dataFile) throws Exception {
+    Properties			meta;
+    FileOutputStream		fos;
+    BufferedOutputStream	bos;
+    SpectrumBinaryUtils.Writer	writer;
+
+    // invalidate old entry first
+    if (metaFile.exists())
+      metaFile.delete();
+
+    fos = null;
+    bos = null;
+    try {
+      fos    = new FileOutputStream(dataFile);
+      bos    = new BufferedOutputStream(fos, 65536);
+      writer = new SpectrumBinaryUtils.Writer(bos, m_Compression, true);
+      for (Spectrum spec: spectra)
+	writer.write(spec);
+      writer.finish();
+    }
+    finally {
+      FileUtils.closeQuietly(bos);
+      FileUtils.closeQuietly(fos);
+    }
+
+    // meta-data gets written last, marks the entry as valid
+    meta = new Properties();
+    meta.setProperty(KEY_PATH, file.getAbsolutePath());
+    meta.setProperty(KEY_SIZE, "" + file.length());
+    meta.setProperty(KEY_MTIME, "" + file.lastModified());
+    meta.setProperty(KEY_HASH, computeHash(file));
+    meta.setProperty(KEY_CREATED, "" + System.currentTimeMillis());
+    meta.setProperty(KEY_READER, getReaderSetup());
+    saveMeta(meta, metaFile);
+  }
+
+  /**
+   * Returns the meta-data file of the data file of a cache entry.
+   *
+   * @param dataFile	the data file
+   * @return		the meta-data file
+   */
+  protected File getMetaFile(File dataFile) {
+    return new File(dataFile.getParentFile(), FileUtils.replaceExtension(dataFile.getName(), "." + META_EXTENSION));
+  }
+
+  /**
+   * Checks whether the data file belongs to a cache entry created by this
+   * class, i.e., whether its name is a cache key and it has meta-data
+   * with path and reader setup.
+   *
+   * @param dataFile	the data file to check
+   * @return		true if a cache entry
+   */
+  protected boolean isCacheEntry(File dataFile) {
+    File	metaFile;
+    Properties	meta;
+
+    if (!dataFile.getName().matches("[0-9a-f]{40}\\." + SpectrumBinaryUtils.FILE_EXTENSION))
+      return false;
+    metaFile = getMetaFile(dataFile);
+    if (!metaFile.exists())
+      return false;
+    meta = loadMeta(metaFile);
+    return (meta != null) && meta.containsKey(KEY_PATH) && meta.containsKey(KEY_READER);
+  }
+
+  /**
+   * Removes the least recently used entries if the cache exceeds the
+   * maximum size. Only entries created by this class are considered.
+   */
+  protected void enforceMaxSize() {
+    File[]	files;
+    long	total;
+    long	max;
+    File	metaFile;
+
+    if (m_MaxSize < 0)
+      return;
+
+    files = m_CacheDir.getAbsoluteFile().listFiles((File f) -> f.isFile() && isCacheEntry(f));
+    if (files == null)
+      return;
+
+    total = 0;
+    for (File f: files)
+      total += f.length();
+    max = m_MaxSize * 1024L * 1024L;
+    if (total <= max)
+      return;
+
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    for (File f: files) {
+      if (total <= max)
+	break;
+      total   -= f.length();
+      metaFile = getMetaFile(f);
+      if (isLoggingEnabled())
+	getLogger().info("Removing cache entry: " + f);
+      metaFile.delete();
+      f.delete();
+    }
+  }
+
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    List<Spectrum>	spectra;
+    File		file;
+    File		metaFile;
+    File		dataFile;
+    String		key;
+
+    file     = m_Input.getAbsoluteFile();
+    metaFile = null;
+    dataFile = null;
+    spectra  = null;
+
+    try {
+      key      = createKey(file);
+      metaFile = new File(m_CacheDir.getAbsoluteFile(), key + "." + META_EXTENSION);
+      dataFile = new File(m_CacheDir.getAbsoluteFile(), key + "." + SpectrumBinaryUtils.FILE_EXTENSION);
+      spectra  = readCache(file, metaFile, dataFile);
+      if ((spectra != null) && isLoggingEnabled())
+	getLogger().info("Read from cache: " + file);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.WARNING, "Failed to read from cache: " + file, e);
+      spectra = null;
+    }
+
+    if (spectra == null) {
+      m_Reader.setInput(m_Input);
+      spectra = m_Reader.read();
+      if ((spectra != null) && !spectra.isEmpty() && !m_Stopped && (dataFile != null)) {
+	try {
+	  if (!m_CacheDir.exists() && !m_CacheDir.mkdirs())
+	    throw new IllegalStateException("Failed to create cache directory: " + m_CacheDir);
+	  writeCache(file, spectra, metaFile, dataFile);
+	  enforceMaxSize();
+	}
+	catch (Exception e) {
+	  getLogger().log(Level.WARNING, "Failed to write to cache: " + file, e);
+	  metaFile.delete();
+	  dataFile.delete();
+	}
+      }
+    }
+
+    if (spectra != null)
+      m_ReadData.addAll(spectra);
+  }
+
+  /**
+   * Stops the execution.
+   */
+  @Override
+  public void stopExecution() {
+    super.stopExecution();
+    m_Reader.stopExecution();
+  }
+
+  /**
+   * Runs the reader from the command-line.
+   *
+   * If the option {@link #OPTION_OUTPUTDIR} is specified then the read spectra
+   * get output as .spec files in that directory.
+   *
+   * @param args	the command-line options to use
+   */
+  public static void main(String[] args) {
+    runReader(Environment.class, CachingSpectrumReader.class, args);
+  }
+}
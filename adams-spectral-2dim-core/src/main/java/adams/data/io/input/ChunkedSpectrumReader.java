@@ -0,0 +1,72 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ChunkedSpectrumReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.io.input;
+
+import adams.data.spectrum.Spectrum;
+
+import java.util.List;
+
+/**
+ * Interface for spectrum readers that can return the spectra in chunks.
+ * The first chunk is returned by the <code>read()</code> method, further
+ * chunks are obtained via {@link #nextChunk()} as long as
+ * {@link #hasMoreChunks()} returns true.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface ChunkedSpectrumReader {
+
+  /**
+   * Sets the maximum number of spectra per chunk.
+   *
+   * @param value	the size of the chunks, &lt; 1 denotes infinity
+   */
+  public void setChunkSize(int value);
+
+  /**
+   * Returns the maximum number of spectra per chunk.
+   *
+   * @return		the size of the chunks, &lt; 1 denotes infinity
+   */
+  public int getChunkSize();
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String chunkSizeTipText();
+
+  /**
+   * Checks whether there is more data to read.
+   *
+   * @return		true if there is more data available
+   */
+  public boolean hasMoreChunks();
+
+  /**
+   * Returns the next chunk of spectra.
+   *
+   * @return		the spectra, null in case of an error
+   */
+  public List<Spectrum> nextChunk();
+}
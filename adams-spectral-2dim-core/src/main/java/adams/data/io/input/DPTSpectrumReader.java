@@ -15,7 +15,7 @@
 
 /*
  * DPTSpectrumReader.java
- * Copyright (C) 2009-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
@@ -224,6 +224,17 @@ public class DPTSpectrumReader
     return "The locale to use for parsing the numbers.";
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -234,7 +245,7 @@ public class DPTSpectrumReader
 
     sp = new Spectrum();
     pf = new ParsedFile();
-    pf.parse(FileUtils.loadFromFile(m_Input));
+    pf.parse(loadTextContent());
     for (float[] d: pf.getPoints())
       sp.add(new SpectrumPoint(d[0], d[1]));
     sp.setID(FileUtils.replaceExtension(m_Input.getName(), ""));
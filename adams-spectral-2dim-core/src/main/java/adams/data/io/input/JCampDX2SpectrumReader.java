@@ -15,7 +15,7 @@
 
 /*
  * JCampDX2SpectrumReader.java
- * Copyright (C) 2013-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
@@ -312,6 +312,17 @@ public class JCampDX2SpectrumReader
     return new String[]{"jdx", "dx"};
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -336,7 +347,7 @@ public class JCampDX2SpectrumReader
     Iterator			iter;
     Note			note;
 
-    content = FileUtils.loadFromFile(m_Input);
+    content = loadTextContent();
     
     try {
       // read DX data
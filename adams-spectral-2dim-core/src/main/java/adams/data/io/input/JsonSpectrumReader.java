@@ -15,22 +15,19 @@
 
 /*
  * JsonSpectrumReader.java
- * Copyright (C) 2016-2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
 import adams.core.io.FileUtils;
-import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumJsonUtils;
 import adams.env.Environment;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.logging.Level;
 
 /**
@@ -64,7 +61,7 @@ import java.util.logging.Level;
  *   }<br>
  * }<br>
  * <br>
- * Multiple spectra are wrapped in an array called 'spectra'.
+ * Multiple spectra are wrapped in an array called 'spectra'; a top-level array of spectra is supported as well.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -130,7 +127,8 @@ public class JsonSpectrumReader
       + SpectrumJsonUtils.example(false) + "\n"
       + "- specific reference and meta-data values stored:\n"
       + SpectrumJsonUtils.example(true) + "\n"
-      + "Multiple spectra are wrapped in an array called 'spectra'.";
+      + "Multiple spectra are wrapped in an array called 'spectra'; "
+      + "a top-level array of spectra is supported as well.";
   }
 
   /**
@@ -154,43 +152,43 @@ public class JsonSpectrumReader
     return new String[]{"json"};
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
   @Override
   protected void readData() {
-    Spectrum		spec;
-    FileReader		freader;
+    Reader		freader;
     BufferedReader	breader;
-    JsonElement		je;
-    JsonObject		jobj;
-    JsonArray		array;
+    JsonReader		jreader;
 
     freader = null;
     breader = null;
+    jreader = null;
 
     try {
-      freader = new FileReader(m_Input.getAbsolutePath());
+      freader = new InputStreamReader(openInputStream());
       breader = new BufferedReader(freader);
-      je = JsonParser.parseReader(breader);
-
-      jobj = je.getAsJsonObject();
-      if (jobj.has("spectra")) {
-	array = jobj.getAsJsonArray("spectra");
-	for (JsonElement jo: array) {
-	  spec = SpectrumJsonUtils.fromJson(jo.getAsJsonObject());
-	  if (spec != null)
-	    m_ReadData.add(spec);
-	}
-      }
-      else {
-	getLogger().severe("Failed to find 'spectra' property - malformed JSON?");
-      }
+      jreader = new JsonReader(breader);
+      m_ReadData.addAll(SpectrumJsonUtils.readAll(jreader));
+      if (m_ReadData.isEmpty())
+	getLogger().severe("Failed to find any spectra - malformed JSON?");
     }
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to read file: " + m_Input, e);
     }
     finally {
+      FileUtils.closeQuietly(jreader);
       FileUtils.closeQuietly(breader);
       FileUtils.closeQuietly(freader);
     }
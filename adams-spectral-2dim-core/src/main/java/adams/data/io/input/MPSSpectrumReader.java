@@ -15,7 +15,7 @@
 
 /*
  * MPSSpectrumReader.java
- * Copyright (C) 2017-2022 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.io.input;
@@ -23,7 +23,6 @@ package adams.data.io.input;
 import adams.core.DateFormat;
 import adams.core.DateUtils;
 import adams.core.Utils;
-import adams.core.io.FileUtils;
 import adams.data.DateFormatString;
 import adams.data.report.DataType;
 import adams.data.report.Field;
@@ -225,6 +224,17 @@ public class MPSSpectrumReader
     return new String[]{"mps"};
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -243,7 +253,7 @@ public class MPSSpectrumReader
     double		liveTime;
     int			index;
 
-    lines    = FileUtils.loadFromFile(m_Input);
+    lines    = loadTextContent();
     dfMPS    = m_DateFormat.toDateFormat();
     df       = DateUtils.getTimestampFormatter();
     sp       = new Spectrum();
@@ -15,14 +15,13 @@
 
 /*
  * OpusSpectrumReader.java
- * Copyright (C) 2015-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
 import adams.core.IEEE754;
 import adams.core.Utils;
-import adams.core.io.FileUtils;
 import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
@@ -729,6 +728,28 @@ public class OpusSpectrumReader
     }
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
+  /**
+   * Returns whether the reader can read just the meta-data (sample ID, report)
+   * without parsing the spectral data points.
+   *
+   * @return		true if header-only reading is supported
+   */
+  @Override
+  public boolean supportsHeaderOnlyReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -736,14 +757,15 @@ public class OpusSpectrumReader
   protected void readData() {
     try {
       m_Trace = new HashMap<>();
-      byte[] buf = FileUtils.loadFromBinaryFile(m_Input);
+      byte[] buf = loadBinaryContent();
       if (buf == null)
 	throw new IllegalStateException("Failed to read data from: " + m_Input);
       int datastart = getABDataOffset(buf);
       if (isLoggingEnabled())
 	getLogger().info("datastart=" + datastart);
-      double[] nir = IEEE754.toDoubleArray(getNirArray(buf));
-      double[] wn = getWaveNumbers(buf);
+      // header-only: skip decoding of amplitudes/wave numbers
+      double[] nir = m_HeaderOnly ? new double[0] : IEEE754.toDoubleArray(getNirArray(buf));
+      double[] wn = m_HeaderOnly ? new double[0] : getWaveNumbers(buf);
       int nump = getABCount(buf);
       if (isLoggingEnabled())
 	getLogger().info("points=" + nump);
@@ -15,7 +15,7 @@
 
 /*
  * OpusSpectrumReaderExt.java
- * Copyright (C) 2016-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.io.input;
@@ -23,7 +23,6 @@ package adams.data.io.input;
 import adams.core.IEEE754;
 import adams.core.MessageCollection;
 import adams.core.Utils;
-import adams.core.io.FileUtils;
 import adams.data.io.input.opus.OpusBlockHelper;
 import adams.data.io.input.opus.OpusBlockHelper.Block;
 import adams.data.io.input.opus.OpusBlockHelper.BlockDefinition;
@@ -527,11 +526,13 @@ public class OpusSpectrumReaderExt
 	sp = new Spectrum();
 	sp.setReport(sd);
 
-	for (n = 0; n < numPoints; n++) {
-	  point = new SpectrumPoint(
-	    (float) (firstX + ((double) n) * diff),
-	    (float) (IEEE754.toDouble(data.get(i).getLong(n * 4)) * scale));
-	  sp.add(point);
+	if (!m_HeaderOnly) {
+	  for (n = 0; n < numPoints; n++) {
+	    point = new SpectrumPoint(
+	      (float) (firstX + ((double) n) * diff),
+	      (float) (IEEE754.toDouble(data.get(i).getLong(n * 4)) * scale));
+	    sp.add(point);
+	  }
 	}
 
 	m_ReadData.add(sp);
@@ -594,6 +595,29 @@ public class OpusSpectrumReaderExt
     }
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
+  /**
+   * Returns whether the reader can read just the meta-data (sample ID, report)
+   * without parsing the spectral data points. When reading from a file,
+   * only the header and the parameter/text blocks get read.
+   *
+   * @return		true if header-only reading is supported
+   */
+  @Override
+  public boolean supportsHeaderOnlyReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -606,12 +630,15 @@ public class OpusSpectrumReaderExt
     int				i;
 
     try {
-      buf = FileUtils.loadFromBinaryFile(m_Input);
+      errors = new MessageCollection();
+      if (m_HeaderOnly && (m_InputContent == null))
+	buf = OpusBlockHelper.readParameterBlocks(m_Input, errors);
+      else
+	buf = loadBinaryContent();
       if (buf == null)
-	throw new IllegalStateException("Failed to read data from: " + m_Input);
+	throw new IllegalStateException("Failed to read data from: " + m_Input + (errors.isEmpty() ? "" : "\n" + errors));
 
       // definitions
-      errors = new MessageCollection();
       defs = OpusBlockHelper.readDefinitions(buf, errors);
       if (!errors.isEmpty())
 	throw new IllegalStateException("Failed to obtain block definitions:\n" + errors);
@@ -15,12 +15,11 @@
 
 /*
  * RelabSpectrumReader.java
- * Copyright (C) 2014-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
-import adams.core.io.FileUtils;
 import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
@@ -158,6 +157,17 @@ public class RelabSpectrumReader
     return new String[]{"asc"};
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -176,7 +186,7 @@ public class RelabSpectrumReader
     StringBuilder	comments;
     String		id;
     
-    content = FileUtils.loadFromFile(m_Input);
+    content = loadTextContent();
     sp      = new Spectrum();
     sd      = new SampleData();
     sp.setReport(sd);
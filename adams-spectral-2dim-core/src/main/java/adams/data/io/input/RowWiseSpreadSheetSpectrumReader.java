@@ -15,11 +15,12 @@
 
 /*
  * RowWiseSpreadSheetSpectrumReader.java
- * Copyright (C) 2015-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.io.input;
 
+import adams.core.ObjectCopyHelper;
 import adams.core.base.BaseRegExp;
 import adams.data.report.DataType;
 import adams.data.report.Field;
@@ -34,13 +35,16 @@ import adams.env.Environment;
 import gnu.trove.list.array.TFloatArrayList;
 import gnu.trove.list.array.TIntArrayList;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Reads spectra from rows in a spreadsheet obtained with the specified spreadsheet reader.
+ * Reads spectra from rows in a spreadsheet obtained with the specified spreadsheet reader.<br>
+ * Sample ID and sample data columns get removed automatically from the range of wave columns.<br>
+ * In conjunction with a chunked spreadsheet reader (eg CSV), a chunk size can be specified to read the spectra incrementally, without loading the complete spreadsheet into memory. The wave numbers get determined from the header only once.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -116,13 +120,20 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;example: A range is a comma-separated list of single 1-based indices or sub-ranges of indices ('start-end'); 'inv(...)' inverts the range '...'; column names (case-sensitive) as well as the following placeholders can be used: first, second, third, last_2, last_1, last
  * </pre>
  * 
+ * <pre>-chunk-size &lt;int&gt; (property: chunkSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of rows&#47;spectra per chunk, requires a chunked spreadsheet
+ * &nbsp;&nbsp;&nbsp;reader; use -1 to read all spectra at once.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class RowWiseSpreadSheetSpectrumReader
   extends AbstractSpectrumReader
-  implements MetaFileReader {
+  implements MetaFileReader, ChunkedSpectrumReader {
 
   private static final long serialVersionUID = -5214547184281992617L;
 
@@ -144,6 +155,45 @@ public class RowWiseSpreadSheetSpectrumReader
   /** the range of columns containing sample data. */
   protected SpreadSheetColumnRange m_SampleDataColumns;
 
+  /** the maximum number of spectra per chunk. */
+  protected int m_ChunkSize;
+
+  /** the reader for the remaining chunks. */
+  protected transient ChunkedSpreadSheetReader m_ChunkReader;
+
+  /** the column layout (re-used across chunks). */
+  protected transient Layout m_Layout;
+
+  /** the current sheet/chunk number. */
+  protected int m_SheetNo;
+
+  /**
+   * Container for the column layout determined from the header.
+   */
+  protected static class Layout
+    implements Serializable {
+
+    private static final long serialVersionUID = 7409254867187034218L;
+
+    /** the column names. */
+    public List<String> header;
+
+    /** the ID column. */
+    public int idCol;
+
+    /** the sample data columns. */
+    public int[] sdCols;
+
+    /** the sample data fields. */
+    public List<Field> sdFields;
+
+    /** the wave columns. */
+    public int[] waveCols;
+
+    /** the wave numbers. */
+    public float[] waveNo;
+  }
+
 
   /**
    * Returns a string describing the object.
@@ -156,7 +206,11 @@ public class RowWiseSpreadSheetSpectrumReader
       "Reads spectra from rows in a spreadsheet obtained with the "
 	+ "specified spreadsheet reader.\n"
 	+ "Sample ID and sample data columns get removed automatically from the "
-	+ "range of wave columns.";
+	+ "range of wave columns.\n"
+	+ "In conjunction with a chunked spreadsheet reader (eg CSV), a chunk size "
+	+ "can be specified to read the spectra incrementally, without loading "
+	+ "the complete spreadsheet into memory. The wave numbers get determined "
+	+ "from the header only once.";
   }
 
   /**
@@ -189,6 +243,21 @@ public class RowWiseSpreadSheetSpectrumReader
     m_OptionManager.add(
       "sample-data-columns", "sampleDataColumns",
       new SpreadSheetColumnRange());
+
+    m_OptionManager.add(
+      "chunk-size", "chunkSize",
+      -1, -1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_ChunkReader = null;
+    m_Layout      = null;
   }
 
   /**
@@ -395,6 +464,40 @@ public class RowWiseSpreadSheetSpectrumReader
     return "The columns containing the sample data.";
   }
 
+  /**
+   * Sets the maximum number of spectra per chunk.
+   *
+   * @param value	the size of the chunks, &lt; 1 denotes infinity
+   */
+  @Override
+  public void setChunkSize(int value) {
+    if (value < 1)
+      value = -1;
+    m_ChunkSize = value;
+    reset();
+  }
+
+  /**
+   * Returns the maximum number of spectra per chunk.
+   *
+   * @return		the size of the chunks, &lt; 1 denotes infinity
+   */
+  @Override
+  public int getChunkSize() {
+    return m_ChunkSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  @Override
+  public String chunkSizeTipText() {
+    return "The maximum number of rows/spectra per chunk, requires a chunked spreadsheet reader; use -1 to read all spectra at once.";
+  }
+
   /**
    * Indentifies the wave numbers.
    *
@@ -457,126 +560,231 @@ public class RowWiseSpreadSheetSpectrumReader
   }
 
   /**
-   * Performs the actual reading.
+   * Returns the column names of the spreadsheet.
+   *
+   * @param sheet	the sheet to get the names from
+   * @return		the names
    */
-  @Override
-  protected void readData() {
-    List<SpreadSheet>	sheets;
+  protected List<String> getColumnNames(SpreadSheet sheet) {
+    List<String>	result;
+    int			i;
+
+    result = new ArrayList<>();
+    for (i = 0; i < sheet.getColumnCount(); i++)
+      result.add(sheet.getColumnName(i));
+
+    return result;
+  }
+
+  /**
+   * Determines the column layout of the spreadsheet. The layout of the
+   * previous sheet/chunk gets re-used if the header is the same.
+   *
+   * @param sheet	the sheet to analyze
+   * @return		the layout
+   */
+  protected Layout determineLayout(SpreadSheet sheet) {
+    Layout		result;
+    List<String>	header;
     TIntArrayList	cols;
-    TFloatArrayList	waveNo;
-    int[]		waveCols;
+
+    header = getColumnNames(sheet);
+    if ((m_Layout != null) && m_Layout.header.equals(header))
+      return m_Layout;
+
+    result        = new Layout();
+    result.header = header;
+
+    // ID
+    m_SampleIDColumn.setData(sheet);
+    result.idCol = m_SampleIDColumn.getIntIndex();
+
+    // sample data
+    m_SampleDataColumns.setData(sheet);
+    cols = new TIntArrayList(m_SampleDataColumns.getIntIndices());
+    cols.remove(result.idCol);
+    result.sdCols   = cols.toArray();
+    result.sdFields = identifySampleData(sheet, result.sdCols);
+
+    // wave numbers
+    m_WaveColumns.setData(sheet);
+    cols = new TIntArrayList(m_WaveColumns.getIntIndices());
+    cols.remove(result.idCol);
+    for (int col : result.sdCols)
+      cols.remove(col);
+    result.waveCols = cols.toArray();
+    result.waveNo   = identifyWaveNumbers(sheet, result.waveCols).toArray();
+
+    m_Layout = result;
+
+    return result;
+  }
+
+  /**
+   * Turns the rows of the spreadsheet into spectra and adds them to the
+   * read data.
+   *
+   * @param sheet	the sheet to convert
+   */
+  protected void convert(SpreadSheet sheet) {
+    Layout		layout;
     List<SpectrumPoint>	points;
-    List<Field> 	sdFields;
     Field		field;
-    int[]		sdCols;
-    int			idCol;
     Spectrum 		sp;
     SpectrumPoint 	point;
     SampleData 		sd;
     int			i;
-    int			sheetNo;
 
-    if (m_Reader instanceof MultiSheetSpreadSheetReader) {
-      sheets = ((MultiSheetSpreadSheetReader) m_Reader).readRange(m_Input);
-    }
-    else {
-      sheets = new ArrayList<>();
-      sheets.add(m_Reader.read(m_Input));
-      if (m_Reader instanceof ChunkedSpreadSheetReader) {
-        while (((ChunkedSpreadSheetReader) m_Reader).hasMoreChunks() && !m_Stopped) {
-          if (isLoggingEnabled())
-            getLogger().info("Reading chunk #" + (sheets.size() + 1));
-	  sheets.add(((ChunkedSpreadSheetReader) m_Reader).nextChunk());
-	}
-      }
-    }
-    if (m_Stopped)
-      return;
+    m_SheetNo++;
+    layout = determineLayout(sheet);
+    points = new ArrayList<>(layout.waveCols.length);
 
-    sheetNo = 0;
-    points  = new ArrayList<>();
-    for (SpreadSheet sheet: sheets) {
-      sheetNo++;
+    for (Row row : sheet.rows()) {
       if (m_Stopped)
 	return;
-
-      // ID
-      m_SampleIDColumn.setData(sheet);
-      idCol = m_SampleIDColumn.getIntIndex();
-
-      // sample data
-      m_SampleDataColumns.setData(sheet);
-      cols = new TIntArrayList(m_SampleDataColumns.getIntIndices());
-      cols.remove(idCol);
-      sdCols = cols.toArray();
-      sdFields = identifySampleData(sheet, sdCols);
+      sp = new Spectrum();
 
       // wave numbers
-      m_WaveColumns.setData(sheet);
-      cols = new TIntArrayList(m_WaveColumns.getIntIndices());
-      cols.remove(idCol);
-      for (int col : sdCols)
-	cols.remove(col);
-      waveCols = cols.toArray();
-      waveNo = identifyWaveNumbers(sheet, waveCols);
-
-      for (Row row : sheet.rows()) {
-	if (m_Stopped)
-	  return;
-	sp = new Spectrum();
-
-	// wave numbers
-	points.clear();
-	for (i = 0; i < waveCols.length; i++) {
-	  if (m_Stopped)
-	    return;
-	  if (row.hasCell(waveCols[i]) && !row.getCell(waveCols[i]).isMissing()) {
-	    try {
-	      point = new SpectrumPoint(waveNo.get(i), row.getCell(waveCols[i]).toDouble().floatValue());
-	      points.add(point);
-	    }
-	    catch (Exception e) {
-	      getLogger().log(
-		Level.SEVERE,
-		"Failed to convert cell in col #" + (waveCols[i] + 1) + " of sheet " + sheetNo + ": "
-		  + row.getCell(waveCols[i]), e);
-	    }
+      points.clear();
+      for (i = 0; i < layout.waveCols.length; i++) {
+	if (row.hasCell(layout.waveCols[i]) && !row.getCell(layout.waveCols[i]).isMissing()) {
+	  try {
+	    point = new SpectrumPoint(layout.waveNo[i], row.getCell(layout.waveCols[i]).toDouble().floatValue());
+	    points.add(point);
 	  }
-	}
-	sp.addAll(points);
-
-	// sample data
-	sd = new SampleData();
-	for (i = 0; i < sdCols.length; i++) {
-	  if (m_Stopped)
-	    return;
-	  if (row.hasCell(sdCols[i]) && !row.getCell(sdCols[i]).isMissing()) {
-	    field = sdFields.get(i);
-	    sd.addField(field);
-	    sd.setValue(field, row.getCell(sdCols[i]).getContent());
+	  catch (Exception e) {
+	    getLogger().log(
+	      Level.SEVERE,
+	      "Failed to convert cell in col #" + (layout.waveCols[i] + 1) + " of sheet " + m_SheetNo + ": "
+		+ row.getCell(layout.waveCols[i]), e);
 	  }
 	}
-	sp.setReport(sd);
+      }
+      sp.addAll(points);
 
-	// sample ID
-	if (idCol != -1) {
-	  if (row.hasCell(idCol) && !row.getCell(idCol).isMissing())
-	    sp.setID(row.getCell(idCol).getContent());
+      // sample data
+      sd = new SampleData();
+      for (i = 0; i < layout.sdCols.length; i++) {
+	if (row.hasCell(layout.sdCols[i]) && !row.getCell(layout.sdCols[i]).isMissing()) {
+	  field = layout.sdFields.get(i);
+	  sd.addField(field);
+	  sd.setValue(field, row.getCell(layout.sdCols[i]).getContent());
 	}
+      }
+      sp.setReport(sd);
 
-	m_ReadData.add(sp);
-	if (isLoggingEnabled())
-	  getLogger().info("Added: " + sp);
+      // sample ID
+      if (layout.idCol != -1) {
+	if (row.hasCell(layout.idCol) && !row.getCell(layout.idCol).isMissing())
+	  sp.setID(row.getCell(layout.idCol).getContent());
       }
+
+      m_ReadData.add(sp);
+      if (isLoggingEnabled())
+	getLogger().info("Added: " + sp);
     }
   }
 
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    List<SpreadSheet>		sheets;
+    ChunkedSpreadSheetReader	chunked;
+    SpreadSheet			sheet;
+
+    m_ChunkReader = null;
+    m_Layout      = null;
+    m_SheetNo     = 0;
+
+    if (m_Reader instanceof MultiSheetSpreadSheetReader) {
+      sheets = ((MultiSheetSpreadSheetReader) m_Reader).readRange(m_Input);
+      for (SpreadSheet s: sheets) {
+	if (m_Stopped)
+	  return;
+	convert(s);
+      }
+    }
+    else if ((m_Reader instanceof ChunkedSpreadSheetReader) && (m_ChunkSize > 0)) {
+      chunked = (ChunkedSpreadSheetReader) ObjectCopyHelper.copyObject(m_Reader);
+      chunked.setChunkSize(m_ChunkSize);
+      sheet = chunked.read(m_Input);
+      if (sheet != null)
+	convert(sheet);
+      if (!m_Stopped && chunked.hasMoreChunks())
+	m_ChunkReader = chunked;
+    }
+    else {
+      sheet = m_Reader.read(m_Input);
+      if (sheet != null)
+	convert(sheet);
+      if (m_Reader instanceof ChunkedSpreadSheetReader) {
+	chunked = (ChunkedSpreadSheetReader) m_Reader;
+	while (chunked.hasMoreChunks() && !m_Stopped) {
+	  if (isLoggingEnabled())
+	    getLogger().info("Reading chunk #" + (m_SheetNo + 1));
+	  sheet = chunked.nextChunk();
+	  if (sheet != null)
+	    convert(sheet);
+	}
+      }
+    }
+  }
+
+  /**
+   * Checks whether there is more data to read.
+   *
+   * @return		true if there is more data available
+   */
+  @Override
+  public boolean hasMoreChunks() {
+    return !m_Stopped && (m_ChunkReader != null) && m_ChunkReader.hasMoreChunks();
+  }
+
+  /**
+   * Returns the next chunk of spectra.
+   *
+   * @return		the spectra, null in case of an error
+   */
+  @Override
+  public List<Spectrum> nextChunk() {
+    List<Spectrum>	result;
+    SpreadSheet		sheet;
+
+    if (!hasMoreChunks())
+      return new ArrayList<>();
+
+    if (isLoggingEnabled())
+      getLogger().info("Reading chunk #" + (m_SheetNo + 1));
+
+    m_ReadData = new ArrayList<>();
+    try {
+      sheet = m_ChunkReader.nextChunk();
+      if (sheet != null)
+	convert(sheet);
+      postProcessData();
+      result = m_ReadData;
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read chunk #" + m_SheetNo + " from: " + m_Input, e);
+      result = null;
+    }
+
+    if ((result == null) || !hasMoreChunks())
+      m_ChunkReader = null;
+
+    return result;
+  }
+
   /**
    * Stops the execution.
    */
   public void stopExecution() {
     super.stopExecution();
     m_Reader.stopExecution();
+    if (m_ChunkReader != null)
+      m_ChunkReader.stopExecution();
   }
 
   /**
@@ -15,7 +15,7 @@
 
 /*
  * SPASpectrumReader.java
- * Copyright (C) 2017-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
@@ -24,7 +24,6 @@ import adams.core.DateFormat;
 import adams.core.DateUtils;
 import adams.core.LittleEndian;
 import adams.core.Utils;
-import adams.core.io.FileUtils;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 import adams.env.Environment;
@@ -172,6 +171,17 @@ public class SPASpectrumReader
     return LittleEndian.bytesToFloat(new byte[]{data[offset+0], data[offset+1], data[offset+2], data[offset+3]});
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -202,7 +212,7 @@ public class SPASpectrumReader
     sp = new Spectrum();
 
     // read data
-    data = FileUtils.loadFromBinaryFile(m_Input);
+    data = loadBinaryContent();
 
     // ID
     sp.setID(readString(data, 30));
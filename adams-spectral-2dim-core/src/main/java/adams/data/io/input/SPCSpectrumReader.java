@@ -15,7 +15,7 @@
 
 /*
  * SPCSpectrumReader.java
- * Copyright (C) 2015-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
@@ -90,6 +90,9 @@ public class SPCSpectrumReader
   /** for serialization. */
   private static final long serialVersionUID = 7690015355854851867L;
 
+  /** the size of the file header in bytes. */
+  public final static int HEADER_SIZE = 512;
+
   /**
    * Parser class for SPC files.
    *
@@ -332,6 +335,9 @@ public class SPCSpectrumReader
     /** the log values. */
     protected SampleData m_Log;
 
+    /** whether to parse the header only. */
+    protected boolean m_HeaderOnly;
+
     /**
      * Initializes the parser.
      *
@@ -339,10 +345,23 @@ public class SPCSpectrumReader
      * @param data 	the data to parse
      */
     public FileParser(String id, byte[] data) {
+      this(id, data, false);
+    }
+
+    /**
+     * Initializes the parser.
+     *
+     * @param id		the ID to use
+     * @param data 		the data to parse
+     * @param headerOnly	whether to parse only the file header, generating
+     * 				spectra without data points
+     */
+    public FileParser(String id, byte[] data, boolean headerOnly) {
       super(null, data, 0);
-      m_ID      = id;
-      m_Spectra = new ArrayList<>();
-      m_Log     = null;
+      m_ID         = id;
+      m_Spectra    = new ArrayList<>();
+      m_Log        = null;
+      m_HeaderOnly = headerOnly;
     }
 
     /**
@@ -608,7 +627,7 @@ public class SPCSpectrumReader
       // byte 324: Fxtype the W axis label
       m_WAxis = determineLabelType(m_Data[324], 'w');
 
-      m_BytesRead = 512;
+      m_BytesRead = HEADER_SIZE;
 
       return null;
     }
@@ -626,6 +645,20 @@ public class SPCSpectrumReader
 
       result = null;
 
+      // header-only: empty spectra for the sub-files
+      if (m_HeaderOnly) {
+	for (i = 0; i < m_NumFiles; i++) {
+	  sp = new Spectrum();
+	  sp.setReport(new SampleData());
+	  if (m_NumFiles > 1)
+	    sp.setID(m_ID + "-" + i);
+	  else
+	    sp.setID(m_ID);
+	  m_Spectra.add(sp);
+	}
+	return result;
+      }
+
       for (i = 0; i < m_NumFiles; i++) {
 	parser = new SubFileParser(this, m_Data, m_BytesRead, m_UniqueXs && m_NonEvenX);
 	result = parser.parse();
@@ -649,7 +682,7 @@ public class SPCSpectrumReader
      * @return 		null if successfully parsed, otherwise error message
      */
     protected String parseFooter() {
-      if (m_OffsetLogstc == 0)
+      if (m_HeaderOnly || (m_OffsetLogstc == 0))
 	return null;
 
       // byte 0-3: Logsizd byte size of log disk block
@@ -1121,6 +1154,29 @@ public class SPCSpectrumReader
     return new String[]{"spc"};
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
+  /**
+   * Returns whether the reader can read just the meta-data (sample ID, report)
+   * without parsing the spectral data points. Only the file header
+   * gets read, not the sub-files or the log block.
+   *
+   * @return		true if header-only reading is supported
+   */
+  @Override
+  public boolean supportsHeaderOnlyReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -1130,8 +1186,15 @@ public class SPCSpectrumReader
     FileParser parser;
     String	msg;
 
-    data   = FileUtils.loadFromBinaryFile(m_Input);
-    parser = new FileParser(FileUtils.replaceExtension(m_Input.getName(), ""), data);
+    if (m_HeaderOnly)
+      data = loadBinaryHeader(HEADER_SIZE);
+    else
+      data = loadBinaryContent();
+    if ((data == null) || (data.length < HEADER_SIZE)) {
+      getLogger().severe("Failed to read data from '" + m_Input + "'!");
+      return;
+    }
+    parser = new FileParser(FileUtils.replaceExtension(m_Input.getName(), ""), data, m_HeaderOnly);
     msg    = parser.parse();
     if (msg == null)
       m_ReadData.addAll(parser.getSpectra());
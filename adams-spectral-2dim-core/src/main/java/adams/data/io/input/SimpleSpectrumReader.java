@@ -15,7 +15,7 @@
 
 /*
  * SimpleSpectrumReader.java
- * Copyright (C) 2009-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
@@ -116,6 +116,7 @@ public class SimpleSpectrumReader
     SampleData sd;
     Field		field;
     boolean		moreData;
+    boolean		inReport;
 
     result = true;
 
@@ -127,12 +128,21 @@ public class SimpleSpectrumReader
 	template = sp.newPoint();
 	
 	// read from file
-	content = new ArrayList<String>();
+	content  = new ArrayList<String>();
+	inReport = true;
 	while (((line = reader.readLine()) != null)) {
 	  if (line.equals(Spectrum.SEPARATOR)) {
 	    moreData = true;
 	    break;
 	  }
+	  // header-only: only the comment block (report) is required
+	  if (m_HeaderOnly) {
+	    if (inReport && line.startsWith(Properties.COMMENT))
+	      content.add(line);
+	    else
+	      inReport = false;
+	    continue;
+	  }
 	  content.add(line);
 	}
 
@@ -221,12 +231,54 @@ public class SimpleSpectrumReader
     return result;
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
+  /**
+   * Returns whether the reader can read just the meta-data (sample ID, report)
+   * without parsing the spectral data points.
+   *
+   * @return		true if header-only reading is supported
+   */
+  @Override
+  public boolean supportsHeaderOnlyReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
   @Override
   protected void readData() {
-    read(m_Input.getAbsolutePath());
+    BufferedReader	reader;
+
+    if (m_InputContent == null) {
+      read(m_Input.getAbsolutePath());
+      return;
+    }
+
+    reader = null;
+    try {
+      if (m_Input.getName().endsWith(".gz"))
+	reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(openInputStream())));
+      else
+	reader = new BufferedReader(new InputStreamReader(openInputStream()));
+      read(reader);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read spectral data from '" + m_Input + "'!", e);
+    }
+    finally {
+      FileUtils.closeQuietly(reader);
+    }
   }
 
   /**
@@ -15,12 +15,11 @@
 
 /*
  * SpecLibSpectrumReader.java
- * Copyright (C) 2014-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.input;
 
-import adams.core.io.FileUtils;
 import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
@@ -280,6 +279,17 @@ public class SpecLibSpectrumReader
     return "Amplitudes larger than this value get ignored.";
   }
 
+  /**
+   * Returns whether the reader can read the data from memory as well,
+   * rather than only from the input file.
+   *
+   * @return		true if in-memory reading is supported
+   */
+  @Override
+  public boolean supportsInMemoryReading() {
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -295,7 +305,7 @@ public class SpecLibSpectrumReader
     float		wave;
     float		ampl;
     
-    content = FileUtils.loadFromFile(m_Input);
+    content = loadTextContent();
     data    = false;
     title   = false;
     title2  = false;
@@ -15,11 +15,13 @@
 
 /*
  * ZippedSpectrumReader.java
- * Copyright (C) 2018-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.io.input;
 
+import adams.core.Performance;
+import adams.core.ThreadLimiter;
 import adams.core.base.BaseRegExp;
 import adams.core.io.FileUtils;
 import adams.core.io.PlaceholderFile;
@@ -33,13 +35,18 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Reads spectra from the zip file using the specified base reader.
+ * Reads spectra from the zip file using the specified base reader.<br>
+ * Base readers that support in-memory reading decode the entries directly from the archive, without extracting them to temporary files first. In that case, entries can be decoded in parallel as well.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -103,12 +110,21 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: 1024
  * </pre>
  *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for decoding the entries (requires a base reader
+ * &nbsp;&nbsp;&nbsp;that supports in-memory reading); -1 = number of CPUs&#47;cores; 0 or 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class ZippedSpectrumReader
-  extends AbstractSpectrumReader {
+  extends AbstractSpectrumReader
+  implements ThreadLimiter {
 
   private static final long serialVersionUID = 4033490304361538289L;
 
@@ -124,6 +140,9 @@ public class ZippedSpectrumReader
   /** the buffer size to use. */
   protected int m_BufferSize;
 
+  /** the number of threads to use for decoding. */
+  protected int m_NumThreads;
+
   /**
    * Returns a string describing the object.
    *
@@ -131,7 +150,11 @@ public class ZippedSpectrumReader
    */
   @Override
   public String globalInfo() {
-    return "Reads spectra from the zip file using the specified base reader.";
+    return
+      "Reads spectra from the zip file using the specified base reader.\n"
+	+ "Base readers that support in-memory reading decode the entries directly "
+	+ "from the archive, without extracting them to temporary files first. "
+	+ "In that case, entries can be decoded in parallel as well.";
   }
 
   /**
@@ -156,6 +179,10 @@ public class ZippedSpectrumReader
     m_OptionManager.add(
       "buffer", "bufferSize",
       1024);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1, -1, null);
   }
 
   /**
@@ -287,6 +314,38 @@ public class ZippedSpectrumReader
     return "The size of the buffer in bytes for the data stream.";
   }
 
+  /**
+   * Sets the number of threads to use for decoding the entries.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for decoding the entries.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return         tip text for this property suitable for
+   *             displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for decoding the entries (requires a "
+	+ "base reader that supports in-memory reading); "
+	+ Performance.getNumThreadsHelp();
+  }
+
   /**
    * Returns a string describing the format (used in the file chooser).
    *
@@ -309,13 +368,56 @@ public class ZippedSpectrumReader
   }
 
   /**
-   * Performs the actual reading.
+   * Returns whether the entry gets read.
+   *
+   * @param entry	the entry to check
+   * @return		true if to read
    */
-  @Override
-  protected void readData() {
-    ZipFile				archive;
-    Enumeration<ZipArchiveEntry> 	enm;
-    ZipArchiveEntry			entry;
+  protected boolean isMatch(ZipArchiveEntry entry) {
+    if (entry.isDirectory())
+      return false;
+
+    if (!m_RegExp.isMatchAll() && !m_RegExp.isEmpty()) {
+      if (m_InvertMatching && m_RegExp.isMatch(entry.getName()))
+	return false;
+      else if (!m_InvertMatching && !m_RegExp.isMatch(entry.getName()))
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Reads the content of the entry into memory.
+   *
+   * @param archive	the archive to read from
+   * @param entry	the entry to read
+   * @return		the content
+   * @throws Exception	if reading fails
+   */
+  protected byte[] readContent(ZipFile archive, ZipArchiveEntry entry) throws Exception {
+    BufferedInputStream		in;
+
+    in = null;
+    try {
+      in = new BufferedInputStream(archive.getInputStream(entry), m_BufferSize);
+      return toByteArray(in, m_BufferSize);
+    }
+    finally {
+      FileUtils.closeQuietly(in);
+    }
+  }
+
+  /**
+   * Extracts the entry to a temp file and reads it with the base reader.
+   * Used for readers that do not support in-memory reading.
+   *
+   * @param archive	the archive to read from
+   * @param entry	the entry to read
+   * @return		the spectra, null if none read
+   */
+  protected List<Spectrum> readTempFile(ZipFile archive, ZipArchiveEntry entry) {
+    List<Spectrum>			result;
     File 				outFile;
     BufferedInputStream			in;
     BufferedOutputStream		out;
@@ -323,71 +425,167 @@ public class ZippedSpectrumReader
     int					len;
     long				read;
     byte[]				buffer;
-    List<Spectrum>			sublist;
 
+    in      = null;
+    out     = null;
+    fos     = null;
+    outFile = null;
     try {
-      buffer  = new byte[m_BufferSize];
-      archive = new ZipFile(m_Input.getAbsoluteFile());
-      enm     = archive.getEntries();
-      while (enm.hasMoreElements()) {
-	entry = enm.nextElement();
+      // assemble output name
+      outFile = TempUtils.createTempFile(FileUtils.replaceExtension(entry.getName(), ""), "." + FileUtils.getExtension(entry.getName()));
+
+      // extract data
+      buffer = new byte[m_BufferSize];
+      in     = new BufferedInputStream(archive.getInputStream(entry));
+      fos    = new FileOutputStream(outFile.getAbsolutePath());
+      out    = new BufferedOutputStream(fos, m_BufferSize);
+      read   = 0;
+      while (read < entry.getSize()) {
+	len   = in.read(buffer);
+	read += len;
+	out.write(buffer, 0, len);
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Error extracting '" + entry.getName() + "' to '" + outFile + "'!", e);
+    }
+    finally {
+      FileUtils.closeQuietly(in);
+      FileUtils.closeQuietly(out);
+      FileUtils.closeQuietly(fos);
+    }
 
-	if (entry.isDirectory())
-	  continue;
+    // read file
+    m_Reader.setInput(new PlaceholderFile(outFile));
+    result = m_Reader.read();
 
-	// does name match?
-	if (!m_RegExp.isMatchAll() && !m_RegExp.isEmpty()) {
-	  if (m_InvertMatching && m_RegExp.isMatch(entry.getName()))
-	    continue;
-	  else if (!m_InvertMatching && !m_RegExp.isMatch(entry.getName()))
-	    continue;
-	}
+    // delete file again
+    FileUtils.delete(outFile);
 
-	if (isLoggingEnabled())
-	  getLogger().info("Reading: " + entry.getName());
-
-	in      = null;
-	out     = null;
-	fos     = null;
-	outFile = null;
-	try {
-	  // assemble output name
-	  outFile = TempUtils.createTempFile(FileUtils.replaceExtension(entry.getName(), ""), "." + FileUtils.getExtension(entry.getName()));
-
-	  // extract data
-	  in   = new BufferedInputStream(archive.getInputStream(entry));
-	  fos  = new FileOutputStream(outFile.getAbsolutePath());
-	  out  = new BufferedOutputStream(fos, m_BufferSize);
-	  read = 0;
-	  while (read < entry.getSize()) {
-	    len   = in.read(buffer);
-	    read += len;
-	    out.write(buffer, 0, len);
-	  }
-	}
-	catch (Exception e) {
-	  getLogger().log(Level.SEVERE, "Error extracting '" + entry.getName() + "' to '" + outFile + "'!", e);
+    return result;
+  }
+
+  /**
+   * Reads the entries one after the other.
+   *
+   * @param archive	the archive to read from
+   * @param entries	the entries to read
+   * @throws Exception	if reading fails
+   */
+  protected void readSequential(ZipFile archive, List<ZipArchiveEntry> entries) throws Exception {
+    List<Spectrum>	sublist;
+
+    for (ZipArchiveEntry entry: entries) {
+      if (m_Stopped)
+	break;
+
+      if (isLoggingEnabled())
+	getLogger().info("Reading: " + entry.getName());
+
+      if (m_Reader.supportsInMemoryReading())
+	sublist = m_Reader.read(entry.getName(), readContent(archive, entry));
+      else
+	sublist = readTempFile(archive, entry);
+      if (sublist != null)
+	m_ReadData.addAll(sublist);
+    }
+  }
+
+  /**
+   * Reads the entries in parallel. The content of the entries is read
+   * sequentially from the archive, only the decoding happens in parallel.
+   * The order of the spectra is the same as with sequential reading.
+   *
+   * @param archive	the archive to read from
+   * @param entries	the entries to read
+   * @param numThreads	the number of threads to use
+   * @throws Exception	if reading fails
+   */
+  protected void readParallel(ZipFile archive, List<ZipArchiveEntry> entries, int numThreads) throws Exception {
+    ExecutorService			executor;
+    AbstractSpectrumReader[]		readers;
+    List<Future<List<Spectrum>>>	futures;
+    List<Spectrum>			sublist;
+    ZipArchiveEntry			entry;
+    int					i;
+    int					n;
+
+    readers = new AbstractSpectrumReader[numThreads];
+    for (i = 0; i < numThreads; i++)
+      readers[i] = (AbstractSpectrumReader) m_Reader.shallowCopy(true);
+
+    executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      // process the entries in chunks to limit the number of entries held in memory
+      for (i = 0; i < entries.size(); i += numThreads) {
+	if (m_Stopped)
+	  break;
+	futures = new ArrayList<>();
+	for (n = i; (n < i + numThreads) && (n < entries.size()); n++) {
+	  entry = entries.get(n);
+	  if (isLoggingEnabled())
+	    getLogger().info("Reading: " + entry.getName());
+	  final AbstractSpectrumReader reader = readers[n - i];
+	  final String name = entry.getName();
+	  final byte[] content = readContent(archive, entry);
+	  futures.add(executor.submit(() -> reader.read(name, content)));
 	}
-	finally {
-	  FileUtils.closeQuietly(in);
-	  FileUtils.closeQuietly(out);
-	  FileUtils.closeQuietly(fos);
+	for (Future<List<Spectrum>> future: futures) {
+	  sublist = future.get();
+	  if (sublist != null)
+	    m_ReadData.addAll(sublist);
 	}
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
 
-	// read file
-	m_Reader.setInput(new PlaceholderFile(outFile));
-	sublist = m_Reader.read();
-	if (sublist != null)
-	  m_ReadData.addAll(sublist);
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    ZipFile				archive;
+    Enumeration<ZipArchiveEntry> 	enm;
+    ZipArchiveEntry			entry;
+    List<ZipArchiveEntry>		entries;
+    int					numThreads;
 
-	// delete file again
-	FileUtils.delete(outFile);
+    archive = null;
+    try {
+      archive = new ZipFile(m_Input.getAbsoluteFile());
+      entries = new ArrayList<>();
+      enm     = archive.getEntries();
+      while (enm.hasMoreElements()) {
+	entry = enm.nextElement();
+	if (isMatch(entry))
+	  entries.add(entry);
       }
+
+      numThreads = Performance.determineNumThreads(m_NumThreads);
+      if ((numThreads > 1) && (entries.size() > 1) && m_Reader.supportsInMemoryReading())
+	readParallel(archive, entries, numThreads);
+      else
+	readSequential(archive, entries);
     }
     catch (Exception e) {
       m_ReadData.clear();
       getLogger().log(Level.SEVERE, "Failed to read from: " + m_Input, e);
     }
+    finally {
+      ZipFile.closeQuietly(archive);
+    }
+  }
+
+  /**
+   * Stops the execution.
+   */
+  @Override
+  public void stopExecution() {
+    super.stopExecution();
+    m_Reader.stopExecution();
   }
 
   /**
@@ -15,7 +15,7 @@
 
 /*
  * OpusBlockHelper.java
- * Copyright (C) 2016-2019 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.io.input.opus;
@@ -29,9 +29,11 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -535,6 +537,9 @@ public class OpusBlockHelper {
   /** increment from data to DPF block type. */
   public final static int BLOCKTYPE_INCREMENT_DATA_TO_DPF = 16;
 
+  /** the mask for the block type bits that are 0 for data blocks. */
+  public final static int BLOCKTYPE_DATA_MASK = 0x000003f0;
+
   /** the END character sequence. */
   public final static byte[] END = new byte[]{'E', 'N', 'D', 0};
 
@@ -643,6 +648,71 @@ public class OpusBlockHelper {
     return result;
   }
 
+  /**
+   * Checks whether the definition is for a spectral data block, ie a block
+   * that has a corresponding data parameter (DPF) block.
+   *
+   * @param def		the definition to check
+   * @param types	the types of all the definitions
+   * @return		true if a data block
+   */
+  public static boolean isDataBlock(BlockDefinition def, Set<Integer> types) {
+    if (def.type == BLOCKTYPE_TEXT)
+      return false;
+    if ((def.type & BLOCKTYPE_DATA_MASK) != 0)
+      return false;
+    return types.contains(def.type + BLOCKTYPE_INCREMENT_DATA_TO_DPF);
+  }
+
+  /**
+   * Reads only the header and the parameter/text blocks from the file,
+   * skipping the (potentially large) spectral data blocks. The returned
+   * buffer has the size of the file, with the content of the data blocks
+   * left empty, so that block offsets stay valid.
+   *
+   * @param file	the file to read
+   * @param errors	for collecting errors
+   * @return		the (partial) file content, null if failed to read
+   */
+  public static byte[] readParameterBlocks(File file, MessageCollection errors) {
+    byte[]			result;
+    RandomAccessFile		raf;
+    List<BlockDefinition>	defs;
+    Set<Integer>		types;
+
+    raf = null;
+    try {
+      raf = new RandomAccessFile(file.getAbsoluteFile(), "r");
+      if (raf.length() > Integer.MAX_VALUE)
+	throw new IllegalStateException("File too large: " + raf.length());
+      result = new byte[(int) raf.length()];
+      raf.readFully(result, 0, Math.min(HEADER_LENGTH + BLOCK_DEFINITION_LENGTH, result.length));
+      defs  = readDefinitions(result, errors);
+      types = new HashSet<>();
+      for (BlockDefinition def: defs)
+	types.add(def.type);
+      for (BlockDefinition def: defs) {
+	if (def.type == BLOCKTYPE_DUMMY)
+	  continue;
+	if (isDataBlock(def, types))
+	  continue;
+	if ((def.offset < 0) || (def.lengthBytes <= 0))
+	  continue;
+	raf.seek(def.offset);
+	raf.readFully(result, def.offset, Math.min(def.lengthBytes, result.length - def.offset));
+      }
+    }
+    catch (Exception e) {
+      errors.add(OpusBlockHelper.class.getName() + ": Failed to read parameter blocks from: " + file + "\n" + e);
+      result = null;
+    }
+    finally {
+      FileUtils.closeQuietly(raf);
+    }
+
+    return result;
+  }
+
   /**
    * Creates blocks from the definitions.
    *
@@ -0,0 +1,241 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinarySpectrumWriter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.io.output;
+
+import adams.core.io.FileUtils;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
+import adams.data.spectrum.SpectrumBinaryUtils.Compression;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ <!-- globalinfo-start -->
+ * Writes spectra in the native binary format (.specb).<br>
+ * Amplitudes are stored as float32 blocks, identical wave number axes are shared between spectra and the reports are embedded. Each spectrum can be compressed individually, and a trailing index allows random access by sample ID.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-output &lt;adams.core.io.PlaceholderFile&gt; (property: output)
+ * &nbsp;&nbsp;&nbsp;The file to write the container to.
+ * &nbsp;&nbsp;&nbsp;default: ${TMP}&#47;out.tmp
+ * </pre>
+ *
+ * <pre>-compression &lt;NONE|GZIP|LZ4&gt; (property: compression)
+ * &nbsp;&nbsp;&nbsp;The compression to apply to the individual spectra.
+ * &nbsp;&nbsp;&nbsp;default: NONE
+ * </pre>
+ *
+ * <pre>-share-axes &lt;boolean&gt; (property: shareAxes)
+ * &nbsp;&nbsp;&nbsp;If enabled, identical wave number axes are only stored once and shared
+ * &nbsp;&nbsp;&nbsp;between spectra.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class BinarySpectrumWriter
+  extends AbstractSpectrumWriter {
+
+  private static final long serialVersionUID = -1930232389417815294L;
+
+  /** the compression to use. */
+  protected Compression m_Compression;
+
+  /** whether to share axes. */
+  protected boolean m_ShareAxes;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Writes spectra in the native binary format (." + SpectrumBinaryUtils.FILE_EXTENSION + ").\n"
+	+ "Amplitudes are stored as float32 blocks, identical wave number axes "
+	+ "are shared between spectra and the reports are embedded. Each "
+	+ "spectrum can be compressed individually, and a trailing index allows "
+	+ "random access by sample ID.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "compression", "compression",
+      Compression.NONE);
+
+    m_OptionManager.add(
+      "share-axes", "shareAxes",
+      true);
+  }
+
+  /**
+   * Sets the compression to use.
+   *
+   * @param value	the compression
+   */
+  public void setCompression(Compression value) {
+    m_Compression = value;
+    reset();
+  }
+
+  /**
+   * Returns the compression to use.
+   *
+   * @return		the compression
+   */
+  public Compression getCompression() {
+    return m_Compression;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String compressionTipText() {
+    return "The compression to apply to the individual spectra.";
+  }
+
+  /**
+   * Sets whether to share identical wave number axes between spectra.
+   *
+   * @param value	true if to share
+   */
+  public void setShareAxes(boolean value) {
+    m_ShareAxes = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to share identical wave number axes between spectra.
+   *
+   * @return		true if to share
+   */
+  public boolean getShareAxes() {
+    return m_ShareAxes;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String shareAxesTipText() {
+    return "If enabled, identical wave number axes are only stored once and shared between spectra.";
+  }
+
+  /**
+   * Returns a string describing the format (used in the file chooser).
+   *
+   * @return a description suitable for displaying in the file chooser
+   */
+  @Override
+  public String getFormatDescription() {
+    return "Binary spectrum format";
+  }
+
+  /**
+   * Returns the extension(s) of the format.
+   *
+   * @return 		the extension(s) (without the dot!)
+   */
+  @Override
+  public String[] getFormatExtensions() {
+    return new String[]{SpectrumBinaryUtils.FILE_EXTENSION};
+  }
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+
+    m_OutputIsFile = true;
+  }
+
+  /**
+   * Returns whether writing of multiple containers is supported.
+   *
+   * @return 		true if multiple containers are supported
+   */
+  @Override
+  public boolean canWriteMultiple() {
+    return true;
+  }
+
+  /**
+   * Performs the actual writing.
+   *
+   * @param data	the data to write
+   * @return		true if successfully written
+   */
+  @Override
+  protected boolean writeData(List<Spectrum> data) {
+    boolean				result;
+    FileOutputStream			fos;
+    BufferedOutputStream		bos;
+    SpectrumBinaryUtils.Writer		writer;
+
+    fos = null;
+    bos = null;
+    try {
+      fos    = new FileOutputStream(getOutput().getAbsoluteFile());
+      bos    = new BufferedOutputStream(fos, 65536);
+      writer = new SpectrumBinaryUtils.Writer(bos, m_Compression, m_ShareAxes);
+      for (Spectrum spec: data)
+	writer.write(spec);
+      writer.finish();
+      result = true;
+    }
+    catch (Exception e) {
+      result = false;
+      getLogger().log(Level.SEVERE, "Failed to write spectra to: " + getOutput(), e);
+    }
+    finally {
+      FileUtils.closeQuietly(bos);
+      FileUtils.closeQuietly(fos);
+    }
+
+    return result;
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * JsonSpectrumWriter.java
- * Copyright (C) 2016-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.output;
@@ -25,12 +25,12 @@ import adams.core.io.PrettyPrintingSupporter;
 import adams.data.report.Field;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumJsonUtils;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.BufferedWriter;
+import java.io.FileWriter;
 import java.util.List;
+import java.util.logging.Level;
 
 /**
 <!-- globalinfo-start -->
@@ -326,34 +326,42 @@ public class JsonSpectrumWriter
    */
   @Override
   protected boolean writeData(List<Spectrum> data) {
-    JsonObject		jspec;
-    JsonArray		jspecs;
-    JsonObject		jcont;
-    GsonBuilder		builder;
-    Gson 		gson;
-    String		content;
-    String		msg;
-
-    jcont  = new JsonObject();
-    jspecs = new JsonArray();
-    for (Spectrum spec: data) {
-      if (m_UseReferenceAndMetaData)
-	jspec = SpectrumJsonUtils.toJson(spec, m_ReferenceValues, m_MetaDataValues);
-      else
-	jspec = SpectrumJsonUtils.toJson(spec);
-      jspecs.add(jspec);
+    boolean		result;
+    FileWriter		fwriter;
+    BufferedWriter	bwriter;
+    JsonWriter		jwriter;
+
+    fwriter = null;
+    bwriter = null;
+    jwriter = null;
+    try {
+      fwriter = new FileWriter(getOutput().getAbsolutePath());
+      bwriter = new BufferedWriter(fwriter);
+      jwriter = SpectrumJsonUtils.newJsonWriter(bwriter, m_PrettyPrinting);
+      jwriter.beginObject();
+      jwriter.name(SpectrumJsonUtils.KEY_SPECTRA);
+      jwriter.beginArray();
+      for (Spectrum spec: data) {
+	if (m_UseReferenceAndMetaData)
+	  SpectrumJsonUtils.write(jwriter, spec, m_ReferenceValues, m_MetaDataValues);
+	else
+	  SpectrumJsonUtils.write(jwriter, spec);
+      }
+      jwriter.endArray();
+      jwriter.endObject();
+      jwriter.flush();
+      result = true;
     }
-    jcont.add("spectra", jspecs);
-    builder = new GsonBuilder();
-    if (m_PrettyPrinting)
-      builder.setPrettyPrinting();
-    gson    = builder.create();
-    content = gson.toJson(jcont);
-
-    msg = FileUtils.writeToFileMsg(getOutput().getAbsolutePath(), content, false, null);
-    if (msg != null)
-      getLogger().severe(msg);
-
-    return (msg == null);
+    catch (Exception e) {
+      result = false;
+      getLogger().log(Level.SEVERE, "Failed to write spectra to: " + getOutput(), e);
+    }
+    finally {
+      FileUtils.closeQuietly(jwriter);
+      FileUtils.closeQuietly(bwriter);
+      FileUtils.closeQuietly(fwriter);
+    }
+
+    return result;
   }
 }
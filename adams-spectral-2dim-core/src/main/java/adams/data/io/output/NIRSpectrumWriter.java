@@ -15,7 +15,7 @@
 
 /*
  * NIRSpectrumWriter.java
- * Copyright (C) 2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.output;
@@ -24,6 +24,7 @@ import adams.core.base.BaseDateTime;
 import adams.core.base.BaseFloat;
 import adams.core.base.BaseInteger;
 import adams.core.io.FileUtils;
+import adams.data.io.output.foss.FossOutputHelper.ChannelWriter;
 import adams.data.io.output.foss.FossOutputHelper.ConstituentValues;
 import adams.data.io.output.foss.FossOutputHelper.DataBlock;
 import adams.data.io.output.foss.FossOutputHelper.Generalheader;
@@ -35,9 +36,7 @@ import adams.data.report.Field;
 import adams.data.report.Report;
 import adams.data.spectrum.Spectrum;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.FileOutputStream;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -942,33 +941,42 @@ public class NIRSpectrumWriter
   }
 
   /**
-   * Generate the byte array that makes up the .nir file.
+   * Streams the sections that make up the .nir file to the writer. The
+   * general header gets written first with a count of zero and patched
+   * with the number of written samples at the end.
    *
    * @param datalist	the Spectra to write.
-   * @return 		byte array.
+   * @param out		the writer to use
+   * @throws Exception	if writing fails
    */
-  protected byte[] genByteArray(List<Spectrum> datalist) throws Exception{
-    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+  protected void write(List<Spectrum> datalist, ChannelWriter out) throws Exception{
     Generalheader gh=getGeneralHeader(datalist);
-    outStream.write(gh.getBytes());
+    long ghpos=out.getPosition();
+    gh.m_count=0;
+    out.write(gh.getBytes());
     InstrumentHeader ih=getInstrumentHeader();
-    outStream.write(ih.getBytes());
+    out.write(ih.getBytes());
+    int count=0;
     for (int i=0;i<datalist.size();i++){
       Spectrum sp=datalist.get(i);
       SampleHeader sh=getSampleHeader( sp, i);
-      outStream.write(sh.getBytes());
+      out.write(sh.getBytes());
       DataBlock db=getDataBlock(sp);
-      outStream.write(db.getBytes());
+      out.write(db.getBytes());
       ConstituentValues cv=getConstituentValues(sp);
-      outStream.write(cv.getBytes());
+      out.write(cv.getBytes());
+      count++;
     }
 
     for (int i=0;i<datalist.size();i++){
       Spectrum sp=datalist.get(i);
       SampleInfo si=getSampleInfo( sp, i);
-      outStream.write(si.getBytes());
+      out.write(si.getBytes());
     }
-    return(outStream.toByteArray());
+
+    // patch counts
+    gh.m_count=count;
+    out.patch(ghpos, gh.getBytes());
   }
 
   /**
@@ -1107,25 +1115,19 @@ public class NIRSpectrumWriter
    */
   @Override
   protected boolean writeData(List<Spectrum> data) {
-    BufferedOutputStream writer = null;
-    FileOutputStream fos = null;
-    // TODO process multiple spectra
+    ChannelWriter writer = null;
     try {
-      byte[] bytes=genByteArray(data);
-      if (bytes != null){
-        fos = new FileOutputStream(m_Output.getAbsolutePath());
-	writer = new BufferedOutputStream(fos);
-	writer.write(bytes);
-	return(true);
-      }
-      return(false);
+      writer = new ChannelWriter(m_Output.getAbsoluteFile(), 65536);
+      write(data, writer);
+      writer.close();
+      writer = null;
+      return(true);
     }catch (Exception e) {
       e.printStackTrace();
       return(false);
     }
     finally {
       FileUtils.closeQuietly(writer);
-      FileUtils.closeQuietly(fos);
     }
   }
 }
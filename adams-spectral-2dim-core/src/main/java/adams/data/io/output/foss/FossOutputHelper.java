@@ -15,7 +15,7 @@
 
 /*
  * FossOutputHelper.java
- * Copyright (C) 2009-2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.io.output.foss;
@@ -24,12 +24,19 @@ import adams.core.IEEE754;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Vector;
 
 /**
- * Classes and Methods for creating a byte array of a FOSS .nir or .cal file.
+ * Classes and Methods for creating a byte array of a FOSS .nir or .cal file,
+ * or for streaming the file content to disk.
  *
  * @author dale
  *
@@ -324,6 +331,109 @@ public class FossOutputHelper {
     }
   }
 
+  /**
+   * Writes the sections of a file to a file channel, using a buffer.
+   * Sections written previously (eg the general header) can be patched.
+   */
+  public static class ChannelWriter
+    implements Closeable {
+
+    /** the channel to write to. */
+    protected FileChannel m_Channel;
+
+    /** the buffer. */
+    protected ByteBuffer m_Buffer;
+
+    /** the number of bytes written so far. */
+    protected long m_Position;
+
+    /**
+     * Opens the file for writing, replacing any existing content.
+     *
+     * @param file		the file to write to
+     * @param bufferSize	the size of the buffer
+     * @throws IOException	if opening fails
+     */
+    public ChannelWriter(File file, int bufferSize) throws IOException {
+      m_Channel  = FileChannel.open(
+	file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      m_Buffer   = ByteBuffer.allocate(bufferSize);
+      m_Position = 0;
+    }
+
+    /**
+     * Appends the bytes.
+     *
+     * @param data	the bytes to write
+     * @throws IOException	if writing fails
+     */
+    public void write(byte[] data) throws IOException {
+      int	offset;
+      int	len;
+
+      offset = 0;
+      while (offset < data.length) {
+	len = Math.min(m_Buffer.remaining(), data.length - offset);
+	m_Buffer.put(data, offset, len);
+	offset += len;
+	if (!m_Buffer.hasRemaining())
+	  flush();
+      }
+      m_Position += data.length;
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return		the position
+     */
+    public long getPosition() {
+      return m_Position;
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException	if writing fails
+     */
+    public void flush() throws IOException {
+      m_Buffer.flip();
+      while (m_Buffer.hasRemaining())
+	m_Channel.write(m_Buffer);
+      m_Buffer.clear();
+    }
+
+    /**
+     * Overwrites previously written bytes.
+     *
+     * @param position	the position in the file
+     * @param data	the bytes to write
+     * @throws IOException	if writing fails
+     */
+    public void patch(long position, byte[] data) throws IOException {
+      ByteBuffer	buf;
+
+      flush();
+      buf = ByteBuffer.wrap(data);
+      while (buf.hasRemaining())
+	position += m_Channel.write(buf, position);
+    }
+
+    /**
+     * Flushes the buffer and closes the channel.
+     *
+     * @throws IOException	if flushing or closing fails
+     */
+    public void close() throws IOException {
+      try {
+	flush();
+      }
+      finally {
+	m_Channel.close();
+      }
+    }
+  }
+
   /**
    * Put bytes of integer into array, Little Endian.
    *
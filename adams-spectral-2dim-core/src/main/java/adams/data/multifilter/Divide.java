@@ -15,13 +15,12 @@
 
 /**
  * Divide.java
- * Copyright (C) 2015 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.multifilter;
 
 import adams.data.spectrum.MultiSpectrum;
 import adams.data.spectrum.Spectrum;
-import adams.data.spectrum.SpectrumPoint;
 
 import java.util.List;
 
@@ -112,26 +111,25 @@ public class Divide
    */
   protected Spectrum processData(MultiSpectrum data, List<Spectrum> spectra) {
     Spectrum		result;
+    float[]		ampl0;
+    float[]		ampl1;
+    float[]		ampl;
     int			i;
-    SpectrumPoint	point0;
-    SpectrumPoint	point1;
 
     // same size?
-    if (spectra.get(0).size() != spectra.get(1).size())
-      throw new IllegalStateException(
-	"Spectra differ in size: " + spectra.get(0).size() + " != " + spectra.get(1).size());
+    SpectrumLanes.checkSameSize(spectra.get(0), spectra.get(1));
 
     // divide
+    ampl0 = SpectrumLanes.amplitudes(spectra.get(0));
+    ampl1 = SpectrumLanes.amplitudes(spectra.get(1));
+    ampl  = new float[ampl0.length];
+    for (i = 0; i < ampl.length; i++)
+      ampl[i] = ampl0[i] / ampl1[i];
+
     result = spectra.get(0).getHeader();
     result.setID(data.getID());
     result.setFormat(m_NewFormat);
-    for (i = 0; i < spectra.get(0).size(); i++) {
-      point0 = spectra.get(0).toList().get(i);
-      point1 = spectra.get(1).toList().get(i);
-      result.add(
-	new SpectrumPoint(
-	  point0.getWaveNumber(), point0.getAmplitude() / point1.getAmplitude()));
-    }
+    SpectrumLanes.fill(result, SpectrumLanes.waveNumbers(spectra.get(0)), ampl);
 
     return result;
   }
@@ -15,7 +15,7 @@
 
 /*
  * Mean.java
- * Copyright (C) 2018 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.multifilter;
 
@@ -122,6 +122,8 @@ public class Mean
     List<Spectrum>	spectra;
     int			i;
     int			n;
+    float[]		waves;
+    float[][]		ampls;
     double[]		values;
     
     result = null;
@@ -146,14 +148,13 @@ public class Mean
       result = spectra.get(0).getHeader();
       result.setID(data.getID());
       result.setFormat(m_NewFormat);
+      waves  = SpectrumLanes.waveNumbers(spectra.get(0));
+      ampls  = SpectrumLanes.amplitudes(spectra);
       values = new double[spectra.size()];
-      for (i = 0; i < spectra.get(0).size(); i++) {
-	for (n = 0; n < spectra.size(); n++)
-	  values[n] = spectra.get(n).toList().get(i).getAmplitude();
-	result.add(
-	    new SpectrumPoint(
-		spectra.get(0).toList().get(i).getWaveNumber(), 
-		(float) StatUtils.mean(values)));
+      for (i = 0; i < waves.length; i++) {
+	for (n = 0; n < ampls.length; n++)
+	  values[n] = ampls[n][i];
+	result.add(new SpectrumPoint(waves[i], (float) StatUtils.mean(values)));
       }
     }
     else if (spectra.size() == 1) {
@@ -15,7 +15,7 @@
 
 /*
  * Median.java
- * Copyright (C) 2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.multifilter;
 
@@ -23,7 +23,6 @@ import adams.core.base.BaseString;
 import adams.data.spectrum.MultiSpectrum;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
-import adams.data.statistics.StatUtils;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -122,6 +121,8 @@ public class Median
     List<Spectrum>	spectra;
     int			i;
     int			n;
+    float[]		waves;
+    float[][]		ampls;
     double[]		values;
     
     result = null;
@@ -146,14 +147,13 @@ public class Median
       result = spectra.get(0).getHeader();
       result.setID(data.getID());
       result.setFormat(m_NewFormat);
+      waves  = SpectrumLanes.waveNumbers(spectra.get(0));
+      ampls  = SpectrumLanes.amplitudes(spectra);
       values = new double[spectra.size()];
-      for (i = 0; i < spectra.get(0).size(); i++) {
-	for (n = 0; n < spectra.size(); n++)
-	  values[n] = spectra.get(n).toList().get(i).getAmplitude();
-	result.add(
-	    new SpectrumPoint(
-		spectra.get(0).toList().get(i).getWaveNumber(), 
-		(float) StatUtils.median(values)));
+      for (i = 0; i < waves.length; i++) {
+	for (n = 0; n < ampls.length; n++)
+	  values[n] = ampls[n][i];
+	result.add(new SpectrumPoint(waves[i], (float) SpectrumLanes.median(values)));
       }
     }
     else if (spectra.size() == 1) {
@@ -0,0 +1,199 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectrumLanes.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+package adams.data.multifilter;
+
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+
+import java.util.List;
+
+/**
+ * Helper methods for multi-spectrum filters that combine spectra pointwise:
+ * extracts wave numbers and amplitudes once as primitive arrays ("lanes"),
+ * so that the combination loops operate on arrays rather than on
+ * point lists.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectrumLanes {
+
+  /**
+   * Returns the wave numbers of the spectrum.
+   *
+   * @param data	the spectrum
+   * @return		the wave numbers
+   */
+  public static float[] waveNumbers(Spectrum data) {
+    float[]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new float[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getWaveNumber();
+
+    return result;
+  }
+
+  /**
+   * Returns the amplitudes of the spectrum.
+   *
+   * @param data	the spectrum
+   * @return		the amplitudes
+   */
+  public static float[] amplitudes(Spectrum data) {
+    float[]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new float[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getAmplitude();
+
+    return result;
+  }
+
+  /**
+   * Returns the amplitudes of the spectra, one row per spectrum.
+   *
+   * @param spectra	the spectra
+   * @return		the amplitudes
+   */
+  public static float[][] amplitudes(List<Spectrum> spectra) {
+    float[][]	result;
+    int		i;
+
+    result = new float[spectra.size()][];
+    for (i = 0; i < spectra.size(); i++)
+      result[i] = amplitudes(spectra.get(i));
+
+    return result;
+  }
+
+  /**
+   * Checks whether the two spectra have the same size.
+   *
+   * @param first	the first spectrum
+   * @param second	the second spectrum
+   * @throws IllegalStateException	if the sizes differ
+   */
+  public static void checkSameSize(Spectrum first, Spectrum second) {
+    if (first.size() != second.size())
+      throw new IllegalStateException(
+	"Spectra differ in size: " + first.size() + " != " + second.size());
+  }
+
+  /**
+   * Creates the spectrum from the wave numbers and amplitudes.
+   *
+   * @param result	the spectrum to add the points to
+   * @param waves	the wave numbers
+   * @param ampls	the amplitudes
+   * @return		the updated spectrum
+   */
+  public static Spectrum fill(Spectrum result, float[] waves, float[] ampls) {
+    int		i;
+
+    for (i = 0; i < waves.length; i++)
+      result.add(new SpectrumPoint(waves[i], ampls[i]));
+
+    return result;
+  }
+
+  /**
+   * Returns the median of the values, using quickselect. For an even number
+   * of values, the mean of the two middle values is returned.
+   * The order of the values is modified.
+   *
+   * @param values	the values
+   * @return		the median, NaN if no values
+   */
+  public static double median(double[] values) {
+    int		n;
+    double	upper;
+    double	lower;
+    int		i;
+
+    n = values.length;
+    if (n == 0)
+      return Double.NaN;
+
+    upper = select(values, n / 2);
+    if (n % 2 == 1)
+      return upper;
+
+    // largest value of lower half
+    lower = values[0];
+    for (i = 1; i < n / 2; i++) {
+      if (values[i] > lower)
+	lower = values[i];
+    }
+
+    return (lower + upper) / 2;
+  }
+
+  /**
+   * Partially orders the values so that the k-th smallest value is at
+   * position k, all smaller ones before and all larger ones after it.
+   *
+   * @param values	the values to partition
+   * @param k		the 0-based rank
+   * @return		the k-th smallest value
+   */
+  protected static double select(double[] values, int k) {
+    int		left;
+    int		right;
+    int		i;
+    int		j;
+    double	pivot;
+    double	tmp;
+
+    left  = 0;
+    right = values.length - 1;
+    while (right > left) {
+      pivot = values[(left + right) >>> 1];
+      i     = left;
+      j     = right;
+      while (i <= j) {
+	while (values[i] < pivot)
+	  i++;
+	while (values[j] > pivot)
+	  j--;
+	if (i <= j) {
+	  tmp       = values[i];
+	  values[i] = values[j];
+	  values[j] = tmp;
+	  i++;
+	  j--;
+	}
+      }
+      if (k <= j)
+	right = j;
+      else if (k >= i)
+	left = i;
+      else
+	break;
+    }
+
+    return values[k];
+  }
+}
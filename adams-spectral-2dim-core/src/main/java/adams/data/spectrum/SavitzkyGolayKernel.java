@@ -0,0 +1,157 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SavitzkyGolayKernel.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrum;
+
+import adams.data.utils.SavitzkyGolay;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared, thread-safe cache of Savitzky-Golay coefficients and the
+ * convolution kernel operating on primitive arrays.
+ * <br><br>
+ * The coefficients are keyed by window (points left/right), polynomial
+ * order and derivative order and are the ones of
+ * {@link SavitzkyGolay#determineCoefficients(int, int, int, int)}.
+ * The cached arrays never leave this class, {@link #getCoefficients(int, int, int, int)}
+ * only returns copies.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SavitzkyGolayKernel {
+
+  /** the cached coefficients. */
+  protected static Map<String,double[]> m_Cache;
+  static {
+    m_Cache = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Generates the key for the cache.
+   *
+   * @param numLeft	the number of points to the left
+   * @param numRight	the number of points to the right
+   * @param polyOrder	the polynomial order
+   * @param derivOrder	the derivative order
+   * @return		the key
+   */
+  protected static String createKey(int numLeft, int numRight, int polyOrder, int derivOrder) {
+    return numLeft + "/" + numRight + "/" + polyOrder + "/" + derivOrder;
+  }
+
+  /**
+   * Returns the cached coefficients, computing them if necessary.
+   *
+   * @param numLeft	the number of points to the left
+   * @param numRight	the number of points to the right
+   * @param polyOrder	the polynomial order
+   * @param derivOrder	the derivative order
+   * @return		the (shared) coefficients, must not be modified
+   */
+  protected static double[] lookUp(final int numLeft, final int numRight, final int polyOrder, final int derivOrder) {
+    return m_Cache.computeIfAbsent(
+      createKey(numLeft, numRight, polyOrder, derivOrder),
+      (String key) -> SavitzkyGolay.determineCoefficients(numLeft, numRight, polyOrder, derivOrder));
+  }
+
+  /**
+   * Returns the coefficients.
+   *
+   * @param numLeft	the number of points to the left
+   * @param numRight	the number of points to the right
+   * @param polyOrder	the polynomial order
+   * @param derivOrder	the derivative order
+   * @return		a copy of the coefficients
+   */
+  public static double[] getCoefficients(int numLeft, int numRight, int polyOrder, int derivOrder) {
+    return lookUp(numLeft, numRight, polyOrder, derivOrder).clone();
+  }
+
+  /**
+   * Returns the number of cached coefficient sets.
+   *
+   * @return		the number of entries
+   */
+  public static int getCacheSize() {
+    return m_Cache.size();
+  }
+
+  /**
+   * Empties the cache.
+   */
+  public static void clearCache() {
+    m_Cache.clear();
+  }
+
+  /**
+   * Returns the number of output values that {@link #convolve} generates.
+   *
+   * @param size	the number of input values
+   * @param numLeft	the number of points to the left
+   * @param numRight	the number of points to the right
+   * @return		the number of output values
+   */
+  public static int outputSize(int size, int numLeft, int numRight) {
+    return Math.max(0, size - numLeft - numRight);
+  }
+
+  /**
+   * Convolves the input with the (cached) coefficients for the specified
+   * setup. Only positions with a complete window are output, i.e., output[i]
+   * corresponds to input[i + numLeft].
+   *
+   * @param input	the input values
+   * @param size	the number of valid input values
+   * @param numLeft	the number of points to the left
+   * @param numRight	the number of points to the right
+   * @param polyOrder	the polynomial order
+   * @param derivOrder	the derivative order
+   * @param output	the array to store the values in, needs capacity of at
+   * 			least {@link #outputSize(int, int, int)}
+   * @return		the number of output values
+   */
+  public static int convolve(double[] input, int size, int numLeft, int numRight, int polyOrder, int derivOrder, double[] output) {
+    return convolve(input, size, numLeft, numRight, polyOrder, derivOrder, false, output);
+  }
+
+  /**
+   * Convolves the input with the (cached) coefficients for the specified
+   * setup. Only positions with a complete window are output, i.e., output[i]
+   * corresponds to input[i + numLeft]. Optionally, large windows get
+   * convolved in the frequency domain.
+   *
+   * @param input	the input values
+   * @param size	the number of valid input values
+   * @param numLeft	the number of points to the left
+   * @param numRight	the number of points to the right
+   * @param polyOrder	the polynomial order
+   * @param derivOrder	the derivative order
+   * @param useFFT	whether to use FFT for large windows, see
+   * 			{@link SignalProcessing#correlateValid(double[], int, double[], double[], boolean)}
+   * @param output	the array to store the values in, needs capacity of at
+   * 			least {@link #outputSize(int, int, int)}
+   * @return		the number of output values
+   */
+  public static int convolve(double[] input, int size, int numLeft, int numRight, int polyOrder, int derivOrder, boolean useFFT, double[] output) {
+    return SignalProcessing.correlateValid(input, size, lookUp(numLeft, numRight, polyOrder, derivOrder), output, useFFT);
+  }
+}
@@ -0,0 +1,554 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SignalProcessing.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrum;
+
+import adams.data.InterpolationUtils;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signal processing routines for spectrum filters that operate on primitive
+ * arrays: radix-2 FFT with cached plans (complex and real-valued input),
+ * direct and overlap-add correlation, linear resampling at equi-distant
+ * positions and integer decimation.
+ * <br><br>
+ * Plans are shared between threads and must not be modified.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SignalProcessing {
+
+  /**
+   * Precomputed twiddle factors and bit-reversal permutation for a
+   * specific FFT size.
+   */
+  public static class FFTPlan
+    implements Serializable {
+
+    private static final long serialVersionUID = 2826385618023640175L;
+
+    /** the size of the transform. */
+    protected int m_Size;
+
+    /** the cosine table. */
+    protected double[] m_Cos;
+
+    /** the sine table. */
+    protected double[] m_Sin;
+
+    /** the bit-reversal permutation. */
+    protected int[] m_Reverse;
+
+    /**
+     * Initializes the plan.
+     *
+     * @param size	the size of the transform, must be a power of 2
+     */
+    public FFTPlan(int size) {
+      int	i;
+      int	bits;
+
+      if ((size < 1) || (Integer.bitCount(size) != 1))
+	throw new IllegalArgumentException("FFT size must be a power of 2, provided: " + size);
+
+      m_Size    = size;
+      m_Cos     = new double[size / 2];
+      m_Sin     = new double[size / 2];
+      m_Reverse = new int[size];
+      for (i = 0; i < size / 2; i++) {
+	m_Cos[i] = Math.cos(2 * Math.PI * i / size);
+	m_Sin[i] = Math.sin(2 * Math.PI * i / size);
+      }
+      bits = Integer.numberOfTrailingZeros(size);
+      for (i = 0; i < size; i++)
+	m_Reverse[i] = (bits == 0) ? 0 : (Integer.reverse(i) >>> (32 - bits));
+    }
+
+    /**
+     * Returns the size of the transform.
+     *
+     * @return		the size
+     */
+    public int getSize() {
+      return m_Size;
+    }
+
+    /**
+     * Performs the transform in place. The forward transform is
+     * unnormalized, the inverse one scales by 1/size.
+     *
+     * @param re	the real parts
+     * @param im	the imaginary parts
+     * @param inverse	whether to perform the inverse transform
+     */
+    public void transform(double[] re, double[] im, boolean inverse) {
+      int	i;
+      int	j;
+      int	k;
+      int	len;
+      int	half;
+      int	step;
+      double	sign;
+      double	tRe;
+      double	tIm;
+      double	wRe;
+      double	wIm;
+      double	tmp;
+
+      // bit-reversal
+      for (i = 0; i < m_Size; i++) {
+	j = m_Reverse[i];
+	if (j > i) {
+	  tmp   = re[i];
+	  re[i] = re[j];
+	  re[j] = tmp;
+	  tmp   = im[i];
+	  im[i] = im[j];
+	  im[j] = tmp;
+	}
+      }
+
+      // butterflies
+      sign = inverse ? 1 : -1;
+      for (len = 2; len <= m_Size; len <<= 1) {
+	half = len / 2;
+	step = m_Size / len;
+	for (i = 0; i < m_Size; i += len) {
+	  for (k = 0; k < half; k++) {
+	    wRe = m_Cos[k * step];
+	    wIm = sign * m_Sin[k * step];
+	    j   = i + k + half;
+	    tRe = re[j] * wRe - im[j] * wIm;
+	    tIm = re[j] * wIm + im[j] * wRe;
+	    re[j]         = re[i + k] - tRe;
+	    im[j]         = im[i + k] - tIm;
+	    re[i + k]    += tRe;
+	    im[i + k]    += tIm;
+	  }
+	}
+      }
+
+      if (inverse) {
+	for (i = 0; i < m_Size; i++) {
+	  re[i] /= m_Size;
+	  im[i] /= m_Size;
+	}
+      }
+    }
+  }
+
+  /** the minimum kernel size for using FFT-based convolution. */
+  public static final int FFT_CONVOLUTION_THRESHOLD = 64;
+
+  /** the cached plans. */
+  protected static Map<Integer,FFTPlan> m_Plans;
+  static {
+    m_Plans = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the smallest power of 2 that is at least as large as the value.
+   *
+   * @param value	the value
+   * @return		the power of 2
+   */
+  public static int nextPowerOf2(int value) {
+    int		result;
+
+    result = 1;
+    while (result < value)
+      result <<= 1;
+
+    return result;
+  }
+
+  /**
+   * Returns the (shared) plan for the specified size.
+   *
+   * @param size	the size, must be a power of 2
+   * @return		the plan
+   */
+  public static FFTPlan getPlan(int size) {
+    return m_Plans.computeIfAbsent(size, FFTPlan::new);
+  }
+
+  /**
+   * Returns the number of cached plans.
+   *
+   * @return		the number of plans
+   */
+  public static int getPlanCacheSize() {
+    return m_Plans.size();
+  }
+
+  /**
+   * Empties the plan cache.
+   */
+  public static void clearPlanCache() {
+    m_Plans.clear();
+  }
+
+  /**
+   * Forward transform of real-valued input, computed with a complex
+   * transform of half the size. Only the non-redundant bins 0 to n/2 get
+   * output, the remaining ones are their complex conjugates. Unnormalized,
+   * like {@link FFTPlan#transform(double[], double[], boolean)}.
+   *
+   * @param input	the input values, at least n
+   * @param n		the size of the transform, power of 2 and at least 2
+   * @param re		for storing the real parts, at least n/2 + 1
+   * @param im		for storing the imaginary parts, at least n/2 + 1
+   */
+  public static void realForward(double[] input, int n, double[] re, double[] im) {
+    FFTPlan	plan;
+    FFTPlan	half;
+    int		h;
+    int		k;
+    int		k2;
+    double[]	zRe;
+    double[]	zIm;
+    double	feRe;
+    double	feIm;
+    double	foRe;
+    double	foIm;
+    double	wRe;
+    double	wIm;
+
+    plan = getPlan(n);
+    h    = n / 2;
+    half = getPlan(h);
+
+    // even values as real, odd ones as imaginary parts
+    zRe = new double[h];
+    zIm = new double[h];
+    for (k = 0; k < h; k++) {
+      zRe[k] = input[2 * k];
+      zIm[k] = input[2 * k + 1];
+    }
+    half.transform(zRe, zIm, false);
+
+    // split into the transforms of the even and odd values and combine
+    for (k = 0; k < h; k++) {
+      k2   = (h - k) % h;
+      feRe = (zRe[k] + zRe[k2]) / 2;
+      feIm = (zIm[k] - zIm[k2]) / 2;
+      foRe = (zIm[k] + zIm[k2]) / 2;
+      foIm = (zRe[k2] - zRe[k]) / 2;
+      wRe  = plan.m_Cos[k];
+      wIm  = -plan.m_Sin[k];
+      re[k] = feRe + wRe * foRe - wIm * foIm;
+      im[k] = feIm + wRe * foIm + wIm * foRe;
+      if (k == 0) {
+	re[h] = feRe - foRe;
+	im[h] = feIm - foIm;
+      }
+    }
+  }
+
+  /**
+   * Inverse transform to real-valued output from the bins 0 to n/2, as
+   * generated by {@link #realForward(double[], int, double[], double[])}.
+   * Scales by 1/n.
+   *
+   * @param re		the real parts, at least n/2 + 1
+   * @param im		the imaginary parts, at least n/2 + 1
+   * @param n		the size of the transform, power of 2 and at least 2
+   * @param output	for storing the values, at least n
+   */
+  public static void realInverse(double[] re, double[] im, int n, double[] output) {
+    FFTPlan	plan;
+    FFTPlan	half;
+    int		h;
+    int		k;
+    double[]	zRe;
+    double[]	zIm;
+    double	feRe;
+    double	feIm;
+    double	bRe;
+    double	bIm;
+    double	foRe;
+    double	foIm;
+    double	wRe;
+    double	wIm;
+
+    plan = getPlan(n);
+    h    = n / 2;
+    half = getPlan(h);
+
+    // recover the transforms of the even and odd values
+    zRe = new double[h];
+    zIm = new double[h];
+    for (k = 0; k < h; k++) {
+      feRe = (re[k] + re[h - k]) / 2;
+      feIm = (im[k] - im[h - k]) / 2;
+      bRe  = (re[k] - re[h - k]) / 2;
+      bIm  = (im[k] + im[h - k]) / 2;
+      wRe  = plan.m_Cos[k];
+      wIm  = plan.m_Sin[k];
+      foRe = bRe * wRe - bIm * wIm;
+      foIm = bRe * wIm + bIm * wRe;
+      zRe[k] = feRe - foIm;
+      zIm[k] = feIm + foRe;
+    }
+    half.transform(zRe, zIm, true);
+
+    for (k = 0; k < h; k++) {
+      output[2 * k]     = zRe[k];
+      output[2 * k + 1] = zIm[k];
+    }
+  }
+
+  /**
+   * Correlates the input with the coefficients, only outputting positions
+   * with a complete window, i.e., output[i] = sum_n coeffs[n] * input[i + n].
+   * Uses direct evaluation.
+   *
+   * @param input	the input values
+   * @param size	the number of valid input values
+   * @param coeffs	the coefficients
+   * @param output	the array for the values, needs capacity of at least
+   * 			size - coeffs.length + 1
+   * @return		the number of output values
+   * @see		#correlateValid(double[], int, double[], double[], boolean)
+   */
+  public static int correlateValid(double[] input, int size, double[] coeffs, double[] output) {
+    return correlateValid(input, size, coeffs, output, false);
+  }
+
+  /**
+   * Correlates the input with the coefficients, only outputting positions
+   * with a complete window, i.e., output[i] = sum_n coeffs[n] * input[i + n].
+   * If FFT is enabled, kernels of at least {@link #FFT_CONVOLUTION_THRESHOLD}
+   * coefficients get correlated with overlap-add in the frequency domain,
+   * otherwise direct evaluation is used. The FFT-based results are not
+   * bit-identical to direct evaluation, but differ only by rounding errors.
+   *
+   * @param input	the input values
+   * @param size	the number of valid input values
+   * @param coeffs	the coefficients
+   * @param output	the array for the values, needs capacity of at least
+   * 			size - coeffs.length + 1
+   * @param useFFT	whether to use FFT for large kernels
+   * @return		the number of output values
+   */
+  public static int correlateValid(double[] input, int size, double[] coeffs, double[] output, boolean useFFT) {
+    int		result;
+    int		i;
+    int		n;
+    double	sum;
+
+    result = Math.max(0, size - coeffs.length + 1);
+    if (result == 0)
+      return result;
+
+    if (useFFT && (coeffs.length >= FFT_CONVOLUTION_THRESHOLD)) {
+      overlapAdd(input, size, coeffs, output, result);
+      return result;
+    }
+
+    for (i = 0; i < result; i++) {
+      sum = 0;
+      for (n = 0; n < coeffs.length; n++)
+	sum += coeffs[n] * input[i + n];
+      output[i] = sum;
+    }
+
+    return result;
+  }
+
+  /**
+   * Correlation via overlap-add: the input gets split into blocks, which
+   * get convolved with the reversed coefficients in the frequency domain,
+   * using real-valued transforms.
+   *
+   * @param input	the input values
+   * @param size	the number of valid input values
+   * @param coeffs	the coefficients
+   * @param output	the array for the values
+   * @param numOutput	the number of values to output
+   */
+  protected static void overlapAdd(double[] input, int size, double[] coeffs, double[] output, int numOutput) {
+    int		m;
+    int		n;
+    int		h;
+    int		block;
+    double[]	kernelRe;
+    double[]	kernelIm;
+    double[]	values;
+    double[]	re;
+    double[]	im;
+    double[]	full;
+    double	tmp;
+    int		start;
+    int		len;
+    int		i;
+
+    m      = coeffs.length;
+    n      = nextPowerOf2(4 * m);
+    h      = n / 2;
+    block  = n - m + 1;
+    values = new double[n];
+
+    // spectrum of reversed kernel
+    kernelRe = new double[h + 1];
+    kernelIm = new double[h + 1];
+    for (i = 0; i < m; i++)
+      values[i] = coeffs[m - 1 - i];
+    realForward(values, n, kernelRe, kernelIm);
+
+    full = new double[size + m - 1];
+    re   = new double[h + 1];
+    im   = new double[h + 1];
+    for (start = 0; start < size; start += block) {
+      len = Math.min(block, size - start);
+      System.arraycopy(input, start, values, 0, len);
+      for (i = len; i < n; i++)
+	values[i] = 0;
+      realForward(values, n, re, im);
+      for (i = 0; i <= h; i++) {
+	tmp   = re[i] * kernelRe[i] - im[i] * kernelIm[i];
+	im[i] = re[i] * kernelIm[i] + im[i] * kernelRe[i];
+	re[i] = tmp;
+      }
+      realInverse(re, im, n, values);
+      for (i = 0; i < len + m - 1; i++)
+	full[start + i] += values[i];
+    }
+
+    System.arraycopy(full, m - 1, output, 0, numOutput);
+  }
+
+  /**
+   * Resamples the values at equi-distant positions between the first and the
+   * last position, using linear interpolation. First and last value are kept.
+   * Values whose position coincides with a new position get averaged with
+   * the interpolation of their neighbours in the output.
+   *
+   * @param x		the positions, sorted ascending
+   * @param y		the values
+   * @param size	the number of valid positions/values
+   * @param numPoints	the number of equi-distant positions to generate
+   * @param outX	for storing the new positions, at least max(2, numPoints)
+   * @param outY	for storing the new values, at least max(2, numPoints)
+   * @return		the number of output values
+   */
+  public static int resampleLinear(float[] x, float[] y, int size, int numPoints, float[] outX, float[] outY) {
+    int		result;
+    double	spacing;
+    float	pos;
+    int[]	exact;
+    int		numExact;
+    int		index;
+    float	value;
+    int		i;
+    int		j;
+
+    result  = Math.max(2, numPoints);
+    spacing = x[size - 1] - x[0];
+    spacing /= (numPoints - 1);
+
+    // first/last points are kept
+    outX[0]          = x[0];
+    outY[0]          = y[0];
+    outX[result - 1] = x[size - 1];
+    outY[result - 1] = y[size - 1];
+
+    // interpolate (excluding first/last), locating the enclosing points
+    // with a single forward pass
+    exact    = new int[result];
+    numExact = 0;
+    j        = 0;
+    for (i = 1; i < numPoints - 1; i++) {
+      pos = (float) ((double) x[0] + (double) i * spacing);
+      while ((j < size - 1) && (x[j] < pos))
+	j++;
+      outX[i] = pos;
+      if (x[j] == pos) {
+	// position of the point in the output at time of insertion, with
+	// first/last already present (gets post-processed)
+	exact[numExact++] = i + 1;
+	outY[i] = y[j];
+      }
+      else {
+	outY[i] = (float) InterpolationUtils.interpolate(pos, x[j - 1], y[j - 1], x[j], y[j]);
+      }
+    }
+
+    // post-process exact hits, using interpolated values either side
+    for (i = 0; i < numExact; i++) {
+      index = exact[i];
+      if (index < result - 1)
+	value = (float) InterpolationUtils.interpolate(outX[index], outX[index - 1], outY[index - 1], outX[index + 1], outY[index + 1]);
+      else
+	value = (float) InterpolationUtils.interpolate(outX[index], outX[index - 1], outY[index - 1], outX[index], outY[index]);
+      outY[index] = (value + outY[index]) / 2;
+    }
+
+    return result;
+  }
+
+  /**
+   * Keeps every n-th value, starting with the specified phase.
+   *
+   * @param input	the input values
+   * @param size	the number of valid input values
+   * @param nth		the decimation factor
+   * @param phase	the offset of the first value to keep
+   * @param output	the array for the values (can be the input array)
+   * @return		the number of output values
+   */
+  public static int decimate(double[] input, int size, int nth, int phase, double[] output) {
+    int		result;
+    int		i;
+
+    if (nth < 1)
+      throw new IllegalArgumentException("Decimation factor must be at least 1, provided: " + nth);
+
+    result = 0;
+    for (i = phase; i < size; i += nth)
+      output[result++] = input[i];
+
+    return result;
+  }
+
+  /**
+   * Returns the mean of the differences between consecutive values.
+   *
+   * @param values	the values
+   * @param size	the number of valid values
+   * @return		the mean difference, 0 if less than two values
+   */
+  public static double meanDelta(float[] values, int size) {
+    double	result;
+    int		i;
+
+    if (size < 2)
+      return 0;
+
+    result = 0;
+    for (i = 1; i < size; i++)
+      result += values[i] - values[i - 1];
+
+    return result / (size - 1);
+  }
+}
@@ -0,0 +1,860 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectrumBinaryUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrum;
+
+import adams.core.Properties;
+import adams.data.sampledata.SampleData;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * For reading/writing spectra in the native binary container format (.specb).
+ * <br><br>
+ * Layout of a file:
+ * <pre>
+ * header:  int magic, short version, byte compression, byte reserved
+ * records: byte type (axis/spectrum), int raw length, int stored length, stored bytes
+ * index:   int #axes, long offset per axis, int #spectra, (UTF sample ID, long offset) per spectrum
+ * trailer: long index offset, int magic
+ * </pre>
+ * The raw content of an axis record is the number of points followed by the
+ * float32 wave numbers. The raw content of a spectrum record is ID, format,
+ * axis index (-1 if wave numbers are stored in the record), number of points,
+ * (wave numbers,) float32 amplitudes and the report (length-prefixed UTF-8
+ * properties in comment form, -1 if none). Records get compressed
+ * individually, allowing random access via the trailing index.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectrumBinaryUtils {
+
+  /** the file extension. */
+  public static final String FILE_EXTENSION = "specb";
+
+  /** the magic number ("SPCB"). */
+  public static final int MAGIC = 0x53504342;
+
+  /** the version of the format. */
+  public static final short VERSION = 1;
+
+  /** the size of the header in bytes. */
+  public static final int HEADER_SIZE = 8;
+
+  /** the size of the trailer in bytes. */
+  public static final int TRAILER_SIZE = 12;
+
+  /** record type: axis. */
+  public static final byte RECORD_AXIS = 'A';
+
+  /** record type: spectrum. */
+  public static final byte RECORD_SPECTRUM = 'S';
+
+  /** indicator that the spectrum stores its own wave numbers. */
+  public static final int NO_AXIS = -1;
+
+  /** the MIME type for a single spectrum record (uncompressed). */
+  public static final String MIME_TYPE = "application/x-spectrum";
+
+  /**
+   * The compression to apply to the records.
+   */
+  public enum Compression {
+    NONE,
+    GZIP,
+    LZ4,
+  }
+
+  /**
+   * The index of a file, for random access.
+   */
+  public static class Index {
+
+    /** the compression in use. */
+    protected Compression m_Compression;
+
+    /** the offsets of the axes. */
+    protected long[] m_AxisOffsets;
+
+    /** the sample IDs (in order of the file). */
+    protected List<String> m_IDs;
+
+    /** the offsets of the spectra (in order of the file). */
+    protected long[] m_Offsets;
+
+    /** the lookup for sample ID to position (first occurrence). */
+    protected Map<String,Integer> m_Lookup;
+
+    /**
+     * Initializes the index.
+     *
+     * @param compression	the compression
+     * @param axisOffsets	the offsets of the axes
+     * @param ids		the sample IDs
+     * @param offsets		the offsets of the spectra
+     */
+    public Index(Compression compression, long[] axisOffsets, List<String> ids, long[] offsets) {
+      int	i;
+
+      m_Compression = compression;
+      m_AxisOffsets = axisOffsets;
+      m_IDs         = ids;
+      m_Offsets     = offsets;
+      m_Lookup      = new HashMap<>();
+      for (i = 0; i < ids.size(); i++) {
+	if (!m_Lookup.containsKey(ids.get(i)))
+	  m_Lookup.put(ids.get(i), i);
+      }
+    }
+
+    /**
+     * Returns the compression in use.
+     *
+     * @return		the compression
+     */
+    public Compression getCompression() {
+      return m_Compression;
+    }
+
+    /**
+     * Returns the number of spectra.
+     *
+     * @return		the number of spectra
+     */
+    public int size() {
+      return m_IDs.size();
+    }
+
+    /**
+     * Returns the sample ID at the specified position.
+     *
+     * @param index	the position
+     * @return		the sample ID
+     */
+    public String getID(int index) {
+      return m_IDs.get(index);
+    }
+
+    /**
+     * Returns the offset of the spectrum at the specified position.
+     *
+     * @param index	the position
+     * @return		the offset
+     */
+    public long getOffset(int index) {
+      return m_Offsets[index];
+    }
+
+    /**
+     * Returns the position of the spectrum with the specified sample ID.
+     *
+     * @param id	the sample ID to look for
+     * @return		the position, -1 if not found
+     */
+    public int indexOf(String id) {
+      if (m_Lookup.containsKey(id))
+	return m_Lookup.get(id);
+      else
+	return -1;
+    }
+
+    /**
+     * Returns the number of shared axes.
+     *
+     * @return		the number of axes
+     */
+    public int numAxes() {
+      return m_AxisOffsets.length;
+    }
+
+    /**
+     * Returns the offset of the axis.
+     *
+     * @param axis	the index of the axis
+     * @return		the offset
+     */
+    public long getAxisOffset(int axis) {
+      return m_AxisOffsets[axis];
+    }
+  }
+
+  /**
+   * Compresses the data.
+   *
+   * @param data	the data to compress
+   * @param compression	the compression to apply
+   * @return		the compressed data
+   * @throws IOException	if compression fails
+   */
+  public static byte[] compress(byte[] data, Compression compression) throws IOException {
+    ByteArrayOutputStream	bos;
+    OutputStream		out;
+
+    if (compression == Compression.NONE)
+      return data;
+
+    bos = new ByteArrayOutputStream(data.length / 2 + 16);
+    switch (compression) {
+      case GZIP:
+	out = new GZIPOutputStream(bos);
+	break;
+      case LZ4:
+	out = new FramedLZ4CompressorOutputStream(bos);
+	break;
+      default:
+	throw new IllegalStateException("Unhandled compression: " + compression);
+    }
+    out.write(data);
+    out.close();
+
+    return bos.toByteArray();
+  }
+
+  /**
+   * Decompresses the data.
+   *
+   * @param data	the data to decompress
+   * @param rawLength	the length of the uncompressed data
+   * @param compression	the compression that was applied
+   * @return		the uncompressed data
+   * @throws IOException	if decompression fails
+   */
+  public static byte[] decompress(byte[] data, int rawLength, Compression compression) throws IOException {
+    InputStream		in;
+    byte[]		result;
+    int			read;
+    int			len;
+
+    if (compression == Compression.NONE)
+      return data;
+
+    switch (compression) {
+      case GZIP:
+	in = new GZIPInputStream(new ByteArrayInputStream(data));
+	break;
+      case LZ4:
+	in = new FramedLZ4CompressorInputStream(new ByteArrayInputStream(data));
+	break;
+      default:
+	throw new IllegalStateException("Unhandled compression: " + compression);
+    }
+    result = new byte[rawLength];
+    read   = 0;
+    try {
+      while (read < rawLength) {
+	len = in.read(result, read, rawLength - read);
+	if (len == -1)
+	  throw new IOException("Premature end of compressed data: " + read + " < " + rawLength);
+	read += len;
+      }
+    }
+    finally {
+      in.close();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the wave numbers of the spectrum.
+   *
+   * @param spec	the spectrum to get the wave numbers from
+   * @return		the wave numbers
+   */
+  public static float[] getWaveNumbers(Spectrum spec) {
+    float[]			result;
+    List<SpectrumPoint>		points;
+    int				i;
+
+    points = spec.toList();
+    result = new float[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getWaveNumber();
+
+    return result;
+  }
+
+  /**
+   * Returns the amplitudes of the spectrum.
+   *
+   * @param spec	the spectrum to get the amplitudes from
+   * @return		the amplitudes
+   */
+  public static float[] getAmplitudes(Spectrum spec) {
+    float[]			result;
+    List<SpectrumPoint>		points;
+    int				i;
+
+    points = spec.toList();
+    result = new float[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getAmplitude();
+
+    return result;
+  }
+
+  /**
+   * Packs the floats into a byte array (float32, big endian).
+   *
+   * @param values	the values to pack
+   * @return		the packed values
+   */
+  public static byte[] packFloats(float[] values) {
+    ByteBuffer	buffer;
+
+    buffer = ByteBuffer.allocate(values.length * 4);
+    buffer.asFloatBuffer().put(values);
+
+    return buffer.array();
+  }
+
+  /**
+   * Unpacks the floats from the byte array (float32, big endian).
+   *
+   * @param data	the packed values
+   * @return		the values
+   * @throws IllegalArgumentException	if the length is not a multiple of 4
+   */
+  public static float[] unpackFloats(byte[] data) {
+    float[]	result;
+
+    if (data.length % 4 != 0)
+      throw new IllegalArgumentException("Number of bytes is not a multiple of 4: " + data.length);
+
+    result = new float[data.length / 4];
+    ByteBuffer.wrap(data).asFloatBuffer().get(result);
+
+    return result;
+  }
+
+  /**
+   * Encodes the spectrum as a single, uncompressed spectrum record that
+   * stores its own wave numbers, e.g., for sending it over the wire.
+   *
+   * @param spec	the spectrum to encode
+   * @return		the encoded spectrum
+   * @throws IOException	if encoding fails
+   * @see		#MIME_TYPE
+   */
+  public static byte[] toBytes(Spectrum spec) throws IOException {
+    return encodeSpectrum(spec, NO_AXIS);
+  }
+
+  /**
+   * Decodes a spectrum generated by {@link #toBytes(Spectrum)}.
+   *
+   * @param data	the encoded spectrum
+   * @return		the spectrum
+   * @throws IOException	if decoding fails or spectrum references a shared axis
+   * @see		#MIME_TYPE
+   */
+  public static Spectrum fromBytes(byte[] data) throws IOException {
+    return decodeSpectrum(data, (int axis) -> {
+      throw new IOException("Shared axes not supported for single spectra: " + axis);
+    });
+  }
+
+  /**
+   * Writes the file header.
+   *
+   * @param out		the stream to write to
+   * @param compression	the compression in use
+   * @throws IOException	if writing fails
+   */
+  public static void writeHeader(DataOutputStream out, Compression compression) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeShort(VERSION);
+    out.writeByte(compression.ordinal());
+    out.writeByte(0);
+  }
+
+  /**
+   * Encodes the wave numbers as axis record content.
+   *
+   * @param waves	the wave numbers
+   * @return		the raw record content
+   * @throws IOException	if encoding fails
+   */
+  public static byte[] encodeAxis(float[] waves) throws IOException {
+    ByteArrayOutputStream	bos;
+    DataOutputStream		out;
+
+    bos = new ByteArrayOutputStream(4 + waves.length * 4);
+    out = new DataOutputStream(bos);
+    out.writeInt(waves.length);
+    for (float wave: waves)
+      out.writeFloat(wave);
+    out.flush();
+
+    return bos.toByteArray();
+  }
+
+  /**
+   * Decodes the axis record content.
+   *
+   * @param data	the raw record content
+   * @return		the wave numbers
+   * @throws IOException	if decoding fails
+   */
+  public static float[] decodeAxis(byte[] data) throws IOException {
+    DataInputStream	in;
+    float[]		result;
+    int			i;
+
+    in     = new DataInputStream(new ByteArrayInputStream(data));
+    result = new float[in.readInt()];
+    for (i = 0; i < result.length; i++)
+      result[i] = in.readFloat();
+
+    return result;
+  }
+
+  /**
+   * Encodes the spectrum as spectrum record content.
+   *
+   * @param spec	the spectrum to encode
+   * @param axis	the index of the shared axis, {@link #NO_AXIS} to store the wave numbers
+   * @return		the raw record content
+   * @throws IOException	if encoding fails
+   */
+  public static byte[] encodeSpectrum(Spectrum spec, int axis) throws IOException {
+    ByteArrayOutputStream	bos;
+    DataOutputStream		out;
+    List<SpectrumPoint>		points;
+    byte[]			report;
+
+    points = spec.toList();
+    bos    = new ByteArrayOutputStream(64 + points.size() * 8);
+    out    = new DataOutputStream(bos);
+    out.writeUTF(spec.getID());
+    out.writeUTF(spec.getFormat());
+    out.writeInt(axis);
+    out.writeInt(points.size());
+    if (axis == NO_AXIS) {
+      for (SpectrumPoint point: points)
+	out.writeFloat(point.getWaveNumber());
+    }
+    for (SpectrumPoint point: points)
+      out.writeFloat(point.getAmplitude());
+    if (spec.hasReport()) {
+      report = spec.getReport().toProperties().toComment().getBytes(StandardCharsets.UTF_8);
+      out.writeInt(report.length);
+      out.write(report);
+    }
+    else {
+      out.writeInt(-1);
+    }
+    out.flush();
+
+    return bos.toByteArray();
+  }
+
+  /**
+   * Decodes the spectrum record content.
+   *
+   * @param data	the raw record content
+   * @param axes	for obtaining the shared axes
+   * @return		the spectrum
+   * @throws IOException	if decoding fails
+   */
+  public static Spectrum decodeSpectrum(byte[] data, AxisProvider axes) throws IOException {
+    Spectrum		result;
+    DataInputStream	in;
+    String		id;
+    String		format;
+    int			axis;
+    int			size;
+    float[]		waves;
+    int			i;
+    int			len;
+    byte[]		report;
+    List<SpectrumPoint>	points;
+
+    in     = new DataInputStream(new ByteArrayInputStream(data));
+    id     = in.readUTF();
+    format = in.readUTF();
+    axis   = in.readInt();
+    size   = in.readInt();
+    if (axis == NO_AXIS) {
+      waves = new float[size];
+      for (i = 0; i < size; i++)
+	waves[i] = in.readFloat();
+    }
+    else {
+      waves = axes.getAxis(axis);
+      if (waves.length != size)
+	throw new IOException("Axis #" + axis + " has " + waves.length + " wave numbers, but spectrum '" + id + "' has " + size + " amplitudes!");
+    }
+    points = new ArrayList<>(size);
+    for (i = 0; i < size; i++)
+      points.add(new SpectrumPoint(waves[i], in.readFloat()));
+
+    result = new Spectrum();
+    len    = in.readInt();
+    if (len > -1) {
+      report = new byte[len];
+      in.readFully(report);
+      result.setReport(SampleData.parseProperties(Properties.fromComment(new String(report, StandardCharsets.UTF_8))));
+    }
+    result.setID(id);
+    result.setFormat(format);
+    result.addAll(points);
+
+    return result;
+  }
+
+  /**
+   * For obtaining shared axes.
+   */
+  public interface AxisProvider {
+
+    /**
+     * Returns the wave numbers of the specified axis.
+     *
+     * @param axis	the index of the axis
+     * @return		the wave numbers
+     * @throws IOException	if retrieving fails
+     */
+    public float[] getAxis(int axis) throws IOException;
+  }
+
+  /**
+   * Reads the index from the file.
+   *
+   * @param file	the file to read from
+   * @return		the index
+   * @throws IOException	if reading fails or not a valid file
+   */
+  public static Index readIndex(RandomAccessFile file) throws IOException {
+    Compression		compression;
+    int			version;
+    int			ordinal;
+    long		offset;
+    long[]		axes;
+    List<String>	ids;
+    long[]		offsets;
+    int			i;
+
+    if (file.length() < HEADER_SIZE + TRAILER_SIZE)
+      throw new IOException("File too short!");
+
+    // header
+    file.seek(0);
+    if (file.readInt() != MAGIC)
+      throw new IOException("Not a binary spectrum file (magic number mismatch)!");
+    version = file.readShort();
+    if (version > VERSION)
+      throw new IOException("Unsupported version: " + version);
+    ordinal = file.readUnsignedByte();
+    if (ordinal >= Compression.values().length)
+      throw new IOException("Unsupported compression: " + ordinal);
+    compression = Compression.values()[ordinal];
+
+    // trailer
+    file.seek(file.length() - TRAILER_SIZE);
+    offset = file.readLong();
+    if (file.readInt() != MAGIC)
+      throw new IOException("Missing trailer, file incomplete?");
+
+    // index
+    file.seek(offset);
+    axes = new long[file.readInt()];
+    for (i = 0; i < axes.length; i++)
+      axes[i] = file.readLong();
+    offsets = new long[file.readInt()];
+    ids     = new ArrayList<>(offsets.length);
+    for (i = 0; i < offsets.length; i++) {
+      ids.add(file.readUTF());
+      offsets[i] = file.readLong();
+    }
+
+    return new Index(compression, axes, ids, offsets);
+  }
+
+  /**
+   * Reads the raw (uncompressed) content of the record at the specified offset.
+   *
+   * @param file	the file to read from
+   * @param offset	the offset of the record
+   * @param type	the expected type of record
+   * @param compression	the compression in use
+   * @return		the raw content
+   * @throws IOException	if reading fails
+   */
+  public static byte[] readRecord(RandomAccessFile file, long offset, byte type, Compression compression) throws IOException {
+    byte	actual;
+    int		rawLength;
+    byte[]	data;
+
+    file.seek(offset);
+    actual = file.readByte();
+    if (actual != type)
+      throw new IOException("Expected record type '" + (char) type + "' at offset " + offset + ", but found: " + (char) actual);
+    rawLength = file.readInt();
+    data      = new byte[file.readInt()];
+    file.readFully(data);
+
+    return decompress(data, rawLength, compression);
+  }
+
+  /**
+   * Helper class for writing binary spectrum files.
+   */
+  public static class Writer {
+
+    /** the stream to write to. */
+    protected DataOutputStream m_Output;
+
+    /** the compression to use. */
+    protected Compression m_Compression;
+
+    /** whether to share axes. */
+    protected boolean m_ShareAxes;
+
+    /** the current offset. */
+    protected long m_Offset;
+
+    /** the axes written so far. */
+    protected List<float[]> m_Axes;
+
+    /** the offsets of the axes. */
+    protected List<Long> m_AxisOffsets;
+
+    /** the hash codes of the axes. */
+    protected Map<Integer,List<Integer>> m_AxisHashes;
+
+    /** the sample IDs written so far. */
+    protected List<String> m_IDs;
+
+    /** the offsets of the spectra. */
+    protected List<Long> m_Offsets;
+
+    /**
+     * Initializes the writer and outputs the header.
+     *
+     * @param out		the stream to write to
+     * @param compression	the compression to use
+     * @param shareAxes		whether to share wave number axes between spectra
+     * @throws IOException	if writing of header fails
+     */
+    public Writer(OutputStream out, Compression compression, boolean shareAxes) throws IOException {
+      m_Output      = new DataOutputStream(out);
+      m_Compression = compression;
+      m_ShareAxes   = shareAxes;
+      m_Axes        = new ArrayList<>();
+      m_AxisOffsets = new ArrayList<>();
+      m_AxisHashes  = new HashMap<>();
+      m_IDs         = new ArrayList<>();
+      m_Offsets     = new ArrayList<>();
+      writeHeader(m_Output, m_Compression);
+      m_Offset = HEADER_SIZE;
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param type	the record type
+     * @param raw	the raw content
+     * @return		the offset of the record
+     * @throws IOException	if writing fails
+     */
+    protected long writeRecord(byte type, byte[] raw) throws IOException {
+      long	result;
+      byte[]	stored;
+
+      result = m_Offset;
+      stored = compress(raw, m_Compression);
+      m_Output.writeByte(type);
+      m_Output.writeInt(raw.length);
+      m_Output.writeInt(stored.length);
+      m_Output.write(stored);
+      m_Offset += 9 + stored.length;
+
+      return result;
+    }
+
+    /**
+     * Determines the index of the axis, writes a new axis record if necessary.
+     *
+     * @param waves	the wave numbers
+     * @return		the index of the axis
+     * @throws IOException	if writing fails
+     */
+    protected int determineAxis(float[] waves) throws IOException {
+      int		hash;
+      List<Integer>	candidates;
+
+      hash       = Arrays.hashCode(waves);
+      candidates = m_AxisHashes.get(hash);
+      if (candidates != null) {
+	for (Integer candidate: candidates) {
+	  if (Arrays.equals(waves, m_Axes.get(candidate)))
+	    return candidate;
+	}
+      }
+      else {
+	candidates = new ArrayList<>();
+	m_AxisHashes.put(hash, candidates);
+      }
+
+      m_AxisOffsets.add(writeRecord(RECORD_AXIS, encodeAxis(waves)));
+      m_Axes.add(waves);
+      candidates.add(m_Axes.size() - 1);
+
+      return m_Axes.size() - 1;
+    }
+
+    /**
+     * Writes the spectrum.
+     *
+     * @param spec	the spectrum to write
+     * @throws IOException	if writing fails
+     */
+    public void write(Spectrum spec) throws IOException {
+      int	axis;
+
+      if (m_ShareAxes)
+	axis = determineAxis(getWaveNumbers(spec));
+      else
+	axis = NO_AXIS;
+      m_Offsets.add(writeRecord(RECORD_SPECTRUM, encodeSpectrum(spec, axis)));
+      m_IDs.add(spec.getID());
+    }
+
+    /**
+     * Writes the index and trailer, flushes the stream. Does not close the stream.
+     *
+     * @throws IOException	if writing fails
+     */
+    public void finish() throws IOException {
+      long	index;
+      int	i;
+
+      index = m_Offset;
+      m_Output.writeInt(m_AxisOffsets.size());
+      for (Long offset: m_AxisOffsets)
+	m_Output.writeLong(offset);
+      m_Output.writeInt(m_Offsets.size());
+      for (i = 0; i < m_Offsets.size(); i++) {
+	m_Output.writeUTF(m_IDs.get(i));
+	m_Output.writeLong(m_Offsets.get(i));
+      }
+      m_Output.writeLong(index);
+      m_Output.writeInt(MAGIC);
+      m_Output.flush();
+    }
+  }
+
+  /**
+   * Helper class for random access to binary spectrum files.
+   */
+  public static class Reader
+    implements AxisProvider {
+
+    /** the file to read from. */
+    protected RandomAccessFile m_File;
+
+    /** the index. */
+    protected Index m_Index;
+
+    /** the axes read so far. */
+    protected Map<Integer,float[]> m_Axes;
+
+    /**
+     * Initializes the reader and reads the index.
+     *
+     * @param file	the file to read from
+     * @throws IOException	if reading of index fails
+     */
+    public Reader(RandomAccessFile file) throws IOException {
+      m_File  = file;
+      m_Index = readIndex(file);
+      m_Axes  = new HashMap<>();
+    }
+
+    /**
+     * Returns the index.
+     *
+     * @return		the index
+     */
+    public Index getIndex() {
+      return m_Index;
+    }
+
+    /**
+     * Returns the wave numbers of the specified axis.
+     *
+     * @param axis	the index of the axis
+     * @return		the wave numbers
+     * @throws IOException	if retrieving fails
+     */
+    public float[] getAxis(int axis) throws IOException {
+      if (!m_Axes.containsKey(axis))
+	m_Axes.put(axis, decodeAxis(readRecord(m_File, m_Index.getAxisOffset(axis), RECORD_AXIS, m_Index.getCompression())));
+      return m_Axes.get(axis);
+    }
+
+    /**
+     * Reads the spectrum at the specified position.
+     *
+     * @param index	the position in the file
+     * @return		the spectrum
+     * @throws IOException	if reading fails
+     */
+    public Spectrum read(int index) throws IOException {
+      return decodeSpectrum(readRecord(m_File, m_Index.getOffset(index), RECORD_SPECTRUM, m_Index.getCompression()), this);
+    }
+
+    /**
+     * Reads the spectrum with the specified sample ID.
+     *
+     * @param id	the sample ID
+     * @return		the spectrum, null if not found
+     * @throws IOException	if reading fails
+     */
+    public Spectrum read(String id) throws IOException {
+      int	index;
+
+      index = m_Index.indexOf(id);
+      if (index == -1)
+	return null;
+      else
+	return read(index);
+    }
+  }
+}
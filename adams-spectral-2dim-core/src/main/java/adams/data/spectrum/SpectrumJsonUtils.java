@@ -15,7 +15,7 @@
 
 /*
  * SpectrumJsonUtils.java
- * Copyright (C) 2018-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.spectrum;
@@ -24,11 +24,27 @@ import adams.data.report.Field;
 import adams.data.report.Report;
 import adams.data.report.ReportJsonUtils;
 import adams.data.sampledata.SampleData;
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * For converting spectra to JSON and vice versa.
+ * <br><br>
+ * Besides the DOM-based methods (fromJson/toJson), there are streaming
+ * methods (read/write) that use Gson's pull-parser and decode the wave numbers
+ * and amplitudes directly into primitive arrays. Only the (small) report
+ * sections get parsed into JSON objects.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
@@ -46,6 +62,50 @@ public class SpectrumJsonUtils {
 
   public static final String KEY_METADATA = "meta-data";
 
+  public static final String KEY_SPECTRA = "spectra";
+
+  /**
+   * Growable array of floats.
+   */
+  protected static class FloatArray {
+
+    /** the values. */
+    protected float[] m_Values = new float[256];
+
+    /** the number of values. */
+    protected int m_Size;
+
+    /**
+     * Appends the value.
+     *
+     * @param value	the value to add
+     */
+    public void add(float value) {
+      if (m_Size == m_Values.length)
+	m_Values = Arrays.copyOf(m_Values, m_Values.length * 2);
+      m_Values[m_Size++] = value;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return		the number
+     */
+    public int size() {
+      return m_Size;
+    }
+
+    /**
+     * Returns the value at the specified position.
+     *
+     * @param index	the position
+     * @return		the value
+     */
+    public float get(int index) {
+      return m_Values[index];
+    }
+  }
+
   /**
    * Returns an example spectrum in JSON.
    *
@@ -221,4 +281,278 @@ public class SpectrumJsonUtils {
 
     return result;
   }
+
+  /**
+   * Reads an array of numbers.
+   *
+   * @param reader	the reader to use
+   * @return		the numbers
+   * @throws IOException	if reading fails
+   */
+  protected static FloatArray readFloats(JsonReader reader) throws IOException {
+    FloatArray	result;
+
+    result = new FloatArray();
+    reader.beginArray();
+    while (reader.hasNext())
+      result.add(Float.parseFloat(reader.nextString()));
+    reader.endArray();
+
+    return result;
+  }
+
+  /**
+   * Reads a report section.
+   *
+   * @param reader	the reader to use
+   * @return		the report
+   */
+  protected static Report readReport(JsonReader reader) {
+    return ReportJsonUtils.fromJson(JsonParser.parseReader(reader).getAsJsonObject());
+  }
+
+  /**
+   * Reads the next object, which is either a spectrum or a container with
+   * a "spectra" array.
+   *
+   * @param reader	the reader to use
+   * @param spectra	for storing the spectra of a "spectra" array
+   * @return		the spectrum, null if not a spectrum
+   * @throws IOException	if reading fails
+   */
+  protected static Spectrum readObject(JsonReader reader, List<Spectrum> spectra) throws IOException {
+    Spectrum	result;
+    String	id;
+    FloatArray	waves;
+    FloatArray	ampls;
+    Report	report;
+    Report	ref;
+    Report	meta;
+    String	name;
+    Spectrum	spec;
+    int		i;
+
+    id     = "";
+    waves  = null;
+    ampls  = null;
+    report = null;
+    ref    = null;
+    meta   = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+	reader.nextNull();
+	continue;
+      }
+      switch (name) {
+	case KEY_ID:
+	  id = reader.nextString();
+	  break;
+	case KEY_WAVES:
+	  waves = readFloats(reader);
+	  break;
+	case KEY_AMPLITUDES:
+	  ampls = readFloats(reader);
+	  break;
+	case KEY_REPORT:
+	  report = readReport(reader);
+	  break;
+	case KEY_REFERENCE:
+	  ref = readReport(reader);
+	  break;
+	case KEY_METADATA:
+	  meta = readReport(reader);
+	  break;
+	case KEY_SPECTRA:
+	  reader.beginArray();
+	  while (reader.hasNext()) {
+	    spec = read(reader);
+	    if (spec != null)
+	      spectra.add(spec);
+	  }
+	  reader.endArray();
+	  break;
+	default:
+	  reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if ((waves == null) || (ampls == null))
+      return null;
+
+    if (waves.size() != ampls.size())
+      throw new IllegalStateException("Wave number and amplitude arrays differ in length: " + waves.size() + " != " + ampls.size());
+
+    result = new Spectrum();
+    result.setID(id);
+    for (i = 0; i < waves.size(); i++)
+      result.add(new SpectrumPoint(waves.get(i), ampls.get(i)));
+
+    // report
+    if (report != null) {
+      result.getReport().mergeWith(report);
+      if (result.getID().isEmpty() && report.hasValue(SampleData.SAMPLE_ID))
+	result.setID(report.getStringValue(SampleData.SAMPLE_ID));
+      if (report.hasValue(SampleData.FORMAT))
+	result.setFormat(report.getStringValue(SampleData.FORMAT));
+    }
+
+    // reference values
+    if (ref != null)
+      result.getReport().mergeWith(ref);
+
+    // meta-data values
+    if (meta != null) {
+      result.getReport().mergeWith(meta);
+      if (result.getID().isEmpty() && meta.hasValue(SampleData.SAMPLE_ID))
+	result.setID(meta.getStringValue(SampleData.SAMPLE_ID));
+      if (meta.hasValue(SampleData.FORMAT))
+	result.setFormat(meta.getStringValue(SampleData.FORMAT));
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the next spectrum object from the stream (spectral + report).
+   * Same format as {@link #fromJson(JsonObject)}.
+   *
+   * @param reader	the reader to use
+   * @return		the spectrum, null if no spectral data found
+   * @throws IOException	if reading fails
+   */
+  public static Spectrum read(JsonReader reader) throws IOException {
+    return readObject(reader, new ArrayList<>());
+  }
+
+  /**
+   * Reads all spectra from the stream. Supports a single spectrum object,
+   * a top-level array of spectrum objects or an object with a "spectra"
+   * array.
+   *
+   * @param reader	the reader to use
+   * @return		the spectra
+   * @throws IOException	if reading fails
+   * @see		#KEY_SPECTRA
+   */
+  public static List<Spectrum> readAll(JsonReader reader) throws IOException {
+    List<Spectrum>	result;
+    Spectrum		spec;
+
+    result = new ArrayList<>();
+    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+	spec = read(reader);
+	if (spec != null)
+	  result.add(spec);
+      }
+      reader.endArray();
+    }
+    else {
+      spec = readObject(reader, result);
+      if (spec != null)
+	result.add(spec);
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates a new JSON writer that generates the same output as Gson.
+   *
+   * @param out		the writer to write to
+   * @param pretty	whether to use pretty-printing
+   * @return		the JSON writer
+   */
+  public static JsonWriter newJsonWriter(Writer out, boolean pretty) {
+    JsonWriter	result;
+
+    result = new JsonWriter(out);
+    if (pretty)
+      result.setIndent("  ");
+    result.setHtmlSafe(true);
+    result.setSerializeNulls(false);
+
+    return result;
+  }
+
+  /**
+   * Writes the wave numbers and amplitudes.
+   *
+   * @param writer	the writer to use
+   * @param spec	the spectrum to write
+   * @throws IOException	if writing fails
+   */
+  protected static void writePoints(JsonWriter writer, Spectrum spec) throws IOException {
+    List<SpectrumPoint>	points;
+
+    points = spec.toList();
+    writer.name(KEY_WAVES);
+    writer.beginArray();
+    for (SpectrumPoint p: points)
+      writer.jsonValue(Float.toString(p.getWaveNumber()));
+    writer.endArray();
+    writer.name(KEY_AMPLITUDES);
+    writer.beginArray();
+    for (SpectrumPoint p: points)
+      writer.jsonValue(Float.toString(p.getAmplitude()));
+    writer.endArray();
+  }
+
+  /**
+   * Writes the spectrum as JSON object (spectral + report).
+   * Same format as {@link #toJson(Spectrum)}.
+   *
+   * @param writer	the writer to use
+   * @param spec	the spectrum to write
+   * @throws IOException	if writing fails
+   */
+  public static void write(JsonWriter writer, Spectrum spec) throws IOException {
+    JsonObject	data;
+
+    writer.beginObject();
+    writer.name(KEY_ID).value(spec.getID());
+    writePoints(writer, spec);
+    data = new JsonObject();
+    if (spec.hasReport())
+      data = ReportJsonUtils.toJson(spec.getReport());
+    writer.name(KEY_REPORT);
+    new Gson().toJson(data, writer);
+    writer.endObject();
+  }
+
+  /**
+   * Writes the spectrum as JSON object (spectral + ref + meta).
+   * Same format as {@link #toJson(Spectrum, Field[], Field[])}.
+   *
+   * @param writer	the writer to use
+   * @param spec	the spectrum to write
+   * @param ref 	the reference values to output
+   * @param meta	the meta-data values to output
+   * @throws IOException	if writing fails
+   */
+  public static void write(JsonWriter writer, Spectrum spec, Field[] ref, Field[] meta) throws IOException {
+    JsonObject	data;
+    Gson	gson;
+
+    gson = new Gson();
+    writer.beginObject();
+    writer.name(KEY_ID).value(spec.getID());
+    writePoints(writer, spec);
+    data = new JsonObject();
+    if (spec.hasReport())
+      data = ReportJsonUtils.toJson(spec.getReport(), ref);
+    writer.name(KEY_REFERENCE);
+    gson.toJson(data, writer);
+    data = new JsonObject();
+    if (spec.hasReport())
+      data = ReportJsonUtils.toJson(spec.getReport(), meta);
+    writer.name(KEY_METADATA);
+    gson.toJson(data, writer);
+    writer.endObject();
+  }
 }
@@ -0,0 +1,224 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractIncrementalFilter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.core.Performance;
+import adams.core.ThreadLimiter;
+import adams.data.filter.BatchFilter;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+
+import java.util.List;
+
+/**
+ * Ancestor for filters that build a linear projection incrementally, by
+ * absorbing the spectra of each batch that gets passed through
+ * {@link #batchFilter(Spectrum[])}. The model can be persisted via the
+ * serialization file. Single spectra only get transformed, using a single
+ * matrix-vector multiplication.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractIncrementalFilter
+  extends AbstractSerializableFilter
+  implements BatchFilter<Spectrum>, ThreadLimiter {
+
+  private static final long serialVersionUID = -5036395006813187264L;
+
+  /** whether to update the model with batches. */
+  protected boolean m_Update;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "update", "update",
+      true);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1, -1, null);
+  }
+
+  /**
+   * Sets whether batches update the model before being transformed.
+   *
+   * @param value	true if to update
+   */
+  public void setUpdate(boolean value) {
+    m_Update = value;
+    reset();
+  }
+
+  /**
+   * Returns whether batches update the model before being transformed.
+   *
+   * @return		true if to update
+   */
+  public boolean getUpdate() {
+    return m_Update;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String updateTipText() {
+    return "If enabled, batches of spectra update the model before they get transformed.";
+  }
+
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for updating the model; "
+	+ Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Returns the amplitudes of the spectrum.
+   *
+   * @param data	the spectrum to convert
+   * @return		the amplitudes
+   */
+  protected double[] toArray(Spectrum data) {
+    double[]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new double[points.size()];
+    for (i = 0; i < points.size(); i++)
+      result[i] = points.get(i).getAmplitude();
+
+    return result;
+  }
+
+  /**
+   * Returns whether the model has absorbed any data yet.
+   *
+   * @return		true if the model can transform data
+   */
+  public abstract boolean isInitialized();
+
+  /**
+   * Updates the model with the batch of spectra.
+   *
+   * @param data	the spectra to absorb
+   */
+  protected abstract void update(Spectrum[] data);
+
+  /**
+   * Transforms the amplitudes.
+   *
+   * @param x		the amplitudes
+   * @return		the transformed values
+   */
+  protected abstract double[] transform(double[] x);
+
+  /**
+   * Updates the model with the batch of spectra (if enabled) and then
+   * transforms them.
+   *
+   * @param data	the spectra to process
+   * @return		the transformed spectra
+   */
+  @Override
+  public Spectrum[] batchFilter(Spectrum[] data) {
+    Spectrum[]	result;
+    int		i;
+
+    try {
+      m_SerializableObjectHelper.loadSetup();
+    }
+    catch (Exception e) {
+      throw new IllegalStateException("Failed to load setup: " + this, e);
+    }
+
+    if (m_Update && (data.length > 0)) {
+      update(data);
+      m_SerializableObjectHelper.saveSetup();
+    }
+
+    result = new Spectrum[data.length];
+    for (i = 0; i < data.length; i++)
+      result[i] = filter(data[i]);
+
+    return result;
+  }
+
+  /**
+   * Transforms the spectrum.
+   *
+   * @param data	the spectrum to transform
+   * @return		the transformed spectrum
+   */
+  @Override
+  protected Spectrum processData(Spectrum data) {
+    Spectrum	result;
+    double[]	values;
+    int		i;
+
+    if (!isInitialized())
+      throw new IllegalStateException("Model has not absorbed any data yet!");
+
+    values = transform(toArray(data));
+    result = new Spectrum();
+    result.setID(data.getID());
+    result.getReport().mergeWith(data.getReport());
+    for (i = 0; i < values.length; i++)
+      result.add(new SpectrumPoint(i + 1, (float) values[i]));
+
+    return result;
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * AbstractStandardiseFilter.java
- * Copyright (C) 2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -173,6 +173,38 @@ public abstract class AbstractStandardiseFilter
     return(num/den);
   }
 
+  /**
+   * Computes the Lagrange basis polynomial for the m-th of the points,
+   * operating on primitive arrays.
+   *
+   * @param x		the position to compute the weight for
+   * @param waves	the wave numbers
+   * @param start	the index of the first point to use
+   * @param count	the number of points to use
+   * @param m		the point (relative to start) to compute the weight for
+   * @return		the weight
+   */
+  protected double weight(double x, double[] waves, int start, int count, int m) {
+    double	num;
+    double	den;
+    int		k;
+
+    num = 1;
+    den = 1;
+    for (k = 0; k < count; k++) {
+      if (k == m)
+	continue;
+      num *= x - waves[start + k];
+    }
+    for (k = 0; k < count; k++) {
+      if (k == m)
+	continue;
+      den *= waves[start + m] - waves[start + k];
+    }
+
+    return num / den;
+  }
+
   protected double interp(double int_point, List<SpectrumPoint> lsp, int poly){
     double res=0;
     for (int L=0;L<=poly;L++){
@@ -15,11 +15,12 @@
 
 /*
  * DownSample.java
- * Copyright (C) 2009-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
 
+import adams.data.spectrum.SignalProcessing;
 import adams.data.spectrum.Spectrum;
 
 /**
@@ -46,7 +47,8 @@ import adams.data.spectrum.Spectrum;
  * @version $Revision: 2242 $
  */
 public class DownSample
-  extends adams.data.filter.DownSample<Spectrum> {
+  extends adams.data.filter.DownSample<Spectrum>
+  implements FusableSpectrumFilter {
 
   /** for serialization. */
   private static final long serialVersionUID = -7633117391523711914L;
@@ -60,4 +62,28 @@ public class DownSample
   public String globalInfo() {
     return "A filter that returns only every n-th wave number.";
   }
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  /**
+   * Processes the buffer in place.
+   *
+   * @param buffer	the buffer to process
+   */
+  @Override
+  public void processBuffer(FusedFilterPipeline.Buffer buffer) {
+    int		size;
+
+    size = SignalProcessing.decimate(buffer.getWaveNumbers(), buffer.size(), getNthPoint(), 0, buffer.getWaveNumbers());
+    SignalProcessing.decimate(buffer.getAmplitudes(), buffer.size(), getNthPoint(), 0, buffer.getAmplitudes());
+    buffer.setSize(size);
+  }
 }
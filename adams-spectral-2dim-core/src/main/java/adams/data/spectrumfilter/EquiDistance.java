@@ -15,19 +15,17 @@
 
 /*
  * EquiDistance.java
- * Copyright (C) 2009-2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
 
 import adams.data.InterpolationUtils;
 import adams.data.filter.AbstractEquiDistanceWithOffset;
+import adams.data.spectrum.SignalProcessing;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
-import adams.data.spectrum.SpectrumPointComparator;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -108,93 +106,56 @@ public class EquiDistance
 
   /**
    * Performs the actual filtering.
+   * <br><br>
+   * Works on primitive arrays, using
+   * {@link SignalProcessing#resampleLinear(float[], float[], int, int, float[], float[])}.
    *
    * @param data	the data to filter
    * @return		the filtered data
    */
   protected Spectrum processData(Spectrum data) {
     Spectrum			result;
+    List<SpectrumPoint>		orderedData;
+    int				size;
+    float[]			waves;
+    float[]			ampls;
     int				actualPoints;
-    double			averageSpacing;
-    float			waveno;
-    float			wavenoStart;
-    float			amplitude;
+    float[]			outWaves;
+    float[]			outAmpls;
     int				i;
-    List<SpectrumPoint>		orderedData;
-    int				index;
-    SpectrumPointComparator	comp;
-    int 			sn;
-    Spectrum			tmpData;
-    ArrayList<Integer>		exact;
-    SpectrumPoint		newPoint;
 
-    tmpData     = data;
-    orderedData = tmpData.toList();
-    result      = (Spectrum) tmpData.getHeader();
+    orderedData = data.toList();
+    result      = (Spectrum) data.getHeader();
+    size        = orderedData.size();
+    waves       = new float[size];
+    ampls       = new float[size];
+    for (i = 0; i < size; i++) {
+      waves[i] = orderedData.get(i).getWaveNumber();
+      ampls[i] = orderedData.get(i).getAmplitude();
+    }
 
     // determine actual number of points to generate
     if (m_NumPoints == -1) {
-      actualPoints = orderedData.size();
+      actualPoints = size;
     }
     else {
       actualPoints = m_NumPoints;
-      if (!m_AllowOversampling && (actualPoints > orderedData.size()))
-	actualPoints = orderedData.size();
+      if (!m_AllowOversampling && (actualPoints > size))
+	actualPoints = size;
     }
 
-    // the average spacing between points
-    averageSpacing = orderedData.get(orderedData.size() - 1).getWaveNumber() - orderedData.get(0).getWaveNumber();
-    averageSpacing /= (actualPoints - 1);
-
-    // initialize output data
-    result.add((SpectrumPoint) orderedData.get(0).getClone());
-    result.add((SpectrumPoint) orderedData.get(orderedData.size() - 1).getClone());
-
-    // interpolate data (excluding first/last)
-    exact       = new ArrayList<Integer>();
-    comp        = new SpectrumPointComparator();
-    wavenoStart = orderedData.get(0).getWaveNumber();
-    for (i = 1; i < actualPoints - 1; i++) {
-      waveno = (float)((double) wavenoStart + (double) i * averageSpacing);
-      index  = Collections.binarySearch(orderedData, new SpectrumPoint(waveno, 0), comp);
-      if (index >= 0) {
-	exact.add(result.size());
-	result.add((SpectrumPoint) orderedData.get(index).getClone());  // gets post-processed
-      }
-      else {
-	result.add(
-	    interpolate(
-		waveno,
-		orderedData.get(-index - 2),
-		orderedData.get(-index - 1)));
-      }
-    }
-
-    // post-process exact hits, using interpolated points either side
-    orderedData = result.toList();
-    for (i = 0; i < exact.size(); i++) {
-      index = exact.get(i);
-      if (index < orderedData.size() - 1)
-	newPoint = interpolate(
-	    orderedData.get(index).getWaveNumber(),
-	    orderedData.get(index - 1),
-	    orderedData.get(index + 1));
-      else
-	newPoint = interpolate(
-	    orderedData.get(index).getWaveNumber(),
-	    orderedData.get(index - 1),
-	    orderedData.get(index));
-      amplitude = (newPoint.getAmplitude() + orderedData.get(index).getAmplitude()) / 2;
-      orderedData.get(index).setAmplitude(amplitude);
-    }
+    outWaves = new float[Math.max(2, actualPoints)];
+    outAmpls = new float[outWaves.length];
+    SignalProcessing.resampleLinear(waves, ampls, size, actualPoints, outWaves, outAmpls);
 
     if (m_Offset > -1) {
-      sn = 1;
-      for (SpectrumPoint p: result.toList()) {
-	p.setWaveNumber(getOffset() + sn++);
-      }
+      for (i = 0; i < outWaves.length; i++)
+	outWaves[i] = getOffset() + i + 1;
     }
 
+    for (i = 0; i < outWaves.length; i++)
+      result.add(new SpectrumPoint(outWaves[i], outAmpls[i]));
+
     return result;
   }
 }
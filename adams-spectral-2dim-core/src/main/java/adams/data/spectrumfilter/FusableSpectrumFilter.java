@@ -0,0 +1,47 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FusableSpectrumFilter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+/**
+ * Interface for spectrum filters that can operate directly on the primitive
+ * buffers of a {@link FusedFilterPipeline}, i.e., without creating
+ * intermediate spectrum objects.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface FusableSpectrumFilter {
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		true if the buffer-based processing can be used
+   */
+  public boolean canFuse();
+
+  /**
+   * Processes the buffer in place. Amplitudes and wave numbers must be
+   * rounded to float precision, just like when storing them in spectrum
+   * points.
+   *
+   * @param buffer	the buffer to process
+   */
+  public void processBuffer(FusedFilterPipeline.Buffer buffer);
+}
@@ -0,0 +1,319 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FusedFilterPipeline.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.filter.AbstractFilter;
+import adams.data.filter.Filter;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a chain of spectrum filters into segments: consecutive filters
+ * that implement {@link FusableSpectrumFilter} get executed on primitive
+ * buffers, with only a single spectrum being generated at the end of the
+ * segment. All other filters are executed as usual.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FusedFilterPipeline
+  implements Serializable {
+
+  private static final long serialVersionUID = -3146237760521935468L;
+
+  /**
+   * Container for the wave numbers and amplitudes of a spectrum, stored in
+   * primitive arrays that get reused between spectra.
+   */
+  public static class Buffer
+    implements Serializable {
+
+    private static final long serialVersionUID = 2874016367383525816L;
+
+    /** the wave numbers. */
+    protected double[] m_WaveNumbers;
+
+    /** the amplitudes. */
+    protected double[] m_Amplitudes;
+
+    /** the scratch wave numbers. */
+    protected double[] m_ScratchWaveNumbers;
+
+    /** the scratch amplitudes. */
+    protected double[] m_ScratchAmplitudes;
+
+    /** the number of valid points. */
+    protected int m_Size;
+
+    /**
+     * Initializes the buffer.
+     */
+    public Buffer() {
+      m_WaveNumbers        = new double[0];
+      m_Amplitudes         = new double[0];
+      m_ScratchWaveNumbers = new double[0];
+      m_ScratchAmplitudes  = new double[0];
+      m_Size               = 0;
+    }
+
+    /**
+     * Loads the points of the spectrum into the buffer.
+     *
+     * @param data	the spectrum to load
+     */
+    public void load(Spectrum data) {
+      List<SpectrumPoint>	points;
+      SpectrumPoint		point;
+      int			i;
+
+      points = data.toList();
+      if (m_WaveNumbers.length < points.size()) {
+	m_WaveNumbers = new double[points.size()];
+	m_Amplitudes  = new double[points.size()];
+      }
+      for (i = 0; i < points.size(); i++) {
+	point            = points.get(i);
+	m_WaveNumbers[i] = point.getWaveNumber();
+	m_Amplitudes[i]  = point.getAmplitude();
+      }
+      m_Size = points.size();
+    }
+
+    /**
+     * Returns the number of valid points.
+     *
+     * @return		the number of points
+     */
+    public int size() {
+      return m_Size;
+    }
+
+    /**
+     * Sets the number of valid points, e.g., after removing points in place.
+     *
+     * @param value	the number of points, cannot exceed the capacity
+     */
+    public void setSize(int value) {
+      if (value > m_WaveNumbers.length)
+	throw new IllegalArgumentException("Size exceeds capacity: " + value + " > " + m_WaveNumbers.length);
+      m_Size = value;
+    }
+
+    /**
+     * Returns the wave numbers. Only the first {@link #size()} elements are valid.
+     *
+     * @return		the wave numbers
+     */
+    public double[] getWaveNumbers() {
+      return m_WaveNumbers;
+    }
+
+    /**
+     * Returns the amplitudes. Only the first {@link #size()} elements are valid.
+     *
+     * @return		the amplitudes
+     */
+    public double[] getAmplitudes() {
+      return m_Amplitudes;
+    }
+
+    /**
+     * Returns the scratch array for the wave numbers, with at least the
+     * specified capacity.
+     *
+     * @param size	the minimum capacity
+     * @return		the array
+     */
+    public double[] getScratchWaveNumbers(int size) {
+      if (m_ScratchWaveNumbers.length < size)
+	m_ScratchWaveNumbers = new double[size];
+      return m_ScratchWaveNumbers;
+    }
+
+    /**
+     * Returns the scratch array for the amplitudes, with at least the
+     * specified capacity.
+     *
+     * @param size	the minimum capacity
+     * @return		the array
+     */
+    public double[] getScratchAmplitudes(int size) {
+      if (m_ScratchAmplitudes.length < size)
+	m_ScratchAmplitudes = new double[size];
+      return m_ScratchAmplitudes;
+    }
+
+    /**
+     * Turns the scratch arrays into the current data and the current data
+     * into the scratch arrays.
+     *
+     * @param size	the number of valid points in the scratch arrays
+     */
+    public void swap(int size) {
+      double[]	tmp;
+
+      tmp                  = m_WaveNumbers;
+      m_WaveNumbers        = getScratchWaveNumbers(size);
+      m_ScratchWaveNumbers = tmp;
+
+      tmp                  = m_Amplitudes;
+      m_Amplitudes         = getScratchAmplitudes(size);
+      m_ScratchAmplitudes  = tmp;
+
+      m_Size = size;
+    }
+
+    /**
+     * Generates a spectrum from the buffer, using the header of the template.
+     *
+     * @param template	the spectrum to obtain the header from
+     * @return		the generated spectrum
+     */
+    public Spectrum toSpectrum(Spectrum template) {
+      Spectrum	result;
+      int	i;
+
+      result = template.getHeader();
+      for (i = 0; i < m_Size; i++)
+	result.add(new SpectrumPoint((float) m_WaveNumbers[i], (float) m_Amplitudes[i]));
+
+      return result;
+    }
+  }
+
+  /**
+   * A segment of the pipeline, either fused or a single filter.
+   */
+  protected static class Segment
+    implements Serializable {
+
+    private static final long serialVersionUID = -1709186386046880574L;
+
+    /** the filters. */
+    protected List<Filter<Spectrum>> filters = new ArrayList<>();
+
+    /** whether the segment is fused. */
+    protected boolean fused;
+  }
+
+  /** the segments. */
+  protected List<Segment> m_Segments;
+
+  /** the reusable buffer. */
+  protected transient Buffer m_Buffer;
+
+  /**
+   * Compiles the filters into segments.
+   *
+   * @param filters	the filters to compile
+   */
+  public FusedFilterPipeline(Filter<Spectrum>[] filters) {
+    Segment	segment;
+
+    m_Segments = new ArrayList<>();
+    segment    = null;
+    for (Filter<Spectrum> filter: filters) {
+      if (isFusable(filter)) {
+	if ((segment == null) || !segment.fused) {
+	  segment       = new Segment();
+	  segment.fused = true;
+	  m_Segments.add(segment);
+	}
+      }
+      else {
+	segment       = new Segment();
+	segment.fused = false;
+	m_Segments.add(segment);
+      }
+      segment.filters.add(filter);
+    }
+  }
+
+  /**
+   * Checks whether the filter can be fused.
+   *
+   * @param filter	the filter to check
+   * @return		true if fusable
+   */
+  public static boolean isFusable(Filter<Spectrum> filter) {
+    return (filter instanceof FusableSpectrumFilter)
+      && (filter instanceof AbstractFilter)
+      && ((FusableSpectrumFilter) filter).canFuse();
+  }
+
+  /**
+   * Returns whether at least one segment is fused.
+   *
+   * @return		true if any fused segments
+   */
+  public boolean hasFusedSegments() {
+    for (Segment segment: m_Segments) {
+      if (segment.fused)
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Updates ID and notes of the spectrum, like the filter would have done.
+   *
+   * @param filter	the filter that was applied
+   * @param data	the spectrum to update
+   */
+  protected void postProcess(Filter<Spectrum> filter, Spectrum data) {
+    if (!((AbstractFilter) filter).getDontUpdateID())
+      data.setID(data.getID() + "'");
+    data.getNotes().addProcessInformation(filter);
+  }
+
+  /**
+   * Runs the spectrum through the pipeline.
+   *
+   * @param data	the spectrum to filter
+   * @return		the filtered spectrum
+   */
+  public Spectrum filter(Spectrum data) {
+    Spectrum	result;
+
+    if (m_Buffer == null)
+      m_Buffer = new Buffer();
+
+    result = data;
+    for (Segment segment: m_Segments) {
+      if (segment.fused) {
+	m_Buffer.load(result);
+	for (Filter<Spectrum> filter: segment.filters)
+	  ((FusableSpectrumFilter) filter).processBuffer(m_Buffer);
+	result = m_Buffer.toSpectrum(result);
+	for (Filter<Spectrum> filter: segment.filters)
+	  postProcess(filter, result);
+      }
+      else {
+	result = segment.filters.get(0).filter(result);
+      }
+    }
+
+    return result;
+  }
+}
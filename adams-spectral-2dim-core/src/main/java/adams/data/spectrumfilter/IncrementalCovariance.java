@@ -0,0 +1,245 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * IncrementalCovariance.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+import java.io.Serializable;
+
+/**
+ * Accumulates means and (co)variances of the amplitudes and, optionally, of
+ * a target value over mini-batches. Batches get merged using the pairwise
+ * update of Chan et al., so the statistics are the same as if all the
+ * data had been processed at once.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class IncrementalCovariance
+  implements Serializable {
+
+  private static final long serialVersionUID = -2604460374468393216L;
+
+  /** the number of rows absorbed so far. */
+  protected long m_Count;
+
+  /** the number of columns. */
+  protected int m_NumColumns;
+
+  /** the means of the columns. */
+  protected double[] m_Means;
+
+  /** the scatter matrix (sum of outer products of centered rows). */
+  protected double[][] m_Scatter;
+
+  /** the mean of the target. */
+  protected double m_MeanTarget;
+
+  /** the cross-products of centered rows and target. */
+  protected double[] m_CrossTarget;
+
+  /** the sum of squares of the centered target. */
+  protected double m_ScatterTarget;
+
+  /**
+   * Initializes the accumulator.
+   *
+   * @param numColumns	the number of columns
+   */
+  public IncrementalCovariance(int numColumns) {
+    m_Count         = 0;
+    m_NumColumns    = numColumns;
+    m_Means         = new double[numColumns];
+    m_Scatter       = new double[numColumns][numColumns];
+    m_MeanTarget    = 0;
+    m_CrossTarget   = new double[numColumns];
+    m_ScatterTarget = 0;
+  }
+
+  /**
+   * Returns the number of rows absorbed so far.
+   *
+   * @return		the count
+   */
+  public long getCount() {
+    return m_Count;
+  }
+
+  /**
+   * Returns the number of columns.
+   *
+   * @return		the number of columns
+   */
+  public int getNumColumns() {
+    return m_NumColumns;
+  }
+
+  /**
+   * Absorbs a batch of rows.
+   *
+   * @param rows	the rows to add
+   * @param target	the target values, can be null
+   * @param numThreads	the number of threads to use for the scatter matrix
+   */
+  public void update(final double[][] rows, final double[] target, int numThreads) {
+    final double[]	means;
+    final double[][]	scatter;
+    final double[]	cross;
+    double		meanTarget;
+    double		scatterTarget;
+    final double	meanT;
+    double[]		delta;
+    double		deltaTarget;
+    long		count;
+    double		factor;
+    int			i;
+    int			n;
+
+    if (rows.length == 0)
+      return;
+    for (double[] row: rows) {
+      if (row.length != m_NumColumns)
+	throw new IllegalArgumentException("Expected " + m_NumColumns + " columns, but got " + row.length + "!");
+    }
+
+    // statistics of the batch
+    means = new double[m_NumColumns];
+    for (double[] row: rows) {
+      for (n = 0; n < m_NumColumns; n++)
+	means[n] += row[n];
+    }
+    for (n = 0; n < m_NumColumns; n++)
+      means[n] /= rows.length;
+    meanTarget = 0;
+    if (target != null) {
+      for (i = 0; i < target.length; i++)
+	meanTarget += target[i];
+      meanTarget /= target.length;
+    }
+    meanT   = meanTarget;
+    scatter = new double[m_NumColumns][m_NumColumns];
+    cross   = new double[m_NumColumns];
+    ParallelBatchHelper.run(m_NumColumns, numThreads, (int partition, int start, int end) -> {
+      for (int a = start; a < end; a++) {
+	for (int b = a; b < m_NumColumns; b++) {
+	  double sum = 0;
+	  for (double[] row: rows)
+	    sum += (row[a] - means[a]) * (row[b] - means[b]);
+	  scatter[a][b] = sum;
+	  scatter[b][a] = sum;
+	}
+	if (target != null) {
+	  double sum = 0;
+	  for (int r = 0; r < rows.length; r++)
+	    sum += (rows[r][a] - means[a]) * (target[r] - meanT);
+	  cross[a] = sum;
+	}
+      }
+    });
+    scatterTarget = 0;
+    if (target != null) {
+      for (i = 0; i < target.length; i++)
+	scatterTarget += (target[i] - meanTarget) * (target[i] - meanTarget);
+    }
+
+    // merge
+    count       = m_Count + rows.length;
+    factor      = (double) m_Count * rows.length / count;
+    delta       = new double[m_NumColumns];
+    for (n = 0; n < m_NumColumns; n++)
+      delta[n] = means[n] - m_Means[n];
+    deltaTarget = meanTarget - m_MeanTarget;
+    for (i = 0; i < m_NumColumns; i++) {
+      for (n = 0; n < m_NumColumns; n++)
+	m_Scatter[i][n] += scatter[i][n] + factor * delta[i] * delta[n];
+      m_CrossTarget[i] += cross[i] + factor * delta[i] * deltaTarget;
+    }
+    m_ScatterTarget += scatterTarget + factor * deltaTarget * deltaTarget;
+    for (n = 0; n < m_NumColumns; n++)
+      m_Means[n] += delta[n] * rows.length / count;
+    m_MeanTarget += deltaTarget * rows.length / count;
+    m_Count = count;
+  }
+
+  /**
+   * Returns the column means.
+   *
+   * @return		the means
+   */
+  public double[] getMeans() {
+    return m_Means;
+  }
+
+  /**
+   * Returns the mean of the target.
+   *
+   * @return		the mean
+   */
+  public double getMeanTarget() {
+    return m_MeanTarget;
+  }
+
+  /**
+   * Returns the scatter matrix, i.e., the sum of the outer products of the
+   * centered rows.
+   *
+   * @return		the scatter matrix
+   */
+  public double[][] getScatter() {
+    return m_Scatter;
+  }
+
+  /**
+   * Returns the cross-products between the centered rows and target.
+   *
+   * @return		the cross-products
+   */
+  public double[] getCrossTarget() {
+    return m_CrossTarget;
+  }
+
+  /**
+   * Returns the sum of squares of the centered target.
+   *
+   * @return		the sum of squares
+   */
+  public double getScatterTarget() {
+    return m_ScatterTarget;
+  }
+
+  /**
+   * Returns the (sample) covariance matrix.
+   *
+   * @return		the covariance matrix
+   */
+  public double[][] getCovariance() {
+    double[][]	result;
+    double	div;
+    int		i;
+    int		n;
+
+    result = new double[m_NumColumns][m_NumColumns];
+    div    = Math.max(1, m_Count - 1);
+    for (i = 0; i < m_NumColumns; i++) {
+      for (n = 0; n < m_NumColumns; n++)
+	result[i][n] = m_Scatter[i][n] / div;
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,338 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * IncrementalPCA.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.spectrum.Spectrum;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+
+import java.util.Arrays;
+
+/**
+ <!-- globalinfo-start -->
+ * Incremental principal component analysis (PCA).<br>
+ * Each batch of spectra that gets filtered updates the means and the covariance matrix of the amplitudes, from which the principal components get re-computed. Single spectra only get projected onto the current components.<br>
+ * The model can be stored in the serialization file.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-no-id-update &lt;boolean&gt; (property: dontUpdateID)
+ * &nbsp;&nbsp;&nbsp;If enabled, suppresses updating the ID of adams.data.id.IDHandler data containers.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-serialization-file &lt;adams.core.io.PlaceholderFile&gt; (property: serializationFile)
+ * &nbsp;&nbsp;&nbsp;The file to serialize the generated internal model to.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-override-serialized-file &lt;boolean&gt; (property: overrideSerializedFile)
+ * &nbsp;&nbsp;&nbsp;If set to true, then any serialized file will be ignored and the setup for
+ * &nbsp;&nbsp;&nbsp;serialization will be regenerated.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-update &lt;boolean&gt; (property: update)
+ * &nbsp;&nbsp;&nbsp;If enabled, batches of spectra update the model before they get transformed.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for updating the model; -1 = number of CPUs&#47;cores;
+ * &nbsp;&nbsp;&nbsp;0 or 1 = sequential execution.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-variance &lt;double&gt; (property: variance)
+ * &nbsp;&nbsp;&nbsp;The variance to cover.
+ * &nbsp;&nbsp;&nbsp;default: 0.95
+ * &nbsp;&nbsp;&nbsp;minimum: 0.0
+ * &nbsp;&nbsp;&nbsp;maximum: 1.0
+ * </pre>
+ *
+ * <pre>-max-components &lt;int&gt; (property: maxComponents)
+ * &nbsp;&nbsp;&nbsp;The maximum number of components to use; -1 for unlimited.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class IncrementalPCA
+  extends AbstractIncrementalFilter {
+
+  private static final long serialVersionUID = 1495613213744232711L;
+
+  /** the variance to cover. */
+  protected double m_Variance;
+
+  /** the maximum number of components. */
+  protected int m_MaxComponents;
+
+  /** the accumulated statistics. */
+  protected IncrementalCovariance m_Statistics;
+
+  /** the components (one row per component). */
+  protected double[][] m_Components;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Incremental principal component analysis (PCA).\n"
+	+ "Each batch of spectra that gets filtered updates the means and the "
+	+ "covariance matrix of the amplitudes, from which the principal "
+	+ "components get re-computed. Single spectra only get projected onto "
+	+ "the current components.\n"
+	+ "The model can be stored in the serialization file.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "variance", "variance",
+      0.95, 0.0, 1.0);
+
+    m_OptionManager.add(
+      "max-components", "maxComponents",
+      -1, -1, null);
+  }
+
+  /**
+   * Sets the variance to cover.
+   *
+   * @param value	the variance
+   */
+  public void setVariance(double value) {
+    if (getOptionManager().isValid("variance", value)) {
+      m_Variance = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the variance to cover.
+   *
+   * @return		the variance
+   */
+  public double getVariance() {
+    return m_Variance;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String varianceTipText() {
+    return "The variance to cover.";
+  }
+
+  /**
+   * Sets the maximum number of components.
+   *
+   * @param value	the maximum, -1 for unlimited
+   */
+  public void setMaxComponents(int value) {
+    if (getOptionManager().isValid("maxComponents", value)) {
+      m_MaxComponents = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of components.
+   *
+   * @return		the maximum, -1 for unlimited
+   */
+  public int getMaxComponents() {
+    return m_MaxComponents;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxComponentsTipText() {
+    return "The maximum number of components to use; -1 for unlimited.";
+  }
+
+  /**
+   * Regenerates all the objects that are necessary for serialization.
+   */
+  @Override
+  public void initSerializationSetup() {
+    m_Statistics = null;
+    m_Components = null;
+  }
+
+  /**
+   * Returns the member variables to serialize to a file.
+   *
+   * @return		the objects to serialize
+   */
+  @Override
+  public Object[] retrieveSerializationSetup() {
+    return new Object[]{
+      m_Statistics,
+      m_Components
+    };
+  }
+
+  /**
+   * Updates the member variables with the provided objects obtained from
+   * deserialization.
+   *
+   * @param value	the deserialized objects
+   */
+  @Override
+  public void setSerializationSetup(Object[] value) {
+    m_Statistics = (IncrementalCovariance) value[0];
+    m_Components = (double[][]) value[1];
+  }
+
+  /**
+   * Returns whether the model has absorbed any data yet.
+   *
+   * @return		true if the model can transform data
+   */
+  @Override
+  public boolean isInitialized() {
+    return (m_Components != null);
+  }
+
+  /**
+   * Updates the model with the batch of spectra.
+   *
+   * @param data	the spectra to absorb
+   */
+  @Override
+  protected void update(Spectrum[] data) {
+    double[][]	rows;
+    int		i;
+
+    rows = new double[data.length][];
+    for (i = 0; i < data.length; i++)
+      rows[i] = toArray(data[i]);
+    if (m_Statistics == null)
+      m_Statistics = new IncrementalCovariance(rows[0].length);
+    m_Statistics.update(rows, null, m_NumThreads);
+
+    computeComponents();
+  }
+
+  /**
+   * Computes the principal components from the current covariance matrix.
+   */
+  protected void computeComponents() {
+    EigenDecomposition	eigen;
+    final double[]	values;
+    Integer[]		order;
+    double		total;
+    double		covered;
+    int			num;
+    int			i;
+
+    eigen  = new EigenDecomposition(new Array2DRowRealMatrix(m_Statistics.getCovariance(), false));
+    values = eigen.getRealEigenvalues();
+    order  = new Integer[values.length];
+    for (i = 0; i < order.length; i++)
+      order[i] = i;
+    Arrays.sort(order, (Integer o1, Integer o2) -> Double.compare(values[o2], values[o1]));
+
+    total = 0;
+    for (double value: values)
+      total += Math.max(0, value);
+
+    // determine number of components
+    num     = 0;
+    covered = 0;
+    while (num < order.length) {
+      covered += Math.max(0, values[order[num]]);
+      num++;
+      if ((total == 0) || (covered / total >= m_Variance))
+	break;
+      if ((m_MaxComponents > 0) && (num >= m_MaxComponents))
+	break;
+    }
+    if ((m_MaxComponents > 0) && (num > m_MaxComponents))
+      num = m_MaxComponents;
+
+    m_Components = new double[num][];
+    for (i = 0; i < num; i++)
+      m_Components[i] = eigen.getEigenvector(order[i]).toArray();
+
+    if (isLoggingEnabled())
+      getLogger().info("#spectra=" + m_Statistics.getCount() + ", #components=" + num);
+  }
+
+  /**
+   * Projects the amplitudes onto the components.
+   *
+   * @param x		the amplitudes
+   * @return		the projected values
+   */
+  @Override
+  protected double[] transform(double[] x) {
+    double[]	result;
+    double[]	means;
+    double[]	component;
+    double	sum;
+    int		i;
+    int		n;
+
+    means = m_Statistics.getMeans();
+    if (x.length != means.length)
+      throw new IllegalStateException("Expected " + means.length + " amplitudes, but got " + x.length + "!");
+
+    result = new double[m_Components.length];
+    for (i = 0; i < m_Components.length; i++) {
+      component = m_Components[i];
+      sum       = 0;
+      for (n = 0; n < x.length; n++)
+	sum += (x[n] - means[n]) * component[n];
+      result[i] = sum;
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,383 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * IncrementalPLS.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.report.DataType;
+import adams.data.report.Field;
+import adams.data.spectrum.Spectrum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ <!-- globalinfo-start -->
+ * Incremental partial least squares (PLS).<br>
+ * Each batch of spectra that gets filtered updates the means and the cross-product matrices of amplitudes and target, from which the PLS weights get re-computed using the kernel algorithm. Single spectra only get projected onto the current weights. Spectra without a target value are not used for updating the model.<br>
+ * The model can be stored in the serialization file.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-no-id-update &lt;boolean&gt; (property: dontUpdateID)
+ * &nbsp;&nbsp;&nbsp;If enabled, suppresses updating the ID of adams.data.id.IDHandler data containers.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-serialization-file &lt;adams.core.io.PlaceholderFile&gt; (property: serializationFile)
+ * &nbsp;&nbsp;&nbsp;The file to serialize the generated internal model to.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-override-serialized-file &lt;boolean&gt; (property: overrideSerializedFile)
+ * &nbsp;&nbsp;&nbsp;If set to true, then any serialized file will be ignored and the setup for
+ * &nbsp;&nbsp;&nbsp;serialization will be regenerated.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-update &lt;boolean&gt; (property: update)
+ * &nbsp;&nbsp;&nbsp;If enabled, batches of spectra update the model before they get transformed.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for updating the model; -1 = number of CPUs&#47;cores;
+ * &nbsp;&nbsp;&nbsp;0 or 1 = sequential execution.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-target &lt;adams.data.report.Field&gt; (property: target)
+ * &nbsp;&nbsp;&nbsp;The field in the report containing the target value.
+ * &nbsp;&nbsp;&nbsp;default: Target[N]
+ * </pre>
+ *
+ * <pre>-num-components &lt;int&gt; (property: numComponents)
+ * &nbsp;&nbsp;&nbsp;The maximum number of PLS components to compute.
+ * &nbsp;&nbsp;&nbsp;default: 5
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class IncrementalPLS
+  extends AbstractIncrementalFilter {
+
+  private static final long serialVersionUID = -7739418302467725563L;
+
+  /** the field with the target value. */
+  protected Field m_Target;
+
+  /** the number of components. */
+  protected int m_NumComponents;
+
+  /** the accumulated statistics. */
+  protected IncrementalCovariance m_Statistics;
+
+  /** the weights (one row per component). */
+  protected double[][] m_Weights;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Incremental partial least squares (PLS).\n"
+	+ "Each batch of spectra that gets filtered updates the means and the "
+	+ "cross-product matrices of amplitudes and target, from which the PLS "
+	+ "weights get re-computed using the kernel algorithm. Single spectra "
+	+ "only get projected onto the current weights. Spectra without a "
+	+ "target value are not used for updating the model.\n"
+	+ "The model can be stored in the serialization file.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "target", "target",
+      new Field("Target", DataType.NUMERIC));
+
+    m_OptionManager.add(
+      "num-components", "numComponents",
+      5, 1, null);
+  }
+
+  /**
+   * Sets the field with the target value.
+   *
+   * @param value	the field
+   */
+  public void setTarget(Field value) {
+    m_Target = value;
+    reset();
+  }
+
+  /**
+   * Returns the field with the target value.
+   *
+   * @return		the field
+   */
+  public Field getTarget() {
+    return m_Target;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String targetTipText() {
+    return "The field in the report containing the target value.";
+  }
+
+  /**
+   * Sets the maximum number of components.
+   *
+   * @param value	the number of components
+   */
+  public void setNumComponents(int value) {
+    if (getOptionManager().isValid("numComponents", value)) {
+      m_NumComponents = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of components.
+   *
+   * @return		the number of components
+   */
+  public int getNumComponents() {
+    return m_NumComponents;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numComponentsTipText() {
+    return "The maximum number of PLS components to compute.";
+  }
+
+  /**
+   * Regenerates all the objects that are necessary for serialization.
+   */
+  @Override
+  public void initSerializationSetup() {
+    m_Statistics = null;
+    m_Weights    = null;
+  }
+
+  /**
+   * Returns the member variables to serialize to a file.
+   *
+   * @return		the objects to serialize
+   */
+  @Override
+  public Object[] retrieveSerializationSetup() {
+    return new Object[]{
+      m_Statistics,
+      m_Weights
+    };
+  }
+
+  /**
+   * Updates the member variables with the provided objects obtained from
+   * deserialization.
+   *
+   * @param value	the deserialized objects
+   */
+  @Override
+  public void setSerializationSetup(Object[] value) {
+    m_Statistics = (IncrementalCovariance) value[0];
+    m_Weights    = (double[][]) value[1];
+  }
+
+  /**
+   * Returns whether the model has absorbed any data yet.
+   *
+   * @return		true if the model can transform data
+   */
+  @Override
+  public boolean isInitialized() {
+    return (m_Weights != null);
+  }
+
+  /**
+   * Updates the model with the batch of spectra.
+   *
+   * @param data	the spectra to absorb
+   */
+  @Override
+  protected void update(Spectrum[] data) {
+    List<double[]>	rows;
+    List<Double>	targets;
+    double[]		target;
+    int			i;
+
+    rows    = new ArrayList<>();
+    targets = new ArrayList<>();
+    for (Spectrum sp: data) {
+      if (!sp.getReport().hasValue(m_Target)) {
+	getLogger().warning("No target value ('" + m_Target + "') in spectrum, skipped: " + sp.getID());
+	continue;
+      }
+      rows.add(toArray(sp));
+      targets.add(sp.getReport().getDoubleValue(m_Target));
+    }
+    if (rows.size() == 0)
+      return;
+
+    target = new double[targets.size()];
+    for (i = 0; i < targets.size(); i++)
+      target[i] = targets.get(i);
+    if (m_Statistics == null)
+      m_Statistics = new IncrementalCovariance(rows.get(0).length);
+    m_Statistics.update(rows.toArray(new double[rows.size()][]), target, m_NumThreads);
+
+    computeWeights();
+  }
+
+  /**
+   * Computes the PLS weights from the cross-product matrices, using the
+   * kernel algorithm of Dayal and MacGregor.
+   */
+  protected void computeWeights() {
+    double[][]		xtx;
+    double[]		xty;
+    int			numCols;
+    List<double[]>	weights;
+    List<double[]>	loadings;
+    double[]		w;
+    double[]		r;
+    double[]		p;
+    double		norm;
+    double		dot;
+    double		tt;
+    double		q;
+    int			a;
+    int			j;
+    int			i;
+    int			n;
+
+    xtx      = m_Statistics.getScatter();
+    xty      = m_Statistics.getCrossTarget().clone();
+    numCols  = m_Statistics.getNumColumns();
+    weights  = new ArrayList<>();
+    loadings = new ArrayList<>();
+
+    for (a = 0; a < m_NumComponents; a++) {
+      norm = 0;
+      for (i = 0; i < numCols; i++)
+	norm += xty[i] * xty[i];
+      norm = Math.sqrt(norm);
+      if (norm == 0)
+	break;
+      w = new double[numCols];
+      for (i = 0; i < numCols; i++)
+	w[i] = xty[i] / norm;
+
+      // orthogonalize against previous components
+      r = w.clone();
+      for (j = 0; j < weights.size(); j++) {
+	dot = 0;
+	for (i = 0; i < numCols; i++)
+	  dot += loadings.get(j)[i] * w[i];
+	for (i = 0; i < numCols; i++)
+	  r[i] -= dot * weights.get(j)[i];
+      }
+
+      p  = new double[numCols];
+      tt = 0;
+      for (i = 0; i < numCols; i++) {
+	for (n = 0; n < numCols; n++)
+	  p[i] += xtx[i][n] * r[n];
+	tt += r[i] * p[i];
+      }
+      if (tt <= 0)
+	break;
+      q = 0;
+      for (i = 0; i < numCols; i++) {
+	p[i] /= tt;
+	q    += r[i] * xty[i];
+      }
+      q /= tt;
+      for (i = 0; i < numCols; i++)
+	xty[i] -= p[i] * q * tt;
+
+      weights.add(r);
+      loadings.add(p);
+    }
+
+    m_Weights = weights.toArray(new double[weights.size()][]);
+
+    if (isLoggingEnabled())
+      getLogger().info("#spectra=" + m_Statistics.getCount() + ", #components=" + m_Weights.length);
+  }
+
+  /**
+   * Projects the amplitudes onto the weights.
+   *
+   * @param x		the amplitudes
+   * @return		the scores
+   */
+  @Override
+  protected double[] transform(double[] x) {
+    double[]	result;
+    double[]	means;
+    double[]	weight;
+    double	sum;
+    int		i;
+    int		n;
+
+    means = m_Statistics.getMeans();
+    if (x.length != means.length)
+      throw new IllegalStateException("Expected " + means.length + " amplitudes, but got " + x.length + "!");
+
+    result = new double[m_Weights.length];
+    for (i = 0; i < m_Weights.length; i++) {
+      weight = m_Weights[i];
+      sum    = 0;
+      for (n = 0; n < x.length; n++)
+	sum += (x[n] - means[n]) * weight[n];
+      result[i] = sum;
+    }
+
+    return result;
+  }
+}
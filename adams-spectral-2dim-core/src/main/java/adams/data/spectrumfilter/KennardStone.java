@@ -15,11 +15,13 @@
 
 /*
  * KennardStone.java
- * Copyright (C) 2016-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
 
+import adams.core.Performance;
+import adams.core.ThreadLimiter;
 import adams.data.container.DataContainer;
 import adams.data.filter.AbstractBatchFilter;
 import adams.data.filter.BatchFilter;
@@ -28,16 +30,29 @@ import adams.data.filter.PassThrough;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.RealVector;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Batch filter that applies the Kennard-stone algorithm to select a subset of spectra
  * Created by Michael on 5/19/2016.
+ * <br><br>
+ * The selection works on a primitive matrix of amplitudes and maintains the
+ * minimum distance of each remaining spectrum to the chosen ones
+ * incrementally, i.e., no pairwise distance matrix is stored. Optionally,
+ * the spectra can be projected onto their first principal components
+ * before computing the distances.
  */
 public class KennardStone
-  extends AbstractBatchFilter {
+  extends AbstractBatchFilter
+  implements ThreadLimiter {
 
   private static final long serialVersionUID = 8266258749271797113L;
 
@@ -53,6 +68,12 @@ public class KennardStone
   /** whether to invert the selection. */
   protected boolean m_Invert;
 
+  /** the number of principal components to project onto (-1 = no projection). */
+  protected int m_NumComponents;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
   @Override
   public String globalInfo() {
     return "Apply the Kennard-Stone algorithm to the array of spectra. Each spectrum has the pre filter applied"
@@ -77,6 +98,14 @@ public class KennardStone
     m_OptionManager.add(
       "invert", "invert",
       false);
+
+    m_OptionManager.add(
+      "num-components", "numComponents",
+      -1, -1, null);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1, -1, null);
   }
 
   /**
@@ -191,117 +220,367 @@ public class KennardStone
     return "If enabled, the remaining spectra are returned rather than the chosen ones.";
   }
 
-  @Override
-  protected DataContainer[] processBatchData(DataContainer[] data) {
-    List<Spectrum> result;
-    Spectrum[] preFiltered;
-    int numSpectraInitial = data.length;
-    if(m_NumberInSubset == -1) {
-      return data;
+  /**
+   * Sets the number of principal components to project the spectra onto
+   * before computing the distances.
+   *
+   * @param value       the number of components, -1 for no projection
+   */
+  public void setNumComponents(int value) {
+    if (getOptionManager().isValid("numComponents", value)) {
+      m_NumComponents = value;
+      reset();
     }
-    else {
-      //copy of original un-filtered spectra
-      preFiltered = new Spectrum[numSpectraInitial];
-      for (int i = 0; i < numSpectraInitial; i++) {
-	preFiltered[i] = (Spectrum) data[i];
-      }
+  }
+
+  /**
+   * Returns the number of principal components to project the spectra onto
+   * before computing the distances.
+   *
+   * @return      the number of components, -1 for no projection
+   */
+  public int getNumComponents() {
+    return m_NumComponents;
+  }
+
+  /**
+   * Description for this property.
+   *
+   * @return      Description for displaying in the GUI
+   */
+  public String numComponentsTipText() {
+    return
+      "The number of principal components to project the spectra onto before "
+	+ "computing the distances; use -1 to use the amplitudes as is.";
+  }
 
-      //Apply the prefilter
-      for (int i = 0; i < numSpectraInitial; i++) {
-	data[i] = processData(data[i]);
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Description for this property.
+   *
+   * @return      Description for displaying in the GUI
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for computing the distances; "
+	+ Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Turns the spectra into a matrix of amplitudes.
+   *
+   * @param pool	the pool to use, null for sequential processing
+   * @param data	the spectra to convert
+   * @return		the matrix, one row per spectrum
+   */
+  protected float[][] toMatrix(ForkJoinPool pool, final DataContainer[] data) {
+    final float[][]	result;
+
+    result = new float[data.length][];
+    ParallelBatchHelper.run(pool, data.length, m_NumThreads, (int partition, int start, int end) -> {
+      for (int i = start; i < end; i++) {
+	List<SpectrumPoint> points = ((Spectrum) data[i]).toList();
+	result[i] = new float[points.size()];
+	for (int n = 0; n < points.size(); n++)
+	  result[i][n] = points.get(n).getAmplitude();
       }
+    });
+
+    return result;
+  }
 
-      //Apply the batch filter
-      data = m_BatchFilter.batchFilter(data);
-
-      //calculate the intersample matrix once
-      double distanceInitial;
-      Double[] distArraySingle;
-      Double[][] distances2D = new Double[numSpectraInitial][numSpectraInitial];
-      for (int i = 0; i < numSpectraInitial - 1; i++) {
-	Spectrum s = (Spectrum) data[i];
-	distArraySingle = new Double[numSpectraInitial];
-	for (int j = i + 1; j < numSpectraInitial; j++) {
-	  Spectrum s1 = (Spectrum) data[j];
-	  distanceInitial = calculateDistance(s, s1);
-	  distArraySingle[j] = distanceInitial;
+  /**
+   * Projects the rows of the matrix onto the specified number of principal
+   * components.
+   *
+   * @param pool	the pool to use, null for sequential processing
+   * @param matrix	the matrix to project
+   * @param numComps	the number of components
+   * @return		the projected matrix
+   */
+  protected float[][] project(ForkJoinPool pool, final float[][] matrix, int numComps) {
+    final float[][]	result;
+    final double[]	means;
+    final double[][]	cov;
+    final double[][]	vectors;
+    EigenDecomposition	eigen;
+    final Integer[]	order;
+    final double[]	values;
+    final int		numCols;
+    int			i;
+    int			n;
+
+    numCols = matrix[0].length;
+    numComps = Math.min(numComps, numCols);
+
+    // means
+    means = new double[numCols];
+    for (float[] row: matrix) {
+      for (n = 0; n < numCols; n++)
+	means[n] += row[n];
+    }
+    for (n = 0; n < numCols; n++)
+      means[n] /= matrix.length;
+
+    // covariance, rows of the upper triangle get computed in parallel
+    cov = new double[numCols][numCols];
+    ParallelBatchHelper.run(pool, numCols, m_NumThreads, (int partition, int start, int end) -> {
+      for (int a = start; a < end; a++) {
+	for (int b = a; b < numCols; b++) {
+	  double sum = 0;
+	  for (float[] row: matrix)
+	    sum += (row[a] - means[a]) * (row[b] - means[b]);
+	  cov[a][b] = sum / Math.max(1, matrix.length - 1);
+	  cov[b][a] = cov[a][b];
 	}
-	distances2D[i] = distArraySingle;
       }
+    });
+
+    // eigen vectors, sorted by decreasing eigen value
+    eigen  = new EigenDecomposition(new Array2DRowRealMatrix(cov, false));
+    values = eigen.getRealEigenvalues();
+    order  = new Integer[values.length];
+    for (i = 0; i < order.length; i++)
+      order[i] = i;
+    Arrays.sort(order, (Integer o1, Integer o2) -> Double.compare(values[o2], values[o1]));
+    vectors = new double[numComps][];
+    for (i = 0; i < numComps; i++) {
+      RealVector vector = eigen.getEigenvector(order[i]);
+      vectors[i] = vector.toArray();
+    }
 
-      //Keep a record of chosen and remaining indices
-      ArrayList<Integer> chosen = new ArrayList<>();
-      ArrayList<Integer> remaining = new ArrayList<>();
-      for (int i = 0; i < numSpectraInitial; i++) {
-	remaining.add(i);
+    // project
+    result = new float[matrix.length][numComps];
+    ParallelBatchHelper.run(pool, matrix.length, m_NumThreads, (int partition, int start, int end) -> {
+      for (int r = start; r < end; r++) {
+	for (int c = 0; c < vectors.length; c++) {
+	  double sum = 0;
+	  for (int k = 0; k < numCols; k++)
+	    sum += (matrix[r][k] - means[k]) * vectors[c][k];
+	  result[r][c] = (float) sum;
+	}
       }
+    });
 
-      //find 2 samples that are furthest apart using uniform distance
-      double maxDistance = 0;
-      distanceInitial = -1;
-
-      int chosen1 = -1;
-      int chosen2 = -1;
-      for (int i = 0; i < numSpectraInitial - 1; i++) {
-	for (int j = i + 1; j < numSpectraInitial; j++) {
-	  distanceInitial = distances2D[i][j];
-	  if (distanceInitial > maxDistance) {
-	    maxDistance = distanceInitial;
-	    chosen1 = i;
-	    chosen2 = j;
+    return result;
+  }
+
+  /**
+   * Computes the euclidean distance between two rows.
+   *
+   * @param row1	the first row
+   * @param row2	the second row
+   * @return		the distance
+   */
+  protected double distance(float[] row1, float[] row2) {
+    double	sum;
+    double	dp;
+    int		i;
+
+    sum = 0;
+    for (i = 0; i < row1.length; i++) {
+      dp   = (double) row1[i] - (double) row2[i];
+      sum += dp * dp;
+    }
+
+    return Math.sqrt(sum);
+  }
+
+  /**
+   * Returns whether the pair (a, b) comes before the other pair when
+   * scanning the upper triangle of the distance matrix row by row.
+   *
+   * @param a		the first index of the pair
+   * @param b		the second index of the pair
+   * @param other	the other pair
+   * @return		true if before the other pair
+   */
+  protected boolean isBefore(int a, int b, int[] other) {
+    return (a < other[0]) || ((a == other[0]) && (b < other[1]));
+  }
+
+  /**
+   * Selects the spectra using the Kennard-Stone algorithm.
+   *
+   * @param pool	the pool to use, null for sequential processing
+   * @param matrix	the amplitudes, one row per spectrum
+   * @param numSelect	the number of spectra to select
+   * @return		the indices of the selected spectra, in order of selection
+   */
+  protected List<Integer> select(ForkJoinPool pool, final float[][] matrix, int numSelect) {
+    List<Integer>	result;
+    final int		numRows;
+    final int		numUnits;
+    final int[][]	pairs;
+    final double[]	pairDists;
+    final double[]	minDist;
+    final boolean[]	chosen;
+    int			numParts;
+    int			best;
+    double		bestDist;
+    int			i;
+
+    // row a of the upper triangle has (n - 1 - a) pairs, so rows a and
+    // (n - 2 - a) get scanned together to give all units the same workload
+    numRows  = matrix.length - 1;
+    numUnits = (numRows + 1) / 2;
+    numParts = ParallelBatchHelper.numPartitions(numUnits, m_NumThreads);
+
+    // find 2 samples that are furthest apart (first pair in case of ties)
+    pairs     = new int[numParts][];
+    pairDists = new double[numParts];
+    ParallelBatchHelper.run(pool, numUnits, m_NumThreads, (int partition, int start, int end) -> {
+      double max = 0;
+      int[] pair = null;
+      for (int u = start; u < end; u++) {
+	int other = numRows - 1 - u;
+	for (int a: (other == u) ? new int[]{u} : new int[]{u, other}) {
+	  for (int b = a + 1; b < matrix.length; b++) {
+	    double dist = distance(matrix[a], matrix[b]);
+	    if ((dist > max) || ((pair != null) && (dist == max) && isBefore(a, b, pair))) {
+	      max  = dist;
+	      pair = new int[]{a, b};
+	    }
 	  }
 	}
       }
-      chosen.add(chosen1);
-      chosen.add(chosen2);
-      remaining.remove(remaining.indexOf(chosen1));
-      remaining.remove(remaining.indexOf(chosen2));
-
-      int indexTest;
-      int indexExisting;
-      double maxDistanceTest;
-      double lowestDistanceSingle;
-      int bestIndex;
-      double thisDistance;
-
-      //Loop through until the right amount are found.
-      for (int m = 3; m <= m_NumberInSubset; m++) {
-	maxDistanceTest = 0;
-	bestIndex = -1;
-	for (int i = 0; i < remaining.size(); i++) {
-	  lowestDistanceSingle = Double.POSITIVE_INFINITY;
-	  indexTest = remaining.get(i);
-	  for (int j = 0; j < chosen.size(); j++) {
-	    indexExisting = chosen.get(j);
-	    thisDistance = distances2D[Math.min(indexTest, indexExisting)][Math.max(indexTest, indexExisting)];
-	    if (thisDistance < lowestDistanceSingle) {
-	      lowestDistanceSingle = thisDistance;
-	    }
-	  }
-	  if (lowestDistanceSingle > maxDistanceTest) {
-	    maxDistanceTest = lowestDistanceSingle;
-	    bestIndex = indexTest;
-	  }
+      pairs[partition]     = pair;
+      pairDists[partition] = max;
+    });
+    best     = -1;
+    bestDist = 0;
+    for (i = 0; i < numParts; i++) {
+      if (pairs[i] == null)
+	continue;
+      if ((pairDists[i] > bestDist) || ((best > -1) && (pairDists[i] == bestDist) && isBefore(pairs[i][0], pairs[i][1], pairs[best]))) {
+	bestDist = pairDists[i];
+	best     = i;
+      }
+    }
+    if (best == -1)
+      throw new IllegalStateException("Failed to determine two distinct spectra!");
+
+    result = new ArrayList<>();
+    chosen = new boolean[matrix.length];
+    result.add(pairs[best][0]);
+    result.add(pairs[best][1]);
+    chosen[pairs[best][0]] = true;
+    chosen[pairs[best][1]] = true;
+
+    // minimum distance of each remaining spectrum to the chosen ones
+    minDist = new double[matrix.length];
+    Arrays.fill(minDist, Double.POSITIVE_INFINITY);
+    for (int c: result)
+      updateMinDistances(pool, matrix, minDist, chosen, c);
+
+    // greedy max-min selection
+    while (result.size() < numSelect) {
+      best     = -1;
+      bestDist = 0;
+      for (i = 0; i < matrix.length; i++) {
+	if (chosen[i])
+	  continue;
+	if (minDist[i] > bestDist) {
+	  bestDist = minDist[i];
+	  best     = i;
 	}
-	chosen.add(bestIndex);
-	remaining.remove(remaining.indexOf(bestIndex));
       }
+      if (best == -1)
+	throw new IllegalStateException(
+	  "Failed to select " + numSelect + " distinct spectra, only found: " + result.size());
+      result.add(best);
+      chosen[best] = true;
+      updateMinDistances(pool, matrix, minDist, chosen, best);
+    }
 
-      if (m_Invert) {
-        result = new ArrayList<>();
-        HashSet<Integer> chosenSet = new HashSet<>(chosen);
-        for (int i = 0; i < preFiltered.length; i++) {
-          if (!chosenSet.contains(i))
-            result.add(preFiltered[i]);
-	}
+    return result;
+  }
+
+  /**
+   * Updates the minimum distances of the remaining spectra with the distances
+   * to the newly chosen spectrum.
+   *
+   * @param pool	the pool to use, null for sequential processing
+   * @param matrix	the amplitudes, one row per spectrum
+   * @param minDist	the minimum distances to update
+   * @param chosen	the flags for the chosen spectra
+   * @param index	the index of the newly chosen spectrum
+   */
+  protected void updateMinDistances(ForkJoinPool pool, final float[][] matrix, final double[] minDist, final boolean[] chosen, final int index) {
+    ParallelBatchHelper.run(pool, matrix.length, m_NumThreads, (int partition, int start, int end) -> {
+      for (int i = start; i < end; i++) {
+	if (chosen[i])
+	  continue;
+	double dist = distance(matrix[Math.min(i, index)], matrix[Math.max(i, index)]);
+	if (dist < minDist[i])
+	  minDist[i] = dist;
       }
-      else {
-	result = new ArrayList<>();
-	for (int i = 0; i < chosen.size(); i++)
-	  result.add(preFiltered[chosen.get(i)]);
+    });
+  }
+
+  @Override
+  protected DataContainer[] processBatchData(DataContainer[] data) {
+    List<Spectrum>	result;
+    DataContainer[]	filtered;
+    float[][]		matrix;
+    List<Integer>	chosen;
+    HashSet<Integer>	chosenSet;
+    ForkJoinPool	pool;
+    int			i;
+
+    if (m_NumberInSubset == -1)
+      return data;
+
+    // apply the pre-filter and the batch filter
+    filtered = new DataContainer[data.length];
+    for (i = 0; i < data.length; i++)
+      filtered[i] = processData(data[i]);
+    filtered = m_BatchFilter.batchFilter(filtered);
+
+    // one pool for all parallel steps
+    pool = ParallelBatchHelper.newPool(m_NumThreads);
+    try {
+      matrix = toMatrix(pool, filtered);
+      if ((m_NumComponents > 0) && (matrix.length > 0))
+	matrix = project(pool, matrix, m_NumComponents);
+      chosen = select(pool, matrix, m_NumberInSubset);
+    }
+    finally {
+      ParallelBatchHelper.shutdown(pool);
+    }
+
+    result = new ArrayList<>();
+    if (m_Invert) {
+      chosenSet = new HashSet<>(chosen);
+      for (i = 0; i < data.length; i++) {
+	if (!chosenSet.contains(i))
+	  result.add((Spectrum) data[i]);
       }
-      return result.toArray(new Spectrum[0]);
     }
+    else {
+      for (i = 0; i < chosen.size(); i++)
+	result.add((Spectrum) data[chosen.get(i)]);
+    }
+
+    return result.toArray(new Spectrum[0]);
   }
 
   /**
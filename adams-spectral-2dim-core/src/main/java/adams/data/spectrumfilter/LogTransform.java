@@ -15,7 +15,7 @@
 
 /**
  * LogTransform.java
- * Copyright (C) 2009-2013 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.spectrumfilter;
 
@@ -49,7 +49,8 @@ import java.util.List;
  * @version $Revision: 2242 $
  */
 public class LogTransform
-  extends AbstractFilter<Spectrum> {
+  extends AbstractFilter<Spectrum>
+  implements FusableSpectrumFilter {
 
   /** for serialization. */
   private static final long serialVersionUID = 1836858988505886282L;
@@ -165,4 +166,35 @@ public class LogTransform
 
     return result;
   }
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  /**
+   * Processes the buffer in place.
+   *
+   * @param buffer	the buffer to process
+   */
+  @Override
+  public void processBuffer(FusedFilterPipeline.Buffer buffer) {
+    double[]	ampl;
+    double	logBase;
+    int		i;
+
+    ampl    = buffer.getAmplitudes();
+    logBase = Math.log(m_ActualLogBase);
+    for (i = 0; i < buffer.size(); i++) {
+      if (ampl[i] > 0)
+	ampl[i] = (float) (Math.log(ampl[i]) / logBase);
+      else
+	ampl[i] = 0;
+    }
+  }
 }
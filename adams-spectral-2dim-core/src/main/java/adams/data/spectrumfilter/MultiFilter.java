@@ -15,7 +15,7 @@
 
 /*
  * MultiFilter.java
- * Copyright (C) 2009-2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -36,7 +36,8 @@ import java.util.List;
  * 2. in parallel:<br>
  *    Each filter is run on the original input data and the generated<br>
  *    outputs are merged into a single spectrum  again. Already existing<br>
- *    wave numbers don't get overwritten.
+ *    wave numbers don't get overwritten.<br>
+ * When running in series, consecutive filters that support it can be fused, i.e., executed on primitive buffers without generating intermediate spectra.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -58,6 +59,12 @@ import java.util.List;
  * &nbsp;&nbsp;&nbsp;as input.
  * </pre>
  *
+ * <pre>-fuse &lt;boolean&gt; (property: fuse)
+ * &nbsp;&nbsp;&nbsp;If enabled, consecutive filters that support it get executed on primitive
+ * &nbsp;&nbsp;&nbsp;buffers when running in series, avoiding intermediate spectra.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -73,6 +80,12 @@ public class MultiFilter
    * run them in series. */
   protected boolean m_ParallelAndMerge;
 
+  /** whether to fuse filters. */
+  protected boolean m_Fuse;
+
+  /** the compiled pipeline. */
+  protected transient FusedFilterPipeline m_Pipeline;
+
   /**
    * Returns a string describing the object.
    *
@@ -88,7 +101,10 @@ public class MultiFilter
       + "2. in parallel:\n"
       + "   Each filter is run on the original input data and the generated\n"
       + "   outputs are merged into a single spectrum  again. Already existing\n"
-      + "   wave numbers don't get overwritten.";
+      + "   wave numbers don't get overwritten.\n"
+      + "When running in series, consecutive filters that support it can be "
+      + "fused, i.e., executed on primitive buffers without generating "
+      + "intermediate spectra.";
   }
 
   /**
@@ -101,6 +117,20 @@ public class MultiFilter
     m_OptionManager.add(
 	    "parallel", "parallelAndMerge",
 	    false);
+
+    m_OptionManager.add(
+	    "fuse", "fuse",
+	    true);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+
+    m_Pipeline = null;
   }
 
   /**
@@ -136,6 +166,37 @@ public class MultiFilter
       + "output of the previous one as input.";
   }
 
+  /**
+   * Sets whether to fuse consecutive filters that support it.
+   *
+   * @param value 	true if to fuse
+   */
+  public void setFuse(boolean value) {
+    m_Fuse = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to fuse consecutive filters that support it.
+   *
+   * @return 		true if to fuse
+   */
+  public boolean getFuse() {
+    return m_Fuse;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String fuseTipText() {
+    return
+        "If enabled, consecutive filters that support it get executed on "
+      + "primitive buffers when running in series, avoiding intermediate spectra.";
+  }
+
   /**
    * Performs the actual filtering - parallel application of filters and
    * merging of results.
@@ -173,7 +234,14 @@ public class MultiFilter
   protected Spectrum processData(Spectrum data) {
     if (m_ParallelAndMerge)
       return processDataParallel(data);
-    else
-      return super.processData(data);
+
+    if (m_Fuse) {
+      if (m_Pipeline == null)
+	m_Pipeline = new FusedFilterPipeline(m_Filters);
+      if (m_Pipeline.hasFusedSegments())
+	return m_Pipeline.filter(data);
+    }
+
+    return super.processData(data);
   }
 }
@@ -15,12 +15,15 @@
 
 /**
  * MultiplicativeScatterCorrection.java
- * Copyright (C) 2017 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.spectrumfilter;
 
 import adams.core.AdditionalDataProvider;
+import adams.core.Performance;
+import adams.core.ThreadLimiter;
+import adams.core.option.OptionUtils;
 import adams.data.filter.AbstractFilter;
 import adams.data.filter.Filter;
 import adams.data.filter.PassThrough;
@@ -29,9 +32,12 @@ import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 import adams.data.spectrumfilter.multiplicativescattercorrection.AbstractMultiplicativeScatterCorrection;
 import adams.data.spectrumfilter.multiplicativescattercorrection.RangeBased;
+import adams.data.spectrumfilter.referenceupdate.AbstractReferenceUpdate;
+import adams.data.spectrumfilter.referenceupdate.NoUpdate;
 import adams.data.statistics.StatUtils;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -39,7 +45,8 @@ import java.util.Map;
  * Performs Multiplicative Scatter Correction.<br>
  * Assumes that all spectra have the same wave numbers.<br>
  * The 'pre-filter' gets only applied internally.<br>
- * Intercept and slope get stored in the report, for each defined range (using prefixes Intercept. and Slope.)
+ * Intercept and slope get stored in the report, for each defined range (using prefixes Intercept. and Slope.)<br>
+ * With an active reference update scheme, the average spectrum gets updated with each (pre-filtered) spectrum after it was corrected, i.e., no re-training is required for following drifting instruments.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -65,6 +72,25 @@ import java.util.Map;
  * &nbsp;&nbsp;&nbsp;default: adams.data.spectrumfilter.multiplicativescattercorrection.RangeBased -pre-filter adams.data.filter.PassThrough
  * </pre>
  *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for pre-filtering and filtering batches;
+ * &nbsp;&nbsp;&nbsp;-1 = number of CPUs&#47;cores; 0 or 1 = sequential execution.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
+ * <pre>-cache-pre-filtered &lt;boolean&gt; (property: cachePreFiltered)
+ * &nbsp;&nbsp;&nbsp;If enabled, the spectra pre-filtered for training get reused when filtering
+ * &nbsp;&nbsp;&nbsp;the same batch, at the expense of keeping them in memory.
+ * &nbsp;&nbsp;&nbsp;default: true
+ * </pre>
+ *
+ * <pre>-reference-update &lt;adams.data.spectrumfilter.referenceupdate.AbstractReferenceUpdate&gt; (property: referenceUpdate)
+ * &nbsp;&nbsp;&nbsp;The scheme for updating the average spectrum with each spectrum that gets
+ * &nbsp;&nbsp;&nbsp;corrected; batches get processed sequentially when active.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.spectrumfilter.referenceupdate.NoUpdate
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
@@ -72,7 +98,7 @@ import java.util.Map;
  */
 public class MultiplicativeScatterCorrection
   extends AbstractFilter<Spectrum>
-  implements TrainableBatchFilter<Spectrum>, AdditionalDataProvider {
+  implements TrainableBatchFilter<Spectrum>, AdditionalDataProvider, ThreadLimiter {
 
   private static final long serialVersionUID = 4945613765460222457L;
 
@@ -91,6 +117,18 @@ public class MultiplicativeScatterCorrection
   /** the average spectrum. */
   protected Spectrum m_Average;
 
+  /** the number of threads to use for batches. */
+  protected int m_NumThreads;
+
+  /** whether to reuse the spectra pre-filtered for training within a batch. */
+  protected boolean m_CachePreFiltered;
+
+  /** the scheme for updating the average spectrum. */
+  protected AbstractReferenceUpdate m_ReferenceUpdate;
+
+  /** whether the correction uses the same pre-filter (null if not determined). */
+  protected transient Boolean m_SamePreFilter;
+
   /**
    * Returns a string describing the object.
    *
@@ -104,7 +142,10 @@ public class MultiplicativeScatterCorrection
 	+ "The 'pre-filter' gets only applied internally.\n"
 	+ "Intercept and slope get stored in the report, for "
 	+ "each defined range (using prefixes " + PREFIX_INTERCEPT
-	+ " and " + PREFIX_SLOPE + ")";
+	+ " and " + PREFIX_SLOPE + ")\n"
+	+ "With an active reference update scheme, the average spectrum gets "
+	+ "updated with each (pre-filtered) spectrum after it was corrected, "
+	+ "i.e., no re-training is required for following drifting instruments.";
   }
 
   /**
@@ -121,6 +162,18 @@ public class MultiplicativeScatterCorrection
     m_OptionManager.add(
       "correction", "correction",
       new RangeBased());
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1, -1, null);
+
+    m_OptionManager.add(
+      "cache-pre-filtered", "cachePreFiltered",
+      true);
+
+    m_OptionManager.add(
+      "reference-update", "referenceUpdate",
+      new NoUpdate());
   }
 
   /**
@@ -130,6 +183,7 @@ public class MultiplicativeScatterCorrection
   public void reset() {
     super.reset();
     resetFilter();
+    m_SamePreFilter = null;
   }
 
   /**
@@ -192,6 +246,101 @@ public class MultiplicativeScatterCorrection
     return "The correction scheme to apply.";
   }
 
+  /**
+   * Sets the number of threads to use for batches.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for batches.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for pre-filtering and filtering batches; "
+	+ Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Sets whether to reuse the spectra pre-filtered for training when
+   * filtering the same batch.
+   *
+   * @param value 	true if to cache
+   */
+  public void setCachePreFiltered(boolean value) {
+    m_CachePreFiltered = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to reuse the spectra pre-filtered for training when
+   * filtering the same batch.
+   *
+   * @return 		true if to cache
+   */
+  public boolean getCachePreFiltered() {
+    return m_CachePreFiltered;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String cachePreFilteredTipText() {
+    return
+      "If enabled, the spectra pre-filtered for training get reused when "
+	+ "filtering the same batch, at the expense of keeping them in memory.";
+  }
+
+  /**
+   * Sets the scheme for updating the average spectrum.
+   *
+   * @param value 	the scheme
+   */
+  public void setReferenceUpdate(AbstractReferenceUpdate value) {
+    m_ReferenceUpdate = value;
+    reset();
+  }
+
+  /**
+   * Returns the scheme for updating the average spectrum.
+   *
+   * @return 		the scheme
+   */
+  public AbstractReferenceUpdate getReferenceUpdate() {
+    return m_ReferenceUpdate;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String referenceUpdateTipText() {
+    return
+      "The scheme for updating the average spectrum with each spectrum that "
+	+ "gets corrected; batches get processed sequentially when active.";
+  }
+
   /**
    * Resets the filter, i.e., flags it as "not trained".
    *
@@ -200,6 +349,46 @@ public class MultiplicativeScatterCorrection
   @Override
   public void resetFilter() {
     m_Average = null;
+    if (m_ReferenceUpdate != null)
+      m_ReferenceUpdate.clear();
+  }
+
+  /**
+   * Applies the pre-filter to the spectrum.
+   *
+   * @param data	the spectrum to filter
+   * @return		the filtered spectrum, the input if pass-through
+   */
+  protected Spectrum preFilter(Spectrum data) {
+    if (m_PreFilter instanceof PassThrough)
+      return data;
+    else
+      return (Spectrum) m_PreFilter.filter(data);
+  }
+
+  /**
+   * Applies the pre-filter to the spectra.
+   *
+   * @param data	the spectra to filter
+   * @return		the filtered spectra, the input if pass-through
+   */
+  protected Spectrum[] preFilter(Spectrum[] data) {
+    if (m_PreFilter instanceof PassThrough)
+      return data;
+    else
+      return ParallelBatchHelper.filter(m_PreFilter, data, m_NumThreads);
+  }
+
+  /**
+   * Returns whether the correction scheme uses the same pre-filter, i.e.,
+   * whether the pre-filtered spectra can be passed on.
+   *
+   * @return		true if the same pre-filter
+   */
+  protected boolean isSamePreFilter() {
+    if (m_SamePreFilter == null)
+      m_SamePreFilter = OptionUtils.getCommandLine(m_PreFilter).equals(OptionUtils.getCommandLine(m_Correction.getPreFilter()));
+    return m_SamePreFilter;
   }
 
   /**
@@ -207,37 +396,39 @@ public class MultiplicativeScatterCorrection
    */
   @Override
   public void trainFilter(Spectrum[] data) {
-    int			i;
-    int			n;
-    double[]		ampl;
-    Spectrum[]		filtered;
+    train(preFilter(data));
+  }
+
+  /**
+   * Computes the average spectrum from the pre-filtered spectra.
+   *
+   * @param filtered	the pre-filtered spectra
+   */
+  protected void train(Spectrum[] filtered) {
+    int				i;
+    int				n;
+    double[]			ampl;
+    List<SpectrumPoint>[]	points;
 
-    if (data.length == 0)
+    if (filtered.length == 0)
       throw new IllegalStateException("No spectra provided for training!");
 
     if (isLoggingEnabled())
-      getLogger().info("Training on " + data.length + " spectra");
+      getLogger().info("Training on " + filtered.length + " spectra");
 
     m_Average = new Spectrum();
-    m_Average.setID("avg(" + data.length + " spectra)");
-
-    // pre-filter data
-    if (m_PreFilter instanceof PassThrough) {
-      filtered = data;
-    }
-    else {
-      filtered = new Spectrum[data.length];
-      for (i = 0; i < data.length; i++)
-	filtered[i] = (Spectrum) m_PreFilter.filter(data[i]);
-    }
+    m_Average.setID("avg(" + filtered.length + " spectra)");
 
+    points = new List[filtered.length];
+    for (n = 0; n < filtered.length; n++)
+      points[n] = filtered[n].toList();
     ampl = new double[filtered.length];
-    for (i = 0; i < filtered[0].size(); i++) {
+    for (i = 0; i < points[0].size(); i++) {
       for (n = 0; n < filtered.length; n++)
-	ampl[n] = filtered[n].toList().get(i).getAmplitude();
+	ampl[n] = points[n].get(i).getAmplitude();
       m_Average.add(
 	new SpectrumPoint(
-	  filtered[0].toList().get(i).getWaveNumber(),
+	  points[0].get(i).getWaveNumber(),
 	  (float) StatUtils.mean(ampl)));
     }
   }
@@ -259,40 +450,96 @@ public class MultiplicativeScatterCorrection
    * @return		the filtered data
    */
   @Override
-  public Spectrum[] batchFilter(Spectrum[] data) {
-    Spectrum[]	result;
-    int		i;
+  public Spectrum[] batchFilter(final Spectrum[] data) {
+    final Spectrum[]				result;
+    final Spectrum[]				filtered;
+    int						i;
+
+    if (!m_CachePreFiltered) {
+      if (!isTrained())
+	trainFilter(data);
+      // updates depend on order
+      if (m_ReferenceUpdate.isActive()) {
+	result = new Spectrum[data.length];
+	for (i = 0; i < data.length; i++)
+	  result[i] = filter(data[i]);
+	return result;
+      }
+      return ParallelBatchHelper.filter(this, data, m_NumThreads);
+    }
 
+    filtered = preFilter(data);
     if (!isTrained())
-      trainFilter(data);
+      train(filtered);
 
     result = new Spectrum[data.length];
-    for (i = 0; i < data.length; i++)
-      result[i] = filter(data[i]);
+
+    // updates depend on order
+    if (m_ReferenceUpdate.isActive()) {
+      for (i = 0; i < data.length; i++)
+	result[i] = filter(data[i], filtered[i]);
+      return result;
+    }
+
+    // filtering is read-only once trained, instance can be shared
+    ParallelBatchHelper.run(data.length, m_NumThreads, (int partition, int start, int end) -> {
+      for (int n = start; n < end; n++)
+	result[n] = filter(data[n], filtered[n]);
+    });
 
     return result;
   }
 
   /**
-   * The default implementation only checks whether there is any data set.
+   * Filters the data.
    *
    * @param data	the data to filter
+   * @return		the filtered data
    */
   @Override
-  protected void checkData(Spectrum data) {
-    Spectrum 		filtered;
+  public Spectrum filter(Spectrum data) {
+    return filter(data, null);
+  }
+
+  /**
+   * Filters the data, reusing the supplied pre-filtered spectrum. The
+   * pre-filtered spectrum only gets passed on via the call chain and not
+   * stored in the object, as the filter may be used concurrently.
+   *
+   * @param data	the data to filter
+   * @param filtered	the pre-filtered spectrum, null to pre-filter here
+   * @return		the filtered data
+   */
+  protected Spectrum filter(Spectrum data, Spectrum filtered) {
+    Spectrum	result;
 
-    super.checkData(data);
+    checkData(data);
+    if (filtered == null)
+      filtered = preFilter(data);
+    checkPreFiltered(filtered);
+    result = processData(data, filtered);
 
-    if (m_PreFilter instanceof PassThrough)
-      filtered = data;
-    else
-      filtered = (Spectrum) m_PreFilter.filter(data);
+    if (!getDontUpdateID())
+      result.setID(result.getID() + "'");
+    result.getNotes().addProcessInformation(this);
+
+    return result;
+  }
+
+  /**
+   * Checks whether the pre-filtered spectrum is compatible with the
+   * average spectrum.
+   *
+   * @param filtered	the pre-filtered spectrum
+   */
+  protected void checkPreFiltered(Spectrum filtered) {
+    Spectrum	average;
 
-    if (filtered.size() != m_Average.size())
+    average = m_Average;
+    if ((average != null) && (filtered.size() != average.size()))
       throw new IllegalStateException(
 	"Different number of wave numbers (avg vs filtered input): "
-	  + m_Average.size() + " != " + filtered.size());
+	  + average.size() + " != " + filtered.size());
   }
 
   /**
@@ -303,12 +550,53 @@ public class MultiplicativeScatterCorrection
    */
   @Override
   protected Spectrum processData(Spectrum data) {
+    return processData(data, preFilter(data));
+  }
+
+  /**
+   * Performs the actual filtering. Just returns the input data if not trained.
+   *
+   * @param data	the data to filter
+   * @param filtered	the pre-filtered spectrum
+   * @return		the filtered data
+   */
+  protected Spectrum processData(Spectrum data, Spectrum filtered) {
+    Spectrum	result;
+
+    if (m_ReferenceUpdate.isActive()) {
+      if (!m_ReferenceUpdate.isInitialized()) {
+	if (m_Average != null)
+	  m_ReferenceUpdate.initialize(m_Average);
+	else
+	  m_ReferenceUpdate.update(filtered);
+      }
+      m_Average = m_ReferenceUpdate.getReference("avg(running)");
+      result    = correct(data, filtered);
+      m_ReferenceUpdate.update(filtered);
+      return result;
+    }
+
     if (!isTrained()) {
       getLogger().warning("Not trained, just returning input data: " + data);
       return data;
     }
 
-    return m_Correction.correct(m_Average, data);
+    return correct(data, filtered);
+  }
+
+  /**
+   * Corrects the spectrum using the average spectrum. Passes on the
+   * pre-filtered spectrum if the correction scheme uses the same pre-filter.
+   *
+   * @param data	the spectrum to correct
+   * @param filtered	the pre-filtered spectrum
+   * @return		the corrected spectrum
+   */
+  protected Spectrum correct(Spectrum data, Spectrum filtered) {
+    if (isSamePreFilter())
+      return m_Correction.correct(m_Average, data, filtered);
+    else
+      return m_Correction.correct(m_Average, data);
   }
 
   /**
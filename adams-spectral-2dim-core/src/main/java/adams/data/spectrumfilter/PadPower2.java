@@ -15,7 +15,7 @@
 
 /*
  * PadPower2.java
- * Copyright (C) 2015 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -23,9 +23,9 @@ package adams.data.spectrumfilter;
 import adams.data.filter.AbstractFilter;
 import adams.data.padding.PaddingHelper;
 import adams.data.padding.PaddingType;
+import adams.data.spectrum.SignalProcessing;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
-import adams.data.statistics.SpectrumStatistic;
 
 import java.util.List;
 
@@ -258,7 +258,6 @@ public class PadPower2
   protected Spectrum processData(Spectrum data) {
     Spectrum 			result;
     List<SpectrumPoint> 	points;
-    SpectrumPoint 		newPoint;
     float[]			waves;
     float[]			values;
     int				i;
@@ -283,7 +282,7 @@ public class PadPower2
 
     // pad wave numbers
     if (m_WaveNumberStepSize <= 0)
-      inc = (float) data.toStatistic().getStatistic(SpectrumStatistic.MEAN_DELTA_WAVE_NUMBER);
+      inc = (float) SignalProcessing.meanDelta(waves, waves.length);
     else
       inc = m_WaveNumberStepSize;
     waves = PaddingHelper.pad(waves, values.length, PaddingType.ZERO);
@@ -295,10 +294,8 @@ public class PadPower2
     }
 
     // create new spectrum
-    for (i = 0; i < waves.length; i++) {
-      newPoint = new SpectrumPoint(waves[i], values[i]);
-      result.add(newPoint);
-    }
+    for (i = 0; i < waves.length; i++)
+      result.add(new SpectrumPoint(waves[i], values[i]));
 
     return result;
   }
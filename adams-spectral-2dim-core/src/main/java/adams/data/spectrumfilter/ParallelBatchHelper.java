@@ -0,0 +1,217 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ParallelBatchHelper.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.core.ObjectCopyHelper;
+import adams.core.Performance;
+import adams.data.filter.Filter;
+import adams.data.spectrum.Spectrum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Helper class for processing batches of spectra in parallel. The batch
+ * gets split into consecutive partitions, one per thread, which get
+ * processed on a fork/join pool. Since results are stored by index, the
+ * output order is the same as with sequential processing.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ParallelBatchHelper {
+
+  /**
+   * Interface for tasks that process a partition of a batch.
+   */
+  public interface PartitionTask {
+
+    /**
+     * Processes the partition.
+     *
+     * @param partition	the index of the partition
+     * @param start	the first index (incl)
+     * @param end	the last index (excl)
+     * @throws Exception	if processing fails
+     */
+    public void process(int partition, int start, int end) throws Exception;
+  }
+
+  /**
+   * Determines the number of partitions to use.
+   *
+   * @param size	the size of the batch
+   * @param numThreads	the number of threads (-1 = # of CPUs/cores; 0/1 = sequential)
+   * @return		the number of partitions
+   */
+  public static int numPartitions(int size, int numThreads) {
+    return Math.max(1, Math.min(size, Performance.determineNumThreads(numThreads)));
+  }
+
+  /**
+   * Creates a pool for the specified number of threads, which can be reused
+   * across several calls of {@link #run(ForkJoinPool, int, int, PartitionTask)}.
+   * Needs to be shut down with {@link #shutdown(ForkJoinPool)} afterwards.
+   *
+   * @param numThreads	the number of threads (-1 = # of CPUs/cores; 0/1 = sequential)
+   * @return		the pool, null if sequential
+   */
+  public static ForkJoinPool newPool(int numThreads) {
+    int		num;
+
+    num = Performance.determineNumThreads(numThreads);
+    if (num <= 1)
+      return null;
+
+    return new ForkJoinPool(num);
+  }
+
+  /**
+   * Shuts down the pool.
+   *
+   * @param pool	the pool to shut down, ignored if null
+   */
+  public static void shutdown(ForkJoinPool pool) {
+    if (pool != null)
+      pool.shutdown();
+  }
+
+  /**
+   * Processes the batch with the specified number of threads, using a
+   * temporary pool.
+   *
+   * @param size	the size of the batch
+   * @param numThreads	the number of threads (-1 = # of CPUs/cores; 0/1 = sequential)
+   * @param task	the task to execute for each partition
+   * @see		#run(ForkJoinPool, int, int, PartitionTask)
+   */
+  public static void run(int size, int numThreads, final PartitionTask task) {
+    ForkJoinPool	pool;
+
+    if (numPartitions(size, numThreads) == 1) {
+      run(null, size, numThreads, task);
+      return;
+    }
+
+    pool = newPool(numThreads);
+    try {
+      run(pool, size, numThreads, task);
+    }
+    finally {
+      shutdown(pool);
+    }
+  }
+
+  /**
+   * Processes the batch with the specified number of threads, using the
+   * provided pool.
+   *
+   * @param pool	the pool to use, null for sequential processing
+   * @param size	the size of the batch
+   * @param numThreads	the number of threads (-1 = # of CPUs/cores; 0/1 = sequential)
+   * @param task	the task to execute for each partition
+   * @see		#newPool(int)
+   */
+  public static void run(ForkJoinPool pool, int size, int numThreads, final PartitionTask task) {
+    final List<RecursiveAction>	actions;
+    int				numParts;
+    int				partSize;
+    int				i;
+
+    numParts = numPartitions(size, numThreads);
+    if ((numParts == 1) || (pool == null)) {
+      try {
+	task.process(0, 0, size);
+      }
+      catch (RuntimeException e) {
+	throw e;
+      }
+      catch (Exception e) {
+	throw new IllegalStateException("Failed to process batch!", e);
+      }
+      return;
+    }
+
+    partSize = (int) Math.ceil((double) size / numParts);
+    actions  = new ArrayList<>();
+    for (i = 0; i < numParts; i++) {
+      final int partition = i;
+      final int start     = i * partSize;
+      final int end       = Math.min(size, start + partSize);
+      if (start >= end)
+	break;
+      actions.add(new RecursiveAction() {
+	private static final long serialVersionUID = 7216410368542155231L;
+	@Override
+	protected void compute() {
+	  try {
+	    task.process(partition, start, end);
+	  }
+	  catch (RuntimeException e) {
+	    throw e;
+	  }
+	  catch (Exception e) {
+	    throw new IllegalStateException("Failed to process partition #" + (partition + 1) + "!", e);
+	  }
+	}
+      });
+    }
+
+    pool.invoke(new RecursiveAction() {
+      private static final long serialVersionUID = -3092857460182350475L;
+      @Override
+      protected void compute() {
+	invokeAll(actions);
+      }
+    });
+  }
+
+  /**
+   * Filters the spectra with the (already trained) filter. Each partition
+   * uses its own copy of the filter, the first one the filter itself.
+   *
+   * @param filter	the filter to apply
+   * @param data	the spectra to filter
+   * @param numThreads	the number of threads (-1 = # of CPUs/cores; 0/1 = sequential)
+   * @return		the filtered spectra, same order as the input
+   */
+  public static Spectrum[] filter(Filter<Spectrum> filter, final Spectrum[] data, int numThreads) {
+    final Spectrum[]		result;
+    final Filter<Spectrum>[]	filters;
+    int				numParts;
+    int				i;
+
+    result   = new Spectrum[data.length];
+    numParts = numPartitions(data.length, numThreads);
+    filters  = new Filter[numParts];
+    filters[0] = filter;
+    for (i = 1; i < numParts; i++)
+      filters[i] = ObjectCopyHelper.copyObject(filter);
+
+    run(data.length, numThreads, (int partition, int start, int end) -> {
+      for (int n = start; n < end; n++)
+	result[n] = filters[partition].filter(data[n]);
+    });
+
+    return result;
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * RowNorm.java
- * Copyright (C) 2009-2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -25,6 +25,7 @@ import adams.data.statistics.StatUtils;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -51,7 +52,8 @@ import java.util.List;
  * @version $Revision: 2242 $
  */
 public class RowNorm
-  extends AbstractFilter<Spectrum> {
+  extends AbstractFilter<Spectrum>
+  implements FusableSpectrumFilter {
 
   /** for serialization. */
   private static final long serialVersionUID = 1836858988505886282L;
@@ -91,4 +93,33 @@ public class RowNorm
 
     return result;
   }
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  /**
+   * Processes the buffer in place.
+   *
+   * @param buffer	the buffer to process
+   */
+  @Override
+  public void processBuffer(FusedFilterPipeline.Buffer buffer) {
+    double[]	ampl;
+    double[]	x;
+    double[]	norm;
+    int		i;
+
+    ampl = buffer.getAmplitudes();
+    x    = Arrays.copyOf(ampl, buffer.size());
+    norm = StatUtils.rowNorm(x);
+    for (i = 0; i < buffer.size(); i++)
+      ampl[i] = (float) norm[i];
+  }
 }
@@ -15,7 +15,7 @@
 
 /*
  * RowZeroMin.java
- * Copyright (C) 2009-2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -46,7 +46,8 @@ import java.util.List;
  * @version $Revision: 2242 $
  */
 public class RowZeroMin
-  extends AbstractFilter <Spectrum>{
+  extends AbstractFilter<Spectrum>
+  implements FusableSpectrumFilter {
 
   /** for serialization. */
  private static final long serialVersionUID = 5635937720574564891L;
@@ -89,4 +90,33 @@ public class RowZeroMin
 
     return result;
   }
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  /**
+   * Processes the buffer in place.
+   *
+   * @param buffer	the buffer to process
+   */
+  @Override
+  public void processBuffer(FusedFilterPipeline.Buffer buffer) {
+    double[]	ampl;
+    double	min;
+    int		i;
+
+    ampl = buffer.getAmplitudes();
+    min  = Double.POSITIVE_INFINITY;
+    for (i = 0; i < buffer.size(); i++)
+      min = Math.min(min, ampl[i]);
+    for (i = 0; i < buffer.size(); i++)
+      ampl[i] = (float) (ampl[i] - min);
+  }
 }
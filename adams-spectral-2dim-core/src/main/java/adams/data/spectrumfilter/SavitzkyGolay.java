@@ -15,16 +15,20 @@
 
 /*
  * SavitzkyGolay.java
- * Copyright (C) 2008 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
 
 import adams.data.container.DataPoint;
 import adams.data.filter.AbstractSavitzkyGolay;
+import adams.data.spectrum.SavitzkyGolayKernel;
+import adams.data.spectrum.SignalProcessing;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 
+import java.util.List;
+
 /**
  <!-- globalinfo-start -->
  * A filter that applies Savitzky-Golay smoothing.<br>
@@ -92,17 +96,72 @@ import adams.data.spectrum.SpectrumPoint;
  *         default: 3
  * </pre>
  *
+ * <pre>-use-fft &lt;boolean&gt; (property: useFFT)
+ *         If enabled, windows with at least 64 coefficients get convolved in
+ *         the frequency domain (FFT), which is faster for large windows; the
+ *         output differs from direct convolution by rounding errors.
+ *         default: false
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision: 2242 $
  */
 public class SavitzkyGolay
-  extends AbstractSavitzkyGolay<Spectrum> {
+  extends AbstractSavitzkyGolay<Spectrum>
+  implements FusableSpectrumFilter {
 
   /** for serialization. */
   private static final long serialVersionUID = -8446122688895546559L;
 
+  /** whether to use FFT for large windows. */
+  protected boolean m_UseFFT;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "use-fft", "useFFT",
+      false);
+  }
+
+  /**
+   * Sets whether to use FFT-based convolution for large windows.
+   *
+   * @param value	true if to use FFT
+   */
+  public void setUseFFT(boolean value) {
+    m_UseFFT = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use FFT-based convolution for large windows.
+   *
+   * @return		true if to use FFT
+   */
+  public boolean getUseFFT() {
+    return m_UseFFT;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String useFFTTipText() {
+    return
+      "If enabled, windows with at least " + SignalProcessing.FFT_CONVOLUTION_THRESHOLD + " coefficients "
+	+ "get convolved in the frequency domain (FFT), which is faster for large windows; "
+	+ "the output differs from direct convolution by rounding errors.";
+  }
+
   /**
    * Returns the X-value of the DataPoint.
    *
@@ -123,4 +182,71 @@ public class SavitzkyGolay
   protected DataPoint newDataPoint(DataPoint oldPoint, double x) {
     return new SpectrumPoint(((SpectrumPoint) oldPoint).getWaveNumber(), (float) x);
   }
+
+  /**
+   * Performs the actual filtering, using the shared coefficients and
+   * convolution kernel.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   */
+  @Override
+  protected Spectrum processData(Spectrum data) {
+    Spectrum		result;
+    List<SpectrumPoint>	points;
+    double[]		input;
+    double[]		output;
+    int			size;
+    int			i;
+
+    points = data.toList();
+    input  = new double[points.size()];
+    for (i = 0; i < points.size(); i++)
+      input[i] = points.get(i).getAmplitude();
+    output = new double[SavitzkyGolayKernel.outputSize(input.length, getNumPointsLeft(), getNumPointsRight())];
+    size   = SavitzkyGolayKernel.convolve(input, input.length, getNumPointsLeft(), getNumPointsRight(), getPolynomialOrder(), getDerivativeOrder(), m_UseFFT, output);
+
+    result = data.getHeader();
+    for (i = 0; i < size; i++)
+      result.add(new SpectrumPoint(points.get(i + getNumPointsLeft()).getWaveNumber(), (float) output[i]));
+
+    return result;
+  }
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  /**
+   * Processes the buffer, using the scratch arrays for the output.
+   *
+   * @param buffer	the buffer to process
+   */
+  @Override
+  public void processBuffer(FusedFilterPipeline.Buffer buffer) {
+    double[]	wave;
+    double[]	ampl;
+    double[]	outWave;
+    double[]	outAmpl;
+    int		size;
+    int		i;
+
+    wave    = buffer.getWaveNumbers();
+    ampl    = buffer.getAmplitudes();
+    size    = SavitzkyGolayKernel.outputSize(buffer.size(), getNumPointsLeft(), getNumPointsRight());
+    outWave = buffer.getScratchWaveNumbers(size);
+    outAmpl = buffer.getScratchAmplitudes(size);
+    SavitzkyGolayKernel.convolve(ampl, buffer.size(), getNumPointsLeft(), getNumPointsRight(), getPolynomialOrder(), getDerivativeOrder(), m_UseFFT, outAmpl);
+    for (i = 0; i < size; i++) {
+      outWave[i] = wave[i + getNumPointsLeft()];
+      outAmpl[i] = (float) outAmpl[i];
+    }
+    buffer.swap(size);
+  }
 }
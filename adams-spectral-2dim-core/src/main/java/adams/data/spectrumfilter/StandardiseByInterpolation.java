@@ -15,7 +15,7 @@
 
 /*
  * StandardiseByInterpolation.java
- * Copyright (C) 2015-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -24,11 +24,14 @@ import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 import adams.data.spectrum.SpectrumUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  <!-- globalinfo-start -->
- * Standardises spectrum to start-end with given step.
+ * Standardises spectrum to start-end with given step.<br>
+ * The interpolation weights are cached and re-used as long as the spectra share the same wave numbers.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -72,15 +75,44 @@ import java.util.List;
 public class StandardiseByInterpolation
   extends AbstractStandardiseFilter {
 
+  /** the polynomial to use. */
   protected int m_Polynomial;
 
+  /** the wave numbers of the last spectrum. */
+  protected transient double[] m_CachedWaveNumbers;
+
+  /** the output wave numbers. */
+  protected transient float[] m_CachedOutput;
+
+  /** the index of the first input point for each output point. */
+  protected transient int[] m_CachedStart;
+
+  /** the interpolation weights for each output point. */
+  protected transient double[][] m_CachedWeights;
+
   /**
    * Returns a string describing the object.
    *
    * @return 		a description suitable for displaying in the gui
    */
   public String globalInfo() {
-    return "Standardises spectrum to start-end with given step.";
+    return
+      "Standardises spectrum to start-end with given step.\n"
+	+ "The interpolation weights are cached and re-used as long as the "
+	+ "spectra share the same wave numbers.";
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+
+    m_CachedWaveNumbers = null;
+    m_CachedOutput      = null;
+    m_CachedStart       = null;
+    m_CachedWeights     = null;
   }
 
   /**
@@ -157,6 +189,115 @@ public class StandardiseByInterpolation
     return(sp.toList());
   }
 
+  /**
+   * Locates the closest wave number, using the same logic as
+   * {@link SpectrumUtils#findClosestWaveNumber(List, float)}, but operating
+   * on the sorted wave numbers with an already determined insertion point.
+   *
+   * @param waves	the sorted wave numbers
+   * @param waveno	the wave number to locate
+   * @param insert	the index of the first wave number that is not smaller
+   * @return		the index of the closest wave number
+   */
+  protected int findClosest(double[] waves, float waveno, int insert) {
+    int		result;
+    int		index;
+    double	dist;
+    double	currDist;
+    int		i;
+
+    if ((insert < waves.length) && (waves[insert] == waveno))
+      return insert;
+
+    index = insert + 1;
+    if (index >= waves.length)
+      index = waves.length - 1;
+    result = index;
+    dist   = Math.abs(waveno - (float) waves[index]);
+    for (i = index - 2; i <= index + 2; i++) {
+      if ((i >= 0) && (i < waves.length)) {
+	currDist = Math.abs(waveno - (float) waves[i]);
+	if (currDist < dist) {
+	  dist   = currDist;
+	  result = i;
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Computes the interpolation windows and weights for the wave numbers.
+   *
+   * @param waves	the sorted wave numbers of the input
+   */
+  protected void computeWeights(double[] waves) {
+    List<Double>	output;
+    double		intPoint;
+    double		waveno;
+    int			numPoints;
+    int			insert;
+    int			pos;
+    int			found;
+    int			foundMin;
+    int			foundMax;
+    double		minusDiff;
+    double		plusDiff;
+    int			i;
+    int			n;
+
+    if (waves.length == 0)
+      throw new IllegalStateException("No data points to interpolate!");
+
+    output   = new ArrayList<>();
+    intPoint = m_First;
+    while (true) {
+      output.add(intPoint);
+      intPoint += getStep();
+      if (intPoint > m_Last + .0001)
+	break;
+    }
+
+    numPoints       = getPolynomial() + 1;
+    m_CachedOutput  = new float[output.size()];
+    m_CachedStart   = new int[output.size()];
+    m_CachedWeights = new double[output.size()][numPoints];
+    insert          = 0;
+    for (i = 0; i < output.size(); i++) {
+      waveno = output.get(i);
+      m_CachedOutput[i] = (float) waveno;
+      // output axis is increasing, therefore insertion point only moves forward
+      while ((insert < waves.length) && (waves[insert] < m_CachedOutput[i]))
+	insert++;
+      pos      = findClosest(waves, m_CachedOutput[i], insert);
+      foundMin = pos;
+      foundMax = pos;
+      found    = 1;
+      while (found < numPoints) {
+	minusDiff = Double.MAX_VALUE;
+	plusDiff  = Double.MAX_VALUE;
+	if (foundMin - 1 > 0)
+	  minusDiff = Math.abs(waveno - waves[foundMin - 1]);
+	if (foundMax + 1 < waves.length)
+	  plusDiff = Math.abs(waveno - waves[foundMax + 1]);
+	if (minusDiff < plusDiff)
+	  foundMin--;
+	else if (foundMax + 1 < waves.length)
+	  foundMax++;
+	else
+	  throw new IllegalStateException(
+	    "Not enough data points for polynomial " + getPolynomial() + ": " + waves.length);
+	found++;
+      }
+      m_CachedStart[i] = foundMin;
+      for (n = 0; n < numPoints; n++)
+	m_CachedWeights[i][n] = weight(waveno, waves, foundMin, numPoints, n);
+    }
+
+    m_CachedWaveNumbers = waves;
+  }
+
   /**
    * Performs the actual filtering.
    *
@@ -166,24 +307,37 @@ public class StandardiseByInterpolation
   protected Spectrum processData(Spectrum data) {
     Spectrum		result;
     List<SpectrumPoint>	list;
+    double[]		waves;
+    double[]		ampl;
+    double[]		weights;
+    double		amp;
+    int			start;
+    int			i;
+    int			n;
 
     if (m_Last < m_First)
       throw new IllegalStateException("last < first!");
 
-    list = data.toList();
-    result=data.getHeader();
-    double int_point=m_First;
-    boolean cont=true;
-
-    while (cont){
-      List<SpectrumPoint> lsp=getClosestPoints(int_point,list,getPolynomial()+1);
-      double amp=interp(int_point,lsp,lsp.size()-1);
-      result.add(new SpectrumPoint((float)int_point,(float)amp));
-      int_point+=getStep();
-      if (int_point > m_Last +.0001){
-	break;
-      }
+    list  = data.toList();
+    waves = new double[list.size()];
+    ampl  = new double[list.size()];
+    for (i = 0; i < list.size(); i++) {
+      waves[i] = list.get(i).getWaveNumber();
+      ampl[i]  = list.get(i).getAmplitude();
+    }
+    if ((m_CachedWaveNumbers == null) || !Arrays.equals(m_CachedWaveNumbers, waves))
+      computeWeights(waves);
+
+    result = data.getHeader();
+    for (i = 0; i < m_CachedOutput.length; i++) {
+      start   = m_CachedStart[i];
+      weights = m_CachedWeights[i];
+      amp     = 0;
+      for (n = 0; n < weights.length; n++)
+	amp += weights[n] * ampl[start + n];
+      result.add(new SpectrumPoint(m_CachedOutput[i], (float) amp));
     }
+
     return result;
   }
 }
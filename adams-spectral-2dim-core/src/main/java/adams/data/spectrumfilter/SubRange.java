@@ -15,7 +15,7 @@
 
 /*
  * SubRange.java
- * Copyright (C) 2009-2010 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -59,7 +59,8 @@ import java.util.List;
  * @version $Revision: 2242 $
  */
 public class SubRange
-  extends AbstractFilter<Spectrum> {
+  extends AbstractFilter<Spectrum>
+  implements FusableSpectrumFilter {
 
   /** for serialization. */
   private static final long serialVersionUID = 2319957467336388607L;
@@ -225,4 +226,64 @@ public class SubRange
 
     return result;
   }
+
+  /**
+   * Returns whether the filter can currently be fused, given its setup.
+   *
+   * @return		always true
+   */
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  /**
+   * Processes the buffer in place.
+   *
+   * @param buffer	the buffer to process
+   */
+  @Override
+  public void processBuffer(FusedFilterPipeline.Buffer buffer) {
+    double[]	wave;
+    double[]	ampl;
+    double	min;
+    double	max;
+    int		i;
+    int		n;
+    boolean	keep;
+
+    wave = buffer.getWaveNumbers();
+    ampl = buffer.getAmplitudes();
+    if (buffer.size() == 0)
+      return;
+
+    min = m_MinWaveNumber;
+    max = m_MaxWaveNumber;
+    if ((min == -1) || (max == -1)) {
+      if (min == -1)
+	min = Double.POSITIVE_INFINITY;
+      if (max == -1)
+	max = Double.NEGATIVE_INFINITY;
+      for (i = 0; i < buffer.size(); i++) {
+	if (m_MinWaveNumber == -1)
+	  min = Math.min(min, wave[i]);
+	if (m_MaxWaveNumber == -1)
+	  max = Math.max(max, wave[i]);
+      }
+    }
+
+    n = 0;
+    for (i = 0; i < buffer.size(); i++) {
+      if (m_Invert)
+	keep = (wave[i] < min) || (wave[i] > max);
+      else
+	keep = (wave[i] >= min) && (wave[i] <= max);
+      if (keep) {
+	wave[n] = wave[i];
+	ampl[n] = ampl[i];
+	n++;
+      }
+    }
+    buffer.setSize(n);
+  }
 }
@@ -15,7 +15,7 @@
 
 /*
  * SubtractSpectrum.java
- * Copyright (C) 2008-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -25,6 +25,8 @@ import adams.data.filter.Filter;
 import adams.data.filter.PassThrough;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrumfilter.referenceupdate.AbstractReferenceUpdate;
+import adams.data.spectrumfilter.referenceupdate.NoUpdate;
 import adams.db.AbstractDatabaseConnection;
 import adams.db.DatabaseConnection;
 import adams.db.SpectrumF;
@@ -64,13 +66,20 @@ public class SubtractSpectrum
   
   protected int m_id=69052;
 
+  /** the scheme for updating the reference spectrum. */
+  protected AbstractReferenceUpdate m_ReferenceUpdate;
+
   /**
    * Returns a string describing the object.
    *
    * @return 		a description suitable for displaying in the gui
    */
   public String globalInfo() {
-    return "Subtract a spectrum, after filtering.";
+    return
+      "Subtract a spectrum, after filtering.\n"
+	+ "With an active reference update scheme, the (filtered) reference "
+	+ "spectrum gets updated with each filtered spectrum after the "
+	+ "subtraction.";
   }
   /**
    * Adds options to the internal list of options.
@@ -81,6 +90,21 @@ public class SubtractSpectrum
     m_OptionManager.add(
 	"filter", "filter",
 	new PassThrough());
+
+    m_OptionManager.add(
+	"reference-update", "referenceUpdate",
+	new NoUpdate());
+  }
+
+  /**
+   * Resets the filter.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+
+    if (m_ReferenceUpdate != null)
+      m_ReferenceUpdate.clear();
   }
 
   /**
@@ -110,6 +134,38 @@ public class SubtractSpectrum
   public String filterTipText() {
     return "The filter to use.";
   }
+
+  /**
+   * Sets the scheme for updating the reference spectrum.
+   *
+   * @param value 	the scheme
+   */
+  public void setReferenceUpdate(AbstractReferenceUpdate value) {
+    m_ReferenceUpdate = value;
+    reset();
+  }
+
+  /**
+   * Returns the scheme for updating the reference spectrum.
+   *
+   * @return 		the scheme
+   */
+  public AbstractReferenceUpdate getReferenceUpdate() {
+    return m_ReferenceUpdate;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String referenceUpdateTipText() {
+    return
+      "The scheme for updating the reference spectrum with each filtered "
+	+ "spectrum after the subtraction; the reference from the database only "
+	+ "gets used for initializing it.";
+  }
   
 
 
@@ -126,8 +182,16 @@ public class SubtractSpectrum
     int			i;
    
     Spectrum f1=m_Filter.filter(data);
-    Spectrum sp=SpectrumF.getSingleton(getDatabaseConnection()).load(new Integer(m_id));
-    Spectrum f2=m_Filter.filter(sp);
+    Spectrum f2;
+    if (m_ReferenceUpdate.isActive()) {
+      if (!m_ReferenceUpdate.isInitialized())
+	m_ReferenceUpdate.initialize(m_Filter.filter(SpectrumF.getSingleton(getDatabaseConnection()).load(new Integer(m_id))));
+      f2=m_ReferenceUpdate.getReference("ref(running)");
+    }
+    else {
+      Spectrum sp=SpectrumF.getSingleton(getDatabaseConnection()).load(new Integer(m_id));
+      f2=m_Filter.filter(sp);
+    }
    
     result = data.getHeader();
     List<SpectrumPoint> list1 = f1.toList();
@@ -146,6 +210,9 @@ public class SubtractSpectrum
       result.add(pointNew);
     }
 
+    if (m_ReferenceUpdate.isActive())
+      m_ReferenceUpdate.update(f1);
+
     return result;
   }
 }
@@ -15,7 +15,7 @@
 
 /*
  * AbstractMultiplicativeScatterCorrection.java
- * Copyright (C) 2017 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.spectrumfilter.multiplicativescattercorrection;
@@ -83,6 +83,19 @@ public abstract class AbstractMultiplicativeScatterCorrection
         + "is applied in the outer " + MultiplicativeScatterCorrection.class.getName() + " filter";
   }
 
+  /**
+   * Applies the pre-filter to the spectrum.
+   *
+   * @param data	the spectrum to filter
+   * @return		the filtered spectrum, the input if pass-through
+   */
+  public Spectrum preFilter(Spectrum data) {
+    if (m_PreFilter instanceof PassThrough)
+      return data;
+    else
+      return (Spectrum) m_PreFilter.filter(data);
+  }
+
   /**
    * Corrects the spectrum.
    *
@@ -90,5 +103,17 @@ public abstract class AbstractMultiplicativeScatterCorrection
    * @param data 	the spectrum to process
    * @return		the processed spectrum
    */
-  public abstract Spectrum correct(Spectrum average, Spectrum data);
+  public Spectrum correct(Spectrum average, Spectrum data) {
+    return correct(average, data, preFilter(data));
+  }
+
+  /**
+   * Corrects the spectrum, using the already pre-filtered spectrum.
+   *
+   * @param average 	the average spectrum
+   * @param data 	the spectrum to process
+   * @param filtered	the pre-filtered spectrum
+   * @return		the processed spectrum
+   */
+  public abstract Spectrum correct(Spectrum average, Spectrum data, Spectrum filtered);
 }
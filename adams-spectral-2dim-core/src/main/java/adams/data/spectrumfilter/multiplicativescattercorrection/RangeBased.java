@@ -15,13 +15,12 @@
 
 /*
  * RangeBased.java
- * Copyright (C) 2017 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.spectrumfilter.multiplicativescattercorrection;
 
 import adams.core.base.BaseInterval;
-import adams.data.filter.PassThrough;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 import adams.data.spectrumfilter.MultiplicativeScatterCorrection;
@@ -29,6 +28,8 @@ import adams.data.statistics.StatUtils;
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.array.TDoubleArrayList;
 
+import java.util.List;
+
 /**
  <!-- globalinfo-start -->
  * Performs the correction using slopes&#47;intercepts calculated for the defined ranges.
@@ -118,17 +119,20 @@ public class RangeBased
   }
 
   /**
-   * Corrects the spectrum.
+   * Corrects the spectrum, using the already pre-filtered spectrum.
    *
    * @param average 	the average spectrum
    * @param data 	the spectrum to process
+   * @param filtered	the pre-filtered spectrum
    * @return		the processed spectrum
    */
   @Override
-  public Spectrum correct(Spectrum average, Spectrum data) {
+  public Spectrum correct(Spectrum average, Spectrum data, Spectrum filtered) {
     Spectrum		result;
-    Spectrum		filtered;
-    TDoubleList x;
+    List<SpectrumPoint>	filteredPoints;
+    List<SpectrumPoint>	averagePoints;
+    List<SpectrumPoint>	resultPoints;
+    TDoubleList 	x;
     TDoubleList		y;
     TDoubleList		wave;
     int			i;
@@ -136,16 +140,14 @@ public class RangeBased
     double[]		lr;
     double		inter;
     double		slope;
-    SpectrumPoint point;
+    SpectrumPoint 	point;
 
     // create copy of spectrum
     result = (Spectrum) data.getClone();
 
-    // pre-filter data
-    if (m_PreFilter instanceof PassThrough)
-      filtered = data;
-    else
-      filtered = (Spectrum) m_PreFilter.filter(data);
+    filteredPoints = filtered.toList();
+    averagePoints  = average.toList();
+    resultPoints   = result.toList();
 
     // iterate ranges
     x    = new TDoubleArrayList();
@@ -155,11 +157,11 @@ public class RangeBased
       x.clear();
       y.clear();
       wave.clear();
-      for (i = 0; i < average.size(); i++) {
-	if (m_Ranges[n].isInside(filtered.toList().get(i).getWaveNumber())) {
-	  wave.add(filtered.toList().get(i).getWaveNumber());
-	  y.add(filtered.toList().get(i).getAmplitude());
-	  x.add(average.toList().get(i).getAmplitude());
+      for (i = 0; i < averagePoints.size(); i++) {
+	if (m_Ranges[n].isInside(filteredPoints.get(i).getWaveNumber())) {
+	  wave.add(filteredPoints.get(i).getWaveNumber());
+	  y.add(filteredPoints.get(i).getAmplitude());
+	  x.add(averagePoints.get(i).getAmplitude());
 	}
       }
 
@@ -176,8 +178,8 @@ public class RangeBased
 	getLogger().info(data.getID() + "/" + m_Ranges[n] + ": intercept=" + inter + ", slope=" + slope);
 
       // correct spectrum
-      for (i = 0; i < result.size(); i++) {
-	point = result.toList().get(i);
+      for (i = 0; i < resultPoints.size(); i++) {
+	point = resultPoints.get(i);
 	if (m_Ranges[n].isInside(point.getWaveNumber()))
 	  point.setAmplitude((float) ((point.getAmplitude() - inter) / slope));
       }
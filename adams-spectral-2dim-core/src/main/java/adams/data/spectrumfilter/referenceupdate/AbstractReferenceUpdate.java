@@ -0,0 +1,358 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractReferenceUpdate.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter.referenceupdate;
+
+import adams.core.SerializationHelper;
+import adams.core.io.PlaceholderFile;
+import adams.core.option.AbstractOptionHandler;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Ancestor for schemes that maintain a reference spectrum as running mean
+ * of the spectra seen so far. Each update is O(#points). The state can be
+ * checkpointed to a file at regular intervals and gets restored from that
+ * file when the scheme is used the first time.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractReferenceUpdate
+  extends AbstractOptionHandler {
+
+  private static final long serialVersionUID = 3290466187725106419L;
+
+  /** the checkpoint file. */
+  protected PlaceholderFile m_CheckpointFile;
+
+  /** the number of updates between checkpoints. */
+  protected int m_CheckpointInterval;
+
+  /** the wave numbers of the reference. */
+  protected float[] m_WaveNumbers;
+
+  /** the amplitudes of the reference. */
+  protected double[] m_Amplitudes;
+
+  /** the number of updates so far. */
+  protected long m_NumUpdates;
+
+  /** whether an attempt to restore the checkpoint was made. */
+  protected boolean m_CheckpointRestored;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "checkpoint-file", "checkpointFile",
+      new PlaceholderFile("."));
+
+    m_OptionManager.add(
+      "checkpoint-interval", "checkpointInterval",
+      100, 1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    clear();
+  }
+
+  /**
+   * Removes the current reference. The checkpoint (if any) gets restored
+   * again when the scheme is used next.
+   */
+  public synchronized void clear() {
+    m_WaveNumbers        = null;
+    m_Amplitudes         = null;
+    m_NumUpdates         = 0;
+    m_CheckpointRestored = false;
+  }
+
+  /**
+   * Sets the file to checkpoint the reference to. Ignored if pointing to a
+   * directory.
+   *
+   * @param value	the file
+   */
+  public void setCheckpointFile(PlaceholderFile value) {
+    m_CheckpointFile = value;
+    reset();
+  }
+
+  /**
+   * Returns the file to checkpoint the reference to. Ignored if pointing to
+   * a directory.
+   *
+   * @return		the file
+   */
+  public PlaceholderFile getCheckpointFile() {
+    return m_CheckpointFile;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String checkpointFileTipText() {
+    return
+      "The file to checkpoint the reference spectrum to; the state gets "
+	+ "restored from it when the scheme is first used; ignored if pointing "
+	+ "to a directory.";
+  }
+
+  /**
+   * Sets the number of updates between checkpoints.
+   *
+   * @param value	the interval
+   */
+  public void setCheckpointInterval(int value) {
+    if (getOptionManager().isValid("checkpointInterval", value)) {
+      m_CheckpointInterval = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of updates between checkpoints.
+   *
+   * @return		the interval
+   */
+  public int getCheckpointInterval() {
+    return m_CheckpointInterval;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String checkpointIntervalTipText() {
+    return "The number of updates after which to checkpoint the reference spectrum.";
+  }
+
+  /**
+   * Returns whether the scheme updates the reference at all.
+   *
+   * @return		true if updating the reference
+   */
+  public boolean isActive() {
+    return true;
+  }
+
+  /**
+   * Returns whether checkpointing is enabled.
+   *
+   * @return		true if enabled
+   */
+  protected boolean isCheckpointing() {
+    return (m_CheckpointFile != null) && !m_CheckpointFile.isDirectory();
+  }
+
+  /**
+   * Returns whether the reference has been initialized. Restores the
+   * checkpoint, if available and not attempted yet.
+   *
+   * @return		true if initialized
+   */
+  public synchronized boolean isInitialized() {
+    if (!m_CheckpointRestored) {
+      m_CheckpointRestored = true;
+      if (isCheckpointing() && m_CheckpointFile.exists())
+	restoreCheckpoint();
+    }
+    return (m_Amplitudes != null);
+  }
+
+  /**
+   * Returns the amplitudes of the spectrum.
+   *
+   * @param data	the spectrum
+   * @return		the amplitudes
+   */
+  protected double[] toAmplitudes(Spectrum data) {
+    double[]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new double[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getAmplitude();
+
+    return result;
+  }
+
+  /**
+   * Initializes the reference with the spectrum.
+   *
+   * @param data	the initial reference
+   */
+  public synchronized void initialize(Spectrum data) {
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points        = data.toList();
+    m_WaveNumbers = new float[points.size()];
+    for (i = 0; i < m_WaveNumbers.length; i++)
+      m_WaveNumbers[i] = points.get(i).getWaveNumber();
+    m_Amplitudes  = toAmplitudes(data);
+    m_NumUpdates  = 1;
+    doInitialize(m_Amplitudes);
+  }
+
+  /**
+   * Hook method for initializing additional state from the first amplitudes.
+   *
+   * @param amplitudes	the initial amplitudes
+   */
+  protected void doInitialize(double[] amplitudes) {
+  }
+
+  /**
+   * Updates the running mean with the new amplitudes.
+   *
+   * @param amplitudes	the new amplitudes
+   */
+  protected abstract void doUpdate(double[] amplitudes);
+
+  /**
+   * Updates the reference with the spectrum. Initializes the reference if
+   * necessary.
+   *
+   * @param data	the spectrum to add
+   */
+  public synchronized void update(Spectrum data) {
+    double[]	ampl;
+
+    if (!isInitialized()) {
+      initialize(data);
+    }
+    else {
+      ampl = toAmplitudes(data);
+      if (ampl.length != m_Amplitudes.length)
+	throw new IllegalStateException(
+	  "Different number of wave numbers (reference vs spectrum): "
+	    + m_Amplitudes.length + " != " + ampl.length);
+      doUpdate(ampl);
+      m_NumUpdates++;
+    }
+
+    if (isCheckpointing() && (m_NumUpdates % m_CheckpointInterval == 0))
+      saveCheckpoint();
+  }
+
+  /**
+   * Returns the current reference spectrum.
+   *
+   * @param id		the ID to use
+   * @return		the reference, null if not initialized
+   */
+  public synchronized Spectrum getReference(String id) {
+    Spectrum	result;
+    int		i;
+
+    if (!isInitialized())
+      return null;
+
+    result = new Spectrum();
+    result.setID(id);
+    for (i = 0; i < m_WaveNumbers.length; i++)
+      result.add(new SpectrumPoint(m_WaveNumbers[i], (float) m_Amplitudes[i]));
+
+    return result;
+  }
+
+  /**
+   * Returns the number of updates so far.
+   *
+   * @return		the number of updates
+   */
+  public long getNumUpdates() {
+    return m_NumUpdates;
+  }
+
+  /**
+   * Returns the additional state to checkpoint.
+   *
+   * @return		the state, null if none
+   */
+  protected Object getAdditionalState() {
+    return null;
+  }
+
+  /**
+   * Restores the additional state from a checkpoint.
+   *
+   * @param state	the state, can be null
+   */
+  protected void setAdditionalState(Object state) {
+  }
+
+  /**
+   * Writes the current state to the checkpoint file.
+   */
+  protected void saveCheckpoint() {
+    try {
+      SerializationHelper.writeAll(
+	m_CheckpointFile.getAbsolutePath(),
+	new Object[]{m_WaveNumbers, m_Amplitudes, m_NumUpdates, getAdditionalState()});
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to write checkpoint: " + m_CheckpointFile, e);
+    }
+  }
+
+  /**
+   * Restores the state from the checkpoint file.
+   */
+  protected void restoreCheckpoint() {
+    Object[]	state;
+
+    try {
+      state         = SerializationHelper.readAll(m_CheckpointFile.getAbsolutePath());
+      m_WaveNumbers = (float[]) state[0];
+      m_Amplitudes  = (double[]) state[1];
+      m_NumUpdates  = (Long) state[2];
+      setAdditionalState(state[3]);
+      if (isLoggingEnabled())
+	getLogger().info("Restored reference from checkpoint (#updates=" + m_NumUpdates + "): " + m_CheckpointFile);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read checkpoint: " + m_CheckpointFile, e);
+      m_WaveNumbers = null;
+      m_Amplitudes  = null;
+      m_NumUpdates  = 0;
+    }
+  }
+}
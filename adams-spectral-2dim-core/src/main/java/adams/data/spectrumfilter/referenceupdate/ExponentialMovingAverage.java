@@ -0,0 +1,134 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExponentialMovingAverage.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter.referenceupdate;
+
+/**
+ <!-- globalinfo-start -->
+ * Maintains the reference spectrum as exponentially weighted moving average:<br>
+ * ref = (1 - alpha) * ref + alpha * spectrum
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-checkpoint-file &lt;adams.core.io.PlaceholderFile&gt; (property: checkpointFile)
+ * &nbsp;&nbsp;&nbsp;The file to checkpoint the reference spectrum to; the state gets restored
+ * &nbsp;&nbsp;&nbsp;from it when the scheme is first used; ignored if pointing to a directory.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-checkpoint-interval &lt;int&gt; (property: checkpointInterval)
+ * &nbsp;&nbsp;&nbsp;The number of updates after which to checkpoint the reference spectrum.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-alpha &lt;double&gt; (property: alpha)
+ * &nbsp;&nbsp;&nbsp;The weight of the new spectrum (0-1).
+ * &nbsp;&nbsp;&nbsp;default: 0.05
+ * &nbsp;&nbsp;&nbsp;minimum: 0.0
+ * &nbsp;&nbsp;&nbsp;maximum: 1.0
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ExponentialMovingAverage
+  extends AbstractReferenceUpdate {
+
+  private static final long serialVersionUID = 6051928834712396553L;
+
+  /** the weight of new spectra. */
+  protected double m_Alpha;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Maintains the reference spectrum as exponentially weighted moving average:\n"
+	+ "ref = (1 - alpha) * ref + alpha * spectrum";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "alpha", "alpha",
+      0.05, 0.0, 1.0);
+  }
+
+  /**
+   * Sets the weight of the new spectrum.
+   *
+   * @param value	the weight (0-1)
+   */
+  public void setAlpha(double value) {
+    if (getOptionManager().isValid("alpha", value)) {
+      m_Alpha = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the weight of the new spectrum.
+   *
+   * @return		the weight (0-1)
+   */
+  public double getAlpha() {
+    return m_Alpha;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String alphaTipText() {
+    return "The weight of the new spectrum (0-1).";
+  }
+
+  /**
+   * Updates the running mean with the new amplitudes.
+   *
+   * @param amplitudes	the new amplitudes
+   */
+  @Override
+  protected void doUpdate(double[] amplitudes) {
+    int		i;
+
+    for (i = 0; i < amplitudes.length; i++)
+      m_Amplitudes[i] += m_Alpha * (amplitudes[i] - m_Amplitudes[i]);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * NoUpdate.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter.referenceupdate;
+
+/**
+ <!-- globalinfo-start -->
+ * Dummy scheme, the reference spectrum remains static.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-checkpoint-file &lt;adams.core.io.PlaceholderFile&gt; (property: checkpointFile)
+ * &nbsp;&nbsp;&nbsp;The file to checkpoint the reference spectrum to; the state gets restored
+ * &nbsp;&nbsp;&nbsp;from it when the scheme is first used; ignored if pointing to a directory.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-checkpoint-interval &lt;int&gt; (property: checkpointInterval)
+ * &nbsp;&nbsp;&nbsp;The number of updates after which to checkpoint the reference spectrum.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class NoUpdate
+  extends AbstractReferenceUpdate {
+
+  private static final long serialVersionUID = -1823577906616925213L;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Dummy scheme, the reference spectrum remains static.";
+  }
+
+  /**
+   * Returns whether the scheme updates the reference at all.
+   *
+   * @return		always false
+   */
+  @Override
+  public boolean isActive() {
+    return false;
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param amplitudes	the new amplitudes
+   */
+  @Override
+  protected void doUpdate(double[] amplitudes) {
+  }
+}
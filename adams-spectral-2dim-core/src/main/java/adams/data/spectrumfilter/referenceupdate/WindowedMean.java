@@ -0,0 +1,244 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * WindowedMean.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.data.spectrumfilter.referenceupdate;
+
+/**
+ <!-- globalinfo-start -->
+ * Maintains the reference spectrum as mean of the most recent spectra.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-checkpoint-file &lt;adams.core.io.PlaceholderFile&gt; (property: checkpointFile)
+ * &nbsp;&nbsp;&nbsp;The file to checkpoint the reference spectrum to; the state gets restored
+ * &nbsp;&nbsp;&nbsp;from it when the scheme is first used; ignored if pointing to a directory.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-checkpoint-interval &lt;int&gt; (property: checkpointInterval)
+ * &nbsp;&nbsp;&nbsp;The number of updates after which to checkpoint the reference spectrum.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-window-size &lt;int&gt; (property: windowSize)
+ * &nbsp;&nbsp;&nbsp;The number of most recent spectra to average.
+ * &nbsp;&nbsp;&nbsp;default: 100
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class WindowedMean
+  extends AbstractReferenceUpdate {
+
+  private static final long serialVersionUID = -3349011640880216946L;
+
+  /** the size of the window. */
+  protected int m_WindowSize;
+
+  /** the amplitudes in the window (ring buffer). */
+  protected double[][] m_Window;
+
+  /** the sums of the amplitudes in the window. */
+  protected double[] m_Sums;
+
+  /** the number of spectra in the window. */
+  protected int m_Count;
+
+  /** the next position in the ring buffer. */
+  protected int m_Next;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Maintains the reference spectrum as mean of the most recent spectra.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "window-size", "windowSize",
+      100, 1, null);
+  }
+
+  /**
+   * Removes the current reference. The checkpoint (if any) gets restored
+   * again when the scheme is used next.
+   */
+  @Override
+  public synchronized void clear() {
+    super.clear();
+
+    m_Window = null;
+    m_Sums   = null;
+    m_Count  = 0;
+    m_Next   = 0;
+  }
+
+  /**
+   * Sets the number of spectra to average.
+   *
+   * @param value	the window size
+   */
+  public void setWindowSize(int value) {
+    if (getOptionManager().isValid("windowSize", value)) {
+      m_WindowSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of spectra to average.
+   *
+   * @return		the window size
+   */
+  public int getWindowSize() {
+    return m_WindowSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String windowSizeTipText() {
+    return "The number of most recent spectra to average.";
+  }
+
+  /**
+   * Initializes the window with the first amplitudes.
+   *
+   * @param amplitudes	the initial amplitudes
+   */
+  @Override
+  protected void doInitialize(double[] amplitudes) {
+    m_Window = new double[m_WindowSize][];
+    m_Sums   = new double[amplitudes.length];
+    m_Count  = 0;
+    m_Next   = 0;
+    add(amplitudes);
+  }
+
+  /**
+   * Recomputes the sums from the spectra currently in the window, discarding
+   * the rounding errors accumulated by the running updates.
+   */
+  protected void recomputeSums() {
+    int		i;
+    int		n;
+
+    for (i = 0; i < m_Sums.length; i++)
+      m_Sums[i] = 0.0;
+    for (n = 0; n < m_Window.length; n++) {
+      if (m_Window[n] == null)
+	continue;
+      for (i = 0; i < m_Sums.length; i++)
+	m_Sums[i] += m_Window[n][i];
+    }
+  }
+
+  /**
+   * Adds the amplitudes to the window, removing the oldest ones if full.
+   * Whenever the ring buffer wraps around, the sums get recomputed from
+   * the window to keep the floating-point error bounded.
+   *
+   * @param amplitudes	the amplitudes to add
+   */
+  protected void add(double[] amplitudes) {
+    double[]	oldest;
+    int		i;
+
+    oldest = m_Window[m_Next];
+    if (oldest != null) {
+      for (i = 0; i < m_Sums.length; i++)
+	m_Sums[i] -= oldest[i];
+    }
+    else {
+      m_Count++;
+    }
+    for (i = 0; i < m_Sums.length; i++)
+      m_Sums[i] += amplitudes[i];
+    m_Window[m_Next] = amplitudes.clone();
+    m_Next           = (m_Next + 1) % m_Window.length;
+
+    if ((m_Next == 0) && (m_Count == m_Window.length))
+      recomputeSums();
+
+    for (i = 0; i < m_Sums.length; i++)
+      m_Amplitudes[i] = m_Sums[i] / m_Count;
+  }
+
+  /**
+   * Updates the running mean with the new amplitudes.
+   *
+   * @param amplitudes	the new amplitudes
+   */
+  @Override
+  protected void doUpdate(double[] amplitudes) {
+    add(amplitudes);
+  }
+
+  /**
+   * Returns the additional state to checkpoint.
+   *
+   * @return		the state
+   */
+  @Override
+  protected Object getAdditionalState() {
+    return new Object[]{m_Window, m_Sums, m_Count, m_Next};
+  }
+
+  /**
+   * Restores the additional state from a checkpoint.
+   *
+   * @param state	the state
+   */
+  @Override
+  protected void setAdditionalState(Object state) {
+    Object[]	values;
+
+    values   = (Object[]) state;
+    m_Window = (double[][]) values[0];
+    m_Sums   = (double[]) values[1];
+    m_Count  = (Integer) values[2];
+    m_Next   = (Integer) values[3];
+    if (m_Window.length != m_WindowSize)
+      throw new IllegalStateException("Window size of checkpoint differs: " + m_Window.length + " != " + m_WindowSize);
+  }
+}
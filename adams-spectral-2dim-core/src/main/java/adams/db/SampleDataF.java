@@ -15,7 +15,7 @@
 
 /*
  * SampleDataF.java
- * Copyright (C) 2019-2022 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.db;
@@ -27,6 +27,7 @@ import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
 
+import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -267,6 +268,38 @@ public class SampleDataF
     return m_DB.getInstruments();
   }
 
+  /**
+   * Stores the report, updating fields that are already present and
+   * inserting the others. Does not remove any stored fields.
+   *
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  @Override
+  public boolean upsert(String id, SampleData report) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+    return m_DB.upsert(id, report);
+  }
+
+  /**
+   * Stores the report using the specified connection, updating fields that
+   * are already present and inserting the others. Does not remove any stored
+   * fields.
+   *
+   * @param conn	the connection to use
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  @Override
+  public boolean upsert(Connection conn, String id, SampleData report) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+    return m_DB.upsert(conn, id, report);
+  }
+
   /**
    * Stores the records. Removes any previously existing reference values.
    *
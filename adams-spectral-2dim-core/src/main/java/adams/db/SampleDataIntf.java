@@ -15,7 +15,7 @@
 
 /*
  * SampleDataIntf.java
- * Copyright (C) 2019-2022 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, New Zealand
  *
  */
 
@@ -25,6 +25,7 @@ import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
 
+import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -125,4 +126,27 @@ public interface SampleDataIntf
    * @return		the instruments
    */
   public List<String> getInstruments();
+
+  /**
+   * Stores the report, updating fields that are already present and
+   * inserting the others. Does not remove any stored fields.
+   *
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  public boolean upsert(String id, SampleData report);
+
+  /**
+   * Stores the report using the specified connection, updating fields that
+   * are already present and inserting the others. Does not remove any stored
+   * fields. Allows the report to be part of a transaction on a separate
+   * connection.
+   *
+   * @param conn	the connection to use
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  public boolean upsert(Connection conn, String id, SampleData report);
 }
@@ -15,7 +15,7 @@
 
 /*
  * SpectrumF.java
- * Copyright (C) 2019 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.db;
@@ -26,6 +26,7 @@ import adams.core.logging.LoggingHelper;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
 
+import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -327,6 +328,51 @@ public class SpectrumF
     return m_DB.add(sp, storeWaveNo);
   }
 
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format. Wave numbers get stored.
+   *
+   * @param sp  	the spectrum to store
+   * @return  	the database ID, or null if fail
+   */
+  @Override
+  public Integer upsert(Spectrum sp) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp);
+    return m_DB.upsert(sp);
+  }
+
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format.
+   *
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  @Override
+  public Integer upsert(Spectrum sp, boolean storeWaveNo) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp + ", storeWaveNo=" + storeWaveNo);
+    return m_DB.upsert(sp, storeWaveNo);
+  }
+
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format, using the specified connection.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  @Override
+  public Integer upsert(Connection conn, Spectrum sp, boolean storeWaveNo) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp + ", storeWaveNo=" + storeWaveNo);
+    return m_DB.upsert(conn, sp, storeWaveNo);
+  }
+
   /**
    * Removes the spectrum and its sample data.
    * Uses {@link SampleData#DEFAULT_FORMAT} as format.
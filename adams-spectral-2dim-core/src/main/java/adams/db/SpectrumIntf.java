@@ -15,7 +15,7 @@
 
 /*
  * SpectrumIntf.java
- * Copyright (C) 2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, New Zealand
  *
  */
 
@@ -25,6 +25,7 @@ import adams.core.Constants;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
 
+import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -216,6 +217,46 @@ public interface SpectrumIntf
    */
   public Integer add(Spectrum sp, boolean storeWaveNo);
 
+  /**
+   * Inserts the spectrum or, if a spectrum with the same sample ID and format
+   * already exists, updates it in place (keeping its database ID). The
+   * report gets merged with the stored one rather than replaced.
+   * Wave numbers get stored. Atomic at database level, as sample ID and
+   * format are unique.
+   *
+   * @param sp  	the spectrum to store
+   * @return  	the database ID, or null if fail
+   */
+  public Integer upsert(Spectrum sp);
+
+  /**
+   * Inserts the spectrum or, if a spectrum with the same sample ID and format
+   * already exists, updates it in place (keeping its database ID). The
+   * report gets merged with the stored one rather than replaced.
+   * Atomic at database level, as sample ID and format are unique.
+   *
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  public Integer upsert(Spectrum sp, boolean storeWaveNo);
+
+  /**
+   * Inserts the spectrum or, if a spectrum with the same sample ID and format
+   * already exists, updates it in place (keeping its database ID), using
+   * the specified connection. The report gets merged with the stored one
+   * rather than replaced. Allows the spectrum to be part of a transaction
+   * on a separate connection (the auto-commit mode of the connection does
+   * not get changed). Atomic at database level, as sample ID and format
+   * are unique.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  public Integer upsert(Connection conn, Spectrum sp, boolean storeWaveNo);
+
   /**
    * Removes the spectrum and its sample data.
    * Uses {@link SampleData#DEFAULT_FORMAT} as format.
@@ -15,7 +15,7 @@
 
 /*
  * SampleDataT.java
- * Copyright (C) 2008-2021 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  *
  */
 
@@ -218,11 +218,25 @@ public abstract class SampleDataT
    */
   @Override
   protected boolean doStore(String id, SampleData report) {
-    PreparedStatement 	stmtUpdate;
-    PreparedStatement 	stmtInsert;
-
     if (isLoggingEnabled())
       getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+    return doStore(getDatabaseConnection().getConnection(true), id, report);
+  }
+
+  /**
+   * Stores the report using the specified connection. Either updates or
+   * inserts the fields.
+   *
+   * @param conn	the connection to use
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted
+   */
+  protected boolean doStore(Connection conn, String id, SampleData report) {
+    PreparedStatement 	stmtUpdate;
+    PreparedStatement 	stmtInsert;
+    PreparedStatement 	stmtNames;
+    ResultSet		rs;
 
     report.update();
 
@@ -241,19 +255,29 @@ public abstract class SampleDataT
 
     Hashtable<AbstractField,Object> table = report.getParams();
     boolean result = true;
-    Set<String> names;
+    Set<String> names = new HashSet<>();
+    stmtNames = null;
+    rs        = null;
     try {
-      names = new HashSet<>(selectString(false, "NAME", getTableName(), "ID = " + SQLUtils.backquote(id)));
+      stmtNames = conn.prepareStatement("SELECT NAME FROM " + getTableName() + " WHERE ID = ?");
+      stmtNames.setString(1, id);
+      rs = stmtNames.executeQuery();
+      while (rs.next())
+	names.add(rs.getString(1));
     }
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to query existing names for " + id, e);
       return false;
     }
+    finally {
+      SQLUtils.closeAll(rs);
+      SQLUtils.close(stmtNames);
+    }
 
     try {
-      stmtUpdate = prepareStatement(
+      stmtUpdate = conn.prepareStatement(
 	"UPDATE " + getTableName() + " SET VALUE = ?, TYPE = ? WHERE ID = ? AND NAME = ?");
-      stmtInsert = prepareStatement(
+      stmtInsert = conn.prepareStatement(
 	"INSERT INTO " + getTableName() + "(ID, NAME, TYPE, VALUE) VALUES(?, ?, ?, ?)");
     }
     catch (Exception e) {
@@ -414,6 +438,38 @@ public abstract class SampleDataT
     return indices;
   }
 
+  /**
+   * Stores the report, updating fields that are already present and
+   * inserting the others. Does not remove any stored fields.
+   *
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  public boolean upsert(String id, SampleData report) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+    return store(id, report, false, false, new Field[0]);
+  }
+
+  /**
+   * Stores the report using the specified connection, updating fields that
+   * are already present and inserting the others. Does not remove any stored
+   * fields. Allows the report to be part of a transaction on a separate
+   * connection.
+   *
+   * @param conn	the connection to use
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  @Override
+  public boolean upsert(Connection conn, String id, SampleData report) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+    return doStore(conn, id, report);
+  }
+
   /**
    * Return a list (Vector) of IDs of spectra that match the defined
    * conditions. Since the alphanumeric IDs can be of numeric nature as well,
@@ -15,7 +15,7 @@
 
 /*
  * SpectrumT.java
- * Copyright (C) 2008-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2008-2026 University of Waikato, Hamilton, New Zealand
  *
  */
 
@@ -44,10 +44,17 @@ import adams.db.indices.Indices;
 import adams.db.types.AutoIncrementType;
 import adams.db.types.ColumnType;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -66,6 +73,9 @@ public abstract class SpectrumT
   /** the table manager. */
   protected static TableManager<SpectrumT> m_TableManager;
 
+  /** whether the unique index on sample ID and format is present. */
+  protected boolean m_UniqueSampleIDFormat;
+
   /**
    * Constructor - initalise with database connection.
    *
@@ -94,12 +104,120 @@ public abstract class SpectrumT
         return false;
     }
 
+    initUniqueSampleIDFormat();
+
     if (!getSampleDataHandler().init())
       return false;
 
     return true;
   }
 
+  /**
+   * Returns the name of the unique index on sample ID and format.
+   *
+   * @return		the name of the index
+   */
+  protected String getUniqueSampleIDFormatName() {
+    return getTableName() + "_SAMPLEID_FORMAT_UNIQUE";
+  }
+
+  /**
+   * Checks whether the unique index on sample ID and format is present.
+   *
+   * @param conn	the connection to use
+   * @return		true if present
+   * @throws Exception	if querying the meta-data fails
+   */
+  protected boolean hasUniqueSampleIDFormat(Connection conn) throws Exception {
+    DatabaseMetaData	meta;
+    Set<String>		tables;
+    ResultSet		rs;
+    String		name;
+
+    meta   = conn.getMetaData();
+    // databases differ in how they store unquoted identifiers
+    tables = new HashSet<>(Arrays.asList(getTableName(), getTableName().toLowerCase(), getTableName().toUpperCase()));
+    for (String table: tables) {
+      rs = meta.getIndexInfo(null, null, table, true, false);
+      if (rs == null)
+	continue;
+      try {
+	while (rs.next()) {
+	  name = rs.getString("INDEX_NAME");
+	  if ((name != null) && name.equalsIgnoreCase(getUniqueSampleIDFormatName()))
+	    return true;
+	}
+      }
+      finally {
+	rs.close();
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Removes duplicate spectra, i.e., ones with the same sample ID and format,
+   * keeping the most recently added one (highest database ID).
+   *
+   * @param conn	the connection to use
+   * @return		the number of removed spectra
+   * @throws Exception	if removing fails
+   */
+  protected int removeDuplicateSampleIDFormat(Connection conn) throws Exception {
+    Statement	stmt;
+
+    stmt = null;
+    try {
+      stmt = conn.createStatement();
+      // derived table is required by MySQL when deleting from the same table
+      return stmt.executeUpdate(
+	"DELETE FROM " + getTableName() + " "
+	  + "WHERE AUTO_ID NOT IN ("
+	  + "SELECT LATEST_ID FROM ("
+	  + "SELECT MAX(AUTO_ID) AS LATEST_ID FROM " + getTableName() + " GROUP BY SAMPLEID, FORMAT"
+	  + ") LATEST)");
+    }
+    finally {
+      SQLUtils.close(stmt);
+    }
+  }
+
+  /**
+   * Ensures that the unique index on sample ID and format is present, which
+   * makes upserts atomic at database level. Tables created by older versions
+   * get migrated by removing duplicate spectra first (see
+   * {@link #removeDuplicateSampleIDFormat(Connection)}) and then adding the
+   * index. If the migration fails, upserts fall back to a lookup followed
+   * by an insert/update.
+   */
+  protected void initUniqueSampleIDFormat() {
+    Connection	conn;
+    Statement	stmt;
+    int		removed;
+
+    conn = getDatabaseConnection().getConnection(false);
+    stmt = null;
+    try {
+      m_UniqueSampleIDFormat = hasUniqueSampleIDFormat(conn);
+      if (m_UniqueSampleIDFormat)
+	return;
+      removed = removeDuplicateSampleIDFormat(conn);
+      if (removed > 0)
+	getLogger().warning("Removed " + removed + " duplicate spectra (same sample ID and format) from " + getTableName());
+      stmt = conn.createStatement();
+      stmt.execute("CREATE UNIQUE INDEX " + getUniqueSampleIDFormatName() + " ON " + getTableName() + " (SAMPLEID, FORMAT)");
+      m_UniqueSampleIDFormat = true;
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to add unique index on sample ID and format to " + getTableName() + "!", e);
+      m_UniqueSampleIDFormat = false;
+    }
+    finally {
+      SQLUtils.close(stmt);
+    }
+  }
+
   /**
    * Checks whether the container exists in the database.
    *
@@ -623,6 +741,241 @@ public abstract class SpectrumT
     return result;
   }
 
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format. Wave numbers get stored.
+   *
+   * @param sp  	the spectrum to store
+   * @return  	the database ID, or null if fail
+   * @see		#upsert(Spectrum, boolean)
+   */
+  public synchronized Integer upsert(Spectrum sp) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp);
+    return upsert(sp, true);
+  }
+
+  /**
+   * Inserts the spectrum or, if a spectrum with the same sample ID and format
+   * already exists, updates its points and sample type in place (keeping the
+   * database ID) and merges the report with the stored one. Uses the
+   * shared connection without changing its auto-commit mode, see
+   * {@link #upsert(Connection, Spectrum, boolean)}.
+   *
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   * @see		#upsert(Connection, Spectrum, boolean)
+   */
+  public synchronized Integer upsert(Spectrum sp, boolean storeWaveNo) {
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp + ", storeWaveNo=" + storeWaveNo);
+    return upsert(getDatabaseConnection().getConnection(false), sp, storeWaveNo);
+  }
+
+  /**
+   * Returns the database ID for given sample ID and format, using the
+   * specified connection.
+   *
+   * @param conn	the connection to use
+   * @param sample_id	the sample ID
+   * @param format	the format
+   * @return 		the database ID, {@link Constants#NO_ID} if not found
+   * @throws Exception	if query fails
+   */
+  protected int getDatabaseID(Connection conn, String sample_id, String format) throws Exception {
+    int			result;
+    PreparedStatement	stmt;
+    ResultSet		rs;
+
+    result = Constants.NO_ID;
+    stmt   = null;
+    rs     = null;
+    try {
+      stmt = conn.prepareStatement("SELECT AUTO_ID FROM " + getTableName() + " WHERE SAMPLEID = ? AND FORMAT = ?");
+      stmt.setString(1, sample_id);
+      stmt.setString(2, format);
+      rs = stmt.executeQuery();
+      if (rs.next())
+	result = rs.getInt(1);
+    }
+    finally {
+      SQLUtils.closeAll(rs);
+      SQLUtils.close(stmt);
+    }
+
+    return result;
+  }
+
+  /**
+   * Inserts the spectrum (without report) using the specified connection.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to insert
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return		the generated database ID, null if none obtained
+   * @throws Exception	if insert fails
+   */
+  protected Integer insert(Connection conn, Spectrum sp, boolean storeWaveNo) throws Exception {
+    Integer		result;
+    PreparedStatement	stmt;
+    ResultSet		rs;
+
+    result = null;
+    stmt   = null;
+    rs     = null;
+    try {
+      stmt = conn.prepareStatement(
+	"INSERT INTO " + getTableName() + " (SAMPLEID, SAMPLETYPE, FORMAT, POINTS) VALUES (?, ?, ?, ?)",
+	Statement.RETURN_GENERATED_KEYS);
+      stmt.setString(1, sp.getID());
+      stmt.setString(2, sp.getType());
+      stmt.setString(3, sp.getFormat());
+      stmt.setString(4, pointsToString(sp, storeWaveNo));
+      stmt.executeUpdate();
+      rs = stmt.getGeneratedKeys();
+      if ((rs != null) && rs.next())
+	result = rs.getInt(1);
+      else
+	getLogger().severe("no gen keys");
+    }
+    finally {
+      SQLUtils.closeAll(rs);
+      SQLUtils.close(stmt);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the SQL statement that inserts a spectrum or updates the one
+   * with the same sample ID and format in a single, atomic statement, relying
+   * on the unique index on sample ID and format. The parameters are: sample
+   * ID, sample type, format, points.
+   *
+   * @return		the statement, null if not supported by the database
+   */
+  protected String getNativeUpsertSQL() {
+    return null;
+  }
+
+  /**
+   * Inserts or updates the spectrum (without report) with the database's
+   * native upsert statement.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return		the database ID, null if none obtained
+   * @throws Exception	if upsert fails
+   * @see		#getNativeUpsertSQL()
+   */
+  protected Integer nativeUpsert(Connection conn, Spectrum sp, boolean storeWaveNo) throws Exception {
+    PreparedStatement	stmt;
+    int			id;
+
+    stmt = null;
+    try {
+      stmt = conn.prepareStatement(getNativeUpsertSQL());
+      stmt.setString(1, sp.getID());
+      stmt.setString(2, sp.getType());
+      stmt.setString(3, sp.getFormat());
+      stmt.setString(4, pointsToString(sp, storeWaveNo));
+      stmt.executeUpdate();
+    }
+    finally {
+      SQLUtils.close(stmt);
+    }
+
+    // the upsert statement does not return the ID of an updated row
+    id = getDatabaseID(conn, sp.getID(), sp.getFormat());
+    if (id == Constants.NO_ID)
+      return null;
+    else
+      return id;
+  }
+
+  /**
+   * Looks up the spectrum and then either inserts it or updates the existing
+   * one (without report). Used if the database has no native upsert or the
+   * unique index is missing.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return		the database ID, null if none obtained
+   * @throws Exception	if lookup or insert/update fails
+   */
+  protected Integer lookupUpsert(Connection conn, Spectrum sp, boolean storeWaveNo) throws Exception {
+    PreparedStatement	stmt;
+    int			id;
+
+    id = getDatabaseID(conn, sp.getID(), sp.getFormat());
+    if (id == Constants.NO_ID)
+      return insert(conn, sp, storeWaveNo);
+
+    stmt = null;
+    try {
+      stmt = conn.prepareStatement("UPDATE " + getTableName() + " SET SAMPLETYPE = ?, POINTS = ? WHERE AUTO_ID = ?");
+      stmt.setString(1, sp.getType());
+      stmt.setString(2, pointsToString(sp, storeWaveNo));
+      stmt.setInt(3, id);
+      stmt.executeUpdate();
+    }
+    finally {
+      SQLUtils.close(stmt);
+    }
+
+    return id;
+  }
+
+  /**
+   * Inserts the spectrum or, if a spectrum with the same sample ID and format
+   * already exists, updates its points and sample type in place (keeping the
+   * database ID) and merges the report with the stored one. All statements
+   * get executed with the specified connection.
+   * <br><br>
+   * The spectrum itself gets stored with the database's native upsert
+   * statement (see {@link #getNativeUpsertSQL()}), which is atomic thanks
+   * to the unique index on sample ID and format: concurrent writers of the
+   * same spectrum, in this or other processes, wait for each other instead
+   * of creating duplicates. Without native upsert or unique index, a lookup
+   * followed by an insert/update is used instead.
+   * <br><br>
+   * The auto-commit mode of the connection is left untouched. In order to
+   * store spectrum and report atomically, use a connection with auto-commit
+   * turned off and commit/roll back afterwards.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  public Integer upsert(Connection conn, Spectrum sp, boolean storeWaveNo) {
+    Integer		result;
+
+    if (isLoggingEnabled())
+      getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp + ", storeWaveNo=" + storeWaveNo);
+
+    try {
+      if (m_UniqueSampleIDFormat && (getNativeUpsertSQL() != null))
+	result = nativeUpsert(conn, sp, storeWaveNo);
+      else
+	result = lookupUpsert(conn, sp, storeWaveNo);
+      if (result != null) {
+	sp.setDatabaseID(result);
+	if (sp.hasReport() && !getSampleDataHandler().upsert(conn, sp.getID(), sp.getReport()))
+	  result = null;
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to upsert: " + sp, e);
+      result = null;
+    }
+
+    return result;
+  }
+
   /**
    * Return columns for this table.
    *
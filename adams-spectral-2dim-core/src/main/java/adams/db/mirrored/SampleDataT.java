@@ -15,7 +15,7 @@
 
 /*
  * SampleDataT.java
- * Copyright (C) 2019-2022 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.db.mirrored;
@@ -36,6 +36,7 @@ import adams.db.SpectrumIntf;
 import adams.db.wrapper.AbstractWrapper;
 import adams.db.wrapper.WrapperManager;
 
+import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -292,6 +293,44 @@ public class SampleDataT
     return m_DB.getInstruments();
   }
 
+  /**
+   * Stores the report, updating fields that are already present and
+   * inserting the others. Does not remove any stored fields.
+   *
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  @Override
+  public boolean upsert(String id, SampleData report) {
+    synchronized(m_Updating) {
+      if (isLoggingEnabled())
+        getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+      getWrapped().upsert(id, (SampleData) report.getClone());
+      return m_DB.upsert(id, report);
+    }
+  }
+
+  /**
+   * Stores the report using the specified connection, updating fields that
+   * are already present and inserting the others. Does not remove any stored
+   * fields. The connection is only used for the non-mirrored backend.
+   *
+   * @param conn	the connection to use
+   * @param id		the id of the report
+   * @param report	the report
+   * @return		true if successfully inserted/updated
+   */
+  @Override
+  public boolean upsert(Connection conn, String id, SampleData report) {
+    synchronized(m_Updating) {
+      if (isLoggingEnabled())
+        getLogger().info(LoggingHelper.getMethodName() + ": id=" + id + ", report");
+      getWrapped().upsert(id, (SampleData) report.getClone());
+      return m_DB.upsert(conn, id, report);
+    }
+  }
+
   /**
    * Stores the records. Removes any previously existing reference values.
    *
@@ -15,7 +15,7 @@
 
 /*
  * SpectrumT.java
- * Copyright (C) 2019 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.db.mirrored;
@@ -34,6 +34,7 @@ import adams.db.SpectrumIntf;
 import adams.db.wrapper.AbstractWrapper;
 import adams.db.wrapper.WrapperManager;
 
+import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -347,6 +348,61 @@ public class SpectrumT
     }
   }
 
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format. Wave numbers get stored.
+   *
+   * @param sp  	the spectrum to store
+   * @return  	the database ID, or null if fail
+   */
+  @Override
+  public Integer upsert(Spectrum sp) {
+    synchronized(m_Updating) {
+      if (isLoggingEnabled())
+        getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp);
+      getWrapped().upsert((Spectrum) sp.getClone());
+      return m_DB.upsert(sp);
+    }
+  }
+
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format.
+   *
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  @Override
+  public Integer upsert(Spectrum sp, boolean storeWaveNo) {
+    synchronized(m_Updating) {
+      if (isLoggingEnabled())
+        getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp + ", storeWaveNo=" + storeWaveNo);
+      getWrapped().upsert((Spectrum) sp.getClone(), storeWaveNo);
+      return m_DB.upsert(sp, storeWaveNo);
+    }
+  }
+
+  /**
+   * Inserts the spectrum or updates an existing one with the same sample ID
+   * and format, using the specified connection. The connection is only used
+   * for the non-mirrored backend.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to store
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return  	the database ID, or null if fail
+   */
+  @Override
+  public Integer upsert(Connection conn, Spectrum sp, boolean storeWaveNo) {
+    synchronized(m_Updating) {
+      if (isLoggingEnabled())
+        getLogger().info(LoggingHelper.getMethodName() + ": sp=" + sp + ", storeWaveNo=" + storeWaveNo);
+      getWrapped().upsert((Spectrum) sp.getClone(), storeWaveNo);
+      return m_DB.upsert(conn, sp, storeWaveNo);
+    }
+  }
+
   /**
    * Removes the spectrum and its sample data.
    * Uses {@link SampleData#DEFAULT_FORMAT} as format.
@@ -148,6 +148,18 @@ public class SpectrumT
     return result;
   }
 
+  /**
+   * Returns the SQL statement that inserts a spectrum or updates the one
+   * with the same sample ID and format, using ON DUPLICATE KEY UPDATE.
+   *
+   * @return		the statement
+   */
+  @Override
+  protected String getNativeUpsertSQL() {
+    return "INSERT INTO " + getTableName() + " (SAMPLEID, SAMPLETYPE, FORMAT, POINTS) VALUES (?, ?, ?, ?) "
+      + "ON DUPLICATE KEY UPDATE SAMPLETYPE = VALUES(SAMPLETYPE), POINTS = VALUES(POINTS)";
+  }
+
   /**
    * Initializes the table. Used by the "InitializeTables" tool.
    *
@@ -15,7 +15,7 @@
 
 /*
  * SpectrumDbWriter.java
- * Copyright (C) 2009-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -107,6 +107,13 @@ import adams.flow.core.ActorUtils;
  * &nbsp;&nbsp;&nbsp;default: true
  * </pre>
  *
+ * <pre>-upsert &lt;boolean&gt; (property: upsert)
+ * &nbsp;&nbsp;&nbsp;If enabled and overwriting existing spectra, spectra get inserted or updated
+ * &nbsp;&nbsp;&nbsp;in place with a single upsert operation (keeping the database ID and merging
+ * &nbsp;&nbsp;&nbsp;the report) instead of being removed and re-added.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -121,6 +128,9 @@ public class SpectrumDbWriter
   /** whether to store the wave numbers as well. */
   protected boolean m_StoreWaveNo;
 
+  /** whether to use upsert instead of remove/add. */
+  protected boolean m_Upsert;
+
   /**
    * Returns a string describing the object.
    *
@@ -156,6 +166,10 @@ public class SpectrumDbWriter
     m_OptionManager.add(
       "store-wave-no", "storeWaveNo",
       true);
+
+    m_OptionManager.add(
+      "upsert", "upsert",
+      false);
   }
 
   /**
@@ -198,6 +212,38 @@ public class SpectrumDbWriter
     return "If enabled, the wave numbers get stored in the database as well.";
   }
 
+  /**
+   * Sets whether to use upsert instead of remove/add when overwriting.
+   *
+   * @param value 	true if to use upsert
+   */
+  public void setUpsert(boolean value) {
+    m_Upsert = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use upsert instead of remove/add when overwriting.
+   *
+   * @return 		true if to use upsert
+   */
+  public boolean getUpsert() {
+    return m_Upsert;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String upsertTipText() {
+    return
+      "If enabled and overwriting existing spectra, spectra get inserted or "
+	+ "updated in place with a single upsert operation (keeping the database "
+	+ "ID and merging the report) instead of being removed and re-added.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -210,6 +256,8 @@ public class SpectrumDbWriter
     result = super.getQuickInfo();
     if (!m_StoreWaveNo)
       result += ", no wave numbers";
+    if (m_Upsert && getOverwriteExisting())
+      result += ", upsert";
 
     return result;
   }
@@ -277,7 +325,10 @@ public class SpectrumDbWriter
    * @return		the database ID, {@link Constants#NO_ID} if failed
    */
   public Integer add(DataProvider provider, Spectrum cont) {
-    return ((SpectrumIntf) provider).add(cont, m_StoreWaveNo);
+    if (m_Upsert && getOverwriteExisting())
+      return ((SpectrumIntf) provider).upsert(cont, m_StoreWaveNo);
+    else
+      return ((SpectrumIntf) provider).add(cont, m_StoreWaveNo);
   }
 
   /**
@@ -289,6 +340,9 @@ public class SpectrumDbWriter
    */
   @Override
   public boolean exists(DataProvider provider, Spectrum cont) {
+    // upsert takes care of existing spectra
+    if (m_Upsert && getOverwriteExisting())
+      return false;
     return ((SpectrumIntf) provider).exists(cont.getID(), cont.getFormat());
   }
 
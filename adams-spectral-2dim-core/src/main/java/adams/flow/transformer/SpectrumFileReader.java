@@ -15,7 +15,7 @@
 
 /*
  * SpectrumFileReader.java
- * Copyright (C) 2009-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2009-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.transformer;
@@ -23,12 +23,15 @@ package adams.flow.transformer;
 import adams.core.ObjectCopyHelper;
 import adams.data.conversion.SpectraToMultiSpectrum;
 import adams.data.io.input.AbstractDataContainerReader;
+import adams.data.io.input.ChunkedSpectrumReader;
 import adams.data.io.input.SimpleSpectrumReader;
 import adams.data.spectrum.AbstractSpectrumComparator;
 import adams.data.spectrum.MultiSpectrum;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumComparator;
 
+import java.util.List;
+
 /**
  <!-- globalinfo-start -->
  * Loads a file&#47;directory containing spectrums from disk with a specified reader and passes them on.
@@ -260,6 +263,9 @@ public class SpectrumFileReader
     result = super.doExecute();
     
     if ((result == null) && (m_OutputMultiSpectrum)) {
+      while (readNextChunk());
+      if (isStopped())
+	return null;
       spectra = new Spectrum[m_Containers.size()];
       for (i = 0; i < m_Containers.size(); i++)
 	spectra[i] = (Spectrum) m_Containers.get(i);
@@ -278,4 +284,43 @@ public class SpectrumFileReader
     
     return result;
   }
+
+  /**
+   * Reads the next chunk of spectra from the reader, if it is a
+   * {@link ChunkedSpectrumReader} with more data available.
+   *
+   * @return		true if another chunk was read
+   */
+  protected boolean readNextChunk() {
+    ChunkedSpectrumReader	chunked;
+    List<Spectrum>		chunk;
+
+    if (isStopped())
+      return false;
+    if (!(getReader() instanceof ChunkedSpectrumReader))
+      return false;
+    chunked = (ChunkedSpectrumReader) getReader();
+    if (!chunked.hasMoreChunks())
+      return false;
+    chunk = chunked.nextChunk();
+    if (chunk == null)
+      return false;
+    m_Containers.addAll(chunk);
+
+    return true;
+  }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item. Reads the next chunk of spectra if all
+   * spectra of the current chunk have been output.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    if ((m_Containers != null) && m_Containers.isEmpty())
+      readNextChunk();
+    return super.hasPendingOutput();
+  }
 }
@@ -19,12 +19,15 @@
  */
 package adams.data.io.input;
 
+import adams.data.report.AbstractField;
 import adams.data.report.DataType;
 import adams.data.report.Field;
+import adams.data.report.Report;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
 import adams.test.AbstractTestHelper;
 import adams.test.SpectralTestHelper;
+import adams.test.TmpFile;
 
 import java.util.Date;
 import java.util.List;
@@ -104,4 +107,90 @@ public abstract class AbstractSpectrumReaderTestCase<A extends AbstractDataConta
 
     return result;
   }
+
+  /**
+   * Reads the spectra from the specified resource.
+   *
+   * @param filename	the resource to read (without path)
+   * @param reader	the reader to use
+   * @param headerOnly	whether to read only the headers
+   * @return		the spectra
+   * @see		AbstractSpectrumReader#readHeaders()
+   */
+  protected List<Spectrum> read(String filename, AbstractSpectrumReader reader, boolean headerOnly) {
+    List<Spectrum>	result;
+
+    m_TestHelper.copyResourceToTmp(filename);
+    reader.setInput(new TmpFile(filename));
+    reader.setUseAbsoluteSource(false);
+    if (headerOnly)
+      result = reader.readHeaders();
+    else
+      result = reader.read();
+    m_TestHelper.deleteFileFromTmp(filename);
+    assertNotNull("Failed to read: " + filename, result);
+
+    return result;
+  }
+
+  /**
+   * Returns whether the report field of a full read may be missing from the
+   * header-only read, e.g., if it is obtained from a section of the file
+   * that is skipped when reading the headers. Default: none.
+   *
+   * @param field	the field to check
+   * @return		true if the field may be missing
+   */
+  protected boolean isOmittedFromHeaders(AbstractField field) {
+    return false;
+  }
+
+  /**
+   * Reads the regression input files with the regression setups, once
+   * completely and once header-only, and compares the spectra: the
+   * header-only spectra must have the same sample IDs, no data points and
+   * the same report values (apart from the insert timestamp and the fields
+   * omitted from the headers).
+   *
+   * @see		#isOmittedFromHeaders(AbstractField)
+   */
+  protected void checkReadHeaders() {
+    String[]			files;
+    Object[]			setups;
+    AbstractSpectrumReader	reader;
+    List<Spectrum>		full;
+    List<Spectrum>		headers;
+    Report			fullReport;
+    Report			headerReport;
+    String			prefix;
+    int				i;
+    int				n;
+
+    files  = getRegressionInputFiles();
+    setups = getRegressionSetups();
+    for (i = 0; i < files.length; i++) {
+      reader  = (AbstractSpectrumReader) ((AbstractSpectrumReader) setups[i]).shallowCopy(true);
+      full    = read(files[i], reader, false);
+      reader  = (AbstractSpectrumReader) ((AbstractSpectrumReader) setups[i]).shallowCopy(true);
+      headers = read(files[i], reader, true);
+      assertEquals(files[i] + ": number of spectra", full.size(), headers.size());
+
+      for (n = 0; n < full.size(); n++) {
+	prefix = files[i] + "/" + i + ", spectrum #" + (n+1);
+	assertEquals(prefix + ": sample ID", full.get(n).getID(), headers.get(n).getID());
+	assertEquals(prefix + ": data points", 0, headers.get(n).size());
+
+	fullReport   = full.get(n).getReport();
+	headerReport = headers.get(n).getReport();
+	for (AbstractField field: fullReport.getFields()) {
+	  if (field.getName().equals(SampleData.INSERT_TIMESTAMP) || isOmittedFromHeaders(field))
+	    continue;
+	  assertTrue(prefix + ": missing field " + field, headerReport.hasValue(field));
+	  assertEquals(prefix + ": " + field, fullReport.getValue(field), headerReport.getValue(field));
+	}
+	for (AbstractField field: headerReport.getFields())
+	  assertTrue(prefix + ": additional field " + field, fullReport.hasValue(field));
+      }
+    }
+  }
 }
@@ -0,0 +1,271 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CachingSpectrumReaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.io.input;
+
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderDirectory;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
+import adams.env.Environment;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.List;
+
+/**
+ * Test class for the CachingSpectrumReader data container. Run from the command line with: <br><br>
+ * java adams.data.io.input.CachingSpectrumReaderTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CachingSpectrumReaderTest
+  extends AbstractSpectrumReaderTestCase {
+
+  /** the name of the cache directory (in the tmp directory). */
+  public final static String CACHE_DIR = "spectrum-import-cache-test";
+
+  /**
+   * Caching reader that records cache hits and misses.
+   */
+  public static class RecordingCachingSpectrumReader
+    extends CachingSpectrumReader {
+
+    private static final long serialVersionUID = 7398123645610987342L;
+
+    /** the number of cache hits. */
+    public int hits;
+
+    /** the number of cache misses. */
+    public int misses;
+
+    /**
+     * Returns the cached spectra, if the cache entry is still valid.
+     *
+     * @param file	the file to get the spectra for
+     * @param metaFile	the meta-data file of the entry
+     * @param dataFile	the data file of the entry
+     * @return		the spectra, null if not cached or invalid
+     * @throws Exception	if reading fails
+     */
+    @Override
+    protected List<Spectrum> readCache(File file, File metaFile, File dataFile) throws Exception {
+      List<Spectrum>	result;
+
+      result = super.readCache(file, metaFile, dataFile);
+      if (result == null)
+	misses++;
+      else
+	hits++;
+
+      return result;
+    }
+  }
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public CachingSpectrumReaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    FileUtils.delete(getCacheDir().getAbsoluteFile());
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtils.delete(getCacheDir().getAbsoluteFile());
+    m_TestHelper.deleteFileFromTmp("146048-NIR-FOSS.spec");
+
+    super.tearDown();
+  }
+
+  /**
+   * Returns the cache directory to use.
+   *
+   * @return		the directory
+   */
+  protected PlaceholderDirectory getCacheDir() {
+    return new PlaceholderDirectory(m_TestHelper.getTmpDirectory() + File.separator + CACHE_DIR);
+  }
+
+  /**
+   * Returns a reader that uses the test cache directory.
+   *
+   * @return		the reader
+   */
+  protected RecordingCachingSpectrumReader newReader() {
+    RecordingCachingSpectrumReader	result;
+
+    result = new RecordingCachingSpectrumReader();
+    result.setCacheDir(getCacheDir());
+
+    return result;
+  }
+
+  /**
+   * Returns the data files of the cache entries.
+   *
+   * @return		the files
+   */
+  protected File[] getCacheFiles() {
+    File[]	result;
+
+    result = getCacheDir().getAbsoluteFile().listFiles((File f) -> f.getName().endsWith("." + SpectrumBinaryUtils.FILE_EXTENSION));
+    if (result == null)
+      result = new File[0];
+
+    return result;
+  }
+
+  /**
+   * Reads the file and checks hits and misses.
+   *
+   * @param reader	the reader to use
+   * @param file	the file to read
+   * @param hits	the expected number of hits (total)
+   * @param misses	the expected number of misses (total)
+   */
+  protected void read(RecordingCachingSpectrumReader reader, TmpFile file, int hits, int misses) {
+    List<Spectrum>	data;
+
+    reader.setInput(file);
+    data = reader.read();
+    assertNotNull("no spectra", data);
+    assertEquals("number of spectra", 1, data.size());
+    assertEquals("sample ID", "146048", data.get(0).getID());
+    assertEquals("cache hits", hits, reader.hits);
+    assertEquals("cache misses", misses, reader.misses);
+  }
+
+  /**
+   * Tests cache hits, invalidation after the file changed and eviction.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testCache() throws Exception {
+    RecordingCachingSpectrumReader	reader;
+    TmpFile				file;
+    File				foreign;
+    FileWriter				writer;
+
+    m_TestHelper.copyResourceToTmp("146048-NIR-FOSS.spec");
+    file   = new TmpFile("146048-NIR-FOSS.spec");
+    reader = newReader();
+
+    // not cached yet
+    read(reader, file, 0, 1);
+    assertEquals("cache entries", 1, getCacheFiles().length);
+
+    // cached
+    read(reader, file, 1, 1);
+
+    // only touched, content hash unchanged
+    assertTrue("failed to touch file", file.getAbsoluteFile().setLastModified(file.getAbsoluteFile().lastModified() + 2000));
+    read(reader, file, 2, 1);
+
+    // content changed
+    writer = new FileWriter(file.getAbsoluteFile(), true);
+    writer.write("\n");
+    writer.close();
+    read(reader, file, 2, 2);
+    read(reader, file, 3, 2);
+    assertEquals("cache entries", 1, getCacheFiles().length);
+
+    // eviction only removes own entries
+    foreign = new File(getCacheDir().getAbsoluteFile(), "foreign." + SpectrumBinaryUtils.FILE_EXTENSION);
+    assertTrue("failed to create " + foreign, foreign.createNewFile());
+    reader = newReader();
+    reader.setMaxSize(0);
+    read(reader, file, 1, 0);
+    writer = new FileWriter(file.getAbsoluteFile(), true);
+    writer.write("\n");
+    writer.close();
+    read(reader, file, 1, 1);
+    assertEquals("cache entries", 1, getCacheFiles().length);
+    assertTrue("foreign file removed", foreign.exists());
+    read(reader, file, 1, 2);
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  @Override
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"146048-NIR-FOSS.spec",
+	"146048-NIR-FOSS.spec",
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractSpectrumReader[] getRegressionSetups() {
+    // the second setup reads from the cache
+    return new AbstractSpectrumReader[]{
+	newReader(),
+	newReader(),
+    };
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(CachingSpectrumReaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
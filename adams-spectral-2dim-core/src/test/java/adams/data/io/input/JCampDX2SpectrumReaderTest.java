@@ -67,6 +67,13 @@ public class JCampDX2SpectrumReaderTest
     };
   }
 
+  /**
+   * Tests reading only the headers.
+   */
+  public void testReadHeaders() {
+    checkReadHeaders();
+  }
+
   /**
    * Returns the test suite.
    *
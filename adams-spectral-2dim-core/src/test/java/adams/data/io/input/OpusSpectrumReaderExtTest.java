@@ -81,6 +81,13 @@ public class OpusSpectrumReaderExtTest
     return result;
   }
 
+  /**
+   * Tests reading only the headers.
+   */
+  public void testReadHeaders() {
+    checkReadHeaders();
+  }
+
   /**
    * Returns the test suite.
    *
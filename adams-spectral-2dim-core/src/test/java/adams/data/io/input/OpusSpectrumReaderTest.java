@@ -65,6 +65,13 @@ public class OpusSpectrumReaderTest
     };
   }
 
+  /**
+   * Tests reading only the headers.
+   */
+  public void testReadHeaders() {
+    checkReadHeaders();
+  }
+
   /**
    * Returns the test suite.
    *
@@ -19,6 +19,7 @@
  */
 package adams.data.io.input;
 
+import adams.data.report.AbstractField;
 import adams.env.Environment;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -65,6 +66,26 @@ public class SPCSpectrumReaderTest
     };
   }
 
+  /**
+   * Returns whether the report field of a full read may be missing from the
+   * header-only read. Reading the headers skips the sub-files and the log
+   * block.
+   *
+   * @param field	the field to check
+   * @return		true if the field may be missing
+   */
+  @Override
+  protected boolean isOmittedFromHeaders(AbstractField field) {
+    return field.getName().equals("SubFile Index") || field.getName().startsWith("Log.");
+  }
+
+  /**
+   * Tests reading only the headers.
+   */
+  public void testReadHeaders() {
+    checkReadHeaders();
+  }
+
   /**
    * Returns the test suite.
    *
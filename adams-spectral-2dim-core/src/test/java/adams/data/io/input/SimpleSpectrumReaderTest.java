@@ -69,6 +69,13 @@ public class SimpleSpectrumReaderTest
     };
   }
 
+  /**
+   * Tests reading only the headers.
+   */
+  public void testReadHeaders() {
+    checkReadHeaders();
+  }
+
   /**
    * Returns the test suite.
    *
@@ -0,0 +1,260 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BinarySpectrumWriterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.io.output;
+
+import adams.core.io.FileUtils;
+import adams.data.io.input.BinarySpectrumReader;
+import adams.data.io.input.SimpleSpectrumReader;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
+import adams.data.spectrum.SpectrumBinaryUtils.Compression;
+import adams.env.Environment;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.io.RandomAccessFile;
+import java.util.List;
+
+/**
+ * Test class for the BinarySpectrumWriter data container. Run from the command line with: <br><br>
+ * java adams.data.io.output.BinarySpectrumWriterTest
+ * <br><br>
+ * As the output is binary, the regression test reads the written files back
+ * in and compares them in .spec format.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BinarySpectrumWriterTest
+  extends AbstractSpectrumWriterTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public BinarySpectrumWriterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  @Override
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"146048-NIR-FOSS.spec",
+	"multiple_spectra.spec",
+	"multiple_spectra.spec",
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractDataContainerWriter[] getRegressionSetups() {
+    BinarySpectrumWriter[]	result;
+
+    result = new BinarySpectrumWriter[3];
+    result[0] = new BinarySpectrumWriter();
+    result[1] = new BinarySpectrumWriter();
+    result[1].setCompression(Compression.GZIP);
+    result[2] = new BinarySpectrumWriter();
+    result[2].setCompression(Compression.LZ4);
+    result[2].setShareAxes(false);
+
+    return result;
+  }
+
+  /**
+   * Reads the spectra from the specified resource.
+   *
+   * @param filename	the resource to read (without path)
+   * @return		the spectra
+   */
+  protected List<Spectrum> readSpectra(String filename) {
+    SimpleSpectrumReader	reader;
+    List<Spectrum>		result;
+
+    m_TestHelper.copyResourceToTmp(filename);
+    reader = new SimpleSpectrumReader();
+    reader.setInput(new TmpFile(filename));
+    result = reader.read();
+    m_TestHelper.deleteFileFromTmp(filename);
+    assertNotNull("Failed to read: " + filename, result);
+
+    return result;
+  }
+
+  /**
+   * Writes the spectra in binary format.
+   *
+   * @param data	the spectra to write
+   * @param writer	the writer to use
+   * @param filename	the output file (without path)
+   */
+  protected void writeBinary(List<Spectrum> data, BinarySpectrumWriter writer, String filename) {
+    writer.setOutput(new TmpFile(filename));
+    assertTrue("Failed to write: " + filename, writer.write(data));
+  }
+
+  /**
+   * Writes the binary files and compares them (read back in, in .spec
+   * format) against the reference.
+   */
+  @Override
+  public void testRegression() {
+    String[]				input;
+    String[]				output;
+    AbstractDataContainerWriter[]	setups;
+    String				binary;
+    BinarySpectrumReader		reader;
+    SimpleSpectrumWriter		writer;
+    List<Spectrum>			data;
+    String				msg;
+    int					i;
+
+    input  = getRegressionInputFiles();
+    setups = getRegressionSetups();
+    output = new String[input.length];
+    assertEquals("Number of files and setups differ!", input.length, setups.length);
+
+    for (i = 0; i < input.length; i++) {
+      binary = FileUtils.replaceExtension(input[i], "-out" + i + "." + SpectrumBinaryUtils.FILE_EXTENSION);
+      writeBinary(readSpectra(input[i]), (BinarySpectrumWriter) setups[i], binary);
+
+      reader = new BinarySpectrumReader();
+      reader.setInput(new TmpFile(binary));
+      data = reader.read();
+      assertNotNull("Failed to read back: " + binary, data);
+      m_TestHelper.deleteFileFromTmp(binary);
+
+      output[i] = FileUtils.replaceExtension(input[i], "-out" + i + ".spec");
+      writer    = new SimpleSpectrumWriter();
+      writer.setOutput(new TmpFile(output[i]));
+      assertTrue("Failed to write: " + output[i], writer.write(data));
+    }
+
+    msg = m_Regression.compare(output, getRegressionIgnoredLineIndices());
+    assertNull("Output differs:\n" + msg, msg);
+
+    for (i = 0; i < output.length; i++)
+      m_TestHelper.deleteFileFromTmp(output[i]);
+  }
+
+  /**
+   * Checks the number of axes stored, with and without sharing them.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testSharedAxes() throws Exception {
+    List<Spectrum>		data;
+    BinarySpectrumWriter	writer;
+    RandomAccessFile		file;
+    String			filename;
+
+    data = readSpectra("multiple_spectra.spec");
+    assertTrue("Expected multiple spectra", data.size() > 1);
+
+    for (boolean share: new boolean[]{true, false}) {
+      filename = "shared-" + share + "." + SpectrumBinaryUtils.FILE_EXTENSION;
+      writer   = new BinarySpectrumWriter();
+      writer.setCompression(Compression.GZIP);
+      writer.setShareAxes(share);
+      writeBinary(data, writer, filename);
+      file = new RandomAccessFile(new TmpFile(filename).getAbsoluteFile(), "r");
+      try {
+	// all spectra have the same wave numbers
+	assertEquals("number of axes (share=" + share + ")", share ? 1 : 0, new SpectrumBinaryUtils.Reader(file).getIndex().numAxes());
+      }
+      finally {
+	FileUtils.closeQuietly(file);
+	m_TestHelper.deleteFileFromTmp(filename);
+      }
+    }
+  }
+
+  /**
+   * Checks the random access via the index, using compressed records.
+   *
+   * @throws Exception	if test fails
+   */
+  public void testIndexLookup() throws Exception {
+    List<Spectrum>		data;
+    BinarySpectrumWriter	writer;
+    RandomAccessFile		file;
+    SpectrumBinaryUtils.Reader	reader;
+    Spectrum			spec;
+    String			filename;
+    int				i;
+
+    data     = readSpectra("multiple_spectra.spec");
+    filename = "lookup." + SpectrumBinaryUtils.FILE_EXTENSION;
+    writer   = new BinarySpectrumWriter();
+    writer.setCompression(Compression.LZ4);
+    writeBinary(data, writer, filename);
+
+    file = new RandomAccessFile(new TmpFile(filename).getAbsoluteFile(), "r");
+    try {
+      reader = new SpectrumBinaryUtils.Reader(file);
+      assertEquals("number of spectra", data.size(), reader.getIndex().size());
+      // in reverse order to force seeking
+      for (i = data.size() - 1; i >= 0; i--) {
+	assertEquals("position of " + data.get(i).getID(), i, reader.getIndex().indexOf(data.get(i).getID()));
+	spec = reader.read(data.get(i).getID());
+	assertNotNull("spectrum " + data.get(i).getID(), spec);
+	assertEquals("ID", data.get(i).getID(), spec.getID());
+	assertEquals("size of " + spec.getID(), data.get(i).size(), spec.size());
+	assertEquals("first amplitude of " + spec.getID(), data.get(i).toList().get(0).getAmplitude(), spec.toList().get(0).getAmplitude(), 0.0f);
+	assertEquals("last amplitude of " + spec.getID(), data.get(i).toList().get(spec.size() - 1).getAmplitude(), spec.toList().get(spec.size() - 1).getAmplitude(), 0.0f);
+      }
+      assertNull("unknown ID", reader.read("does-not-exist"));
+    }
+    finally {
+      FileUtils.closeQuietly(file);
+      m_TestHelper.deleteFileFromTmp(filename);
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(BinarySpectrumWriterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
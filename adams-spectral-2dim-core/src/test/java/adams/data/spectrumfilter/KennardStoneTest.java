@@ -0,0 +1,197 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * KennardStoneTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spectrumfilter;
+
+import adams.core.io.FileUtils;
+import adams.data.container.DataContainer;
+import adams.data.filter.Filter;
+import adams.data.filter.PassThrough;
+import adams.data.io.input.SimpleSpectrumReader;
+import adams.data.spectrum.Spectrum;
+import adams.env.Environment;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+/**
+ * Test class for the KennardStone batch filter. Run from the command line with: <br><br>
+ * java adams.data.spectrumfilter.KennardStoneTest
+ * <br><br>
+ * As the filter selects a subset of the spectra, the regression test
+ * outputs the sample IDs of the selected spectra in order of selection.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class KennardStoneTest
+  extends AbstractSpectrumFilterTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public KennardStoneTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the configured filter.
+   *
+   * @return		the filter
+   */
+  public Filter<Spectrum> getFilter() {
+    return new KennardStone();
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"kennard_stone.spec",
+	"kennard_stone.spec",
+	"kennard_stone.spec",
+	"kennard_stone.spec"
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  protected Filter[] getRegressionSetups() {
+    KennardStone[]	result;
+
+    result = new KennardStone[4];
+
+    result[0] = new KennardStone();
+    result[0].setPreFilter(new PassThrough());
+    result[0].setNumberInSubset(4);
+
+    result[1] = new KennardStone();
+    result[1].setPreFilter(new PassThrough());
+    result[1].setNumberInSubset(4);
+    result[1].setInvert(true);
+
+    result[2] = new KennardStone();
+    result[2].setPreFilter(new PassThrough());
+    result[2].setNumberInSubset(6);
+    result[2].setNumThreads(3);
+
+    result[3] = new KennardStone();
+    result[3].setPreFilter(new PassThrough());
+    result[3].setNumberInSubset(12);
+    result[3].setNumThreads(4);
+
+    return result;
+  }
+
+  /**
+   * Returns the ignored line indices to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected int[] getRegressionIgnoredLineIndices() {
+    return new int[0];
+  }
+
+  /**
+   * Reads the spectra from the specified resource.
+   *
+   * @param filename	the resource to read (without path)
+   * @return		the spectra
+   */
+  protected List<Spectrum> readSpectra(String filename) {
+    SimpleSpectrumReader	reader;
+    List<Spectrum>		result;
+
+    m_TestHelper.copyResourceToTmp(filename);
+    reader = new SimpleSpectrumReader();
+    reader.setInput(new TmpFile(filename));
+    result = reader.read();
+    m_TestHelper.deleteFileFromTmp(filename);
+    assertNotNull("Failed to read: " + filename, result);
+
+    return result;
+  }
+
+  /**
+   * Applies the setups to the spectra and compares the IDs of the selected
+   * spectra against the reference.
+   */
+  @Override
+  public void testRegression() {
+    String[]		input;
+    String[]		output;
+    Filter[]		setups;
+    List<Spectrum>	data;
+    DataContainer[]	selected;
+    StringBuilder	ids;
+    String		msg;
+    int			i;
+
+    input  = getRegressionInputFiles();
+    setups = getRegressionSetups();
+    output = new String[input.length];
+    assertEquals("Number of files and setups differ!", input.length, setups.length);
+
+    for (i = 0; i < input.length; i++) {
+      data     = readSpectra(input[i]);
+      selected = ((KennardStone) setups[i]).batchFilter(data.toArray(new Spectrum[0]));
+      ids      = new StringBuilder();
+      for (DataContainer cont: selected)
+	ids.append(((Spectrum) cont).getID()).append("\n");
+      output[i] = FileUtils.replaceExtension(input[i], "-out" + i + ".txt");
+      assertTrue("Failed to write: " + output[i], FileUtils.writeToFile(new TmpFile(output[i]).getAbsolutePath(), ids.toString(), false));
+    }
+
+    msg = m_Regression.compare(output, getRegressionIgnoredLineIndices());
+    assertNull("Output differs:\n" + msg, msg);
+
+    for (i = 0; i < output.length; i++)
+      m_TestHelper.deleteFileFromTmp(output[i]);
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(KennardStoneTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
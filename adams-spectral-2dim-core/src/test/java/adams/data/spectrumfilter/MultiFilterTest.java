@@ -15,7 +15,7 @@
 
 /**
  * MultiFilterTest.java
- * Copyright (C) 2010-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.spectrumfilter;
 
@@ -61,6 +61,7 @@ public class MultiFilterTest
    */
   protected String[] getRegressionInputFiles() {
     return new String[]{
+	"872280-nir.spec",
 	"872280-nir.spec",
 	"872280-nir.spec",
 	"872280-nir.spec"
@@ -75,7 +76,7 @@ public class MultiFilterTest
   protected Filter[] getRegressionSetups() {
     MultiFilter[]	result;
 
-    result = new MultiFilter[3];
+    result = new MultiFilter[4];
 
     result[0] = new MultiFilter();
 
@@ -92,9 +93,48 @@ public class MultiFilterTest
 	    new SavitzkyGolay()
 	});
 
+    result[3] = new MultiFilter();
+    result[3].setSubFilters(
+	new Filter[]{
+	    new SubRange(),
+	    new RowZeroMin(),
+	    new RowNorm(),
+	    new SavitzkyGolay(),
+	    new DownSample()
+	});
+
     return result;
   }
 
+  /**
+   * Tests whether the fused execution generates the same output as the
+   * filter-by-filter one.
+   */
+  public void testFused() {
+    Spectrum	data;
+    Spectrum	fused;
+    Spectrum	serial;
+    MultiFilter	filter;
+    int		i;
+
+    data = load("872280-nir.spec");
+    assertNotNull("Could not load data for test", data);
+
+    filter = (MultiFilter) getRegressionSetups()[3];
+    filter.setFuse(true);
+    fused  = process(data, filter);
+    filter = (MultiFilter) getRegressionSetups()[3];
+    filter.setFuse(false);
+    serial = process(data, filter);
+
+    assertEquals("IDs differ", serial.getID(), fused.getID());
+    assertEquals("Number of wave numbers differ", serial.size(), fused.size());
+    for (i = 0; i < serial.size(); i++) {
+      assertEquals("Wave numbers differ at #" + i, serial.toList().get(i).getWaveNumber(), fused.toList().get(i).getWaveNumber());
+      assertEquals("Amplitudes differ at #" + i, serial.toList().get(i).getAmplitude(), fused.toList().get(i).getAmplitude());
+    }
+  }
+
   /**
    * Returns the test suite.
    *
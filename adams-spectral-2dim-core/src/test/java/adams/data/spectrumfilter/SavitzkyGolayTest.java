@@ -15,16 +15,21 @@
 
 /**
  * SavitzkyGolayTest.java
- * Copyright (C) 2010-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2010-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.data.spectrumfilter;
 
 import adams.data.filter.Filter;
+import adams.data.spectrum.SavitzkyGolayKernel;
+import adams.data.spectrum.SignalProcessing;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
 import adams.env.Environment;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import java.util.List;
+
 /**
  * Test class for the SavitzkyGolay filter. Run from the command line with: <br><br>
  * java adams.data.spectrumfilter.SavitzkyGolayTest
@@ -35,6 +40,9 @@ import junit.framework.TestSuite;
 public class SavitzkyGolayTest
   extends AbstractSpectrumFilterTestCase {
 
+  /** the tolerance for FFT-based convolution, relative to the magnitude of the data. */
+  public static final double FFT_TOLERANCE = 1e-9;
+
   /**
    * Constructs the test case. Called by subclasses.
    *
@@ -121,6 +129,66 @@ public class SavitzkyGolayTest
     assertEquals("Number of wave numbers not reduced by size of window", data.size() - filter.getNumPointsLeft() - filter.getNumPointsRight(), processed.size());
   }
 
+  /**
+   * Tests that large windows produce the same output as direct convolution:
+   * identical by default and, with FFT-based convolution enabled, apart from
+   * rounding errors.
+   */
+  public void testLargeWindow() {
+    Spectrum		data;
+    Spectrum		processed;
+    SavitzkyGolay	filter;
+    List<SpectrumPoint>	input;
+    List<SpectrumPoint>	output;
+    double[]		coeffs;
+    double		scale;
+    double		sum;
+    double		expected;
+    float		actual;
+    int			i;
+    int			n;
+
+    data = load("872280-nir.spec");
+    assertNotNull("Could not load data for test", data);
+    input = data.toList();
+
+    for (boolean useFFT: new boolean[]{false, true}) {
+      filter = new SavitzkyGolay();
+      filter.setNumPointsLeft(40);
+      filter.setNumPointsRight(40);
+      filter.setUseFFT(useFFT);
+      coeffs = SavitzkyGolayKernel.getCoefficients(40, 40, filter.getPolynomialOrder(), filter.getDerivativeOrder());
+      assertTrue("Window too small for FFT", coeffs.length >= SignalProcessing.FFT_CONVOLUTION_THRESHOLD);
+
+      processed = process(data, filter);
+      assertNotNull("Failed to process data?", processed);
+      output = processed.toList();
+      assertEquals("Number of wave numbers", input.size() - coeffs.length + 1, output.size());
+
+      // upper bound for the magnitude of the convolution
+      scale = 0;
+      if (useFFT) {
+	for (i = 0; i < input.size(); i++)
+	  scale = Math.max(scale, Math.abs(input.get(i).getAmplitude()));
+	sum = 0;
+	for (n = 0; n < coeffs.length; n++)
+	  sum += Math.abs(coeffs[n]);
+	scale *= sum;
+      }
+      for (i = 0; i < output.size(); i++) {
+	expected = 0;
+	for (n = 0; n < coeffs.length; n++)
+	  expected += coeffs[n] * input.get(i + n).getAmplitude();
+	actual = output.get(i).getAmplitude();
+	assertEquals("Wave number #" + i + " (fft=" + useFFT + ")", input.get(i + 40).getWaveNumber(), output.get(i).getWaveNumber(), 0.0f);
+	if (useFFT)
+	  assertEquals("Amplitude #" + i + " (fft=true)", (float) expected, actual, Math.ulp((float) expected) + FFT_TOLERANCE * scale);
+	else
+	  assertEquals("Amplitude #" + i + " (fft=false)", (float) expected, actual, 0.0f);
+      }
+    }
+  }
+
   /**
    * Returns the test suite.
    *
@@ -0,0 +1,191 @@
+# Sample\ ID=ks-01
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.6328
+2.0,0.6367
+3.0,0.5944
+4.0,0.4897
+5.0,0.4721
+6.0,0.3789
+7.0,0.3698
+8.0,0.2449
+9.0,0.3191
+10.0,0.2618
+---
+# Sample\ ID=ks-02
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.4164
+2.0,0.3458
+3.0,0.4368
+4.0,0.427
+5.0,0.3883
+6.0,0.2266
+7.0,0.2113
+8.0,0.2419
+9.0,0.2442
+10.0,0.3009
+---
+# Sample\ ID=ks-03
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.724
+2.0,0.717
+3.0,0.6155
+4.0,0.7203
+5.0,0.6638
+6.0,0.7108
+7.0,0.6355
+8.0,0.7711
+9.0,0.8283
+10.0,0.6662
+---
+# Sample\ ID=ks-04
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.5184
+2.0,0.4322
+3.0,0.5249
+4.0,0.4507
+5.0,0.4367
+6.0,0.2534
+7.0,0.3059
+8.0,0.2544
+9.0,0.169
+10.0,0.2024
+---
+# Sample\ ID=ks-05
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.6184
+2.0,0.5495
+3.0,0.4741
+4.0,0.5334
+5.0,0.3977
+6.0,0.4562
+7.0,0.456
+8.0,0.3234
+9.0,0.4309
+10.0,0.2971
+---
+# Sample\ ID=ks-06
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.4957
+2.0,0.6738
+3.0,0.4709
+4.0,0.4734
+5.0,0.5274
+6.0,0.4594
+7.0,0.5006
+8.0,0.4734
+9.0,0.4781
+10.0,0.4556
+---
+# Sample\ ID=ks-07
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.4154
+2.0,0.3335
+3.0,0.3229
+4.0,0.3732
+5.0,0.1628
+6.0,0.1877
+7.0,0.2161
+8.0,0.0854
+9.0,0.1965
+10.0,0.0971
+---
+# Sample\ ID=ks-08
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.4832
+2.0,0.2686
+3.0,0.393
+4.0,0.3391
+5.0,0.3471
+6.0,0.2773
+7.0,0.1759
+8.0,0.1859
+9.0,0.2297
+10.0,0.023
+---
+# Sample\ ID=ks-09
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.6493
+2.0,0.8207
+3.0,0.7046
+4.0,0.6629
+5.0,0.7328
+6.0,0.7997
+7.0,0.7196
+8.0,0.8497
+9.0,0.8376
+10.0,0.8326
+---
+# Sample\ ID=ks-10
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.7465
+2.0,0.7392
+3.0,0.7491
+4.0,0.7755
+5.0,0.7707
+6.0,0.7099
+7.0,0.6381
+8.0,0.7257
+9.0,0.772
+10.0,0.8538
+---
+# Sample\ ID=ks-11
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.5096
+2.0,0.6299
+3.0,0.5146
+4.0,0.5433
+5.0,0.5307
+6.0,0.6761
+7.0,0.7252
+8.0,0.6632
+9.0,0.5693
+10.0,0.707
+---
+# Sample\ ID=ks-12
+# Sample\ ID\tDataType=S
+# Format=NIR
+# Format\tDataType=S
+waveno,amplitude
+1.0,0.3399
+2.0,0.4145
+3.0,0.2796
+4.0,0.3141
+5.0,0.3523
+6.0,0.3247
+7.0,0.5194
+8.0,0.4758
+9.0,0.3934
+10.0,0.4887
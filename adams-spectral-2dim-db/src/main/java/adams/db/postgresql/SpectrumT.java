@@ -56,6 +56,18 @@ public class SpectrumT
     return SampleDataT.getSingleton(getDatabaseConnection());
   }
 
+  /**
+   * Returns the SQL statement that inserts a spectrum or updates the one
+   * with the same sample ID and format, using ON CONFLICT DO UPDATE.
+   *
+   * @return		the statement
+   */
+  @Override
+  protected String getNativeUpsertSQL() {
+    return "INSERT INTO " + getTableName() + " (SAMPLEID, SAMPLETYPE, FORMAT, POINTS) VALUES (?, ?, ?, ?) "
+      + "ON CONFLICT (SAMPLEID, FORMAT) DO UPDATE SET SAMPLETYPE = EXCLUDED.SAMPLETYPE, POINTS = EXCLUDED.POINTS";
+  }
+
   /**
    * Initializes the table. Used by the "InitializeTables" tool.
    *
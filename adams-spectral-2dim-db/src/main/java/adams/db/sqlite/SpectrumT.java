@@ -15,7 +15,7 @@
 
 /*
  * SpectrumTSQLite.java
- * Copyright (C) 2016-2019 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2016-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.db.sqlite;
@@ -28,6 +28,8 @@ import adams.db.SampleDataIntf;
 import adams.db.SpectrumIntf;
 import adams.db.TableManager;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.logging.Level;
 
@@ -117,6 +119,61 @@ public class SpectrumT
     return result;
   }
 
+  /**
+   * Inserts the spectrum (without report) using the specified connection.
+   * Uses last_insert_rowid() to obtain the generated ID.
+   *
+   * @param conn	the connection to use
+   * @param sp  	the spectrum to insert
+   * @param storeWaveNo   whether to store the wave numbers as well
+   * @return		the generated database ID, null if none obtained
+   * @throws Exception	if insert fails
+   */
+  @Override
+  protected Integer insert(Connection conn, Spectrum sp, boolean storeWaveNo) throws Exception {
+    Integer		result;
+    PreparedStatement	stmt;
+    ResultSet		rs;
+
+    result = null;
+    stmt   = null;
+    rs     = null;
+    try {
+      stmt = conn.prepareStatement(
+	"INSERT INTO " + getTableName() + " (SAMPLEID, SAMPLETYPE, FORMAT, POINTS) VALUES (?, ?, ?, ?)");
+      stmt.setString(1, sp.getID());
+      stmt.setString(2, sp.getType());
+      stmt.setString(3, sp.getFormat());
+      stmt.setString(4, pointsToString(sp, storeWaveNo));
+      stmt.executeUpdate();
+      SQLUtils.close(stmt);
+      stmt = conn.prepareStatement("SELECT last_insert_rowid()");
+      rs   = stmt.executeQuery();
+      if (rs.next())
+	result = rs.getInt(1);
+      else
+	getLogger().severe("no last_insert_rowid");
+    }
+    finally {
+      SQLUtils.closeAll(rs);
+      SQLUtils.close(stmt);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the SQL statement that inserts a spectrum or updates the one
+   * with the same sample ID and format, using ON CONFLICT DO UPDATE.
+   *
+   * @return		the statement
+   */
+  @Override
+  protected String getNativeUpsertSQL() {
+    return "INSERT INTO " + getTableName() + " (SAMPLEID, SAMPLETYPE, FORMAT, POINTS) VALUES (?, ?, ?, ?) "
+      + "ON CONFLICT (SAMPLEID, FORMAT) DO UPDATE SET SAMPLETYPE = EXCLUDED.SAMPLETYPE, POINTS = EXCLUDED.POINTS";
+  }
+
   /**
    * Initializes the table. Used by the "InitializeTables" tool.
    *
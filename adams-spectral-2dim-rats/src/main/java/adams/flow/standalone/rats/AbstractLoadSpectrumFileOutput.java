@@ -0,0 +1,844 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractLoadSpectrumFileOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+package adams.flow.standalone.rats;
+
+import adams.core.AtomicMoveSupporter;
+import adams.core.Performance;
+import adams.core.QuickInfoHelper;
+import adams.core.Utils;
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
+import adams.core.logging.LoggingHelper;
+import adams.data.io.input.AbstractSpectrumReader;
+import adams.data.io.input.SimpleSpectrumReader;
+import adams.data.spectrum.Spectrum;
+import adams.flow.control.StorageName;
+import adams.flow.control.StorageQueueHandler;
+import adams.flow.standalone.rats.output.AbstractRatOutput;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Ancestor for outputs that load spectrum files, put the spectra in a queue
+ * and rename the files depending on whether loading was successful or not.
+ * <br><br>
+ * With more than one thread, files get loaded and converted by a pool of
+ * workers, each with its own copy of the reader. The number of files in
+ * flight is limited, with further files blocking the transmission until a
+ * worker becomes available again. A file only gets renamed (and added to
+ * the queue for successful files) once its data has been queued. The order
+ * in which the data of different files arrives in the queue is no longer
+ * guaranteed, but the data of a single file is always queued in one go.
+ * <br><br>
+ * The time spent in the stages read/convert/queue/move gets accumulated,
+ * see {@link #getTimingSummary()}.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractLoadSpectrumFileOutput
+  extends AbstractRatOutput
+  implements AtomicMoveSupporter {
+
+  private static final long serialVersionUID = 6468212962880537712L;
+
+  /** the suffix for successful files. */
+  public final static String SUFFIX_SUCESS = ".success";
+
+  /** the suffix for failed files. */
+  public final static String SUFFIX_FAILURE = ".failure";
+
+  /** the stage: reading. */
+  public final static int STAGE_READ = 0;
+
+  /** the stage: converting. */
+  public final static int STAGE_CONVERT = 1;
+
+  /** the stage: queueing. */
+  public final static int STAGE_QUEUE = 2;
+
+  /** the stage: moving. */
+  public final static int STAGE_MOVE = 3;
+
+  /** the names of the stages. */
+  public final static String[] STAGES = {"read", "convert", "queue", "move"};
+
+  /** the sprectrum reader to use. */
+  protected AbstractSpectrumReader m_Reader;
+
+  /** the name of the queue in the internal storage for spectra. */
+  protected StorageName m_QueueSpectra;
+
+  /** the name of the queue in the internal storage for successful files. */
+  protected StorageName m_QueueSuccessful;
+
+  /** the name of the queue in the internal storage for failed files. */
+  protected StorageName m_QueueFailed;
+
+  /** whether to perform an atomic move. */
+  protected boolean m_AtomicMove;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
+  /** the maximum number of files in flight. */
+  protected int m_MaxInFlight;
+
+  /** the executor for loading files in parallel. */
+  protected transient ExecutorService m_Executor;
+
+  /** for limiting the number of files in flight. */
+  protected transient Semaphore m_InFlight;
+
+  /** the files currently in flight. */
+  protected transient Set<String> m_InFlightFiles;
+
+  /** the reader copies of the workers. */
+  protected transient ThreadLocal<AbstractSpectrumReader> m_WorkerReaders;
+
+  /** the accumulated nano seconds per stage. */
+  protected AtomicLong[] m_StageTimes;
+
+  /** the number of files processed. */
+  protected AtomicLong m_NumFiles;
+
+  /** the number of failed files. */
+  protected AtomicLong m_NumFailed;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "reader", "reader",
+      getDefaultReader());
+
+    m_OptionManager.add(
+      "queue-spectra", "queueSpectra",
+      new StorageName("spectra"));
+
+    m_OptionManager.add(
+      "queue-sucessful", "queueSuccessful",
+      new StorageName("successful"));
+
+    m_OptionManager.add(
+      "queue-failed", "queueFailed",
+      new StorageName("failed"));
+
+    m_OptionManager.add(
+      "atomic-move", "atomicMove",
+      false);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1, -1, null);
+
+    m_OptionManager.add(
+      "max-in-flight", "maxInFlight",
+      -1, -1, null);
+  }
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    int		i;
+
+    super.initialize();
+
+    m_StageTimes = new AtomicLong[STAGES.length];
+    for (i = 0; i < m_StageTimes.length; i++)
+      m_StageTimes[i] = new AtomicLong();
+    m_NumFiles  = new AtomicLong();
+    m_NumFailed = new AtomicLong();
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    shutdownWorkers(false);
+    resetTimings();
+  }
+
+  /**
+   * Returns the default reader to use.
+   *
+   * @return		the default reader
+   */
+  protected AbstractSpectrumReader getDefaultReader() {
+    return new SimpleSpectrumReader();
+  }
+
+  /**
+   * Sets the reader to use.
+   *
+   * @param value	the filter
+   */
+  public void setReader(AbstractSpectrumReader value) {
+    m_Reader = value;
+    reset();
+  }
+
+  /**
+   * Returns the reader in use.
+   *
+   * @return		the reader
+   */
+  public AbstractSpectrumReader getReader() {
+    return m_Reader;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String readerTipText() {
+    return "The reader to use for importing the data.";
+  }
+
+  /**
+   * Sets the name for the queue in the internal storage for failed files.
+   *
+   * @param value	the name
+   */
+  public void setQueueSpectra(StorageName value) {
+    m_QueueSpectra = value;
+    reset();
+  }
+
+  /**
+   * Returns the name for the queue in the internal storage for failed files.
+   *
+   * @return		the name
+   */
+  public StorageName getQueueSpectra() {
+    return m_QueueSpectra;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueSpectraTipText() {
+    return "The name of the queue in the internal storage where the spectra are stored.";
+  }
+
+  /**
+   * Sets the name for the queue in the internal storage for successful files.
+   *
+   * @param value	the name
+   */
+  public void setQueueSuccessful(StorageName value) {
+    m_QueueSuccessful = value;
+    reset();
+  }
+
+  /**
+   * Returns the name for the queue in the internal storage for successful files.
+   *
+   * @return		the name
+   */
+  public StorageName getQueueSuccessful() {
+    return m_QueueSuccessful;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueSuccessfulTipText() {
+    return "The name of the (optional) queue in the internal storage where successful filenames are stored.";
+  }
+
+  /**
+   * Sets the name for the queue in the internal storage for failed files.
+   *
+   * @param value	the name
+   */
+  public void setQueueFailed(StorageName value) {
+    m_QueueFailed = value;
+    reset();
+  }
+
+  /**
+   * Returns the name for the queue in the internal storage for failed files.
+   *
+   * @return		the name
+   */
+  public StorageName getQueueFailed() {
+    return m_QueueFailed;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueFailedTipText() {
+    return "The name of the (optional) queue in the internal storage where failed filenames are stored.";
+  }
+
+  /**
+   * Sets whether to attempt atomic move operation.
+   *
+   * @param value	if true then attempt atomic move operation
+   */
+  public void setAtomicMove(boolean value) {
+    m_AtomicMove = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to attempt atomic move operation.
+   *
+   * @return 		true if to attempt atomic move operation
+   */
+  public boolean getAtomicMove() {
+    return m_AtomicMove;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String atomicMoveTipText() {
+    return
+        "If true, then an atomic move operation will be attempted "
+	  + "(NB: not supported by all operating systems).";
+  }
+
+  /**
+   * Sets the number of threads to use for loading files.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    if (getOptionManager().isValid("numThreads", value)) {
+      m_NumThreads = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of threads to use for loading files.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return
+      "The number of threads to use for loading and converting files; with "
+	+ "sequential execution, files get processed within the transmission; "
+	+ Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Sets the maximum number of files being processed at the same time when
+   * using multiple threads.
+   *
+   * @param value 	the maximum, -1 = twice the number of threads
+   */
+  public void setMaxInFlight(int value) {
+    if (getOptionManager().isValid("maxInFlight", value)) {
+      m_MaxInFlight = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of files being processed at the same time
+   * when using multiple threads.
+   *
+   * @return 		the maximum, -1 = twice the number of threads
+   */
+  public int getMaxInFlight() {
+    return m_MaxInFlight;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxInFlightTipText() {
+    return
+      "The maximum number of files being loaded at the same time when using "
+	+ "multiple threads; further files block the transmission until a file "
+	+ "has been processed; -1 = twice the number of threads.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "reader", getReader(), "reader: ");
+    result += QuickInfoHelper.toString(this, "queueSpectra", getQueueSpectra(), ", spectra: ");
+    result += QuickInfoHelper.toString(this, "queueFailed", getQueueFailed(), ", failed: ");
+    result += QuickInfoHelper.toString(this, "queueSuccessful", getQueueSuccessful(), ", sucessful: ");
+    result += QuickInfoHelper.toString(this, "numThreads", getNumThreads(), ", threads: ");
+
+    return result;
+  }
+
+  /**
+   * Returns the type of data that gets accepted.
+   *
+   * @return		the type of data
+   */
+  @Override
+  public Class[] accepts() {
+    return new Class[]{String.class, File.class};
+  }
+
+  /**
+   * Resets the accumulated timings.
+   */
+  public void resetTimings() {
+    for (AtomicLong time: m_StageTimes)
+      time.set(0);
+    m_NumFiles.set(0);
+    m_NumFailed.set(0);
+  }
+
+  /**
+   * Returns the accumulated time spent in the specified stage.
+   *
+   * @param stage	the stage, eg {@link #STAGE_READ}
+   * @return		the time in msec
+   */
+  public long getStageTime(int stage) {
+    return TimeUnit.NANOSECONDS.toMillis(m_StageTimes[stage].get());
+  }
+
+  /**
+   * Returns the number of files processed so far.
+   *
+   * @return		the number of files
+   */
+  public long getNumFiles() {
+    return m_NumFiles.get();
+  }
+
+  /**
+   * Returns the number of files that failed to load so far.
+   *
+   * @return		the number of files
+   */
+  public long getNumFailed() {
+    return m_NumFailed.get();
+  }
+
+  /**
+   * Returns the number of files currently being processed by the workers.
+   *
+   * @return		the number of files
+   */
+  public int getNumInFlight() {
+    Set<String>	files;
+
+    files = m_InFlightFiles;
+    if (files == null)
+      return 0;
+    else
+      return files.size();
+  }
+
+  /**
+   * Returns a summary of the time spent in the various stages.
+   *
+   * @return		the summary
+   */
+  public String getTimingSummary() {
+    StringBuilder	result;
+    long		files;
+    int			i;
+
+    files  = m_NumFiles.get();
+    result = new StringBuilder();
+    result.append("files=").append(files);
+    result.append(", failed=").append(m_NumFailed.get());
+    for (i = 0; i < STAGES.length; i++) {
+      result.append(", ").append(STAGES[i]).append("=").append(getStageTime(i)).append("ms");
+      if (files > 0)
+	result.append(" (avg ").append(Utils.doubleToString((double) getStageTime(i) / files, 1)).append("ms)");
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Adds the time since the start to the stage.
+   *
+   * @param stage	the stage
+   * @param start	the start of the stage (nano seconds)
+   * @param times	the per-file times to update
+   * @return		the current time (nano seconds)
+   */
+  protected long addStageTime(int stage, long start, long[] times) {
+    long	now;
+
+    now          = System.nanoTime();
+    times[stage] = now - start;
+    m_StageTimes[stage].addAndGet(times[stage]);
+
+    return now;
+  }
+
+  /**
+   * Moves the file and adds it to the queue if successful.
+   *
+   * @param source	the source file
+   * @param target	the target file
+   * @param queue	the queue to add it to if successful, null to ignore
+   */
+  protected void moveFile(File source, File target, StorageQueueHandler queue) {
+    try {
+      if (FileUtils.move(source, target, m_AtomicMove)) {
+	if (queue != null)
+	  queue.add(target.getAbsolutePath());
+      }
+      else {
+	if (isLoggingEnabled())
+	  getLogger().severe("Failed to rename file '" + source + "' to '" + target + "'!");
+      }
+    }
+    catch (Exception e) {
+      if (isLoggingEnabled())
+	getLogger().log(Level.SEVERE, "Failed to rename file '" + source + "' to '" + target + "'!", e);
+    }
+  }
+
+  /**
+   * Converts the spectra that were read from a file into the objects to
+   * queue.
+   *
+   * @param specs	the spectra to convert
+   * @param output	for adding the objects to queue
+   * @return		null if successful, otherwise error message
+   */
+  protected abstract String convert(List<Spectrum> specs, List<Object> output);
+
+  /**
+   * Loads the file, queues the data and renames the file.
+   *
+   * @param input	the file to load
+   * @param reader	the reader to use
+   * @param spectra	the queue for the data
+   * @param success	the queue for successful files, can be null
+   * @param failed	the queue for failed files, can be null
+   * @return		null if successful, otherwise error message
+   */
+  protected String process(PlaceholderFile input, AbstractSpectrumReader reader, StorageQueueHandler spectra, StorageQueueHandler success, StorageQueueHandler failed) {
+    String		result;
+    List<Spectrum>	specs;
+    List<Object>	output;
+    PlaceholderFile	target;
+    long[]		times;
+    long		start;
+    boolean		ok;
+
+    result = null;
+    ok     = false;
+    times  = new long[STAGES.length];
+    start  = System.nanoTime();
+    try {
+      reader.setInput(input);
+      specs = reader.read();
+      start = addStageTime(STAGE_READ, start, times);
+      if (isLoggingEnabled())
+	getLogger().info("Reading file '" + input + "': " + specs.size() + " spectra");
+      if ((specs.size() > 0) && !((specs.size() == 1) && (specs.get(0).size() == 0))) {
+	output = new ArrayList<>();
+	result = convert(specs, output);
+	specs.clear();
+	start  = addStageTime(STAGE_CONVERT, start, times);
+	if (result == null) {
+	  // queue data of file in one go
+	  synchronized(spectra) {
+	    for (Object obj: output)
+	      spectra.add(obj);
+	  }
+	  start = addStageTime(STAGE_QUEUE, start, times);
+	  ok    = true;
+	}
+      }
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read '" + input + "'!", e);
+    }
+
+    // rename file
+    if (ok) {
+      target = new PlaceholderFile(input.getAbsolutePath() + SUFFIX_SUCESS);
+      moveFile(input, target, success);
+    }
+    else {
+      target = new PlaceholderFile(input.getAbsolutePath() + SUFFIX_FAILURE);
+      moveFile(input, target, failed);
+      m_NumFailed.incrementAndGet();
+    }
+    addStageTime(STAGE_MOVE, start, times);
+    m_NumFiles.incrementAndGet();
+
+    if (isLoggingEnabled()) {
+      getLogger().info(
+	"Timing '" + input + "' (msec): "
+	  + "read=" + TimeUnit.NANOSECONDS.toMillis(times[STAGE_READ])
+	  + ", convert=" + TimeUnit.NANOSECONDS.toMillis(times[STAGE_CONVERT])
+	  + ", queue=" + TimeUnit.NANOSECONDS.toMillis(times[STAGE_QUEUE])
+	  + ", move=" + TimeUnit.NANOSECONDS.toMillis(times[STAGE_MOVE]));
+    }
+
+    return result;
+  }
+
+  /**
+   * Initializes the workers, if necessary.
+   *
+   * @param numThreads	the number of threads to use
+   */
+  protected synchronized void initWorkers(int numThreads) {
+    int		max;
+
+    if (m_Executor != null)
+      return;
+
+    max = m_MaxInFlight;
+    if (max == -1)
+      max = 2 * numThreads;
+    max = Math.max(max, numThreads);
+
+    m_InFlight      = new Semaphore(max);
+    m_InFlightFiles = ConcurrentHashMap.newKeySet();
+    m_WorkerReaders = ThreadLocal.withInitial(() -> (AbstractSpectrumReader) m_Reader.shallowCopy(true));
+    m_Executor      = Executors.newFixedThreadPool(numThreads);
+    if (isLoggingEnabled())
+      getLogger().info("Started " + numThreads + " worker(s), max in flight: " + max);
+  }
+
+  /**
+   * Shuts down the workers, if any.
+   *
+   * @param wait	whether to wait for the files in flight to be processed
+   */
+  protected synchronized void shutdownWorkers(boolean wait) {
+    if (m_Executor == null)
+      return;
+
+    m_Executor.shutdown();
+    if (wait) {
+      try {
+	if (!m_Executor.awaitTermination(1, TimeUnit.MINUTES))
+	  getLogger().warning("Timed out waiting for files in flight: " + m_InFlightFiles);
+      }
+      catch (InterruptedException e) {
+	Thread.currentThread().interrupt();
+	getLogger().warning("Interrupted while waiting for files in flight: " + m_InFlightFiles);
+      }
+    }
+    else {
+      m_Executor.shutdownNow();
+    }
+    m_Executor      = null;
+    m_WorkerReaders = null;
+  }
+
+  /**
+   * Hands the file to the workers. Blocks if the maximum number of files
+   * is already in flight.
+   *
+   * @param input	the file to load
+   * @param spectra	the queue for the data
+   * @param success	the queue for successful files, can be null
+   * @param failed	the queue for failed files, can be null
+   * @return		null if successful, otherwise error message
+   */
+  protected String submit(final PlaceholderFile input, final StorageQueueHandler spectra, final StorageQueueHandler success, final StorageQueueHandler failed) {
+    final ExecutorService			executor;
+    final Semaphore				inFlight;
+    final Set<String>				files;
+    final ThreadLocal<AbstractSpectrumReader>	readers;
+    final String				path;
+
+    synchronized(this) {
+      executor = m_Executor;
+      inFlight = m_InFlight;
+      files    = m_InFlightFiles;
+      readers  = m_WorkerReaders;
+    }
+    if (executor == null)
+      return "Workers not available!";
+
+    // file still being processed from previous transmission?
+    path = input.getAbsolutePath();
+    if (!files.add(path)) {
+      if (isLoggingEnabled())
+	getLogger().info("File already in flight, skipped: " + input);
+      return null;
+    }
+
+    // back-pressure
+    try {
+      while (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+	if (executor.isShutdown()) {
+	  files.remove(path);
+	  return null;
+	}
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      files.remove(path);
+      return "Interrupted while waiting to hand file to workers: " + input;
+    }
+
+    try {
+      executor.submit(() -> {
+	String msg;
+	try {
+	  msg = process(input, readers.get(), spectra, success, failed);
+	  if (msg != null)
+	    getLogger().severe("Failed to process '" + input + "': " + msg);
+	}
+	finally {
+	  files.remove(path);
+	  inFlight.release();
+	}
+      });
+    }
+    catch (Exception e) {
+      files.remove(path);
+      inFlight.release();
+      return "Failed to hand file to workers: " + input + "\n" + LoggingHelper.throwableToString(e);
+    }
+
+    return null;
+  }
+
+  /**
+   * Performs the actual transmission.
+   *
+   * @return		null if successful, otherwise error message
+   */
+  @Override
+  protected String doTransmit() {
+    String			result;
+    PlaceholderFile		input;
+    StorageQueueHandler		spectra;
+    StorageQueueHandler		success;
+    StorageQueueHandler		failed;
+    int				numThreads;
+
+    result  = null;
+    input   = null;
+    spectra = null;
+    success = null;
+    failed  = null;
+    if (m_Input instanceof String)
+      input = new PlaceholderFile((String) m_Input);
+    else if (m_Input instanceof File)
+      input = new PlaceholderFile((File) m_Input);
+    else
+      result = "Unhandled input class '" + Utils.classToString(m_Input) + "', "
+	  + "expected: " + Utils.classesToString(accepts());
+
+    if (result == null) {
+      spectra = getQueue(m_QueueSpectra);
+      success = getQueue(m_QueueSuccessful);
+      failed  = getQueue(m_QueueFailed);
+      if (spectra == null)
+	result = "Queue for spectra not available: " + m_QueueSpectra;
+    }
+
+    if (result == null) {
+      numThreads = Performance.determineNumThreads(m_NumThreads);
+      if (numThreads > 1) {
+	initWorkers(numThreads);
+	result = submit(input, spectra, success, failed);
+      }
+      else {
+	result = process(input, m_Reader, spectra, success, failed);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Stops the execution. Waits for the files in flight to be processed.
+   */
+  @Override
+  public void stopExecution() {
+    shutdownWorkers(true);
+    if (isLoggingEnabled())
+      getLogger().info("Timing summary: " + getTimingSummary());
+    super.stopExecution();
+  }
+
+  /**
+   * Cleans up data structures, frees up memory.
+   */
+  @Override
+  public void cleanUp() {
+    shutdownWorkers(false);
+    super.cleanUp();
+  }
+}
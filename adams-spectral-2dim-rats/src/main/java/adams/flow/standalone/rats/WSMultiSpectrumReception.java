@@ -15,7 +15,7 @@
 
 /**
  * WSMultiSpectrumReception.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.standalone.rats;
 
@@ -26,12 +26,14 @@ import adams.flow.standalone.rats.input.RatInputUser;
 import adams.flow.webservice.WebServiceProvider;
 import adams.flow.webservice.multispectrum.RatsMultiSpectrumServiceWS;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  <!-- globalinfo-start -->
- * Uses a webservice for retrieving spectra. Internally polls whether data has arrived.
+ * Uses a webservice for retrieving spectra. The webservice hands the data directly to a blocking queue that this input waits on.<br>
+ * If the queue is full, uploads get rejected, after waiting for the specified timeout.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -47,12 +49,25 @@ import java.util.List;
  * </pre>
  * 
  * <pre>-wait-poll &lt;int&gt; (property: waitPoll)
- * &nbsp;&nbsp;&nbsp;The number of milli-seconds to wait before polling again whether data has 
- * &nbsp;&nbsp;&nbsp;arrived.
+ * &nbsp;&nbsp;&nbsp;The maximum number of milli-seconds to block waiting for data before checking
+ * &nbsp;&nbsp;&nbsp;whether the execution got stopped.
  * &nbsp;&nbsp;&nbsp;default: 50
  * &nbsp;&nbsp;&nbsp;minimum: 0
  * </pre>
  * 
+ * <pre>-queue-capacity &lt;int&gt; (property: queueCapacity)
+ * &nbsp;&nbsp;&nbsp;The maximum number of received items waiting to be processed; -1 for unlimited.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ * 
+ * <pre>-offer-timeout &lt;int&gt; (property: offerTimeout)
+ * &nbsp;&nbsp;&nbsp;The number of milli-seconds an upload waits for space in a full queue before
+ * &nbsp;&nbsp;&nbsp;getting rejected.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
@@ -68,10 +83,19 @@ public class WSMultiSpectrumReception
   protected WebServiceProvider m_WebService;
   
   /** the spectrum received via webservice. */
-  protected List<MultiSpectrum> m_Data;
+  protected BlockingQueue<MultiSpectrum> m_Data;
+
+  /** the item taken from the queue while waiting. */
+  protected MultiSpectrum m_Received;
   
   /** the waiting period in msec before polling again. */
   protected int m_WaitPoll;
+
+  /** the capacity of the queue. */
+  protected int m_QueueCapacity;
+
+  /** the timeout in msec for uploads when the queue is full. */
+  protected int m_OfferTimeout;
   
   /**
    * Returns a string describing the object.
@@ -80,7 +104,11 @@ public class WSMultiSpectrumReception
    */
   @Override
   public String globalInfo() {
-    return "Uses a webservice for retrieving spectra. Internally polls whether data has arrived.";
+    return
+      "Uses a webservice for retrieving spectra. The webservice hands the "
+	+ "data directly to a blocking queue that this input waits on.\n"
+	+ "If the queue is full, uploads get rejected, after waiting for the "
+	+ "specified timeout.";
   }
 
   /**
@@ -97,6 +125,14 @@ public class WSMultiSpectrumReception
     m_OptionManager.add(
 	    "wait-poll", "waitPoll",
 	    50, 0, null);
+
+    m_OptionManager.add(
+	    "queue-capacity", "queueCapacity",
+	    -1, -1, null);
+
+    m_OptionManager.add(
+	    "offer-timeout", "offerTimeout",
+	    0, 0, null);
   }
 
   /**
@@ -106,7 +142,26 @@ public class WSMultiSpectrumReception
   protected void initialize() {
     super.initialize();
     
-    m_Data = new ArrayList<MultiSpectrum>();
+    m_Data = new LinkedBlockingQueue<>();
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    BlockingQueue<MultiSpectrum>	data;
+
+    super.reset();
+
+    // keep any data that was already received
+    data = m_Data;
+    if (m_QueueCapacity > 0)
+      m_Data = new LinkedBlockingQueue<>(Math.max(m_QueueCapacity, (data == null) ? 0 : data.size()));
+    else
+      m_Data = new LinkedBlockingQueue<>();
+    if (data != null)
+      data.drainTo(m_Data);
   }
   
   /**
@@ -181,7 +236,75 @@ public class WSMultiSpectrumReception
    * 			displaying in the GUI or for listing the options.
    */
   public String waitPollTipText() {
-    return "The number of milli-seconds to wait before polling again whether data has arrived.";
+    return "The maximum number of milli-seconds to block waiting for data before checking whether the execution got stopped.";
+  }
+
+  /**
+   * Sets the maximum number of received items waiting to be processed.
+   *
+   * @param value	the capacity, -1 for unlimited
+   */
+  public void setQueueCapacity(int value) {
+    if (value == 0) {
+      getLogger().warning("Queue capacity must be -1 (unlimited) or at least 1, provided: " + value);
+      return;
+    }
+    if (getOptionManager().isValid("queueCapacity", value)) {
+      m_QueueCapacity = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of received items waiting to be processed.
+   *
+   * @return		the capacity, -1 for unlimited
+   */
+  public int getQueueCapacity() {
+    return m_QueueCapacity;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueCapacityTipText() {
+    return "The maximum number of received items waiting to be processed; -1 for unlimited.";
+  }
+
+  /**
+   * Sets the number of milli-seconds an upload waits for space in a full
+   * queue before getting rejected.
+   *
+   * @param value	the timeout in msec
+   */
+  public void setOfferTimeout(int value) {
+    if (getOptionManager().isValid("offerTimeout", value)) {
+      m_OfferTimeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of milli-seconds an upload waits for space in a full
+   * queue before getting rejected.
+   *
+   * @return		the timeout in msec
+   */
+  public int getOfferTimeout() {
+    return m_OfferTimeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String offerTimeoutTipText() {
+    return "The number of milli-seconds an upload waits for space in a full queue before getting rejected.";
   }
 
   /**
@@ -195,15 +318,33 @@ public class WSMultiSpectrumReception
   }
 
   /**
-   * For setting the data received from the webservice.
+   * For setting the data received from the webservice. Waits for the
+   * specified timeout if the queue is full.
    * 
    * @param value	the data received
+   * @return		true if accepted, false if the queue is full
    */
-  public void setData(MultiSpectrum value) {
-    synchronized(m_Data) {
-      m_Data.add(value);
+  public boolean setData(MultiSpectrum value) {
+    try {
+      if (m_OfferTimeout > 0)
+	return m_Data.offer(value, m_OfferTimeout, TimeUnit.MILLISECONDS);
+      else
+	return m_Data.offer(value);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
     }
   }
+
+  /**
+   * Returns the number of items waiting to be processed.
+   *
+   * @return		the number of items
+   */
+  public int getNumQueued() {
+    return m_Data.size() + ((m_Received == null) ? 0 : 1);
+  }
   
   /**
    * Checks whether any output can be collected.
@@ -212,9 +353,7 @@ public class WSMultiSpectrumReception
    */
   @Override
   public boolean hasPendingOutput() {
-    synchronized(m_Data) {
-      return (m_Data.size() > 0);
-    }
+    return (m_Received != null) || (m_Data.size() > 0);
   }
 
   /**
@@ -225,9 +364,13 @@ public class WSMultiSpectrumReception
   @Override
   public Object output() {
     MultiSpectrum	result;
-    
-    synchronized(m_Data) {
-      result = m_Data.remove(0);
+
+    if (m_Received != null) {
+      result     = m_Received;
+      m_Received = null;
+    }
+    else {
+      result = m_Data.poll();
     }
 
     return result;
@@ -251,9 +394,17 @@ public class WSMultiSpectrumReception
       result = m_WebService.start();
     }
     
+    // block until data gets handed over, checking regularly whether we got stopped
     if (result == null) {
-      while ((m_Data.size() == 0) && canReceive())
-	doWait(m_WaitPoll);
+      while ((m_Received == null) && (m_Data.size() == 0) && canReceive()) {
+	try {
+	  m_Received = m_Data.poll(Math.max(1, m_WaitPoll), TimeUnit.MILLISECONDS);
+	}
+	catch (InterruptedException e) {
+	  Thread.currentThread().interrupt();
+	  break;
+	}
+      }
     }
     
     return result;
@@ -274,6 +425,7 @@ public class WSMultiSpectrumReception
   @Override
   public void cleanUp() {
     m_Data.clear();
+    m_Received = null;
     
     super.cleanUp();
   }
@@ -15,16 +15,19 @@
 
 /*
  * SimpleRatsMultiSpectrumService.java
- * Copyright (C) 2014-2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.webservice.multispectrum;
 
 import adams.core.option.AbstractOptionHandler;
+import adams.data.spectrum.MultiSpectrum;
 import adams.db.DatabaseConnectionUser;
 import adams.flow.core.ActorUtils;
 import adams.flow.core.RatsMultiSpectrumHelper;
 import adams.flow.standalone.rats.WSMultiSpectrumReception;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
 import nz.ac.waikato.adams.webservice.rats.multispectrum.RatsMultiSpectrumService;
 import nz.ac.waikato.adams.webservice.rats.multispectrum.UploadRequest;
 import nz.ac.waikato.adams.webservice.rats.multispectrum.UploadResponse;
@@ -110,14 +113,34 @@ public class SimpleRatsMultiSpectrumService
   @Override
   public UploadResponse upload(UploadRequest parameters) {
     UploadResponse	result;
+    OperationMetrics	metrics;
+    long		start;
+    boolean		ok;
+    MultiSpectrum	data;
 
+    metrics = ServiceMetrics.getSingleton().get("RatsMultiSpectrumService", "upload");
+    start   = metrics.begin();
+    ok      = false;
     m_Owner.getLogger().info("upload: " + parameters.getId());
     
     result = new UploadResponse();
     result.setId(parameters.getId());
     result.setSuccess(true);
-    if (getOwner().getRatInput() instanceof WSMultiSpectrumReception)
-      ((WSMultiSpectrumReception) getOwner().getRatInput()).setData(RatsMultiSpectrumHelper.webserviceToKnir(parameters.getSpectrum()));
+    try {
+      if (getOwner().getRatInput() instanceof WSMultiSpectrumReception) {
+	data = RatsMultiSpectrumHelper.webserviceToKnir(parameters.getSpectrum());
+	metrics.stage(OperationMetrics.STAGE_PARSE, start);
+	if (!((WSMultiSpectrumReception) getOwner().getRatInput()).setData(data)) {
+	  result.setSuccess(false);
+	  result.setMessage("Queue full, please retry later!");
+	  m_Owner.getLogger().warning("upload rejected (queue full): " + parameters.getId());
+	}
+      }
+      ok = result.isSuccess();
+    }
+    finally {
+      metrics.end(start, ok);
+    }
     
     return result;
   }
@@ -15,16 +15,19 @@
 
 /*
  * SimpleRatsSpectrumService.java
- * Copyright (C) 2013-2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.webservice.spectrum;
 
 import adams.core.option.AbstractOptionHandler;
+import adams.data.spectrum.Spectrum;
 import adams.db.DatabaseConnectionUser;
 import adams.flow.core.ActorUtils;
 import adams.flow.core.RatsSpectrumHelper;
 import adams.flow.standalone.rats.WSSpectrumReception;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
 import nz.ac.waikato.adams.webservice.rats.spectrum.RatsSpectrumService;
 import nz.ac.waikato.adams.webservice.rats.spectrum.UploadRequest;
 import nz.ac.waikato.adams.webservice.rats.spectrum.UploadResponse;
@@ -110,15 +113,35 @@ public class SimpleRatsSpectrumService
   @Override
   public UploadResponse upload(UploadRequest parameters) {
     UploadResponse	result;
+    OperationMetrics	metrics;
+    long		start;
+    boolean		ok;
+    Spectrum		data;
 
+    metrics = ServiceMetrics.getSingleton().get("RatsSpectrumService", "upload");
+    start   = metrics.begin();
+    ok      = false;
     m_Owner.getLogger().info("upload: " + parameters.getId() + "/" + parameters.getFormat());
     
     result = new UploadResponse();
     result.setId(parameters.getId());
     result.setFormat(parameters.getFormat());
     result.setSuccess(true);
-    if (getOwner().getRatInput() instanceof WSSpectrumReception)
-      ((WSSpectrumReception) getOwner().getRatInput()).setData(RatsSpectrumHelper.webserviceToKnir(parameters.getSpectrum()));
+    try {
+      if (getOwner().getRatInput() instanceof WSSpectrumReception) {
+	data = RatsSpectrumHelper.webserviceToKnir(parameters.getSpectrum());
+	metrics.stage(OperationMetrics.STAGE_PARSE, start);
+	if (!((WSSpectrumReception) getOwner().getRatInput()).setData(data)) {
+	  result.setSuccess(false);
+	  result.setMessage("Queue full, please retry later!");
+	  m_Owner.getLogger().warning("upload rejected (queue full): " + parameters.getId() + "/" + parameters.getFormat());
+	}
+      }
+      ok = result.isSuccess();
+    }
+    finally {
+      metrics.end(start, ok);
+    }
     
     return result;
   }
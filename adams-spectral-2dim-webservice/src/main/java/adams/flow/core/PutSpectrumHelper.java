@@ -15,12 +15,13 @@
 
 /**
  * PutSpectrumHelper.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.core;
 
 import adams.data.report.AbstractField;
 import adams.data.report.Field;
+import adams.data.spectrum.SpectrumBinaryUtils;
 import adams.data.spectrum.SpectrumPoint;
 
 /**
@@ -32,12 +33,25 @@ import adams.data.spectrum.SpectrumPoint;
 public class PutSpectrumHelper {
 
   /**
-   * Converts a KNIR spectrum into a Webservice one.
+   * Converts a KNIR spectrum into a Webservice one, using one wave element
+   * per spectral point.
    * 
    * @param input	the KNIR spectrum
    * @return		the Webservice spectrum
    */
   public static nz.ac.waikato.adams.webservice.spectral.put.Spectrum knirToWebservice(adams.data.spectrum.Spectrum input) {
+    return knirToWebservice(input, false);
+  }
+
+  /**
+   * Converts a KNIR spectrum into a Webservice one.
+   * 
+   * @param input	the KNIR spectrum
+   * @param packed	whether to store wave numbers and amplitudes as packed
+   * 			float arrays rather than one wave element per point
+   * @return		the Webservice spectrum
+   */
+  public static nz.ac.waikato.adams.webservice.spectral.put.Spectrum knirToWebservice(adams.data.spectrum.Spectrum input, boolean packed) {
     nz.ac.waikato.adams.webservice.spectral.put.Spectrum	result;
     nz.ac.waikato.adams.webservice.spectral.put.Waves	waves;
     nz.ac.waikato.adams.webservice.spectral.put.Wave	wave;
@@ -51,11 +65,17 @@ public class PutSpectrumHelper {
 
     // spectral data
     waves = new nz.ac.waikato.adams.webservice.spectral.put.Waves();
-    for (SpectrumPoint point: input) {
-      wave = new nz.ac.waikato.adams.webservice.spectral.put.Wave();
-      wave.setNumber(point.getWaveNumber());
-      wave.setAmplitude(point.getAmplitude());
-      waves.getWave().add(wave);
+    if (packed) {
+      waves.setNumbers(SpectrumBinaryUtils.packFloats(SpectrumBinaryUtils.getWaveNumbers(input)));
+      waves.setAmplitudes(SpectrumBinaryUtils.packFloats(SpectrumBinaryUtils.getAmplitudes(input)));
+    }
+    else {
+      for (SpectrumPoint point: input) {
+	wave = new nz.ac.waikato.adams.webservice.spectral.put.Wave();
+	wave.setNumber(point.getWaveNumber());
+	wave.setAmplitude(point.getAmplitude());
+	waves.getWave().add(wave);
+      }
     }
     result.setWaves(waves);
     
@@ -77,6 +97,20 @@ public class PutSpectrumHelper {
     return result;
   }
 
+  /**
+   * Returns whether the Webservice spectrum stores its spectral data as
+   * packed float arrays.
+   * 
+   * @param input	the Webservice spectrum
+   * @return		true if packed
+   */
+  public static boolean isPacked(nz.ac.waikato.adams.webservice.spectral.put.Spectrum input) {
+    return (input != null)
+      && (input.getWaves() != null)
+      && (input.getWaves().getNumbers() != null)
+      && (input.getWaves().getAmplitudes() != null);
+  }
+
   /**
    * Converts a Webservice spectrum into a KNIR one.
    * 
@@ -88,13 +122,26 @@ public class PutSpectrumHelper {
     adams.data.spectrum.SpectrumPoint	point;
     adams.data.sampledata.SampleData	report;
     Field 				field;
+    float[]				numbers;
+    float[]				amplitudes;
+    int					i;
     
     result = new adams.data.spectrum.Spectrum();
     
     // spectral data
-    for (nz.ac.waikato.adams.webservice.spectral.put.Wave wave: input.getWaves().getWave()) {
-      point = new SpectrumPoint(wave.getNumber(), wave.getAmplitude());
-      result.add(point);
+    if (isPacked(input)) {
+      numbers    = SpectrumBinaryUtils.unpackFloats(input.getWaves().getNumbers());
+      amplitudes = SpectrumBinaryUtils.unpackFloats(input.getWaves().getAmplitudes());
+      if (numbers.length != amplitudes.length)
+	throw new IllegalStateException("Number of packed wave numbers and amplitudes differ: " + numbers.length + " != " + amplitudes.length);
+      for (i = 0; i < numbers.length; i++)
+	result.add(new SpectrumPoint(numbers[i], amplitudes[i]));
+    }
+    else {
+      for (nz.ac.waikato.adams.webservice.spectral.put.Wave wave: input.getWaves().getWave()) {
+	point = new SpectrumPoint(wave.getNumber(), wave.getAmplitude());
+	result.add(point);
+      }
     }
     
     // report
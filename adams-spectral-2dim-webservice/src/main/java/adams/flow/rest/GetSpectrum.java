@@ -15,21 +15,34 @@
 
 /*
  * GetSpectrum.java
- * Copyright (C) 2018-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.rest;
 
 import adams.data.conversion.SpectrumToJson;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
 import adams.data.spectrum.SpectrumJsonUtils;
 import adams.db.SpectrumF;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
 
 /**
  * REST plugin for retrieving spectra.
@@ -53,7 +66,13 @@ public class GetSpectrum
       + "- complete report stored:\n"
       + SpectrumJsonUtils.example(false) + "\n"
       + "- specific reference and meta-data values stored:\n"
-      + SpectrumJsonUtils.example(true);
+      + SpectrumJsonUtils.example(true) + "\n"
+      + "Batches of spectra can be retrieved by uploading a JSON array or NDJSON "
+      + "stream of sample IDs, either as strings or as objects with 'id' and "
+      + "(optional) 'format'. The response lists the result for each ID and "
+      + "gets streamed while the spectra are being loaded.\n"
+      + "Single spectra can be retrieved in compact binary format by "
+      + "requesting '" + SpectrumBinaryUtils.MIME_TYPE + "' via the Accept header.";
   }
 
   /**
@@ -70,22 +89,170 @@ public class GetSpectrum
     Spectrum 		sp;
     SpectrumToJson	conv;
     String		msg;
+    OperationMetrics	metrics;
+    long		start;
+    long		now;
+    boolean		ok;
 
-    initDatabase();
-    sp = SpectrumF.getSingleton(m_DatabaseConnection).load(id, format);
-    if (sp == null) {
-      return Response.serverError().entity("Spectrum not found: " + id + "/" + format).build();
-    }
-    else {
-      conv = new SpectrumToJson();
-      conv.setInput(sp);
-      msg = conv.convert();
-      if (msg == null) {
-        return Response.ok(conv.getOutput()).build();
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/get");
+    start   = metrics.begin();
+    ok      = false;
+    try {
+      initDatabase();
+      sp  = SpectrumF.getSingleton(m_DatabaseConnection).load(id, format);
+      now = metrics.stage(OperationMetrics.STAGE_DB, start);
+      if (sp == null) {
+	return Response.serverError().entity("Spectrum not found: " + id + "/" + format).build();
       }
       else {
-	return Response.serverError().entity("Failed to convert spectrum into json: " + id + "/" + format).build();
+	conv = new SpectrumToJson();
+	conv.setInput(sp);
+	msg = conv.convert();
+	metrics.stage(OperationMetrics.STAGE_SERIALIZE, now);
+	if (msg == null) {
+	  ok = true;
+	  return Response.ok(conv.getOutput()).build();
+	}
+	else {
+	  return Response.serverError().entity("Failed to convert spectrum into json: " + id + "/" + format).build();
+	}
       }
     }
+    finally {
+      metrics.end(start, ok);
+    }
+  }
+
+  /**
+   * Retrieves a spectrum and returns it in compact binary format. Gets
+   * selected via the Accept header.
+   *
+   * @param id		the sample ID
+   * @param format	the format, eg NIR
+   * @return		the spectrum in binary format
+   * @see		SpectrumBinaryUtils#toBytes(Spectrum)
+   */
+  @GET
+  @Path("/spectrum/get/{id}/{format}")
+  @Produces(SpectrumBinaryUtils.MIME_TYPE)
+  public Response getBinary(@PathParam("id") String id, @PathParam("format") String format) {
+    Spectrum 		sp;
+    byte[]		data;
+    OperationMetrics	metrics;
+    long		start;
+    long		now;
+    boolean		ok;
+
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/get/binary");
+    start   = metrics.begin();
+    ok      = false;
+    try {
+      initDatabase();
+      sp  = SpectrumF.getSingleton(m_DatabaseConnection).load(id, format);
+      now = metrics.stage(OperationMetrics.STAGE_DB, start);
+      if (sp == null)
+	return Response.serverError().entity("Spectrum not found: " + id + "/" + format).build();
+
+      try {
+	data = SpectrumBinaryUtils.toBytes(sp);
+	metrics.stage(OperationMetrics.STAGE_SERIALIZE, now);
+	ok = true;
+	return Response.ok(data).build();
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to encode spectrum: " + id + "/" + format, e);
+	return Response.serverError().entity("Failed to encode spectrum: " + id + "/" + format).build();
+      }
+    }
+    finally {
+      metrics.end(start, ok);
+    }
+  }
+
+  /**
+   * Loads a single spectrum of a batch.
+   *
+   * @param spt		the spectrum table
+   * @param writer	for writing the result
+   * @param index	the index of the item in the batch
+   * @param reader	the reader positioned at the item
+   * @param format	the default format
+   * @throws IOException	if reading the item or writing the result fails
+   */
+  protected void getItem(SpectrumF spt, JsonWriter writer, int index, JsonReader reader, String format) throws IOException {
+    String	id;
+    String	name;
+    Spectrum	sp;
+
+    id = null;
+    if (reader.peek() == JsonToken.STRING) {
+      id = reader.nextString();
+    }
+    else if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+	name = reader.nextName();
+	if (name.equals(SpectrumBatchHelper.KEY_ID))
+	  id = reader.nextString();
+	else if (name.equals(SpectrumBatchHelper.KEY_FORMAT))
+	  format = reader.nextString();
+	else
+	  reader.skipValue();
+      }
+      reader.endObject();
+    }
+    else {
+      reader.skipValue();
+    }
+
+    if (id == null) {
+      SpectrumBatchHelper.writeResult(writer, index, null, format, false, "No sample ID", null);
+      return;
+    }
+
+    sp = spt.load(id, format);
+    if (sp == null)
+      SpectrumBatchHelper.writeResult(writer, index, id, format, false, "Spectrum not found: " + id + "/" + format, null);
+    else
+      SpectrumBatchHelper.writeResult(writer, index, id, format, true, null, sp);
+  }
+
+  /**
+   * Retrieves the spectra for the uploaded sample IDs (JSON array or NDJSON)
+   * and streams them back (JSON array).
+   *
+   * @param format	the default format, eg NIR
+   * @param content	the sample IDs
+   * @return		the results
+   */
+  @POST
+  @Path("/spectrum/get-batch/{format}")
+  @Produces("text/json")
+  public Response getBatch(@PathParam("format") final String format, final InputStream content) {
+    final SpectrumF	spt;
+    StreamingOutput	output;
+
+    initDatabase();
+    spt    = SpectrumF.getSingleton(m_DatabaseConnection);
+    output = (out) -> {
+      OperationMetrics metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/get-batch");
+      long start = metrics.begin();
+      boolean ok = false;
+      try {
+	JsonWriter writer = SpectrumJsonUtils.newJsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), false);
+	writer.beginArray();
+	SpectrumBatchHelper.process(
+	  SpectrumBatchHelper.newJsonReader(content),
+	  (int index, JsonReader reader) -> getItem(spt, writer, index, reader, format));
+	writer.endArray();
+	writer.flush();
+	ok = true;
+      }
+      finally {
+	metrics.end(start, ok);
+      }
+    };
+
+    return Response.ok(output).build();
   }
 }
@@ -0,0 +1,62 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Metrics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.rest;
+
+import adams.flow.webservice.metrics.ServiceMetrics;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * REST plugin for exposing the request metrics of the spectral web services.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Metrics
+  extends AbstractRESTPlugin {
+
+  private static final long serialVersionUID = 2471358190346820641L;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Outputs the request counters and latency percentiles of the "
+      + "spectral web services (SOAP and REST) in the Prometheus text format.\n"
+      + "The same metrics are available via JMX: " + ServiceMetrics.OBJECT_NAME;
+  }
+
+  /**
+   * Returns the metrics.
+   *
+   * @return		the metrics in Prometheus text format
+   */
+  @GET
+  @Path("/metrics")
+  @Produces("text/plain; version=0.0.4")
+  public String metrics() {
+    return ServiceMetrics.getSingleton().toPrometheus();
+  }
+}
@@ -15,20 +15,36 @@
 
 /*
  * PutSpectrum.java
- * Copyright (C) 2018-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.rest;
 
+import adams.core.Constants;
+import adams.core.MessageCollection;
 import adams.data.conversion.JsonToSpectrum;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
 import adams.data.spectrum.SpectrumJsonUtils;
 import adams.db.SpectrumF;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Savepoint;
+import java.util.logging.Level;
 
 /**
  * REST plugin for uploading spectra.
@@ -48,12 +64,20 @@ public class PutSpectrum
   @Override
   public String globalInfo() {
     return "Stores spectra in the database.\n"
-      + "Delete any spectrum that already exists with this ID/format beforehand.\n"
+      + "Any spectrum that already exists with this ID/format gets updated in place, merging the report.\n"
       + "Format:\n"
       + "- complete report stored:\n"
       + SpectrumJsonUtils.example(false) + "\n"
       + "- specific reference and meta-data values stored:\n"
-      + SpectrumJsonUtils.example(true);
+      + SpectrumJsonUtils.example(true) + "\n"
+      + "Batches of spectra can be uploaded as JSON array or as NDJSON stream "
+      + "(one spectrum per line), using the sample IDs stored in the spectra. "
+      + "All spectra of a batch get stored in a single transaction, using a "
+      + "separate database connection, and the response lists the result for "
+      + "each spectrum. Items that are not valid spectra are reported as "
+      + "failed, invalid JSON aborts the batch.\n"
+      + "Single spectra can also be uploaded in compact binary format, using "
+      + "'" + SpectrumBinaryUtils.MIME_TYPE + "' as content type.";
   }
 
   /**
@@ -72,33 +96,292 @@ public class PutSpectrum
     JsonToSpectrum 	conv;
     String		msg;
     SpectrumF 		spt;
+    Integer		dbid;
+    OperationMetrics	metrics;
+    long		start;
+    long		now;
+    boolean		ok;
 
-    initDatabase();
-    conv = new JsonToSpectrum();
-    conv.setInput(content);
-    msg = conv.convert();
-    if (msg == null) {
-      sp = (Spectrum) conv.getOutput();
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/put");
+    start   = metrics.begin();
+    ok      = false;
+    try {
+      initDatabase();
+      conv = new JsonToSpectrum();
+      conv.setInput(content);
+      msg = conv.convert();
+      now = metrics.stage(OperationMetrics.STAGE_PARSE, start);
+      if ((msg == null) && (conv.getOutput() == null))
+	msg = "No spectral data found";
+      if (msg == null) {
+	sp = (Spectrum) conv.getOutput();
+	sp.setID(id);
+	sp.setFormat(format);
+	spt  = SpectrumF.getSingleton(m_DatabaseConnection);
+	dbid = spt.upsert(sp);
+	metrics.stage(OperationMetrics.STAGE_DB, now);
+	ok   = (dbid != null) && (dbid != Constants.NO_ID);
+	return "" + dbid;
+      }
+      else {
+	return
+	  "Failed to parse JSON string:\n"
+	    + content
+	    + "\n"
+	    + "Error message:\n"
+	    + msg
+	    + "\n"
+	    + "Expected format:\n"
+	    + "- complete report stored:\n"
+	    + SpectrumJsonUtils.example(false) + "\n"
+	    + "- specific reference and meta-data values stored:\n"
+	    + SpectrumJsonUtils.example(true);
+      }
+    }
+    finally {
+      metrics.end(start, ok);
+    }
+  }
+
+  /**
+   * Stores the uploaded spectrum (in compact binary format) in the database.
+   *
+   * @param id		the sample ID
+   * @param format	the format, eg NIR
+   * @param content	the spectrum in binary format
+   * @return		the database ID or error message
+   * @see		SpectrumBinaryUtils#toBytes(Spectrum)
+   */
+  @POST
+  @Path("/spectrum/put/{id}/{format}")
+  @Consumes(SpectrumBinaryUtils.MIME_TYPE)
+  @Produces("text/plain")
+  public String putBinary(@PathParam("id") String id, @PathParam("format") String format, byte[] content) {
+    Spectrum 		sp;
+    SpectrumF 		spt;
+    Integer		dbid;
+    OperationMetrics	metrics;
+    long		start;
+    long		now;
+    boolean		ok;
+
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/put/binary");
+    start   = metrics.begin();
+    ok      = false;
+    try {
+      initDatabase();
+      try {
+	sp = SpectrumBinaryUtils.fromBytes(content);
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to decode binary spectrum: " + id + "/" + format, e);
+	return "Failed to decode binary spectrum: " + e;
+      }
+      now = metrics.stage(OperationMetrics.STAGE_PARSE, start);
       sp.setID(id);
       sp.setFormat(format);
-      spt = SpectrumF.getSingleton(m_DatabaseConnection);
-      if (spt.exists(id, format))
-        spt.remove(id, format, false);
-      return "" + spt.add(sp);
+      spt  = SpectrumF.getSingleton(m_DatabaseConnection);
+      dbid = spt.upsert(sp);
+      metrics.stage(OperationMetrics.STAGE_DB, now);
+      ok   = (dbid != null) && (dbid != Constants.NO_ID);
+      return "" + dbid;
+    }
+    finally {
+      metrics.end(start, ok);
+    }
+  }
+
+  /**
+   * Stores a single spectrum of a batch, reverting any partial changes if
+   * storing fails.
+   *
+   * @param spt		the spectrum table
+   * @param conn	the connection with the transaction
+   * @param writer	for writing the result
+   * @param index	the index of the spectrum in the batch
+   * @param sp		the spectrum to store, null if none could be read
+   * @throws IOException	if writing the result fails
+   */
+  protected void putItem(SpectrumF spt, Connection conn, JsonWriter writer, int index, Spectrum sp) throws IOException {
+    Savepoint	savepoint;
+    Integer	dbid;
+
+    if (sp == null) {
+      SpectrumBatchHelper.writeResult(writer, index, null, null, false, "No spectral data found", null);
+      return;
+    }
+    if (sp.getID().isEmpty()) {
+      SpectrumBatchHelper.writeResult(writer, index, null, sp.getFormat(), false, "No sample ID", null);
+      return;
+    }
+
+    try {
+      savepoint = conn.setSavepoint();
+    }
+    catch (Exception e) {
+      savepoint = null;
+    }
+
+    dbid = spt.upsert(conn, sp, true);
+
+    if ((dbid == null) || (dbid == Constants.NO_ID)) {
+      if (savepoint != null) {
+	try {
+	  conn.rollback(savepoint);
+	}
+	catch (Exception e) {
+	  getLogger().log(Level.SEVERE, "Failed to roll back spectrum: " + sp.getID() + "/" + sp.getFormat(), e);
+	}
+      }
+      SpectrumBatchHelper.writeResult(writer, index, sp.getID(), sp.getFormat(), false, "Failed to store spectrum", null);
     }
     else {
-      return
-	"Failed to parse JSON string:\n"
-	  + content
-	  + "\n"
-	  + "Error message:\n"
-	  + msg
-	  + "\n"
-	  + "Expected format:\n"
-	  + "- complete report stored:\n"
-	  + SpectrumJsonUtils.example(false) + "\n"
-	  + "- specific reference and meta-data values stored:\n"
-	  + SpectrumJsonUtils.example(true);
+      if (savepoint != null) {
+	try {
+	  conn.releaseSavepoint(savepoint);
+	}
+	catch (Exception e) {
+	  // ignored
+	}
+      }
+      SpectrumBatchHelper.writeResult(writer, index, sp.getID(), sp.getFormat(), true, "" + dbid, null);
+    }
+  }
+
+  /**
+   * Reads the next spectrum of a batch and stores it. Items that cannot be
+   * turned into a spectrum get recorded as failed.
+   *
+   * @param spt		the spectrum table
+   * @param conn	the connection with the transaction
+   * @param writer	for writing the result
+   * @param index	the index of the spectrum in the batch
+   * @param reader	the reader positioned at the spectrum
+   * @param format	the format, eg NIR
+   * @throws IOException	if reading the item or writing the result fails
+   */
+  protected void putItem(SpectrumF spt, Connection conn, JsonWriter writer, int index, JsonReader reader, String format) throws IOException {
+    MessageCollection	errors;
+    Spectrum		sp;
+
+    errors = new MessageCollection();
+    sp     = SpectrumBatchHelper.readItem(reader, format, errors);
+    if (!errors.isEmpty()) {
+      getLogger().severe("Failed to parse spectrum #" + index + " of batch: " + errors);
+      SpectrumBatchHelper.writeResult(writer, index, null, format, false, errors.toString(), null);
+      return;
+    }
+
+    putItem(spt, conn, writer, index, sp);
+  }
+
+  /**
+   * Opens a separate connection to the database, so that the transaction
+   * of a batch does not affect other requests using the shared connection.
+   *
+   * @return		the connection
+   * @throws Exception	if connecting fails
+   */
+  protected Connection newConnection() throws Exception {
+    if (m_DatabaseConnection.getUser().isEmpty())
+      return DriverManager.getConnection(m_DatabaseConnection.getURL());
+    else
+      return DriverManager.getConnection(m_DatabaseConnection.getURL(), m_DatabaseConnection.getUser(), m_DatabaseConnection.getPassword().getValue());
+  }
+
+  /**
+   * Stores the spectra of a batch in a single transaction.
+   *
+   * @param spt		the spectrum table
+   * @param conn	the separate connection to use for the transaction
+   * @param writer	for writing the results
+   * @param format	the format, eg NIR
+   * @param content	the spectra
+   * @return		null if successful, otherwise error message
+   */
+  protected String putItems(final SpectrumF spt, final Connection conn, final JsonWriter writer, final String format, InputStream content) {
+    String	msg;
+
+    try {
+      conn.setAutoCommit(false);
+      writer.beginArray();
+      SpectrumBatchHelper.process(
+	SpectrumBatchHelper.newJsonReader(content),
+	(int index, JsonReader reader) -> putItem(spt, conn, writer, index, reader, format));
+      writer.endArray();
+      writer.flush();
+      conn.commit();
+      return null;
+    }
+    catch (Exception e) {
+      msg = "Failed to store batch of spectra, rolled back!";
+      getLogger().log(Level.SEVERE, msg, e);
+      try {
+	conn.rollback();
+      }
+      catch (Exception ex) {
+	getLogger().log(Level.SEVERE, "Failed to roll back!", ex);
+      }
+      return msg + "\n" + e;
+    }
+  }
+
+  /**
+   * Stores the uploaded spectra (JSON array or NDJSON) in the database,
+   * using a single transaction on a separate connection.
+   *
+   * @param format	the format, eg NIR
+   * @param content	the spectra
+   * @return		the results (JSON array) or error message
+   */
+  @POST
+  @Path("/spectrum/put-batch/{format}")
+  @Produces("text/json")
+  public Response putBatch(@PathParam("format") String format, InputStream content) {
+    SpectrumF		spt;
+    Connection		conn;
+    JsonWriter		writer;
+    StringWriter	out;
+    String		msg;
+    OperationMetrics	metrics;
+    long		start;
+    boolean		ok;
+
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/put-batch");
+    start   = metrics.begin();
+    ok      = false;
+    conn    = null;
+    try {
+      initDatabase();
+      spt    = SpectrumF.getSingleton(m_DatabaseConnection);
+      out    = new StringWriter();
+      writer = SpectrumJsonUtils.newJsonWriter(out, false);
+
+      try {
+	conn = newConnection();
+      }
+      catch (Exception e) {
+	msg = "Failed to open separate database connection for batch!";
+	getLogger().log(Level.SEVERE, msg, e);
+	return Response.serverError().entity(msg + "\n" + e).build();
+      }
+
+      msg = putItems(spt, conn, writer, format, content);
+      if (msg != null)
+	return Response.serverError().entity(msg).build();
+      ok = true;
+      return Response.ok(out.toString()).build();
+    }
+    finally {
+      if (conn != null) {
+	try {
+	  conn.close();
+	}
+	catch (Exception e) {
+	  getLogger().log(Level.WARNING, "Failed to close batch connection!", e);
+	}
+      }
+      metrics.end(start, ok);
     }
   }
 }
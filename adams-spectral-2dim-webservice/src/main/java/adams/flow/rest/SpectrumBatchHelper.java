@@ -0,0 +1,233 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectrumBatchHelper.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.rest;
+
+import adams.core.MessageCollection;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumJsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Helper class for REST plugins that process batches of items. A batch is
+ * either a JSON array of items or a stream of items (e.g., NDJSON, one
+ * item per line). The items get read one at a time and results get written
+ * as JSON array with one result object per item.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectrumBatchHelper {
+
+  /** the key for the index of the item. */
+  public static final String KEY_INDEX = "index";
+
+  /** the key for the sample ID. */
+  public static final String KEY_ID = "id";
+
+  /** the key for the format. */
+  public static final String KEY_FORMAT = "format";
+
+  /** the key for the success flag. */
+  public static final String KEY_SUCCESS = "success";
+
+  /** the key for the message. */
+  public static final String KEY_MESSAGE = "message";
+
+  /** the key for the spectrum. */
+  public static final String KEY_SPECTRUM = "spectrum";
+
+  /** the reader path between two items of a batch (top-level or in top-level array). */
+  protected static final Pattern ITEM_BOUNDARY = Pattern.compile("\\$(\\[[0-9]+\\])?");
+
+  /**
+   * Interface for processing a single item of a batch.
+   */
+  public interface ItemHandler {
+
+    /**
+     * Processes the item. Must consume exactly one JSON value from the
+     * reader.
+     *
+     * @param index	the 0-based index of the item
+     * @param reader	the reader positioned at the item
+     * @throws IOException	if reading from the stream fails
+     */
+    public void handle(int index, JsonReader reader) throws IOException;
+  }
+
+  /**
+   * Creates a lenient JSON reader for the stream, which allows multiple
+   * top-level values.
+   *
+   * @param in		the stream to read from (UTF-8)
+   * @return		the reader
+   */
+  public static JsonReader newJsonReader(InputStream in) {
+    JsonReader	result;
+
+    result = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    result.setLenient(true);
+
+    return result;
+  }
+
+  /**
+   * Processes all items in the stream, either a JSON array or a sequence
+   * of top-level values.
+   *
+   * @param reader	the reader to use
+   * @param handler	for processing the items
+   * @return		the number of items processed
+   * @throws IOException	if reading fails
+   */
+  public static int process(JsonReader reader, ItemHandler handler) throws IOException {
+    int		result;
+    JsonToken	token;
+
+    result = 0;
+    try {
+      token = reader.peek();
+    }
+    catch (EOFException e) {
+      // empty batch
+      return result;
+    }
+
+    if (token == JsonToken.BEGIN_ARRAY) {
+      reader.beginArray();
+      while (reader.hasNext())
+	handler.handle(result++, reader);
+      reader.endArray();
+    }
+    else {
+      while (reader.peek() != JsonToken.END_DOCUMENT)
+	handler.handle(result++, reader);
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the next spectrum from the reader.
+   *
+   * @param reader	the reader to use
+   * @param format	the format to use, ignored if null
+   * @return		the spectrum, null if no spectral data found
+   * @throws IOException	if reading fails
+   */
+  public static Spectrum readSpectrum(JsonReader reader, String format) throws IOException {
+    Spectrum	result;
+
+    result = SpectrumJsonUtils.read(reader);
+    if ((result != null) && (format != null))
+      result.setFormat(format);
+
+    return result;
+  }
+
+  /**
+   * Checks whether the reader is positioned between two items of a batch,
+   * i.e., whether the last item got consumed completely.
+   *
+   * @param reader	the reader to check
+   * @return		true if between items
+   */
+  protected static boolean isAtItemBoundary(JsonReader reader) {
+    return ITEM_BOUNDARY.matcher(reader.getPath()).matches();
+  }
+
+  /**
+   * Reads the next item from the reader as spectrum, streaming the data
+   * rather than building a JSON tree. Items that are not JSON objects get
+   * skipped. If the item cannot be turned into a spectrum, but has been
+   * consumed completely (e.g., mismatching array lengths), the error gets
+   * recorded and the following items can still be processed. Errors in the
+   * middle of an item leave the reader in an undefined state and therefore
+   * get thrown as exception.
+   *
+   * @param reader	the reader to use
+   * @param format	the format to use, ignored if null
+   * @param errors	for recording errors of items that could be skipped
+   * @return		the spectrum, null if no spectral data found or failed to read
+   * @throws IOException	if reading fails and the reader cannot recover
+   */
+  public static Spectrum readItem(JsonReader reader, String format, MessageCollection errors) throws IOException {
+    JsonToken	token;
+
+    token = reader.peek();
+    if (token != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
+      errors.add("Expected JSON object, but got: " + token);
+      return null;
+    }
+
+    try {
+      return readSpectrum(reader, format);
+    }
+    catch (IOException e) {
+      throw e;
+    }
+    catch (Exception e) {
+      if (!isAtItemBoundary(reader))
+	throw new IOException("Failed to read item at " + reader.getPath() + ": " + e.getMessage(), e);
+      errors.add("Failed to parse spectrum: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Writes the result for a single item.
+   *
+   * @param writer	the writer to use
+   * @param index	the index of the item
+   * @param id		the sample ID, can be null
+   * @param format	the format, can be null
+   * @param success	whether the item was processed successfully
+   * @param message	the (error) message, can be null
+   * @param spectrum	the spectrum to output, can be null
+   * @throws IOException	if writing fails
+   */
+  public static void writeResult(JsonWriter writer, int index, String id, String format, boolean success, String message, Spectrum spectrum) throws IOException {
+    writer.beginObject();
+    writer.name(KEY_INDEX).value(index);
+    if (id != null)
+      writer.name(KEY_ID).value(id);
+    if (format != null)
+      writer.name(KEY_FORMAT).value(format);
+    writer.name(KEY_SUCCESS).value(success);
+    if (message != null)
+      writer.name(KEY_MESSAGE).value(message);
+    if (spectrum != null) {
+      writer.name(KEY_SPECTRUM);
+      SpectrumJsonUtils.write(writer, spectrum);
+    }
+    writer.endObject();
+  }
+}
@@ -15,21 +15,34 @@
 
 /*
  * TransformSpectrum.java
- * Copyright (C) 2018-2021 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2018-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.flow.rest;
 
+import adams.core.ObjectCopyHelper;
 import adams.data.conversion.JsonToSpectrum;
 import adams.data.conversion.SpectrumToJson;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumBinaryUtils;
 import adams.data.spectrum.SpectrumJsonUtils;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
 
 /**
  * REST plugin for filtering spectra.
@@ -41,9 +54,30 @@ public class TransformSpectrum
 
   private static final long serialVersionUID = -826056354423201513L;
 
+  /**
+   * Determines how the filter gets applied to concurrent requests.
+   */
+  public enum ConcurrencyMode {
+    /** all requests use the same filter instance (only for stateless filters). */
+    SHARED,
+    /** all requests use the same filter instance, one request at a time. */
+    SYNCHRONIZED,
+    /** each request thread uses its own copy of the (initialized) filter. */
+    PER_THREAD,
+  }
+
   /** the filter to apply. */
   protected adams.data.filter.Filter m_Filter;
 
+  /** how to handle concurrent requests. */
+  protected ConcurrencyMode m_ConcurrencyMode;
+
+  /** whether the filter has processed a spectrum (and is therefore initialized). */
+  protected transient volatile boolean m_FilterInitialized;
+
+  /** the per-thread copies of the filter. */
+  protected transient ThreadLocal<adams.data.filter.Filter> m_FilterCopies;
+
   /**
    * Returns a string describing the object.
    *
@@ -56,7 +90,17 @@ public class TransformSpectrum
       + "- complete report stored:\n"
       + SpectrumJsonUtils.example(false) + "\n"
       + "- specific reference and meta-data values stored:\n"
-      + SpectrumJsonUtils.example(true);
+      + SpectrumJsonUtils.example(true) + "\n"
+      + "Stateful or trainable filters must not be shared between concurrent "
+      + "requests, either serialize the requests or use per-thread copies of "
+      + "the filter; the copies get created from the filter once it has "
+      + "processed the first spectrum, i.e., they inherit its trained state.\n"
+      + "Batches of spectra can be filtered by uploading them as JSON array or "
+      + "as NDJSON stream (one spectrum per line). The response lists the "
+      + "result for each spectrum and gets streamed while the spectra are "
+      + "being filtered.\n"
+      + "Single spectra can also be filtered in compact binary format, using "
+      + "'" + SpectrumBinaryUtils.MIME_TYPE + "' as content type.";
   }
 
   /**
@@ -69,6 +113,21 @@ public class TransformSpectrum
     m_OptionManager.add(
       "filter", "filter",
       new adams.data.filter.PassThrough());
+
+    m_OptionManager.add(
+      "concurrency-mode", "concurrencyMode",
+      ConcurrencyMode.SHARED);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_FilterInitialized = false;
+    m_FilterCopies      = null;
   }
 
   /**
@@ -100,6 +159,76 @@ public class TransformSpectrum
     return "The filter to use for filtering the data.";
   }
 
+  /**
+   * Sets how to handle concurrent requests.
+   *
+   * @param value	the mode
+   */
+  public void setConcurrencyMode(ConcurrencyMode value) {
+    m_ConcurrencyMode = value;
+    reset();
+  }
+
+  /**
+   * Returns how to handle concurrent requests.
+   *
+   * @return		the mode
+   */
+  public ConcurrencyMode getConcurrencyMode() {
+    return m_ConcurrencyMode;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String concurrencyModeTipText() {
+    return
+      "How to apply the filter to concurrent requests; SHARED is only safe "
+	+ "for stateless filters; PER_THREAD copies the filter after it has "
+	+ "processed the first spectrum.";
+  }
+
+  /**
+   * Filters the spectrum, taking the concurrency mode into account.
+   *
+   * @param sp		the spectrum to filter
+   * @return		the filtered spectrum, null if failed
+   */
+  protected Spectrum filter(Spectrum sp) {
+    switch (m_ConcurrencyMode) {
+      case SHARED:
+	return (Spectrum) m_Filter.filter(sp);
+
+      case SYNCHRONIZED:
+	synchronized(m_Filter) {
+	  return (Spectrum) m_Filter.filter(sp);
+	}
+
+      case PER_THREAD:
+	// the first spectrum initializes the filter (e.g., training)
+	if (!m_FilterInitialized) {
+	  synchronized(m_Filter) {
+	    if (!m_FilterInitialized) {
+	      try {
+		return (Spectrum) m_Filter.filter(sp);
+	      }
+	      finally {
+		m_FilterCopies      = ThreadLocal.withInitial(() -> ObjectCopyHelper.copyObject(m_Filter));
+		m_FilterInitialized = true;
+	      }
+	    }
+	  }
+	}
+	return (Spectrum) m_FilterCopies.get().filter(sp);
+
+      default:
+	throw new IllegalStateException("Unhandled concurrency mode: " + m_ConcurrencyMode);
+    }
+  }
+
   /**
    * Filters the upload spectrum (in JSON format) with the filter and returns
    * the output of the filter again (in JSON format).
@@ -119,39 +248,185 @@ public class TransformSpectrum
     JsonToSpectrum 	j2s;
     SpectrumToJson	s2j;
     String		msg;
+    OperationMetrics	metrics;
+    long		start;
+    long		now;
+    boolean		ok;
 
-    initDatabase();
-    j2s = new JsonToSpectrum();
-    j2s.setInput(content);
-    msg = j2s.convert();
-    if (msg == null) {
-      sp = (Spectrum) j2s.getOutput();
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/transform");
+    start   = metrics.begin();
+    ok      = false;
+    try {
+      initDatabase();
+      j2s = new JsonToSpectrum();
+      j2s.setInput(content);
+      msg = j2s.convert();
+      now = metrics.stage(OperationMetrics.STAGE_PARSE, start);
+      if ((msg == null) && (j2s.getOutput() == null))
+	msg = "No spectral data found";
+      if (msg == null) {
+	sp = (Spectrum) j2s.getOutput();
+	sp.setID(id);
+	sp.setFormat(format);
+	filtered = filter(sp);
+	now      = metrics.stage(OperationMetrics.STAGE_FILTER, now);
+	if (filtered == null)
+	  return "Failed to filter spectrum with: " + m_Filter.toCommandLine();
+	s2j = new SpectrumToJson();
+	s2j.setInput(filtered);
+	msg = s2j.convert();
+	metrics.stage(OperationMetrics.STAGE_SERIALIZE, now);
+	if (msg == null) {
+	  ok = true;
+	  return (String) s2j.getOutput();
+	}
+	else {
+	  return msg;
+	}
+      }
+      else {
+	return
+	  "Failed to parse JSON string:\n"
+	    + content
+	    + "\n"
+	    + "Error message:\n"
+	    + msg
+	    + "\n"
+	    + "Expected format:\n"
+	    + "- complete report stored:\n"
+	    + SpectrumJsonUtils.example(false) + "\n"
+	    + "- specific reference and meta-data values stored:\n"
+	    + SpectrumJsonUtils.example(true);
+      }
+    }
+    finally {
+      metrics.end(start, ok);
+    }
+  }
+
+  /**
+   * Filters the uploaded spectrum (in compact binary format) with the filter
+   * and returns the output of the filter again (in compact binary format).
+   *
+   * @param id		the sample ID
+   * @param format	the format, eg NIR
+   * @param content	the spectrum in binary format
+   * @return		the spectrum or error message
+   * @see		SpectrumBinaryUtils#toBytes(Spectrum)
+   */
+  @POST
+  @Path("/spectrum/transform/{id}/{format}")
+  @Consumes(SpectrumBinaryUtils.MIME_TYPE)
+  @Produces(SpectrumBinaryUtils.MIME_TYPE)
+  public Response transformBinary(@PathParam("id") String id, @PathParam("format") String format, byte[] content) {
+    Spectrum 		sp;
+    Spectrum		filtered;
+    byte[]		data;
+    OperationMetrics	metrics;
+    long		start;
+    long		now;
+    boolean		ok;
+
+    metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/transform/binary");
+    start   = metrics.begin();
+    ok      = false;
+    try {
+      initDatabase();
+      try {
+	sp = SpectrumBinaryUtils.fromBytes(content);
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to decode binary spectrum: " + id + "/" + format, e);
+	return Response.status(Response.Status.BAD_REQUEST).entity("Failed to decode binary spectrum: " + e).build();
+      }
+      now = metrics.stage(OperationMetrics.STAGE_PARSE, start);
       sp.setID(id);
       sp.setFormat(format);
-      filtered = (Spectrum) m_Filter.filter(sp);
-      if (filtered == null)
-        return "Failed to filter spectrum with: " + m_Filter.toCommandLine();
-      s2j = new SpectrumToJson();
-      s2j.setInput(filtered);
-      msg = s2j.convert();
-      if (msg == null)
-	return (String) s2j.getOutput();
-      else
-        return msg;
+
+      try {
+	filtered = filter(sp);
+	now      = metrics.stage(OperationMetrics.STAGE_FILTER, now);
+	if (filtered == null)
+	  return Response.serverError().entity("Failed to filter spectrum with: " + m_Filter.toCommandLine()).build();
+	data = SpectrumBinaryUtils.toBytes(filtered);
+	metrics.stage(OperationMetrics.STAGE_SERIALIZE, now);
+	ok = true;
+	return Response.ok(data).build();
+      }
+      catch (Exception e) {
+	getLogger().log(Level.SEVERE, "Failed to filter spectrum: " + id + "/" + format, e);
+	return Response.serverError().entity("Failed to filter spectrum: " + e).build();
+      }
     }
-    else {
-      return
-	"Failed to parse JSON string:\n"
-	  + content
-	  + "\n"
-	  + "Error message:\n"
-	  + msg
-	  + "\n"
-	  + "Expected format:\n"
-          + "- complete report stored:\n"
-          + SpectrumJsonUtils.example(false) + "\n"
-          + "- specific reference and meta-data values stored:\n"
-          + SpectrumJsonUtils.example(true);
+    finally {
+      metrics.end(start, ok);
     }
   }
+
+  /**
+   * Filters a single spectrum of a batch.
+   *
+   * @param writer	for writing the result
+   * @param index	the index of the spectrum in the batch
+   * @param sp		the spectrum to filter, null if none could be read
+   * @throws IOException	if writing the result fails
+   */
+  protected void transformItem(JsonWriter writer, int index, Spectrum sp) throws IOException {
+    Spectrum	filtered;
+
+    if (sp == null) {
+      SpectrumBatchHelper.writeResult(writer, index, null, null, false, "No spectral data found", null);
+      return;
+    }
+
+    try {
+      filtered = filter(sp);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to filter spectrum: " + sp.getID() + "/" + sp.getFormat(), e);
+      filtered = null;
+    }
+
+    if (filtered == null)
+      SpectrumBatchHelper.writeResult(writer, index, sp.getID(), sp.getFormat(), false, "Failed to filter spectrum with: " + m_Filter.toCommandLine(), null);
+    else
+      SpectrumBatchHelper.writeResult(writer, index, sp.getID(), sp.getFormat(), true, null, filtered);
+  }
+
+  /**
+   * Filters the uploaded spectra (JSON array or NDJSON) with the filter and
+   * streams the results back (JSON array).
+   *
+   * @param format	the format, eg NIR
+   * @param content	the spectra
+   * @return		the results
+   */
+  @POST
+  @Path("/spectrum/transform-batch/{format}")
+  @Produces("text/json")
+  public Response transformBatch(@PathParam("format") final String format, final InputStream content) {
+    StreamingOutput	output;
+
+    initDatabase();
+    output = (out) -> {
+      OperationMetrics metrics = ServiceMetrics.getSingleton().get(ServiceMetrics.SERVICE_REST, "spectrum/transform-batch");
+      long start = metrics.begin();
+      boolean ok = false;
+      try {
+	JsonWriter writer = SpectrumJsonUtils.newJsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), false);
+	writer.beginArray();
+	SpectrumBatchHelper.process(
+	  SpectrumBatchHelper.newJsonReader(content),
+	  (int index, JsonReader reader) -> transformItem(writer, index, SpectrumBatchHelper.readSpectrum(reader, format)));
+	writer.endArray();
+	writer.flush();
+	ok = true;
+      }
+      finally {
+	metrics.end(start, ok);
+      }
+    };
+
+    return Response.ok(output).build();
+  }
 }
@@ -0,0 +1,214 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractSpectralServiceWithRequestLimit.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice;
+
+import adams.core.option.AbstractOptionHandler;
+
+/**
+ * Ancestor for spectral web service implementations that can limit the
+ * number of requests that get processed concurrently.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see RequestLimiter
+ */
+public abstract class AbstractSpectralServiceWithRequestLimit
+  extends AbstractOptionHandler {
+
+  private static final long serialVersionUID = 3367429196734012847L;
+
+  /** the maximum number of concurrent requests. */
+  protected int m_MaxConcurrent;
+
+  /** the maximum number of waiting requests. */
+  protected int m_QueueLimit;
+
+  /** the timeout in msec for waiting requests. */
+  protected int m_Timeout;
+
+  /** for limiting the concurrent requests. */
+  protected transient RequestLimiter m_Limiter;
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "max-concurrent", "maxConcurrent",
+      -1, -1, null);
+
+    m_OptionManager.add(
+      "queue-limit", "queueLimit",
+      -1, -1, null);
+
+    m_OptionManager.add(
+      "timeout", "timeout",
+      -1, -1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    m_Limiter = null;
+  }
+
+  /**
+   * Sets the maximum number of requests to process concurrently.
+   *
+   * @param value	the maximum, -1 for unlimited
+   */
+  public void setMaxConcurrent(int value) {
+    if ((value != 0) && getOptionManager().isValid("maxConcurrent", value)) {
+      m_MaxConcurrent = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of requests to process concurrently.
+   *
+   * @return		the maximum, -1 for unlimited
+   */
+  public int getMaxConcurrent() {
+    return m_MaxConcurrent;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxConcurrentTipText() {
+    return "The maximum number of requests to process concurrently; -1 for unlimited.";
+  }
+
+  /**
+   * Sets the maximum number of requests waiting to be processed.
+   *
+   * @param value	the limit, -1 for unlimited
+   */
+  public void setQueueLimit(int value) {
+    if (getOptionManager().isValid("queueLimit", value)) {
+      m_QueueLimit = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of requests waiting to be processed.
+   *
+   * @return		the limit, -1 for unlimited
+   */
+  public int getQueueLimit() {
+    return m_QueueLimit;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueLimitTipText() {
+    return "The maximum number of requests waiting to be processed; further requests get rejected; -1 for unlimited; only used if the number of concurrent requests is limited.";
+  }
+
+  /**
+   * Sets the timeout for requests waiting to be processed.
+   *
+   * @param value	the timeout in msec, -1 for no timeout
+   */
+  public void setTimeout(int value) {
+    if (getOptionManager().isValid("timeout", value)) {
+      m_Timeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the timeout for requests waiting to be processed.
+   *
+   * @return		the timeout in msec, -1 for no timeout
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String timeoutTipText() {
+    return "The timeout in msec for requests waiting to be processed; -1 for no timeout; only used if the number of concurrent requests is limited.";
+  }
+
+  /**
+   * Returns the request limiter, creating it if necessary.
+   *
+   * @return		the limiter, null if unlimited
+   */
+  protected synchronized RequestLimiter getLimiter() {
+    if ((m_Limiter == null) && (m_MaxConcurrent > 0))
+      m_Limiter = new RequestLimiter(m_MaxConcurrent, m_QueueLimit, m_Timeout);
+    return m_Limiter;
+  }
+
+  /**
+   * Acquires a slot for processing a request, waiting if necessary.
+   *
+   * @param limiter	the limiter to use, null if unlimited
+   * @return		null if successfully acquired, otherwise error message
+   */
+  protected String acquire(RequestLimiter limiter) {
+    if (limiter == null)
+      return null;
+
+    try {
+      limiter.acquire();
+      return null;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "Interrupted while waiting for request to be processed!";
+    }
+    catch (Exception e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Releases a previously acquired slot.
+   *
+   * @param limiter	the limiter to use, null if unlimited
+   */
+  protected void release(RequestLimiter limiter) {
+    if (limiter != null)
+      limiter.release();
+  }
+}
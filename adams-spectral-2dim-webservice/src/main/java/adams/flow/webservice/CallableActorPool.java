@@ -0,0 +1,130 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CallableActorPool.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice;
+
+import adams.core.CleanUpHandler;
+import adams.flow.core.Actor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of independently set up copies of a callable actor, allowing
+ * concurrent requests to be processed in parallel. The first slot uses the
+ * callable actor itself, the others shallow copies that share the same
+ * parent (and therefore variables and storage).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class CallableActorPool
+  implements CleanUpHandler {
+
+  /** the callable actor. */
+  protected Actor m_Callable;
+
+  /** the copies that were created. */
+  protected List<Actor> m_Copies;
+
+  /** the idle actors. */
+  protected Queue<Actor> m_Idle;
+
+  /** for limiting the concurrent requests. */
+  protected RequestLimiter m_Limiter;
+
+  /**
+   * Initializes the pool.
+   *
+   * @param callable	the callable actor to use
+   * @param size	the number of actors in the pool
+   * @param queueLimit	the maximum number of waiting requests, -1 for unlimited
+   * @param timeout	the timeout in msec for waiting requests, -1 for no timeout
+   * @throws IllegalStateException	if setting up a copy fails
+   */
+  public CallableActorPool(Actor callable, int size, int queueLimit, int timeout) {
+    Actor	copy;
+    String	msg;
+    int		i;
+
+    m_Callable = callable;
+    m_Copies   = new ArrayList<>();
+    m_Idle     = new ConcurrentLinkedQueue<>();
+    m_Limiter  = new RequestLimiter(size, queueLimit, timeout);
+
+    m_Idle.add(callable);
+    for (i = 1; i < size; i++) {
+      copy = callable.shallowCopy();
+      copy.setParent(callable.getParent());
+      msg = copy.setUp();
+      if (msg != null) {
+	cleanUp();
+	throw new IllegalStateException("Failed to set up copy #" + i + " of callable actor '" + callable.getName() + "': " + msg);
+      }
+      m_Copies.add(copy);
+      m_Idle.add(copy);
+    }
+  }
+
+  /**
+   * Returns the callable actor this pool is based on.
+   *
+   * @return		the callable actor
+   */
+  public Actor getCallable() {
+    return m_Callable;
+  }
+
+  /**
+   * Obtains an idle actor, waiting if necessary. Must be returned with
+   * {@link #release(Actor)}.
+   *
+   * @return		the actor
+   * @throws IllegalStateException	if the queue limit has been reached or the timeout expired
+   * @throws InterruptedException	if interrupted while waiting
+   */
+  public Actor acquire() throws InterruptedException {
+    m_Limiter.acquire();
+    return m_Idle.poll();
+  }
+
+  /**
+   * Returns the actor to the pool.
+   *
+   * @param actor	the actor to return
+   */
+  public void release(Actor actor) {
+    m_Idle.add(actor);
+    m_Limiter.release();
+  }
+
+  /**
+   * Wraps up and cleans up the copies.
+   */
+  @Override
+  public void cleanUp() {
+    for (Actor copy: m_Copies) {
+      copy.wrapUp();
+      copy.cleanUp();
+    }
+    m_Copies.clear();
+  }
+}
@@ -15,7 +15,7 @@
 
 /*
  * Get.java
- * Copyright (C) 2014-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.webservice;
 
@@ -47,6 +47,9 @@ public class Get
   /** the spectrum format. */
   protected String m_Format;
 
+  /** whether to send/request packed spectral data. */
+  protected boolean m_Packed;
+
   /** the service instance. */
   protected transient SpectralGetServiceService m_Service;
 
@@ -77,6 +80,10 @@ public class Get
     m_OptionManager.add(
 	"format", "format", 
 	SampleData.DEFAULT_FORMAT);
+
+    m_OptionManager.add(
+	"packed", "packed", 
+	false);
   }
 
   /**
@@ -146,6 +153,36 @@ public class Get
     return "The format of the spectrum to retrieve.";
   }
 
+  /**
+   * Sets whether to use packed float arrays for the spectral data instead of
+   * one wave element per point.
+   * 
+   * @param value	true if to use packed data
+   */
+  public void setPacked(boolean value) {
+    m_Packed = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use packed float arrays for the spectral data instead
+   * of one wave element per point.
+   * 
+   * @return		true if to use packed data
+   */
+  public boolean getPacked() {
+    return m_Packed;
+  }
+
+  /**
+   * Description of this option.
+   * 
+   * @return		description of the option
+   */
+  public String packedTipText() {
+    return "If enabled, the spectral data gets requested as packed float arrays rather than one wave element per point, which reduces the size of the messages considerably.";
+  }
+
   /**
    * Returns the classes that this client generates.
    * 
@@ -191,6 +228,7 @@ public class Get
     GetRequest request = new GetRequest();
     request.setId(m_ID);
     request.setFormat(m_Format);
+    request.setPacked(m_Packed);
     GetResponse response = m_Port.get(request);
     
     // failed to generate data?
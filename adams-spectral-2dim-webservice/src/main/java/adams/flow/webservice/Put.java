@@ -15,7 +15,7 @@
 
 /*
  * Put.java
- * Copyright (C) 2014-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.webservice;
 
@@ -43,6 +43,9 @@ public class Put
   /** input spectrum */
   protected Spectrum m_SpectrumIn;
 
+  /** whether to send/request packed spectral data. */
+  protected boolean m_Packed;
+
   /** the service instance. */
   protected transient SpectralPutServiceService m_Service;
 
@@ -59,6 +62,18 @@ public class Put
     return "Stores a spectrum using the Spectral web service.";
   }
 
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+	"packed", "packed", 
+	false);
+  }
+
   /**
    * Resets the scheme.
    */
@@ -70,6 +85,36 @@ public class Put
     m_Port    = null;
   }
 
+  /**
+   * Sets whether to use packed float arrays for the spectral data instead of
+   * one wave element per point.
+   * 
+   * @param value	true if to use packed data
+   */
+  public void setPacked(boolean value) {
+    m_Packed = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use packed float arrays for the spectral data instead
+   * of one wave element per point.
+   * 
+   * @return		true if to use packed data
+   */
+  public boolean getPacked() {
+    return m_Packed;
+  }
+
+  /**
+   * Description of this option.
+   * 
+   * @return		description of the option
+   */
+  public String packedTipText() {
+    return "If enabled, the spectral data gets sent as packed float arrays rather than one wave element per point, which reduces the size of the messages considerably.";
+  }
+
   /**
    * Returns the classes that are accepted input.
    * 
@@ -125,7 +170,7 @@ public class Put
     PutRequest request = new PutRequest();
     request.setId(m_SpectrumIn.getID());
     request.setFormat(m_SpectrumIn.getFormat());
-    request.setSpectrum(PutSpectrumHelper.knirToWebservice(m_SpectrumIn));
+    request.setSpectrum(PutSpectrumHelper.knirToWebservice(m_SpectrumIn, m_Packed));
     PutResponse response = m_Port.put(request);
     
     // failed to generate data?
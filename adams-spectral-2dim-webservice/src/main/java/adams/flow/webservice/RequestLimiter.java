@@ -0,0 +1,116 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RequestLimiter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of requests that get processed concurrently. Requests
+ * that cannot be processed immediately wait for a free slot, unless the
+ * maximum number of waiting requests has been reached or the timeout
+ * expires.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class RequestLimiter {
+
+  /** the available slots. */
+  protected Semaphore m_Slots;
+
+  /** the number of waiting requests. */
+  protected AtomicInteger m_Waiting;
+
+  /** the maximum number of waiting requests (-1 for unlimited). */
+  protected int m_QueueLimit;
+
+  /** the timeout in msec for waiting requests (-1 for no timeout). */
+  protected int m_Timeout;
+
+  /**
+   * Initializes the limiter.
+   *
+   * @param numSlots	the number of requests to process concurrently
+   * @param queueLimit	the maximum number of waiting requests, -1 for unlimited
+   * @param timeout	the timeout in msec for waiting requests, -1 for no timeout
+   */
+  public RequestLimiter(int numSlots, int queueLimit, int timeout) {
+    if (numSlots < 1)
+      throw new IllegalArgumentException("At least one slot required, provided: " + numSlots);
+
+    m_Slots      = new Semaphore(numSlots, true);
+    m_Waiting    = new AtomicInteger(0);
+    m_QueueLimit = queueLimit;
+    m_Timeout    = timeout;
+  }
+
+  /**
+   * Returns the number of requests currently waiting for a slot.
+   *
+   * @return		the number of waiting requests
+   */
+  public int getNumWaiting() {
+    return m_Waiting.get();
+  }
+
+  /**
+   * Acquires a slot, waiting if necessary.
+   *
+   * @throws IllegalStateException	if the queue limit has been reached or the timeout expired
+   * @throws InterruptedException	if interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    boolean	acquired;
+
+    if (m_Slots.tryAcquire())
+      return;
+
+    if ((m_QueueLimit > -1) && (m_Waiting.incrementAndGet() > m_QueueLimit)) {
+      m_Waiting.decrementAndGet();
+      throw new IllegalStateException("Too many pending requests (limit: " + m_QueueLimit + ")!");
+    }
+    else if (m_QueueLimit == -1) {
+      m_Waiting.incrementAndGet();
+    }
+
+    try {
+      if (m_Timeout > -1) {
+	acquired = m_Slots.tryAcquire(m_Timeout, TimeUnit.MILLISECONDS);
+	if (!acquired)
+	  throw new IllegalStateException("Timed out after " + m_Timeout + "ms waiting for request to be processed!");
+      }
+      else {
+	m_Slots.acquire();
+      }
+    }
+    finally {
+      m_Waiting.decrementAndGet();
+    }
+  }
+
+  /**
+   * Releases a previously acquired slot.
+   */
+  public void release() {
+    m_Slots.release();
+  }
+}
@@ -15,17 +15,18 @@
 
 /*
  * SimpleSpectralService.java
- * Copyright (C) 2013-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.webservice;
 
-import adams.core.option.AbstractOptionHandler;
 import adams.data.spectrum.Spectrum;
 import adams.db.DatabaseConnectionUser;
 import adams.db.SpectrumF;
 import adams.flow.core.ActorUtils;
 import adams.flow.core.GetSpectrumHelper;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
 import nz.ac.waikato.adams.webservice.spectral.get.GetRequest;
 import nz.ac.waikato.adams.webservice.spectral.get.GetResponse;
 import nz.ac.waikato.adams.webservice.spectral.get.SpectralGetService;
@@ -36,7 +37,7 @@ import nz.ac.waikato.adams.webservice.spectral.get.SpectralGetService;
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SimpleSpectralGetService
-  extends AbstractOptionHandler
+  extends AbstractSpectralServiceWithRequestLimit
   implements SpectralGetService, OwnedBySpectralGetServiceWS, DatabaseConnectionUser {
 
   /** for serialization. */
@@ -47,7 +48,7 @@ public class SimpleSpectralGetService
 
   /** the database connection. */
   protected adams.db.AbstractDatabaseConnection m_DatabaseConnection;
-  
+
   /**
    * Default Constructor.
    * <br><br>
@@ -109,21 +110,65 @@ public class SimpleSpectralGetService
    */
   @Override
   public GetResponse get(GetRequest parameters) {
+    GetResponse		result;
+    RequestLimiter	limiter;
+    OperationMetrics	metrics;
+    String		msg;
+    long		start;
+
+    metrics = ServiceMetrics.getSingleton().get("SpectralGetService", "get");
+    start   = metrics.begin();
+    limiter = getLimiter();
+    msg     = acquire(limiter);
+    if (msg != null) {
+      metrics.end(start, false);
+      m_Owner.getLogger().warning("get: " + parameters.getId() + "/" + parameters.getFormat() + " - " + msg);
+      result = new GetResponse();
+      result.setId(parameters.getId());
+      result.setFormat(parameters.getFormat());
+      result.setSuccess(false);
+      result.setMessage("Failed to load spectrum: " + msg);
+      return result;
+    }
+
+    result = null;
+    try {
+      result = doGet(parameters, metrics, metrics.stage(OperationMetrics.STAGE_WAIT, start));
+      return result;
+    }
+    finally {
+      release(limiter);
+      metrics.end(start, (result != null) && result.isSuccess());
+    }
+  }
+
+  /**
+   * Performs the actual request.
+   *
+   * @param parameters	the request
+   * @param metrics	for recording the processing stages
+   * @param start	the start of the processing
+   * @return		the response
+   */
+  protected GetResponse doGet(GetRequest parameters, OperationMetrics metrics, long start) {
     GetResponse	result;
     Spectrum	sp;
+    long	now;
 
     m_Owner.getLogger().info("get: " + parameters.getId() + "/" + parameters.getFormat());
 
     result = new GetResponse();
     
-    sp = SpectrumF.getSingleton(m_DatabaseConnection).load(parameters.getId(), parameters.getFormat());
+    sp  = SpectrumF.getSingleton(m_DatabaseConnection).load(parameters.getId(), parameters.getFormat());
+    now = metrics.stage(OperationMetrics.STAGE_DB, start);
     result.setId(parameters.getId());
     result.setFormat(parameters.getFormat());
     result.setSuccess(sp != null);
     if (sp == null)
       result.setMessage("Failed to load spectrum: " + parameters.getId() + "/" + parameters.getFormat());
     else
-      result.setSpectrum(GetSpectrumHelper.knirToWebservice(sp));
+      result.setSpectrum(GetSpectrumHelper.knirToWebservice(sp, Boolean.TRUE.equals(parameters.isPacked())));
+    metrics.stage(OperationMetrics.STAGE_SERIALIZE, now);
     
     return result;
   }
@@ -15,17 +15,19 @@
 
 /*
  * SimpleSpectralService.java
- * Copyright (C) 2013-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.webservice;
 
 import adams.core.Constants;
-import adams.core.option.AbstractOptionHandler;
+import adams.data.spectrum.Spectrum;
 import adams.db.DatabaseConnectionUser;
 import adams.db.SpectrumF;
 import adams.flow.core.ActorUtils;
 import adams.flow.core.PutSpectrumHelper;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
 import nz.ac.waikato.adams.webservice.spectral.put.PutRequest;
 import nz.ac.waikato.adams.webservice.spectral.put.PutResponse;
 import nz.ac.waikato.adams.webservice.spectral.put.SpectralPutService;
@@ -36,7 +38,7 @@ import nz.ac.waikato.adams.webservice.spectral.put.SpectralPutService;
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SimpleSpectralPutService
-  extends AbstractOptionHandler
+  extends AbstractSpectralServiceWithRequestLimit
   implements SpectralPutService, OwnedBySpectralPutServiceWS, DatabaseConnectionUser {
 
   /** for serialization. */
@@ -47,7 +49,7 @@ public class SimpleSpectralPutService
 
   /** the database connection. */
   protected adams.db.AbstractDatabaseConnection m_DatabaseConnection;
-  
+
   /**
    * Default Constructor.
    * <br><br>
@@ -109,18 +111,64 @@ public class SimpleSpectralPutService
    */
   @Override
   public PutResponse put(PutRequest parameters) {
+    PutResponse		result;
+    RequestLimiter	limiter;
+    OperationMetrics	metrics;
+    String		msg;
+    long		start;
+
+    metrics = ServiceMetrics.getSingleton().get("SpectralPutService", "put");
+    start   = metrics.begin();
+    limiter = getLimiter();
+    msg     = acquire(limiter);
+    if (msg != null) {
+      metrics.end(start, false);
+      m_Owner.getLogger().warning("put: " + parameters.getId() + "/" + parameters.getFormat() + " - " + msg);
+      result = new PutResponse();
+      result.setId(parameters.getId());
+      result.setFormat(parameters.getFormat());
+      result.setSuccess(false);
+      result.setMessage("Failed to store spectrum: " + msg);
+      return result;
+    }
+
+    result = null;
+    try {
+      result = doPut(parameters, metrics, metrics.stage(OperationMetrics.STAGE_WAIT, start));
+      return result;
+    }
+    finally {
+      release(limiter);
+      metrics.end(start, (result != null) && result.isSuccess());
+    }
+  }
+
+  /**
+   * Performs the actual request.
+   *
+   * @param parameters	the request
+   * @param metrics	for recording the processing stages
+   * @param start	the start of the processing
+   * @return		the response
+   */
+  protected PutResponse doPut(PutRequest parameters, OperationMetrics metrics, long start) {
     PutResponse		result;
     Integer		id;
+    Spectrum		sp;
+    long		now;
 
     m_Owner.getLogger().info("put: " + parameters.getId() + "/" + parameters.getFormat());
     
     result = new PutResponse();
-    id     = SpectrumF.getSingleton(m_DatabaseConnection).add(PutSpectrumHelper.webserviceToKnir(parameters.getSpectrum()));
+    sp     = PutSpectrumHelper.webserviceToKnir(parameters.getSpectrum());
+    now    = metrics.stage(OperationMetrics.STAGE_PARSE, start);
+    id     = SpectrumF.getSingleton(m_DatabaseConnection).upsert(sp);
+    metrics.stage(OperationMetrics.STAGE_DB, now);
     result.setId(parameters.getId());
     result.setFormat(parameters.getFormat());
-    result.setSuccess(id != Constants.NO_ID);
+    result.setSuccess((id != null) && (id != Constants.NO_ID));
     
-    if (id == Constants.NO_ID)
+    if ((id == null) || (id == Constants.NO_ID))
       result.setMessage("Failed to store spectrum: " + parameters.getId() + "/" + parameters.getFormat());
     else
       result.setMessage("" + id);
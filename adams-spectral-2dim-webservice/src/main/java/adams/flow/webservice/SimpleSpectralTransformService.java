@@ -15,11 +15,12 @@
 
 /*
  * SimpleSpectralService.java
- * Copyright (C) 2013-2017 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2013-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.webservice;
 
+import adams.core.CleanUpHandler;
 import adams.core.logging.LoggingHelper;
 import adams.core.option.AbstractOptionHandler;
 import adams.data.spectrum.Spectrum;
@@ -33,18 +34,26 @@ import adams.flow.core.InputConsumer;
 import adams.flow.core.OutputProducer;
 import adams.flow.core.Token;
 import adams.flow.core.TransformSpectrumHelper;
+import adams.flow.webservice.metrics.OperationMetrics;
+import adams.flow.webservice.metrics.ServiceMetrics;
 import nz.ac.waikato.adams.webservice.spectral.transform.SpectralTransformService;
 import nz.ac.waikato.adams.webservice.spectral.transform.TransformRequest;
 import nz.ac.waikato.adams.webservice.spectral.transform.TransformResponse;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Class that implements the Spectral web service.  
+ * <br><br>
+ * Requests get processed concurrently using a pool of copies of the callable
+ * transformer (one pool per action).
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SimpleSpectralTransformService
   extends AbstractOptionHandler
-  implements SpectralTransformService, OwnedBySpectralTransformServiceWS, DatabaseConnectionUser {
+  implements SpectralTransformService, OwnedBySpectralTransformServiceWS, DatabaseConnectionUser, CleanUpHandler {
 
   /** for serialization. */
   private static final long serialVersionUID = -6102580694812360595L;
@@ -54,7 +63,19 @@ public class SimpleSpectralTransformService
 
   /** the database connection. */
   protected adams.db.AbstractDatabaseConnection m_DatabaseConnection;
-  
+
+  /** the number of copies of the callable transformer to use. */
+  protected int m_PoolSize;
+
+  /** the maximum number of waiting requests. */
+  protected int m_QueueLimit;
+
+  /** the timeout in msec for waiting requests. */
+  protected int m_Timeout;
+
+  /** the pools of callable transformers (action - pool). */
+  protected transient volatile Map<String,CallableActorPool> m_Pools;
+
   /**
    * Default Constructor.
    * <br><br>
@@ -76,6 +97,130 @@ public class SimpleSpectralTransformService
     return "Simple implementation of a Spectral transform webservice.";
   }
 
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "pool-size", "poolSize",
+      1, 1, null);
+
+    m_OptionManager.add(
+      "queue-limit", "queueLimit",
+      -1, -1, null);
+
+    m_OptionManager.add(
+      "timeout", "timeout",
+      -1, -1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+    cleanUp();
+  }
+
+  /**
+   * Sets the number of copies of the callable transformer to use for
+   * processing requests concurrently.
+   *
+   * @param value	the pool size
+   */
+  public void setPoolSize(int value) {
+    if (getOptionManager().isValid("poolSize", value)) {
+      m_PoolSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of copies of the callable transformer to use for
+   * processing requests concurrently.
+   *
+   * @return		the pool size
+   */
+  public int getPoolSize() {
+    return m_PoolSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolSizeTipText() {
+    return "The number of copies of the callable transformer to use for processing requests concurrently.";
+  }
+
+  /**
+   * Sets the maximum number of requests waiting for a free transformer.
+   *
+   * @param value	the limit, -1 for unlimited
+   */
+  public void setQueueLimit(int value) {
+    if (getOptionManager().isValid("queueLimit", value)) {
+      m_QueueLimit = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of requests waiting for a free transformer.
+   *
+   * @return		the limit, -1 for unlimited
+   */
+  public int getQueueLimit() {
+    return m_QueueLimit;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String queueLimitTipText() {
+    return "The maximum number of requests waiting for a free transformer; further requests get rejected; -1 for unlimited.";
+  }
+
+  /**
+   * Sets the timeout for requests waiting for a free transformer.
+   *
+   * @param value	the timeout in msec, -1 for no timeout
+   */
+  public void setTimeout(int value) {
+    if (getOptionManager().isValid("timeout", value)) {
+      m_Timeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the timeout for requests waiting for a free transformer.
+   *
+   * @return		the timeout in msec, -1 for no timeout
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String timeoutTipText() {
+    return "The timeout in msec for requests waiting for a free transformer; -1 for no timeout.";
+  }
+
   /**
    * Determines the database connection in the flow.
    *
@@ -111,18 +256,111 @@ public class SimpleSpectralTransformService
     return m_Owner;
   }
 
+  /**
+   * Checks whether the callable actor can be used for transforming spectra.
+   *
+   * @param action	the name of the callable actor
+   * @param callable	the callable actor, can be null
+   * @return		null if usable, otherwise error message
+   */
+  protected String checkCallable(String action, Actor callable) {
+    Compatibility	comp;
+
+    // not found
+    if (callable == null)
+      return "Failed to find callable actor '" + action + "'!";
+
+    // not a transformer
+    if (!ActorUtils.isTransformer(callable))
+      return "Callable actor '" + action + "' is not a transformer!";
+
+    // wrong input/output
+    comp = new Compatibility();
+    if (!comp.isCompatible(new Class[]{Spectrum.class}, ((InputConsumer) callable).accepts()))
+      return "Callable transformer '" + action + "' does not accept " + Spectrum.class.getName() + "!";
+    if (!comp.isCompatible(((OutputProducer) callable).generates(), new Class[]{Spectrum.class}))
+      return "Callable transformer '" + action + "' does not generate " + Spectrum.class.getName() + "!";
+
+    return null;
+  }
+
+  /**
+   * Returns the pool for the action, creating it if necessary.
+   *
+   * @param action	the name of the callable transformer
+   * @return		the pool
+   * @throws IllegalStateException	if the callable actor is not usable
+   */
+  protected CallableActorPool getPool(String action) {
+    CallableActorPool	result;
+    CallableActorHelper	helper;
+    Actor		callable;
+    String		msg;
+
+    if (m_Pools == null) {
+      synchronized(this) {
+	if (m_Pools == null)
+	  m_Pools = new ConcurrentHashMap<>();
+      }
+    }
+
+    result = m_Pools.get(action);
+    if (result == null) {
+      synchronized(m_Pools) {
+	result = m_Pools.get(action);
+	if (result == null) {
+	  helper   = new CallableActorHelper();
+	  callable = helper.findCallableActor(m_Owner.getFlowContext().getRoot(), new CallableActorReference(action));
+	  msg      = checkCallable(action, callable);
+	  if (msg != null)
+	    throw new IllegalStateException(msg);
+	  result = new CallableActorPool(callable, m_PoolSize, m_QueueLimit, m_Timeout);
+	  m_Pools.put(action, result);
+	}
+      }
+    }
+
+    return result;
+  }
+
   /**
    * Transforms a spectrum.
    */
   @Override
   public TransformResponse transform(TransformRequest parameters) {
     TransformResponse		result;
-    CallableActorHelper		helper;
+    OperationMetrics		metrics;
+    long			start;
+
+    metrics = ServiceMetrics.getSingleton().get("SpectralTransformService", "transform");
+    start   = metrics.begin();
+    result  = null;
+    try {
+      result = doTransform(parameters, metrics, start);
+    }
+    finally {
+      metrics.end(start, (result != null) && result.isSuccess());
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs the actual transformation.
+   *
+   * @param parameters	the request
+   * @param metrics	for recording the processing stages
+   * @param start	the start of the request
+   * @return		the response
+   */
+  protected TransformResponse doTransform(TransformRequest parameters, OperationMetrics metrics, long start) {
+    TransformResponse		result;
+    CallableActorPool		pool;
     Actor 			callable;
-    Compatibility		comp;
     String			msg;
     Token			output;
     Spectrum			sp;
+    long			now;
 
     m_Owner.getLogger().info("transform: " + parameters.getId() + "/" + parameters.getFormat());
     
@@ -130,57 +368,39 @@ public class SimpleSpectralTransformService
     result.setId(parameters.getId());
     result.setFormat(parameters.getFormat());
 
-    helper   = new CallableActorHelper();
-    callable = helper.findCallableActor(m_Owner.getFlowContext().getRoot(), new CallableActorReference(parameters.getAction()));
-
-    // not found
-    if (callable == null) {
-      result.setSuccess(false);
-      result.setMessage("Failed to find callable actor '" + parameters.getAction() + "'!");
-      return result;
-    }
-    
-    // not a transformer
-    if (!ActorUtils.isTransformer(callable)) {
-      result.setSuccess(false);
-      result.setMessage("Callable actor '" + parameters.getAction() + "' is not a transformer!");
-      return result;
-    }
-    
-    // wrong input/output
-    comp = new Compatibility();
-    if (!comp.isCompatible(new Class[]{Spectrum.class}, ((InputConsumer) callable).accepts())) {
-      result.setSuccess(false);
-      result.setMessage("Callable transformer '" + parameters.getAction() + "' does not accept " + Spectrum.class.getName() + "!");
-      return result;
+    try {
+      pool = getPool(parameters.getAction());
     }
-    if (!comp.isCompatible(((OutputProducer) callable).generates(), new Class[]{Spectrum.class})) {
+    catch (Exception e) {
       result.setSuccess(false);
-      result.setMessage("Callable transformer '" + parameters.getAction() + "' does not generate " + Spectrum.class.getName() + "!");
+      result.setMessage(e.getMessage());
       return result;
     }
-    
+
+    callable = null;
     try {
-      synchronized(callable) {
-	((InputConsumer) callable).input(new Token(TransformSpectrumHelper.webserviceToKnir(parameters.getSpectrum())));
-	msg = callable.execute();
-	if (msg != null) {
-	  result.setSuccess(false);
-	  result.setMessage(msg);
-	  return result;
+      callable = pool.acquire();
+      now      = metrics.stage(OperationMetrics.STAGE_WAIT, start);
+      sp       = TransformSpectrumHelper.webserviceToKnir(parameters.getSpectrum());
+      now      = metrics.stage(OperationMetrics.STAGE_PARSE, now);
+      ((InputConsumer) callable).input(new Token(sp));
+      msg = callable.execute();
+      now = metrics.stage(OperationMetrics.STAGE_FILTER, now);
+      if (msg != null) {
+	result.setSuccess(false);
+	result.setMessage(msg);
+      }
+      else {
+	if (((OutputProducer) callable).hasPendingOutput()) {
+	  output = ((OutputProducer) callable).output();
+	  sp     = (Spectrum) output.getPayload();
+	  result.setSuccess(true);
+	  result.setSpectrum(TransformSpectrumHelper.knirToWebservice(sp, TransformSpectrumHelper.isPacked(parameters.getSpectrum())));
+	  metrics.stage(OperationMetrics.STAGE_SERIALIZE, now);
 	}
 	else {
-	  if (((OutputProducer) callable).hasPendingOutput()) {
-	    output = ((OutputProducer) callable).output();
-	    sp     = (Spectrum) output.getPayload();
-	    result.setSuccess(true);
-	    result.setSpectrum(TransformSpectrumHelper.knirToWebservice(sp));
-	  }
-	  else {
-	    result.setSuccess(false);
-	    result.setMessage("Callable transformer '" + parameters.getAction() + "' did not produce any output!");
-	    return result;
-	  }
+	  result.setSuccess(false);
+	  result.setMessage("Callable transformer '" + parameters.getAction() + "' did not produce any output!");
 	}
       }
     } 
@@ -188,7 +408,25 @@ public class SimpleSpectralTransformService
       result.setSuccess(false);
       result.setMessage(LoggingHelper.handleException(m_Owner, "Failed to transform data using callable transformer '" + parameters.getAction() + "'!", ex));
     }
+    finally {
+      if (callable != null)
+	pool.release(callable);
+    }
     
     return result;
   }
+
+  /**
+   * Cleans up the pools of callable transformers.
+   */
+  @Override
+  public void cleanUp() {
+    if (m_Pools != null) {
+      synchronized(m_Pools) {
+	for (CallableActorPool pool: m_Pools.values())
+	  pool.cleanUp();
+	m_Pools.clear();
+      }
+    }
+  }
 }
\ No newline at end of file
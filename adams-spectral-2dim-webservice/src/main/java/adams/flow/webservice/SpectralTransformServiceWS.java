@@ -15,11 +15,12 @@
 
 /*
  * SpectralTransformServiceWS.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.flow.webservice;
 
+import adams.core.CleanUpHandler;
 import nz.ac.waikato.adams.webservice.spectral.transform.SpectralTransformService;
 import org.apache.cxf.jaxws.EndpointImpl;
 
@@ -43,6 +44,9 @@ public class SpectralTransformServiceWS
   /** the webservice implementation to use. */
   protected SpectralTransformService m_Implementation;
 
+  /** the implementation in use. */
+  protected transient SpectralTransformService m_ActualImplementation;
+
   /**
    * Returns a string describing the object.
    *
@@ -118,6 +122,7 @@ public class SpectralTransformServiceWS
     implementer = (SpectralTransformService) WebserviceUtils.copyImplementation(m_Implementation);
     if (implementer instanceof OwnedBySpectralTransformServiceWS)
       ((OwnedBySpectralTransformServiceWS) implementer).setOwner(this);
+    m_ActualImplementation = implementer;
     m_Endpoint  = (EndpointImpl) Endpoint.publish(getURL(), implementer);
 
     javax.xml.ws.soap.SOAPBinding binding = (javax.xml.ws.soap.SOAPBinding) m_Endpoint.getBinding();
@@ -137,5 +142,8 @@ public class SpectralTransformServiceWS
       m_Endpoint.getServer().stop();
       m_Endpoint = null;
     }
+    if (m_ActualImplementation instanceof CleanUpHandler)
+      ((CleanUpHandler) m_ActualImplementation).cleanUp();
+    m_ActualImplementation = null;
   }
 }
@@ -15,7 +15,7 @@
 
 /*
  * Transform.java
- * Copyright (C) 2014-2019 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 package adams.flow.webservice;
 
@@ -43,6 +43,9 @@ public class Transform
   /** the actor to call. */
   protected String m_Action;
   
+  /** whether to send/request packed spectral data. */
+  protected boolean m_Packed;
+
   /** input spectrum */
   protected Spectrum m_SpectrumIn;
 
@@ -72,6 +75,10 @@ public class Transform
     m_OptionManager.add(
 	"action", "action", 
 	"");
+
+    m_OptionManager.add(
+	"packed", "packed", 
+	false);
   }
 
   /**
@@ -113,6 +120,36 @@ public class Transform
     return "The action (or callable actor) to execute on the server side for transforming the spectra.";
   }
 
+  /**
+   * Sets whether to use packed float arrays for the spectral data instead of
+   * one wave element per point.
+   * 
+   * @param value	true if to use packed data
+   */
+  public void setPacked(boolean value) {
+    m_Packed = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to use packed float arrays for the spectral data instead
+   * of one wave element per point.
+   * 
+   * @return		true if to use packed data
+   */
+  public boolean getPacked() {
+    return m_Packed;
+  }
+
+  /**
+   * Description of this option.
+   * 
+   * @return		description of the option
+   */
+  public String packedTipText() {
+    return "If enabled, the spectral data gets sent (and returned) as packed float arrays rather than one wave element per point, which reduces the size of the messages considerably.";
+  }
+
   /**
    * Returns the classes that are accepted input.
    * 
@@ -179,7 +216,7 @@ public class Transform
     request.setId(m_SpectrumIn.getID());
     request.setFormat(m_SpectrumIn.getFormat());
     request.setAction(m_Action);
-    request.setSpectrum(TransformSpectrumHelper.knirToWebservice(m_SpectrumIn));
+    request.setSpectrum(TransformSpectrumHelper.knirToWebservice(m_SpectrumIn, m_Packed));
     TransformResponse response = m_Port.transform(request);
     
     // failed to generate data?
@@ -0,0 +1,219 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LatencyHistogram.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice.metrics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (HDR-style): values
+ * up to 63 microseconds are stored exactly, larger values in 32 linear
+ * sub-buckets per power of 2, i.e., with a relative error of at most ~3%.
+ * The complete range of long values is covered with 1888 buckets.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class LatencyHistogram
+  implements Serializable {
+
+  private static final long serialVersionUID = -3587210367707925470L;
+
+  /** the number of bits for the sub-buckets. */
+  public static final int SUB_BITS = 5;
+
+  /** the number of sub-buckets per power of 2. */
+  public static final int SUB_COUNT = 1 << SUB_BITS;
+
+  /** the number of buckets. */
+  public static final int NUM_BUCKETS = (62 - SUB_BITS) * SUB_COUNT + 2 * SUB_COUNT;
+
+  /** the counts per bucket. */
+  protected AtomicLongArray m_Counts;
+
+  /** the number of values. */
+  protected AtomicLong m_Count;
+
+  /** the sum of the values (microseconds). */
+  protected AtomicLong m_Sum;
+
+  /** the maximum value (microseconds). */
+  protected AtomicLong m_Max;
+
+  /**
+   * Initializes the histogram.
+   */
+  public LatencyHistogram() {
+    m_Counts = new AtomicLongArray(NUM_BUCKETS);
+    m_Count  = new AtomicLong();
+    m_Sum    = new AtomicLong();
+    m_Max    = new AtomicLong();
+  }
+
+  /**
+   * Returns the bucket for the value.
+   *
+   * @param value	the value (microseconds)
+   * @return		the bucket index
+   */
+  public static int bucketIndex(long value) {
+    int		exp;
+
+    if (value < 2 * SUB_COUNT)
+      return (int) Math.max(0, value);
+    exp = 63 - Long.numberOfLeadingZeros(value);
+    return (exp - SUB_BITS) * SUB_COUNT + (int) (value >>> (exp - SUB_BITS));
+  }
+
+  /**
+   * Returns the largest value that falls into the bucket.
+   *
+   * @param index	the bucket index
+   * @return		the upper bound (microseconds, incl)
+   */
+  public static long bucketUpperBound(int index) {
+    int		exp;
+    long	mantissa;
+
+    if (index < 2 * SUB_COUNT)
+      return index;
+    exp      = index / SUB_COUNT + SUB_BITS - 1;
+    mantissa = index % SUB_COUNT + SUB_COUNT;
+    if ((mantissa == 2 * SUB_COUNT - 1) && (exp == 62))
+      return Long.MAX_VALUE;
+    return ((mantissa + 1) << (exp - SUB_BITS)) - 1;
+  }
+
+  /**
+   * Records the value.
+   *
+   * @param micros	the value in microseconds
+   */
+  public void record(long micros) {
+    long	max;
+
+    if (micros < 0)
+      micros = 0;
+    m_Counts.incrementAndGet(bucketIndex(micros));
+    m_Count.incrementAndGet();
+    m_Sum.addAndGet(micros);
+    max = m_Max.get();
+    while ((micros > max) && !m_Max.compareAndSet(max, micros))
+      max = m_Max.get();
+  }
+
+  /**
+   * Records the time that has passed since the start.
+   *
+   * @param startNanos	the start, as obtained from {@link System#nanoTime()}
+   * @return		the current time ({@link System#nanoTime()})
+   */
+  public long recordSince(long startNanos) {
+    long	now;
+
+    now = System.nanoTime();
+    record((now - startNanos) / 1000);
+
+    return now;
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return		the number of values
+   */
+  public long getCount() {
+    return m_Count.get();
+  }
+
+  /**
+   * Returns the sum of the recorded values.
+   *
+   * @return		the sum (microseconds)
+   */
+  public long getSum() {
+    return m_Sum.get();
+  }
+
+  /**
+   * Returns the largest recorded value.
+   *
+   * @return		the maximum (microseconds)
+   */
+  public long getMax() {
+    return m_Max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values.
+   *
+   * @return		the mean (microseconds), NaN if no values
+   */
+  public double getMean() {
+    long	count;
+
+    count = m_Count.get();
+    if (count == 0)
+      return Double.NaN;
+    return (double) m_Sum.get() / count;
+  }
+
+  /**
+   * Returns the value at the specified percentile, i.e., the upper bound of
+   * the bucket that contains it (but no larger than the maximum).
+   *
+   * @param percentile	the percentile (0-1)
+   * @return		the value (microseconds), 0 if no values
+   */
+  public long getPercentile(double percentile) {
+    long	count;
+    long	rank;
+    long	total;
+    int		i;
+
+    count = m_Count.get();
+    if (count == 0)
+      return 0;
+
+    rank  = Math.max(1, (long) Math.ceil(percentile * count));
+    total = 0;
+    for (i = 0; i < NUM_BUCKETS; i++) {
+      total += m_Counts.get(i);
+      if (total >= rank)
+	return Math.min(bucketUpperBound(i), m_Max.get());
+    }
+
+    return m_Max.get();
+  }
+
+  /**
+   * Removes all values.
+   */
+  public void reset() {
+    int		i;
+
+    for (i = 0; i < NUM_BUCKETS; i++)
+      m_Counts.set(i, 0);
+    m_Count.set(0);
+    m_Sum.set(0);
+    m_Max.set(0);
+  }
+}
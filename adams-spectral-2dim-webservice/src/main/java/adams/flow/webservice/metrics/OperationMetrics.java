@@ -0,0 +1,228 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OperationMetrics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice.metrics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency histograms of a single operation of a service.
+ * Typical usage:
+ * <pre>
+ * start = metrics.begin();
+ * ok    = false;
+ * try {
+ *   now = metrics.stage(OperationMetrics.STAGE_PARSE, start);
+ *   ...
+ *   now = metrics.stage(OperationMetrics.STAGE_DB, now);
+ *   ok  = ...;
+ * }
+ * finally {
+ *   metrics.end(start, ok);
+ * }
+ * </pre>
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class OperationMetrics
+  implements Serializable {
+
+  private static final long serialVersionUID = 4826071735913608237L;
+
+  /** the stage: waiting for a slot. */
+  public static final String STAGE_WAIT = "wait";
+
+  /** the stage: parsing the request. */
+  public static final String STAGE_PARSE = "parse";
+
+  /** the stage: database access. */
+  public static final String STAGE_DB = "db";
+
+  /** the stage: filtering/transforming. */
+  public static final String STAGE_FILTER = "filter";
+
+  /** the stage: serializing the response. */
+  public static final String STAGE_SERIALIZE = "serialize";
+
+  /** the stage: complete request. */
+  public static final String STAGE_TOTAL = "total";
+
+  /** the service. */
+  protected String m_Service;
+
+  /** the operation. */
+  protected String m_Operation;
+
+  /** the number of requests. */
+  protected AtomicLong m_Requests;
+
+  /** the number of failed requests. */
+  protected AtomicLong m_Errors;
+
+  /** the number of requests currently being processed. */
+  protected AtomicLong m_Active;
+
+  /** the histograms per stage. */
+  protected Map<String,LatencyHistogram> m_Stages;
+
+  /**
+   * Initializes the metrics.
+   *
+   * @param service	the service
+   * @param operation	the operation
+   */
+  public OperationMetrics(String service, String operation) {
+    m_Service   = service;
+    m_Operation = operation;
+    m_Requests  = new AtomicLong();
+    m_Errors    = new AtomicLong();
+    m_Active    = new AtomicLong();
+    m_Stages    = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the service.
+   *
+   * @return		the service
+   */
+  public String getService() {
+    return m_Service;
+  }
+
+  /**
+   * Returns the operation.
+   *
+   * @return		the operation
+   */
+  public String getOperation() {
+    return m_Operation;
+  }
+
+  /**
+   * Returns the key of service and operation.
+   *
+   * @return		the key
+   */
+  public String getKey() {
+    return m_Service + "/" + m_Operation;
+  }
+
+  /**
+   * Marks the start of a request.
+   *
+   * @return		the start time ({@link System#nanoTime()})
+   */
+  public long begin() {
+    m_Active.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the time since the start for the stage.
+   *
+   * @param stage	the stage, eg {@link #STAGE_DB}
+   * @param startNanos	the start of the stage ({@link System#nanoTime()})
+   * @return		the current time, i.e., the start of the next stage
+   */
+  public long stage(String stage, long startNanos) {
+    return getHistogram(stage).recordSince(startNanos);
+  }
+
+  /**
+   * Marks the end of a request.
+   *
+   * @param startNanos	the start of the request, as returned by {@link #begin()}
+   * @param success	whether the request was successful
+   */
+  public void end(long startNanos, boolean success) {
+    m_Active.decrementAndGet();
+    m_Requests.incrementAndGet();
+    if (!success)
+      m_Errors.incrementAndGet();
+    stage(STAGE_TOTAL, startNanos);
+  }
+
+  /**
+   * Returns the histogram for the stage, creates it if necessary.
+   *
+   * @param stage	the stage
+   * @return		the histogram
+   */
+  public LatencyHistogram getHistogram(String stage) {
+    return m_Stages.computeIfAbsent(stage, (String s) -> new LatencyHistogram());
+  }
+
+  /**
+   * Returns the stages that have been recorded so far.
+   *
+   * @return		the stages (sorted)
+   */
+  public List<String> getStages() {
+    List<String>	result;
+
+    result = new ArrayList<>(m_Stages.keySet());
+    Collections.sort(result);
+
+    return result;
+  }
+
+  /**
+   * Returns the number of requests.
+   *
+   * @return		the number
+   */
+  public long getRequests() {
+    return m_Requests.get();
+  }
+
+  /**
+   * Returns the number of failed requests.
+   *
+   * @return		the number
+   */
+  public long getErrors() {
+    return m_Errors.get();
+  }
+
+  /**
+   * Returns the number of requests currently being processed.
+   *
+   * @return		the number
+   */
+  public long getActive() {
+    return m_Active.get();
+  }
+
+  /**
+   * Resets counters and histograms.
+   */
+  public void reset() {
+    m_Requests.set(0);
+    m_Errors.set(0);
+    for (LatencyHistogram histogram: m_Stages.values())
+      histogram.reset();
+  }
+}
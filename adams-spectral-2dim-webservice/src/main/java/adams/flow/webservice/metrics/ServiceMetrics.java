@@ -0,0 +1,334 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ServiceMetrics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice.metrics;
+
+import adams.core.Utils;
+import adams.core.logging.LoggingHelper;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Registry for the request metrics of the spectral web services (SOAP and
+ * REST). The singleton gets registered with the platform MBean server
+ * under {@link #OBJECT_NAME} and can be output in the Prometheus text
+ * format via {@link #toPrometheus()}.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ServiceMetrics
+  implements ServiceMetricsMXBean {
+
+  /** the name of the MBean. */
+  public static final String OBJECT_NAME = "adams.spectral:type=ServiceMetrics";
+
+  /** the service name used by the REST plugins. */
+  public static final String SERVICE_REST = "REST";
+
+  /** the prefix for the Prometheus metrics. */
+  public static final String PREFIX = "adams_spectral_";
+
+  /** the percentiles to output. */
+  public static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+  /** the metrics per operation. */
+  protected Map<String,OperationMetrics> m_Operations;
+
+  /**
+   * Initializes the registry.
+   */
+  protected ServiceMetrics() {
+    m_Operations = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the metrics for the operation, creates them if necessary.
+   *
+   * @param service	the service
+   * @param operation	the operation
+   * @return		the metrics
+   */
+  public OperationMetrics get(String service, String operation) {
+    return m_Operations.computeIfAbsent(service + "/" + operation, (String key) -> new OperationMetrics(service, operation));
+  }
+
+  /**
+   * Returns the metrics for the operation.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the metrics, null if unknown
+   */
+  protected OperationMetrics find(String operation) {
+    return m_Operations.get(operation);
+  }
+
+  /**
+   * Returns all metrics, sorted by service and operation.
+   *
+   * @return		the metrics
+   */
+  public List<OperationMetrics> getAll() {
+    List<OperationMetrics>	result;
+
+    result = new ArrayList<>(m_Operations.values());
+    Collections.sort(result, (OperationMetrics o1, OperationMetrics o2) -> o1.getKey().compareTo(o2.getKey()));
+
+    return result;
+  }
+
+  /**
+   * Returns the operations that have been recorded so far.
+   *
+   * @return		the operations (service/operation)
+   */
+  @Override
+  public String[] getOperations() {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    for (OperationMetrics metrics: getAll())
+      result.add(metrics.getKey());
+
+    return result.toArray(new String[result.size()]);
+  }
+
+  /**
+   * Returns the number of requests of the operation.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the number, 0 if unknown
+   */
+  @Override
+  public long getRequestCount(String operation) {
+    OperationMetrics	metrics;
+
+    metrics = find(operation);
+    return (metrics == null) ? 0 : metrics.getRequests();
+  }
+
+  /**
+   * Returns the number of failed requests of the operation.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the number, 0 if unknown
+   */
+  @Override
+  public long getErrorCount(String operation) {
+    OperationMetrics	metrics;
+
+    metrics = find(operation);
+    return (metrics == null) ? 0 : metrics.getErrors();
+  }
+
+  /**
+   * Returns the number of requests of the operation currently being
+   * processed.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the number, 0 if unknown
+   */
+  @Override
+  public long getActiveCount(String operation) {
+    OperationMetrics	metrics;
+
+    metrics = find(operation);
+    return (metrics == null) ? 0 : metrics.getActive();
+  }
+
+  /**
+   * Returns the latency of the stage at the percentile.
+   *
+   * @param operation	the operation (service/operation)
+   * @param stage	the stage, eg total
+   * @param percentile	the percentile (0-1)
+   * @return		the latency in msec, 0 if unknown
+   */
+  @Override
+  public double getLatency(String operation, String stage, double percentile) {
+    OperationMetrics	metrics;
+
+    metrics = find(operation);
+    if ((metrics == null) || !metrics.getStages().contains(stage))
+      return 0;
+    return metrics.getHistogram(stage).getPercentile(percentile) / 1000.0;
+  }
+
+  /**
+   * Returns a textual summary of all operations.
+   *
+   * @return		the summary
+   */
+  @Override
+  public String getSummary() {
+    StringBuilder	result;
+    LatencyHistogram	histogram;
+
+    result = new StringBuilder();
+    for (OperationMetrics metrics: getAll()) {
+      result.append(metrics.getKey());
+      result.append(": requests=").append(metrics.getRequests());
+      result.append(", errors=").append(metrics.getErrors());
+      result.append(", active=").append(metrics.getActive());
+      result.append("\n");
+      for (String stage: metrics.getStages()) {
+	histogram = metrics.getHistogram(stage);
+	result.append("  ").append(stage).append(" (msec):");
+	result.append(" mean=").append(Utils.doubleToString(histogram.getMean() / 1000.0, 3));
+	for (double percentile: PERCENTILES)
+	  result.append(", p").append(percentile * 100).append("=").append(Utils.doubleToString(histogram.getPercentile(percentile) / 1000.0, 3));
+	result.append(", max=").append(Utils.doubleToString(histogram.getMax() / 1000.0, 3));
+	result.append("\n");
+      }
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Resets all counters and histograms.
+   */
+  @Override
+  public void reset() {
+    for (OperationMetrics metrics: m_Operations.values())
+      metrics.reset();
+  }
+
+  /**
+   * Escapes the label value for the Prometheus text format.
+   *
+   * @param value	the value to escape
+   * @return		the escaped value
+   */
+  protected static String escapeLabel(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /**
+   * Generates the labels for the operation.
+   *
+   * @param metrics	the operation
+   * @return		the labels (without curly brackets)
+   */
+  protected static String labels(OperationMetrics metrics) {
+    return "service=\"" + escapeLabel(metrics.getService()) + "\",operation=\"" + escapeLabel(metrics.getOperation()) + "\"";
+  }
+
+  /**
+   * Outputs the metrics in the Prometheus text format (version 0.0.4).
+   * Latencies are output as summaries (in seconds), with the quantiles
+   * obtained from the histograms.
+   *
+   * @return		the metrics
+   */
+  public String toPrometheus() {
+    StringBuilder		result;
+    List<OperationMetrics>	all;
+    LatencyHistogram		histogram;
+    String			labels;
+
+    result = new StringBuilder();
+    all    = getAll();
+
+    result.append("# HELP ").append(PREFIX).append("requests_total The number of requests.\n");
+    result.append("# TYPE ").append(PREFIX).append("requests_total counter\n");
+    for (OperationMetrics metrics: all)
+      result.append(PREFIX).append("requests_total{").append(labels(metrics)).append("} ").append(metrics.getRequests()).append("\n");
+
+    result.append("# HELP ").append(PREFIX).append("errors_total The number of failed requests.\n");
+    result.append("# TYPE ").append(PREFIX).append("errors_total counter\n");
+    for (OperationMetrics metrics: all)
+      result.append(PREFIX).append("errors_total{").append(labels(metrics)).append("} ").append(metrics.getErrors()).append("\n");
+
+    result.append("# HELP ").append(PREFIX).append("active_requests The number of requests currently being processed.\n");
+    result.append("# TYPE ").append(PREFIX).append("active_requests gauge\n");
+    for (OperationMetrics metrics: all)
+      result.append(PREFIX).append("active_requests{").append(labels(metrics)).append("} ").append(metrics.getActive()).append("\n");
+
+    result.append("# HELP ").append(PREFIX).append("latency_seconds The latency of the processing stages.\n");
+    result.append("# TYPE ").append(PREFIX).append("latency_seconds summary\n");
+    for (OperationMetrics metrics: all) {
+      for (String stage: metrics.getStages()) {
+	histogram = metrics.getHistogram(stage);
+	labels    = labels(metrics) + ",stage=\"" + escapeLabel(stage) + "\"";
+	for (double percentile: PERCENTILES)
+	  result.append(PREFIX).append("latency_seconds{").append(labels).append(",quantile=\"").append(percentile).append("\"} ").append(histogram.getPercentile(percentile) / 1e6).append("\n");
+	result.append(PREFIX).append("latency_seconds_sum{").append(labels).append("} ").append(histogram.getSum() / 1e6).append("\n");
+	result.append(PREFIX).append("latency_seconds_count{").append(labels).append("} ").append(histogram.getCount()).append("\n");
+      }
+    }
+
+    result.append("# HELP ").append(PREFIX).append("latency_seconds_max The maximum latency of the processing stages.\n");
+    result.append("# TYPE ").append(PREFIX).append("latency_seconds_max gauge\n");
+    for (OperationMetrics metrics: all) {
+      for (String stage: metrics.getStages()) {
+	labels = labels(metrics) + ",stage=\"" + escapeLabel(stage) + "\"";
+	result.append(PREFIX).append("latency_seconds_max{").append(labels).append("} ").append(metrics.getHistogram(stage).getMax() / 1e6).append("\n");
+      }
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Lazily creates the singleton on first access and registers it with the
+   * platform MBean server. The JVM's class initialization guarantees that
+   * this happens exactly once, without locking on subsequent accesses.
+   */
+  protected static class SingletonHolder {
+
+    /** the singleton. */
+    protected static final ServiceMetrics INSTANCE = create();
+
+    /**
+     * Creates the singleton and registers it with the platform MBean server.
+     *
+     * @return		the singleton
+     */
+    protected static ServiceMetrics create() {
+      ServiceMetrics	result;
+
+      result = new ServiceMetrics();
+      try {
+	ManagementFactory.getPlatformMBeanServer().registerMBean(result, new ObjectName(OBJECT_NAME));
+      }
+      catch (Exception e) {
+	LoggingHelper.getLogger(ServiceMetrics.class).log(Level.WARNING, "Failed to register MBean: " + OBJECT_NAME, e);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the singleton, registers it with the platform MBean server
+   * when it gets created.
+   *
+   * @return		the singleton
+   */
+  public static ServiceMetrics getSingleton() {
+    return SingletonHolder.INSTANCE;
+  }
+}
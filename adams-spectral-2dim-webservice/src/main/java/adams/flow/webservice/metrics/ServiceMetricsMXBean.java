@@ -0,0 +1,84 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ServiceMetricsMXBean.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package adams.flow.webservice.metrics;
+
+/**
+ * JMX interface of the service metrics. Operations are identified via
+ * "service/operation".
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface ServiceMetricsMXBean {
+
+  /**
+   * Returns the operations that have been recorded so far.
+   *
+   * @return		the operations (service/operation)
+   */
+  public String[] getOperations();
+
+  /**
+   * Returns the number of requests of the operation.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the number, 0 if unknown
+   */
+  public long getRequestCount(String operation);
+
+  /**
+   * Returns the number of failed requests of the operation.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the number, 0 if unknown
+   */
+  public long getErrorCount(String operation);
+
+  /**
+   * Returns the number of requests of the operation currently being
+   * processed.
+   *
+   * @param operation	the operation (service/operation)
+   * @return		the number, 0 if unknown
+   */
+  public long getActiveCount(String operation);
+
+  /**
+   * Returns the latency of the stage at the percentile.
+   *
+   * @param operation	the operation (service/operation)
+   * @param stage	the stage, eg total
+   * @param percentile	the percentile (0-1)
+   * @return		the latency in msec, 0 if unknown
+   */
+  public double getLatency(String operation, String stage, double percentile);
+
+  /**
+   * Returns a textual summary of all operations.
+   *
+   * @return		the summary
+   */
+  public String getSummary();
+
+  /**
+   * Resets all counters and histograms.
+   */
+  public void reset();
+}